@@ -0,0 +1,167 @@
+package learningGame;
+
+
+// Own packages
+import learningGame.log.Log2;
+
+import learningGame.tools.AssetManifest;
+import learningGame.tools.AssetManifest.Asset;
+import learningGame.tools.Scheduler;
+
+
+// Java packages
+import java.io.IOException;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/* 
+ * Keeps the assets of the MiniGames resident that will be played soon, and releases
+ * the assets of the MiniGames that won't be played anymore in the current session.
+ * 
+ * Each time a new word is started, the manager walks the word order from the current word
+ * ahead. The assets of the current and the next {@code lookahead} MiniGames are loaded on the
+ * blocking pool while the word screen is shown, so the first frames of a MiniGame don't have to
+ * read anything from disk. Assets that are not used by the current or any later MiniGame are
+ * released. Assets that are shared by several MiniGames are only released after the last of them.
+ * 
+ * The assets of a MiniGame are declared by it's {@code AssetManifest}.
+ */
+public class AssetResidency {
+    // The task group of the prefetching tasks.
+    final public static String GROUP = "residency";
+    
+    // The default number of MiniGames after the current one whose assets are prefetched.
+    // Can be changed with -DlearningGame.lookahead=<n>.
+    final public static int DEFAULT_LOOKAHEAD = Math.max(0, Integer.getInteger("learningGame.lookahead", 2));
+    
+    // The number of MiniGames after the current one whose assets are prefetched.
+    final private int lookahead;
+    
+    // Lock which ensures that the updates are processed one at a time.
+    final private Object lock = new Object();
+    
+    // The number of the latest update. Older updates that didn't start yet are skipped.
+    final private AtomicLong latest = new AtomicLong();
+    
+    
+    /* ----------------------------------------------------------------------------------------------------------------
+     * Constructors
+     * ----------------------------------------------------------------------------------------------------------------
+     */
+    public AssetResidency() {
+        this(DEFAULT_LOOKAHEAD);
+    }
+    
+    /* 
+     * @param lookahead the number of MiniGames after the current one whose assets are prefetched.
+     */
+    public AssetResidency(int lookahead) {
+        if (lookahead < 0) throw new IllegalArgumentException("Lookahead cannot be negative: " + lookahead);
+        this.lookahead = lookahead;
+    }
+    
+    
+    /* ----------------------------------------------------------------------------------------------------------------
+     * Functions
+     * ----------------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Updates the resident assets for the given position in the word order.
+     * Releasing and prefetching happens on the blocking pool, so this method returns immediately.
+     * 
+     * @param words all words that can occur, used to determine which assets can be released.
+     * @param order the order in which the words are played.
+     * @param current the index of the word that is played now. If it equals the length of the
+     *     order, the session is finished and all assets are released.
+     */
+    public void update(Word[] words, Word[] order, int current) {
+        Set<Asset> all = collect(words, 0, words.length);
+        Set<Asset> needed = collect(order, current, order.length);
+        Set<Asset> prefetch = collect(order, current, Math.min(order.length, current + 1 + lookahead));
+        
+        Set<Asset> release = new LinkedHashSet<Asset>(all);
+        release.removeAll(needed);
+        
+        long update = latest.incrementAndGet();
+        Scheduler.execute(GROUP, Scheduler.Pool.BLOCKING, () -> {
+            synchronized(lock) {
+                apply(update, release, prefetch);
+            }
+        });
+    }
+    
+    /* 
+     * Releases and loads the given assets.
+     * Stops when a newer update was made, since that update will be applied next.
+     * 
+     * @param update the number of the update.
+     * @param release the assets to release.
+     * @param prefetch the assets to load, in the order they are needed.
+     */
+    private void apply(long update, Set<Asset> release, Set<Asset> prefetch) {
+        if (update != latest.get()) return;
+        
+        int released = 0;
+        for (Asset asset : release) {
+            if (asset.isLoaded()) {
+                asset.release();
+                released++;
+            }
+        }
+        
+        int loaded = 0;
+        for (Asset asset : prefetch) {
+            if (update != latest.get()) break;
+            if (asset.isLoaded()) continue;
+            
+            try {
+                asset.load();
+                loaded++;
+                
+            } catch (IOException | IllegalArgumentException e) {
+                Log2.write(new Object[] {"Could not prefetch asset " + asset + ":", e}, Log2.WARNING);
+            }
+        }
+        
+        if (released > 0 || loaded > 0) {
+            Log2.write("Asset residency: released " + released + ", prefetched " + loaded + " assets.",
+                       Log2.INFO);
+        }
+    }
+    
+    /* 
+     * Collects the assets of the MiniGames of the given range of words.
+     * The assets are kept in the order of the words.
+     * 
+     * @param words the words.
+     * @param start the first index (inclusive).
+     * @param end the last index (exclusive).
+     * @return the assets of the MiniGames of the words.
+     */
+    private static Set<Asset> collect(Word[] words, int start, int end) {
+        Set<Asset> assets = new LinkedHashSet<Asset>();
+        for (int i = Math.max(0, start); i < end; i++) {
+            if (words[i] != null && words[i].hasMiniGame()) {
+                assets.addAll(AssetManifest.of(words[i].getMiniGameClass()).getAssets());
+            }
+        }
+        
+        return assets;
+    }
+    
+    
+    /* ----------------------------------------------------------------------------------------------------------------
+     * Get functions
+     * ----------------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the number of MiniGames after the current one whose assets are prefetched.
+     */
+    public int getLookahead() {
+        return lookahead;
+    }
+    
+}
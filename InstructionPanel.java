@@ -5,11 +5,13 @@ package learningGame;
 // Own packages
 import learningGame.LearningGame;
 
+import learningGame.font.TextCache;
+
 import learningGame.log.Log2;
 
 import learningGame.tools.Button2;
 import learningGame.tools.LoadImages2;
-import learningGame.tools.MultiTool;
+import learningGame.tools.RichTextLabel;
 
 
 // Java packages
@@ -21,8 +23,8 @@ import java.awt.event.ActionListener;
 
 import java.io.IOException;
 
-import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingConstants;
 
 
 // tmp
@@ -36,7 +38,7 @@ public class InstructionPanel extends JPanel {
     final private String buttonText;
     final private Runnable r;
     
-    private JLabel label;
+    private RichTextLabel label;
     private Button2 button;
     final private static int BAR_WIDTH = 20;
     
@@ -58,8 +60,9 @@ public class InstructionPanel extends JPanel {
      * Creates the GUI of the panel.
      */
     private void createGUI() {
-        label = new JLabel("<html>" + MultiTool.toHTMLSpace(text) + "</html>");
-        label.setFont(label.getFont().deriveFont(20F));
+        label = new RichTextLabel(text, true);
+        label.setFont(TextCache.getFont(label.getFont(), 20F));
+        label.setVerticalAlignment(SwingConstants.CENTER);
         add(label);
         
         try {
@@ -4,15 +4,22 @@ package learningGame;
 
 // Own packages
 import learningGame.log.Log2;
+import learningGame.miniGame.model.InputRecording;
 
 import learningGame.music.PlayMusic;
 
 import learningGame.tools.Button2;
+import learningGame.tools.DecodedImageCache;
+import learningGame.tools.GameLoop;
 import learningGame.tools.Key;
 import learningGame.tools.KeyDetector;
+import learningGame.tools.LoadImages2;
+import learningGame.tools.LoopController;
 import learningGame.tools.MultiTool;
+import learningGame.tools.PerfMonitor;
+import learningGame.tools.Scheduler;
+import learningGame.tools.TaskGraph;
 import learningGame.tools.TerminalErrorMessage;
-import learningGame.tools.TimerTool;
 
 
 // Java packages
@@ -56,6 +63,8 @@ public class LearningGame extends JFrame {
     final public static String IMG_SPRITE_DIR = WORKING_DIR + "img\\sprites\\";
     final public static String IMG_WORD_DIR = WORKING_DIR + "img\\word_images\\";
     final public static String RESULT_FILE_LOC = WORKING_DIR + "data\\data_log.log";
+    final public static String PERF_FILE_LOC = WORKING_DIR + "data\\perf_log.log";
+    final public static String RECORDING_DIR = WORKING_DIR + "data\\recordings\\";
     
     // The time out of the minigames
     final public static long TIME_OUT = 5000;
@@ -67,6 +76,20 @@ public class LearningGame extends JFrame {
             @Override
             public void run() {
                 Log2.write(" === Started final shutdown === ", Log2.INFO);
+                
+                // Dump the timings of the unfinished session.
+                if (PerfMonitor.getHistogram(PerfMonitor.Phase.FRAME).getCount() > 0) {
+                    PerfMonitor.dump(PERF_FILE_LOC);
+                }
+                
+                for (String line : Scheduler.getStatLines()) {
+                    Log2.write("Scheduler: " + line, Log2.INFO);
+                }
+                
+                Log2.write("Image cache: " + LoadImages2.getCache().getStatLine(), Log2.INFO);
+                Log2.write("Image sources: " + LoadImages2.getSourceCache().getStatLine(), Log2.INFO);
+                Log2.write("Decoded image cache: " + DecodedImageCache.getStatLine(), Log2.INFO);
+                
                 Log2.close();
             }
         });
@@ -78,8 +101,20 @@ public class LearningGame extends JFrame {
     // The image file name for the application.
     final public static String appIconFile = WORKING_DIR + "img\\icon.png";
     
-    // The frames per second.
-    final public static int FPS = 30;
+    // The updates per second. Can be changed with -DlearningGame.ups=<n>, e.g. 60 or 120 on
+    // fast machines and 20 on slow machines. The gameplay speed does not depend on this value.
+    final public static int FPS = Math.max(1, Integer.getInteger("learningGame.ups", 30));
+    
+    // The frames per second when the window is not focused. The MiniGames are not updated then.
+    final public static int IDLE_FPS = 5;
+    
+    // Whether the MiniGames are actively rendered. Passive Swing painting is used as fall back.
+    final public static boolean ACTIVE_RENDERING = true;
+    
+    // Whether the input of the MiniGames is recorded to {@code RECORDING_DIR}.
+    // Only meant for debugging, since the recordings are never removed.
+    // Can be enabled with -DlearningGame.recordInput=true.
+    final public static boolean RECORD_INPUT = Boolean.getBoolean("learningGame.recordInput");
     
     // The KeyDetector used to detect the key presses between updates.
     final private KeyDetector kd = new KeyDetector();
@@ -96,8 +131,9 @@ public class LearningGame extends JFrame {
     // Whether the current frame is in full screen.
     private boolean fullScreen = false;
     
-    // The game timer
-    private TimerTool timer;
+    // The game loop and it's controller.
+    private GameLoop loop;
+    private LoopController loopController;
     
     // The start screen
     private StartScreen startScreen;
@@ -105,13 +141,22 @@ public class LearningGame extends JFrame {
     // The score screen
     private ScoreScreen scoreScreen;
     
-    // Array containing all different MiniGame classes.
-    final private static Word[] words = MultiTool.listToArray
-        (Word.createWordList(WORD_FILE, MINIGAME_DIR, IMG_WORD_DIR), Word.class);
+    // Array containing all words. Read by the preloader, or when they are requested the first time.
+    private static volatile Word[] words;
+    
+    // The tasks which load the resources at startup.
+    final private TaskGraph preloader = Preloader.createGraph(this);
+    
+    // Keeps the assets of the upcoming MiniGames loaded.
+    final private AssetResidency residency = new AssetResidency();
     
     // Array containing the order in which the words are asked.
     private Word[] wordOrder;
     
+    // The order of the next session. Is decided while the start screen is shown,
+    // so the assets of it's first MiniGames can be loaded in advance.
+    private Word[] nextWordOrder;
+    
     // The current Word that is active according to {@code miniGameOrder}.
     private int curWordNum = 0;
     
@@ -134,6 +179,9 @@ public class LearningGame extends JFrame {
     public LearningGame() {
         super(appName);
         
+        // Load the resources in the background while the start screen is shown.
+        preloader.start();
+        
         this.getContentPane().setBackground(new Color(0, 0, 0, 255)); // Black
         
         SwingUtilities.invokeLater(() -> {
@@ -146,9 +194,12 @@ public class LearningGame extends JFrame {
             addKeyBindings();
             addListeners();
             
-            // Start timer
-            timer = new TimerTool(0L, 1000L/FPS, () -> update());
-            timer.start();
+            // Start the game loop
+            loop = new GameLoop(FPS, () -> update(), (alpha) -> render(alpha));
+            PerfMonitor.setFrameBudget(loop.getStepNanos());
+            loopController = new LoopController(loop, FPS, IDLE_FPS);
+            loopController.setFocused(isFocused());
+            loop.start();
             
             
             //---------------------------------------------------------------------------------------------------------
@@ -189,15 +240,42 @@ public class LearningGame extends JFrame {
     }
     
     /* 
-     * This method is called for every frame change.
-     * Should be only called by the timer.
+     * This method is called for every update.
+     * Should be only called by the game loop.
      */
     private void update() {
         if (curMiniGameHandler != null) {
-            curMiniGameHandler.update();
+            curMiniGameHandler.update(loop.getStepNanos() / 1_000_000_000.0);
+        }
+    }
+    
+    /* 
+     * This method is called for every frame change.
+     * Should be only called by the game loop.
+     * 
+     * @param alpha the interpolation factor between the previous and the next update.
+     */
+    private void render(double alpha) {
+        MiniGameHandler handler = curMiniGameHandler;
+        if (handler != null) {
+            handler.render(alpha);
         }
     }
     
+    /* 
+     * @return the game loop.
+     */
+    protected GameLoop getGameLoop() {
+        return loop;
+    }
+    
+    /* 
+     * @return the controller of the game loop.
+     */
+    protected LoopController getLoopController() {
+        return loopController;
+    }
+    
     /* 
      * @return the miniGameHandler that is currently active.
      */
@@ -224,6 +302,17 @@ public class LearningGame extends JFrame {
             }
         });
         
+        // Add keybinding for toggling the performance overlay (F6 key)
+        this.getRootPane().getInputMap().put(Key.F6.toKeyStroke(),
+                                             "toggle_perf_overlay");
+        this.getRootPane().getActionMap().put("toggle_perf_overlay", 
+                                              new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                PerfMonitor.setOverlayVisible(!PerfMonitor.isOverlayVisible());
+            }
+        });
+        
         // Add keybinding for exiting full screen (ESC key)
         this.getRootPane().getInputMap().put(Key.ESC.toKeyStroke(),
                                              "exit_full_screen");
@@ -259,10 +348,29 @@ public class LearningGame extends JFrame {
     }
     
     /* 
+     * Reads the words from the word file if this didn't happen yet.
+     * 
      * @return the words array.
      */
     public static Word[] getWords() {
-        return words;
+        Word[] result = words;
+        if (result == null) {
+            synchronized(LearningGame.class) {
+                if ((result = words) == null) {
+                    words = result = MultiTool.listToArray
+                        (Word.createWordList(WORD_FILE, MINIGAME_DIR, IMG_WORD_DIR), Word.class);
+                }
+            }
+        }
+        
+        return result;
+    }
+    
+    /* 
+     * @return the tasks which load the resources at startup.
+     */
+    public TaskGraph getPreloader() {
+        return preloader;
     }
     
     /* 
@@ -275,6 +383,7 @@ public class LearningGame extends JFrame {
      *     }
      */
     public static Word getRandomWord(ArrayList<Word> exclude) {
+        Word[] words = getWords();
         if (exclude == null) return words[random.nextInt(words.length)];
         
         ArrayList<Word> allowedWords = new ArrayList<Word>();
@@ -294,9 +403,7 @@ public class LearningGame extends JFrame {
      */
     @SuppressWarnings("unchecked") // For the cast from Object[] to Class[]
     private void startMiniGames() {
-        wordOrder = (Word[]) MultiTool.shuffleArray
-            ((Word[]) 
-                 MultiTool.copyArray(words));
+        wordOrder = takeWordOrder();
         /*
         miniGameOrder = (Class<MiniGame>[]) MultiTool.shuffleArray
             ((Class<MiniGame>[]) MultiTool.copyArray(miniGames));*/
@@ -306,6 +413,30 @@ public class LearningGame extends JFrame {
         endMiniGame(); // Setup the MiniGame to be played and play it.
     }
     
+    /* 
+     * Decides the word order of the next session if this didn't happen yet, and prefetches
+     * the assets of the first MiniGames of that order.
+     */
+    synchronized void prepareWordOrder() {
+        if (nextWordOrder != null) return;
+        
+        nextWordOrder = (Word[]) MultiTool.shuffleArray
+            ((Word[]) 
+                 MultiTool.copyArray(getWords()));
+        residency.update(getWords(), nextWordOrder, 0);
+    }
+    
+    /* 
+     * @return the word order of the next session. A new order is decided for the
+     *     session after it.
+     */
+    private synchronized Word[] takeWordOrder() {
+        prepareWordOrder();
+        Word[] order = nextWordOrder;
+        nextWordOrder = null;
+        return order;
+    }
+    
     /* 
      * Sets the frame to full screen or restores it to it's previous window state.
      * 
@@ -397,6 +528,28 @@ public class LearningGame extends JFrame {
             // Do closing operation stuff.
             Log2.write(" === Closing application === ", Log2.INFO);
         }
+        
+        // Called when the window is minimized and restored.
+        @Override
+        public void windowIconified(WindowEvent e) {
+            if (loopController != null) loopController.pause(LoopController.ICONIFIED);
+        }
+        
+        @Override
+        public void windowDeiconified(WindowEvent e) {
+            if (loopController != null) loopController.resume(LoopController.ICONIFIED);
+        }
+        
+        // Called when the window gains or loses the focus.
+        @Override
+        public void windowActivated(WindowEvent e) {
+            if (loopController != null) loopController.setFocused(true);
+        }
+        
+        @Override
+        public void windowDeactivated(WindowEvent e) {
+            if (loopController != null) loopController.setFocused(false);
+        }
     };
     
     ComponentListener cl = new ComponentAdapter() {
@@ -406,6 +559,17 @@ public class LearningGame extends JFrame {
             // Do resize stuff.
             updateSizeChildren();
         }
+        
+        // Called when the window is hidden and shown again.
+        @Override
+        public void componentHidden(ComponentEvent e) {
+            if (loopController != null) loopController.pause(LoopController.HIDDEN);
+        }
+        
+        @Override
+        public void componentShown(ComponentEvent e) {
+            if (loopController != null) loopController.resume(LoopController.HIDDEN);
+        }
     };
     
     /* 
@@ -428,6 +592,10 @@ public class LearningGame extends JFrame {
             }
         }
         
+        // Prefetch the assets of the next MiniGames while the word screen is shown,
+        // and release the assets that are not needed anymore.
+        residency.update(getWords(), wordOrder, curWordNum);
+        
         if (word != null) {
             // Create a new MiniGameHandler
             curMiniGameHandler = new MiniGameHandler(this, word, langQ, langA, () -> endMiniGame(), TIME_OUT);
@@ -468,6 +636,10 @@ public class LearningGame extends JFrame {
                 Log2.write(e);
             }
             
+            // Log the timings of this session.
+            PerfMonitor.dump(PERF_FILE_LOC);
+            PerfMonitor.reset();
+            
             scoreScreen = new ScoreScreen(totalScore, langQ, langA, "Again?", true, () -> reset());
             this.add(scoreScreen);
         }
@@ -489,7 +661,7 @@ public class LearningGame extends JFrame {
         totalScore = new Score();
         
         // Create and add the StartScreen
-        startScreen = new StartScreen(() -> {
+        startScreen = new StartScreen(preloader, () -> {
             remove(startScreen);
             langQ = startScreen.getLangQ();
             langA = startScreen.getLangA();
@@ -499,6 +671,9 @@ public class LearningGame extends JFrame {
         
         add(startScreen);
         
+        // The preloader only prepares the first session.
+        if (preloader.isFinished(Preloader.WORDS)) prepareWordOrder();
+        
         // Update the size of the active children.
         updateSizeChildren();
     }
@@ -506,6 +681,21 @@ public class LearningGame extends JFrame {
     
     public static void main(String[] args) {
         LearningGame lg = new LearningGame();
+        
+        // Replay a recorded MiniGame session with "-replay <file>".
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals("-replay")) {
+                String fileName = args[i + 1];
+                SwingUtilities.invokeLater(() -> {
+                    try {
+                        Replayer.replay(lg, InputRecording.load(fileName), true);
+                        
+                    } catch (IOException e) {
+                        Log2.write(e);
+                    }
+                });
+            }
+        }
     }
     
 }
\ No newline at end of file
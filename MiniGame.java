@@ -7,14 +7,27 @@ import learningGame.LearningGame;
 import learningGame.Score;
 
 import learningGame.font.FontLoader;
+import learningGame.font.TextCache;
 
 import learningGame.log.Log2;
 
+import learningGame.miniGame.model.InputEvent;
+import learningGame.miniGame.model.InputRecording;
+
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.ActiveRenderer;
+import learningGame.tools.BackgroundLayer;
 import learningGame.tools.ImageTools;
 import learningGame.tools.Key;
 import learningGame.tools.KeyDetector;
+import learningGame.tools.PerfMonitor;
+import learningGame.tools.PerfMonitor.Phase;
+import learningGame.tools.ScaledSpriteCache;
+import learningGame.tools.Scheduler;
+import learningGame.tools.TileRenderer;
+import learningGame.tools.scene.Node;
+import learningGame.tools.scene.SceneGraph;
 
 
 // Java packages
@@ -23,14 +36,26 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.MouseInfo;
+import java.awt.Point;
+import java.awt.PointerInfo;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.font.GlyphVector;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import javax.swing.JLayeredPane;
+import javax.swing.SwingUtilities;
 
 
 abstract public class MiniGame extends JLayeredPane implements MouseMotionListener, MouseListener {
@@ -69,6 +94,10 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
     // The time stamp from when the start() method was invoked.
     protected long startTimeStamp;
     
+    // The simulated time (in ms). Advances with the delta time of each update, so the
+    // MiniGame runs at the same speed independent of the update rate.
+    private double simTime;
+    
     // The total time left to complete the MiniGame.
     // Must be an instance of Object to check for initialisation.
     protected Long timeLeft;
@@ -80,6 +109,71 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
     // Whether the MiniGame succeded or not.
     protected boolean succes = false;
     
+    // The active renderer of this MiniGame. Null if passive painting is used.
+    // Is only used on the event dispatch thread.
+    private volatile ActiveRenderer activeRenderer;
+    
+    // The damaged area that is not yet painted by the event dispatch thread, and whether a frame
+    // was already handed over to it. Both are guarded by {@code frameLock}.
+    final private Object frameLock = new Object();
+    private Rectangle pendingDamage;
+    private boolean framePosted = false;
+    
+    // The input events that are applied at the start of the next update.
+    final private ConcurrentLinkedQueue<InputEvent> inputQueue = new ConcurrentLinkedQueue<InputEvent>();
+    
+    // The recording of the input of this MiniGame. Null if the input is not recorded.
+    private InputRecording recording;
+    
+    // The recording that is replayed, and the next tick to replay. Null if no recording is replayed.
+    private InputRecording replay;
+    private int replayTick = 0;
+    
+    // The relative mouse location of the current update. Null if not yet sampled.
+    private double[] mouseSample;
+    
+    // The entities of the MiniGame. Drawn on top of the background, and receives the mouse
+    // events of this panel.
+    final protected SceneGraph scene = new SceneGraph();
+    
+    // The sprites of the MiniGame pre-scaled to their drawn size. Invalidated on resize.
+    final protected ScaledSpriteCache spriteCache = new ScaledSpriteCache();
+    
+    // The background pre-rendered at the size of the MiniGame. Rendered again on resize.
+    // Is created when first used, see {@link #getBackgroundLayer()}.
+    private volatile BackgroundLayer backgroundLayer;
+    final private Object backgroundLock = new Object();
+    
+    // Whether the whole MiniGame has to be repainted in the next frame.
+    private volatile boolean repaintAll = true;
+    
+    // The counter text that was last rendered, and the height of the area of the counter.
+    private String counterText;
+    private int counterHeight = -1;
+    
+    // The area of the performance overlay that was last painted. Null if not painted.
+    private volatile Rectangle overlayBounds;
+    
+    // Paints the frame in parallel tiles. Null if the frame is painted by the calling thread.
+    private volatile TileRenderer tileRenderer = (TileRenderer.ENABLED ? new TileRenderer() : null);
+    
+    // Paints the background and the entities of a single tile.
+    final private TileRenderer.TilePainter tilePainter = new TileRenderer.TilePainter() {
+        // The entities per tile of the frame that is being painted.
+        private List<List<Node>> bins;
+        
+        @Override
+        public void prepare(Rectangle[] tiles) {
+            bins = scene.bin(tiles);
+        }
+        
+        @Override
+        public void paintTile(Graphics2D g2d, int tile) {
+            paintBackground(g2d);
+            scene.paint(g2d, bins.get(tile));
+        }
+    };
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -95,6 +189,9 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
         
         backgroundColor = new Color(190, 190, 190);
         counterColor = Color.BLACK;
+        
+        scene.setSpriteCache(spriteCache);
+        setActiveRendering(LearningGame.ACTIVE_RENDERING);
     }
     
     /* ----------------------------------------------------------------------------------------------------------------
@@ -156,6 +253,22 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
         return started && !stopped;
     }
     
+    /* 
+     * @return the layer used to draw the background. Is created on the first call.
+     */
+    final protected BackgroundLayer getBackgroundLayer() {
+        BackgroundLayer layer = backgroundLayer;
+        if (layer == null) {
+            synchronized(backgroundLock) {
+                if ((layer = backgroundLayer) == null) {
+                    backgroundLayer = layer = createBackgroundLayer();
+                }
+            }
+        }
+        
+        return layer;
+    }
+    
     /* ----------------------------------------------------------------------------------------------------------------
      * Other functions
      * ----------------------------------------------------------------------------------------------------------------
@@ -166,6 +279,8 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
     final private void addListeners() {
         addMouseMotionListener(this);
         addMouseListener(this);
+        addMouseMotionListener(scene.getMouseRouter());
+        addMouseListener(scene.getMouseRouter());
         addSubListeners();
     }
     
@@ -175,6 +290,8 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
     final private void removeListeners() {
         removeMouseMotionListener(this);
         removeMouseListener(this);
+        removeMouseMotionListener(scene.getMouseRouter());
+        removeMouseListener(scene.getMouseRouter());
         removeSubListeners();
     }
     
@@ -189,9 +306,17 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
             this.add(ip, 0);
             // Update size and location of the instruction panel.
             setBounds(getX(), getY(), getWidth(), getHeight());
+            spriteCache.invalidate();
             resized(getWidth(), getHeight());
+            repaintAll();
             repaint();
-            update(new Key[0], System.currentTimeMillis());
+            
+            simTime = (replay == null ? System.currentTimeMillis() : replay.getInitTimeStamp());
+            if (recording != null) recording.setInitTimeStamp((long) simTime);
+            update(new Key[0], (long) simTime, 0.0);
+            
+            // The instructions were already read in the replayed session.
+            if (replay != null) instructionRead();
         }
     }
     
@@ -201,19 +326,33 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
     final private void instructionRead() {
         this.remove(ip);
         ip = null;
+        repaintAll();
         resized(getWidth(), getHeight());
         startMiniGame();
         timeLeft = timeOut;
-        startTimeStamp = System.currentTimeMillis();
+        startTimeStamp = (replay == null ? (long) simTime : replay.getStartTimeStamp());
+        if (recording != null) recording.setStartTimeStamp(startTimeStamp);
         addListeners();
         started = true;
     }
     
     /* 
      * Updates the frame for the minigame.
+     * When a recording is replayed, the recorded delta time is used instead of the given one.
+     * 
+     * @param dt the time (in sec) since the previous update.
      */
-    final public void update() {
-        long time = System.currentTimeMillis();
+    final public void update(double dt) {
+        if (replay != null && started) {
+            if (!hasReplayInput()) return;
+            simTime = replay.getTimeStamp(replayTick);
+            dt = replay.getDeltaTime(replayTick);
+            
+        } else {
+            simTime += dt * 1000.0;
+        }
+        
+        long time = (long) simTime;
         timeLeft = timeOut - (time - startTimeStamp);
         
         if (started && (finished || timeLeft < 0)) {
@@ -221,16 +360,351 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
         }
         
         if (started && !stopped) {
-            if (kd == null || finished) {
-                update(new Key[0], System.currentTimeMillis());
+            long perfStart = PerfMonitor.start();
+            
+            // Gather the input of this update.
+            Key[] keys;
+            List<InputEvent> events;
+            mouseSample = null;
+            
+            if (replay != null) {
+                keys = toKeys(replay.getKeys(replayTick));
+                events = replay.getEvents(replayTick);
+                replayTick++;
                 
             } else {
-                kd.update();
-                update(kd.getKeysPressed(), time);
+                if (kd == null || finished) {
+                    keys = new Key[0];
+                    
+                } else {
+                    kd.update();
+                    keys = kd.getKeysPressed();
+                }
+                
+                events = new ArrayList<InputEvent>();
+                InputEvent event;
+                while ((event = inputQueue.poll()) != null) {
+                    events.add(event);
+                }
+            }
+            
+            if (recording != null) {
+                String[] keyCodes = new String[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    keyCodes[i] = Integer.toString(keys[i].getKey());
+                }
+                
+                recording.addTick(time, dt, keyCodes);
+            }
+            
+            // Apply the input events.
+            for (InputEvent event : events) {
+                if (event.isMouseSample()) {
+                    mouseSample = new double[] {event.getArg(0), event.getArg(1)};
+                    
+                } else {
+                    if (recording != null) recording.addEvent(event);
+                    applyInput(event, time);
+                }
+            }
+            
+            update(keys, time, dt);
+            
+            PerfMonitor.end(Phase.UPDATE, perfStart);
+        }
+    }
+    
+    /* 
+     * Queues an input event. The event is applied at the start of the next update
+     * via {@code applyInput(InputEvent, long)}.
+     * Use this method instead of directly changing the state from an event listener,
+     * so the input can be recorded and replayed.
+     * 
+     * @param event the event to queue.
+     */
+    final protected void queueInput(InputEvent event) {
+        if (replay == null) inputQueue.add(event);
+    }
+    
+    /* 
+     * Samples the location of the mouse for the current update.
+     * When a recording is replayed, the recorded location is returned instead.
+     * 
+     * @return the location of the mouse relative to this MiniGame, or null if unknown.
+     */
+    final protected Point getMouseLocation() {
+        if (mouseSample == null && replay == null) {
+            try {
+                PointerInfo info = MouseInfo.getPointerInfo();
+                if (info == null || getWidth() <= 0 || getHeight() <= 0) return null;
+                
+                Point mouse = info.getLocation();
+                Point loc = getLocationOnScreen();
+                mouseSample = new double[] {
+                    ((double) (mouse.x - loc.x)) / getWidth(),
+                    ((double) (mouse.y - loc.y)) / getHeight()
+                };
+                
+                if (recording != null && isRunning()) {
+                    recording.addEvent(new InputEvent(InputEvent.MOUSE, mouseSample[0], mouseSample[1]));
+                }
+                
+            } catch (IllegalStateException e) {
+                // This might occur when the window is going to or from full screen.
+                return null;
+            }
+        }
+        
+        if (mouseSample == null) return null;
+        return new Point((int) (mouseSample[0] * getWidth()), (int) (mouseSample[1] * getHeight()));
+    }
+    
+    /* 
+     * Creates a seed for a random generator of this MiniGame.
+     * The seed is recorded, and when a recording is replayed the recorded seed is returned.
+     * 
+     * @param name the name of the random generator.
+     * @return the seed for the random generator.
+     */
+    final protected long createSeed(String name) {
+        if (replay != null) {
+            Long seed = replay.getSeed(name);
+            if (seed != null) return seed;
+            
+            Log2.write("No seed \"" + name + "\" was recorded. Replay might differ.", Log2.WARNING);
+        }
+        
+        long seed = new Random().nextLong();
+        if (recording != null) recording.putSeed(name, seed);
+        return seed;
+    }
+    
+    /* 
+     * @param keyCodes the key codes of the keys.
+     * @return the keys with the given key codes. Invalid key codes are ignored.
+     */
+    private static Key[] toKeys(String[] keyCodes) {
+        List<Key> keys = new ArrayList<Key>(keyCodes.length);
+        for (String keyCode : keyCodes) {
+            try {
+                keys.add(new Key(Integer.parseInt(keyCode)));
+                
+            } catch (NumberFormatException e) {
+                Log2.write("Invalid key in recording: " + keyCode, Log2.WARNING);
+            }
+        }
+        
+        return keys.toArray(new Key[keys.size()]);
+    }
+    
+    /* 
+     * Records the input of this MiniGame. Must be invoked before the MiniGame is started.
+     * 
+     * @param recording the recording to store the input in, or null to stop recording.
+     */
+    final public void useRecording(InputRecording recording) {
+        this.recording = recording;
+    }
+    
+    /* 
+     * Replays the input of the given recording instead of the user input.
+     * Must be invoked before the MiniGame is started.
+     * 
+     * @param replay the recording to replay.
+     */
+    final public void useReplay(InputRecording replay) {
+        this.replay = replay;
+        this.replayTick = 0;
+    }
+    
+    /* 
+     * @return the recording of the input of this MiniGame, or null if the input is not recorded.
+     */
+    final public InputRecording getRecording() {
+        return recording;
+    }
+    
+    /* 
+     * @return the name of the Scheduler task group of this MiniGame.
+     *     The tasks of this group are cancelled when the MiniGame is stopped or terminated.
+     */
+    final public String getTaskGroup() {
+        return getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(this));
+    }
+    
+    /* 
+     * @return whether there is replay input left for the next update.
+     */
+    final public boolean hasReplayInput() {
+        return replay != null && replayTick < replay.getNumTicks();
+    }
+    
+    /* 
+     * Renders the frame for the minigame.
+     * Can be invoked from any thread: the painting itself is done on the event dispatch thread.
+     * The state of the last update is drawn. The game loop only renders a frame after it
+     * executed updates, so interpolating between two updates would not be visible.
+     * 
+     * @param alpha the interpolation factor between the previous update (0.0) and the next update (1.0).
+     */
+    final public void render(double alpha) {
+        // Only the damaged area is painted.
+        Rectangle damage = takeDamage();
+        if (activeRenderer == null) {
+            if (damage != null) repaint(damage);
+            return;
+        }
+        
+        // Swing components may only be painted on the event dispatch thread. When the previous
+        // frame was not yet painted, the damage is added to it instead of posting another frame.
+        synchronized(frameLock) {
+            if (damage != null) pendingDamage = union(pendingDamage, damage);
+            if (framePosted) return;
+            framePosted = true;
+        }
+        
+        SwingUtilities.invokeLater(() -> paintFrame());
+    }
+    
+    /* 
+     * Paints the damage of the posted frames. Is invoked on the event dispatch thread.
+     */
+    private void paintFrame() {
+        Rectangle damage;
+        synchronized(frameLock) {
+            damage = pendingDamage;
+            pendingDamage = null;
+            framePosted = false;
+        }
+        
+        ActiveRenderer renderer = activeRenderer;
+        if (renderer == null || !renderer.render(damage)) {
+            if (damage != null) repaint(damage);
+        }
+    }
+    
+    /* 
+     * Determines the area that changed since the previous frame, and resets it.
+     * This is the union of the damaged area of the scene, the counter (if it's text changed)
+     * and the performance overlay (if visible).
+     * 
+     * @return the area to paint, or null if nothing changed.
+     */
+    private Rectangle takeDamage() {
+        Rectangle damage = scene.takeDamage();
+        
+        // The counter.
+        String text = getCounterText();
+        if (!Objects.equals(text, counterText)) {
+            counterText = text;
+            
+            if (counterHeight < 0) {
+                counterHeight = 50 + getFontMetrics(TextCache.getFont(TEXT_FONT, 50F)).getDescent() + 1;
             }
+            
+            damage = union(damage, new Rectangle(0, 0, getWidth(), counterHeight));
         }
         
-        repaint();
+        // The time up text is animated over the whole MiniGame.
+        if (started && timeLeft != null && timeLeft <= 0) repaintAll = true;
+        
+        // The performance overlay is updated every frame.
+        Rectangle overlay = overlayBounds;
+        if (PerfMonitor.isOverlayVisible()) {
+            if (overlay == null) repaintAll = true;
+            else damage = union(damage, overlay);
+            
+        } else if (overlay != null) {
+            damage = union(damage, overlay);
+            overlayBounds = null;
+        }
+        
+        if (repaintAll) {
+            repaintAll = false;
+            return new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        
+        return damage;
+    }
+    
+    /* 
+     * @param r1 the first rectangle. Is allowed to be null.
+     * @param r2 the second rectangle.
+     * @return the union of both rectangles. {@code r1} is modified if it is not null.
+     */
+    private static Rectangle union(Rectangle r1, Rectangle r2) {
+        if (r1 == null) return new Rectangle(r2);
+        r1.add(r2);
+        return r1;
+    }
+    
+    /* 
+     * Marks the whole MiniGame to be repainted in the next frame.
+     * Use this when something changes that is not tracked by the scene (e.g. a moving background).
+     */
+    final protected void repaintAll() {
+        repaintAll = true;
+    }
+    
+    /* 
+     * @return the text of the counter, or null if the counter is not shown.
+     */
+    private String getCounterText() {
+        Long left = timeLeft;
+        if (!started || left == null || left <= 0) return null;
+        return left.toString();
+    }
+    
+    /* 
+     * Sets whether the frames of the MiniGame are actively rendered on the event dispatch thread,
+     * or passively painted by Swing.
+     * 
+     * @param active whether to use active rendering.
+     */
+    final public void setActiveRendering(boolean active) {
+        if (active && activeRenderer == null) {
+            activeRenderer = new ActiveRenderer(this);
+            
+        } else if (!active && activeRenderer != null) {
+            // The renderer is disposed after the frames that were already posted.
+            ActiveRenderer renderer = activeRenderer;
+            activeRenderer = null;
+            SwingUtilities.invokeLater(() -> renderer.dispose());
+            repaint();
+        }
+    }
+    
+    /* 
+     * @return whether the MiniGame is actively rendered.
+     */
+    final public boolean isActiveRendering() {
+        return activeRenderer != null;
+    }
+    
+    /* 
+     * Sets whether the frames are painted in parallel tiles by a {@code TileRenderer},
+     * or directly by the painting thread.
+     * The default can be set with -DlearningGame.tileRendering=true.
+     * 
+     * @param tiled whether to use tile rendering.
+     */
+    final public void setTileRendering(boolean tiled) {
+        if (tiled && tileRenderer == null) {
+            tileRenderer = new TileRenderer();
+            repaintAll();
+            
+        } else if (!tiled && tileRenderer != null) {
+            tileRenderer.dispose();
+            tileRenderer = null;
+            repaintAll();
+        }
+    }
+    
+    /* 
+     * @return whether the frames are painted in parallel tiles.
+     */
+    final public boolean isTileRendering() {
+        return tileRenderer != null;
     }
     
     /* 
@@ -269,6 +743,11 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
             stopped = true;
             removeListeners();
             cleanUp();
+            Scheduler.cancelGroup(getTaskGroup());
+            setActiveRendering(false);
+            setTileRendering(false);
+            spriteCache.invalidate();
+            invalidateBackgroundLayer();
             PlayMusic.stopAllMusic();
             if (r != null) r.run();
         }
@@ -284,6 +763,11 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
         if (!stopped) {
             stopped = true;
             cleanUp();
+            Scheduler.cancelGroup(getTaskGroup());
+            setActiveRendering(false);
+            setTileRendering(false);
+            spriteCache.invalidate();
+            invalidateBackgroundLayer();
             PlayMusic.stopAllMusic();
         }
     }
@@ -303,6 +787,9 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
         }
         
         if (resized) {
+            // The sprites are drawn at different sizes from now on.
+            spriteCache.invalidate();
+            repaintAll();
             resized(width, height);
         }
         
@@ -324,11 +811,35 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
      */
     @Override
     final protected void paintComponent(Graphics g) {
+        long perfStart = PerfMonitor.start();
         super.paintComponent(g);
         
         // Convert graphics object
         Graphics2D g2d = (Graphics2D) g;
+        prepareFrame();
+        
+        TileRenderer renderer = tileRenderer;
+        if (renderer != null) {
+            renderer.render(g2d, getWidth(), getHeight(), tilePainter);
+            
+        } else {
+            long perfBackground = PerfMonitor.start();
+            paintBackground(g2d);
+            PerfMonitor.end(Phase.BACKGROUND, perfBackground);
+            
+            // Draw the entities.
+            scene.paint(g2d);
+        }
         
+        PerfMonitor.end(Phase.PAINT_COMPONENT, perfStart);
+    }
+    
+    /* 
+     * Paints the background color and the background image.
+     * 
+     * @param g2d the graphics object to draw on.
+     */
+    private void paintBackground(Graphics2D g2d) {
         // Paint the background
         g2d.setPaint(backgroundColor);
         g2d.fillRect(0, 0, getWidth() - 1, getHeight() - 1);
@@ -343,6 +854,13 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
         g2d.setTransform(g2dTrans);
     }
     
+    /* 
+     * This method is called once before each frame is painted, on the painting thread.
+     * Override this method to sample the state that must be the same in the whole frame.
+     * When tile rendering is used, the frame is painted by several threads afterwards.
+     */
+    protected void prepareFrame() { }
+    
     /* 
      * Overrides the paint method.
      * Note:
@@ -352,6 +870,7 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
      */
     @Override
     public void paint(Graphics g) {
+        long perfStart = PerfMonitor.start();
         super.paint(g);
         
         // Convert graphics object
@@ -365,35 +884,46 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
                 g2d.setPaint(counterColor);
                 
                 if (timeLeft > 0) {
+                    // The digits are copied from a pre-rendered atlas.
                     String text = timeLeft.toString();
-                    g2d.setFont(TEXT_FONT.deriveFont(50F));
-                    int textWidth = g2d.getFontMetrics().stringWidth(text);
-                    g2d.drawString(text, (getWidth() - textWidth) / 2, 50);
+                    TextCache.DigitAtlas atlas
+                        = TextCache.getDigitAtlas(TextCache.getFont(TEXT_FONT, 50F), counterColor);
+                    atlas.draw(g2d, text, (getWidth() - atlas.getWidth(text)) / 2, 50);
                     
                 } else {
                     String text = (succes
                                        ? "felicitazioni!"
                                        : "Time's up!");
                     
-                    g2d.setFont(TEXT_FONT.deriveFont(100F));
-                    Rectangle2D bounds = g2d.getFontMetrics().getStringBounds(text, g2d);
+                    Font font = TextCache.getFont(TEXT_FONT, 100F);
+                    Rectangle2D bounds = TextCache.getBounds(text, font);
                     double textWidth = bounds.getWidth();
                     double textHeight = bounds.getHeight();
-                    int ascent = g2d.getFontMetrics().getAscent();
+                    double ascent = -bounds.getY();
                     
                     double angle = Math.PI/12.0 * Math.sin
                         ((System.currentTimeMillis() % 500L) / 500.0 * 2*Math.PI);
                     
+                    // The glyphs are looked up before rotating, since the rotation is part of the
+                    // font render context and changes every frame, which would miss the cache.
+                    GlyphVector glyphs = TextCache.getGlyphs(text, font, g2d.getFontRenderContext());
                     g2d.rotate(angle, getWidth() / 2, getHeight() / 2);
-                    g2d.drawString(text,
-                                   (int) ((getWidth() - textWidth) / 2),
-                                   (int) ((getHeight() - textHeight) / 2 + ascent));
+                    g2d.drawGlyphVector(glyphs,
+                                        (int) ((getWidth() - textWidth) / 2),
+                                        (int) ((getHeight() - textHeight) / 2 + ascent));
                 }
             }
             
             // Restore the g2d transformation.
             g2d.setTransform(g2dTrans);
         }
+        
+        PerfMonitor.end(Phase.PAINT, perfStart);
+        
+        // Draw the performance overlay on top of everything.
+        if (PerfMonitor.isOverlayVisible()) {
+            overlayBounds = PerfMonitor.drawOverlay(g2d, 5, 5);
+        }
     }
     
     /* 
@@ -401,11 +931,27 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
      * Override this method to paint something else then the background.
      */
     protected void drawBackground(Graphics2D g2d, BufferedImage background) {
-        if (background != null) {
-            g2d.scale(((double) getWidth())  / background.getWidth(),
-                      ((double) getHeight()) / background.getHeight());
-            g2d.drawImage(background, 0, 0, null);
-        }
+        getBackgroundLayer().paint(g2d, background, backgroundColor, getWidth(), getHeight(), 0);
+    }
+    
+    /* 
+     * Invalidates the background layer. No action is taken if it wasn't created yet.
+     */
+    final private void invalidateBackgroundLayer() {
+        BackgroundLayer layer = backgroundLayer;
+        if (layer != null) layer.invalidate();
+    }
+    
+    /* 
+     * Creates the layer used to draw the background.
+     * Override this method to use a scrolling layer.
+     * This method is invoked the first time the layer is used, so subclasses
+     * can depend on their own state.
+     * 
+     * @return a new background layer.
+     */
+    protected BackgroundLayer createBackgroundLayer() {
+        return new BackgroundLayer(false);
     }
     
     /* ----------------------------------------------------------------------------------------------------------------
@@ -437,14 +983,24 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
      * 
      * @param keys the keys that were pressed since the previous update.
      * @param timeStamp the start of the update cycle.
+     * @param dt the time (in sec) since the previous update.
      */
-    abstract protected void update(Key[] keys, long timeStamp);
+    abstract protected void update(Key[] keys, long timeStamp, double dt);
     
     /* 
      * This method is always called when the MiniGame is about to shut down.
      */
     abstract protected void cleanUp();
     
+    /* 
+     * This method is invoked at the start of an update for each queued input event.
+     * Override this method to handle the events queued via {@code queueInput(InputEvent)}.
+     * 
+     * @param event the event to apply.
+     * @param timeStamp the start of the update cycle.
+     */
+    protected void applyInput(InputEvent event, long timeStamp) { }
+    
     /* 
      * @param the word which has this MiniGame assoiated with it.
      * @param mistakes the number of wrong buttons that were pressed in the word screen.
@@ -466,7 +1022,7 @@ abstract public class MiniGame extends JLayeredPane implements MouseMotionListen
     abstract protected BufferedImage getBackgroundImage();
     
     /* 
-     * @return the text to be displayed for the instruction panel. Supports HTML.
+     * @return the text to be displayed for the instruction panel. Lines are separated by "\n".
      */
     abstract protected String getInstruction();
     
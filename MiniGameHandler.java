@@ -5,12 +5,22 @@ package learningGame;
 // Owm packages
 import learningGame.log.Log2;
 
+import learningGame.miniGame.model.InputRecording;
+
+import learningGame.tools.AssetManifest;
 import learningGame.tools.KeyDetector;
 import learningGame.tools.ModCursors;
+import learningGame.tools.PerfMonitor;
+import learningGame.tools.PerfMonitor.Phase;
 import learningGame.tools.TerminalErrorMessage;
 
 
 // Java packages
+import java.io.IOException;
+
+import java.text.SimpleDateFormat;
+
+import java.util.Date;
 
 
 public class MiniGameHandler {
@@ -102,9 +112,14 @@ public class MiniGameHandler {
      * Method to handle the setup of the word screen.
      */
     public void begin() {
+        long perfStart = PerfMonitor.start();
+        
         // Check state
         checkState(State.STATE_NONE);
         
+        // Keep the assets of the miniGame in the image cache until it has ended.
+        pinAssets(true);
+        
         // Create new wordScreen
         wordScreen = new WordScreen(word, langQ, langA, () -> endWordScreen());
         
@@ -114,12 +129,16 @@ public class MiniGameHandler {
         // Set settings of the wordScreen
         lg.add(wordScreen);
         setBounds(x, y, width, height);
+        
+        PerfMonitor.end(Phase.STATE_TRANSITION, perfStart);
     }
     
     /* 
      * Method to handle the ending of the word screen.
      */
     public void endWordScreen() {
+        long perfStart = PerfMonitor.start();
+        
         // Check state
         checkState(State.STATE_SHOW_WORD_SCREEN);
         
@@ -132,6 +151,8 @@ public class MiniGameHandler {
         mistakes = wordScreen.getNumMistakes();
         
         startMiniGame();
+        
+        PerfMonitor.end(Phase.STATE_TRANSITION, perfStart);
     }
     
     /* 
@@ -159,6 +180,10 @@ public class MiniGameHandler {
         miniGame.setLocation(x, y);
         miniGame.setSize(width, height);
         miniGame.useKeyDetector(kd);
+        if (LearningGame.RECORD_INPUT) {
+            miniGame.useRecording(new InputRecording(miniGame.getClass().getName(), timeOut));
+        }
+        
         miniGame.start();
         setBounds(x, y, width, height);
     }
@@ -167,6 +192,8 @@ public class MiniGameHandler {
      * Method to handle the ending of the miniGame.
      */
     public void miniGameEnded() {
+        long perfStart = PerfMonitor.start();
+        
         // Check state
         checkState(State.STATE_SHOW_MINI_GAME);
         
@@ -176,9 +203,50 @@ public class MiniGameHandler {
         // Remove miniGame actions
         score = miniGame.getScore(word, mistakes);
         lg.remove(miniGame);
+        saveRecording();
+        pinAssets(false);
         lg.setCursor(ModCursors.DEFAULT_CURSOR);
         
         startScoreScreen();
+        
+        PerfMonitor.end(Phase.STATE_TRANSITION, perfStart);
+    }
+    
+    /* 
+     * Pins or unpins the assets of the miniGame of the word in the image cache.
+     * 
+     * @param pin whether to pin or to unpin the assets.
+     */
+    private void pinAssets(boolean pin) {
+        if (!word.hasMiniGame()) return;
+        
+        AssetManifest manifest = AssetManifest.of(word.getMiniGameClass());
+        try {
+            if (pin) manifest.pin();
+            else manifest.unpin();
+            
+        } catch (IOException e) {
+            Log2.write(new Object[] {"Could not " + (pin ? "pin" : "unpin") + " the assets of word "
+                                         + word + ":", e}, Log2.WARNING);
+        }
+    }
+    
+    /* 
+     * Saves the input recording of the miniGame, if any.
+     */
+    private void saveRecording() {
+        InputRecording recording = miniGame.getRecording();
+        if (recording == null) return;
+        
+        String fileName = LearningGame.RECORDING_DIR + miniGame.getClass().getSimpleName() + "_"
+            + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".rec";
+        
+        try {
+            recording.save(fileName);
+            
+        } catch (IOException e) {
+            Log2.write(e);
+        }
     }
     
     /* 
@@ -211,6 +279,8 @@ public class MiniGameHandler {
      * Method to handle the ending of the score screen.
      */
     private void endScoreScreen() {
+        long perfStart = PerfMonitor.start();
+        
         // Check state
         checkState(State.STATE_SHOW_SCORE_SCREEN);
         
@@ -220,6 +290,9 @@ public class MiniGameHandler {
         lg.remove(scoreScreen);
         lg.setCursor(ModCursors.DEFAULT_CURSOR);
         
+        // The clean up starts the next word, so it is not part of this transition.
+        PerfMonitor.end(Phase.STATE_TRANSITION, perfStart);
+        
         cleanUp();
     }
     
@@ -256,8 +329,10 @@ public class MiniGameHandler {
     
     /* 
      * The update method. Invokes the update method of the active panel.
+     * 
+     * @param dt the time (in sec) since the previous update.
      */
-    public void update() {
+    public void update(double dt) {
         if (state == State.STATE_SHOW_WORD_SCREEN) {
             if (wordScreen == null) {
                 Log2.write("Current wordScreen is null while it was active!", Log2.ERROR);
@@ -268,7 +343,7 @@ public class MiniGameHandler {
                 Log2.write("Current miniGame is null while it was active!", Log2.ERROR);
 
             } else {
-                miniGame.update();
+                miniGame.update(dt);
             }
             
         } else if (state == State.STATE_SHOW_SCORE_SCREEN) {
@@ -286,6 +361,18 @@ public class MiniGameHandler {
         }
     }
     
+    /* 
+     * The render method. Invokes the render method of the active MiniGame.
+     * 
+     * @param alpha the interpolation factor between the previous and the next update.
+     */
+    public void render(double alpha) {
+        if (state == State.STATE_SHOW_MINI_GAME) {
+            MiniGame game = miniGame;
+            if (game != null) game.render(alpha);
+        }
+    }
+    
     /* 
      * Sets the width and heigh of the panel currently shown.
      * 
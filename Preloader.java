@@ -0,0 +1,155 @@
+package learningGame;
+
+
+// Own packages
+import learningGame.font.FontLoader;
+
+import learningGame.log.Log2;
+
+import learningGame.tools.Button2;
+import learningGame.tools.LoadImages2;
+import learningGame.tools.ModCursors;
+import learningGame.tools.Scheduler;
+import learningGame.tools.SpriteAtlas;
+import learningGame.tools.TaskGraph;
+
+
+// Java packages
+import java.io.IOException;
+
+
+/* 
+ * Defines the tasks that load the resources at startup.
+ * Previously the resources were loaded by a serial chain of static initializers, and the sprite
+ * sheets, word images and sounds were loaded the first time they were used during the game.
+ * The tasks are executed in parallel while the start screen is shown, so nothing has to be
+ * read from disk anymore once the game is started.
+ * 
+ * The tasks and their dependencies:
+ *     - FONTS: registers the fonts in the font directory.
+ *     - CURSORS: reads the cursor images.
+ *     - WORDS: reads the word list.
+ *     - CLASSES: initializes the MiniGame classes. Depends on FONTS and WORDS, since
+ *       the MiniGames read their fonts when they are initialized.
+ *     - SPRITES: resolves the frames of all sprites of the sprite atlas.
+ *     - INTERFACE: reads the images of the buttons and backgrounds.
+ *     - WORD_IMAGES: reads the images of all words. Depends on WORDS.
+ *     - FIRST_MINI_GAMES: decides the word order of the next session, and prefetches the assets
+ *       (including the sound clips) of it's first MiniGames. Depends on WORDS.
+ * No sound is played on the start screen, so the other clips are not opened here. They are
+ * loaded by the {@code AssetResidency} while the session progresses.
+ * Everything that is loaded here is still loaded on demand when it is requested before
+ * it's task has finished.
+ */
+public class Preloader {
+    // The name of the task group of the preloading tasks.
+    final public static String GROUP = "preload";
+    
+    // The names of the tasks.
+    final public static String FONTS = "fonts";
+    final public static String CURSORS = "cursors";
+    final public static String WORDS = "words";
+    final public static String CLASSES = "classes";
+    final public static String SPRITES = "sprites";
+    final public static String INTERFACE = "interface";
+    final public static String WORD_IMAGES = "word images";
+    final public static String FIRST_MINI_GAMES = "first minigames";
+    
+    
+    /* ----------------------------------------------------------------------------------------------------------------
+     * Constructor
+     * ----------------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * This is a static singleton class. No instances should be made.
+     */
+    @Deprecated
+    private Preloader() { }
+    
+    
+    /* ----------------------------------------------------------------------------------------------------------------
+     * Functions
+     * ----------------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param lg the game whose next session is prepared.
+     * @return a new graph containing the preloading tasks. The graph is not yet started.
+     */
+    public static TaskGraph createGraph(LearningGame lg) {
+        return new TaskGraph(GROUP)
+            .add(FONTS, Scheduler.Pool.BLOCKING, () -> FontLoader.loadAll())
+            .add(CURSORS, Scheduler.Pool.BLOCKING, () -> loadCursors())
+            .add(WORDS, Scheduler.Pool.BLOCKING, () -> LearningGame.getWords())
+            .add(CLASSES, Scheduler.Pool.CPU, () -> initMiniGames(), FONTS, WORDS)
+            .add(SPRITES, Scheduler.Pool.BLOCKING, () -> loadSprites())
+            .add(INTERFACE, Scheduler.Pool.BLOCKING, () -> loadInterface())
+            .add(WORD_IMAGES, Scheduler.Pool.BLOCKING, () -> loadWordImages(), WORDS)
+            .add(FIRST_MINI_GAMES, Scheduler.Pool.CPU, () -> lg.prepareWordOrder(), WORDS);
+    }
+    
+    /* 
+     * Reads the cursor images.
+     * 
+     * @throws ClassNotFoundException iff the cursor class doesn't exist anymore.
+     */
+    private static void loadCursors() throws ClassNotFoundException {
+        // The cursors are created by the static initializer of the class,
+        // so initializing the class reads all cursor images.
+        Class.forName(ModCursors.class.getName(), true, ModCursors.class.getClassLoader());
+    }
+    
+    /* 
+     * Initializes the MiniGame classes of all words.
+     * 
+     * @throws ClassNotFoundException iff a MiniGame class doesn't exist anymore.
+     */
+    private static void initMiniGames() throws ClassNotFoundException {
+        for (Word word : LearningGame.getWords()) {
+            if (!word.hasMiniGame()) continue;
+            
+            Class<MiniGame> miniGameClass = word.getMiniGameClass();
+            Class.forName(miniGameClass.getName(), true, miniGameClass.getClassLoader());
+        }
+    }
+    
+    /* 
+     * Resolves the frames of all sprites.
+     * 
+     * @throws IOException iff the definitions or a sheet could not be read.
+     */
+    private static void loadSprites() throws IOException {
+        for (String name : SpriteAtlas.getNames()) {
+            SpriteAtlas.getFrames(name);
+        }
+    }
+    
+    /* 
+     * Reads the images of the buttons and of the backgrounds which are not sprites.
+     * 
+     * @throws IOException iff an image could not be read.
+     */
+    private static void loadInterface() throws IOException {
+        Button2.loadDefaultImages();
+        WordScreen.loadImages();
+        
+        // The background of the whack MiniGames.
+        LoadImages2.ensureLoadedAndGetImage(LearningGame.WORKING_DIR + "img\\green_dot.png");
+    }
+    
+    /* 
+     * Reads the images of all words.
+     * A missing image is logged, and doesn't prevent reading the other images.
+     */
+    private static void loadWordImages() {
+        for (Word word : LearningGame.getWords()) {
+            try {
+                word.loadImages();
+                
+            } catch (IOException | IllegalArgumentException e) {
+                Log2.write(new Object[] {"Could not preload the images of word " + word + ":", e},
+                           Log2.WARNING);
+            }
+        }
+    }
+    
+}
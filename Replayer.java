@@ -0,0 +1,125 @@
+package learningGame;
+
+
+// Own packages
+import learningGame.log.Log2;
+
+import learningGame.miniGame.model.InputRecording;
+
+import learningGame.tools.LoopController;
+import learningGame.tools.Scheduler;
+
+
+// Java packages
+import java.awt.Insets;
+
+import javax.swing.SwingUtilities;
+
+
+/* 
+ * Replays a recorded MiniGame session.
+ * The recorded updates are executed as fast as possible instead of at the normal update rate,
+ * and since the recorded seeds, time stamps and inputs are used, the session is exactly reproduced.
+ */
+public class Replayer {
+    // The reason for pausing the game loop during a replay.
+    final private static String REPLAY = "replay";
+    
+    /* 
+     * This is a static singleton class. No instances should be made.
+     */
+    @Deprecated
+    private Replayer() { }
+    
+    
+    /* ----------------------------------------------------------------------------------------------------------------
+     * Functions
+     * ----------------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Replays the given recording in the given LearningGame.
+     * The game loop of the LearningGame is paused during the replay.
+     * Must be invoked on the event dispatch thread.
+     * 
+     * @param lg the LearningGame to show the MiniGame in.
+     * @param recording the recording to replay.
+     * @param render whether every update should be rendered.
+     */
+    public static void replay(LearningGame lg, InputRecording recording, boolean render) {
+        MiniGame miniGame = createMiniGame(lg, recording);
+        if (miniGame == null) return;
+        
+        LoopController controller = lg.getLoopController();
+        if (controller != null) controller.pause(REPLAY);
+        
+        // Set settings of the miniGame and start it.
+        Insets in = lg.getInsets();
+        int width = lg.getWidth() - in.left - in.right;
+        int height = lg.getHeight() - in.top - in.bottom;
+        int miniGameWidth = Math.min(width, (int) (height * MiniGameHandler.ASPECT_RATIO));
+        int miniGameHeight = Math.min(height, (int) (width / MiniGameHandler.ASPECT_RATIO));
+        
+        lg.add(miniGame, 0);
+        miniGame.setLocation((width - miniGameWidth) / 2, (height - miniGameHeight) / 2);
+        miniGame.setSize(miniGameWidth, miniGameHeight);
+        miniGame.useReplay(recording);
+        miniGame.start();
+        
+        // Only the updates run on the pool, like they run on the game loop thread normally.
+        // Rendering hands the frames over to the event dispatch thread.
+        Scheduler.execute(REPLAY, Scheduler.Pool.CPU, () -> {
+            long start = System.nanoTime();
+            int ticks = 0;
+            
+            while (!miniGame.isStopped() && miniGame.hasReplayInput()) {
+                miniGame.update(1.0 / LearningGame.FPS);
+                if (render) miniGame.render(0.0);
+                ticks++;
+            }
+            
+            if (!miniGame.isStopped()) {
+                Log2.write("Replay of " + recording.getMiniGameClass()
+                               + " ended before the MiniGame stopped.", Log2.WARNING);
+                miniGame.terminate();
+            }
+            
+            double seconds = (System.nanoTime() - start) / 1.0E9;
+            Log2.write("Replayed " + ticks + " updates of " + recording.getMiniGameClass()
+                           + " in " + String.format("%.3f", seconds) + " sec ("
+                           + String.format("%.0f", ticks / Math.max(seconds, 1.0E-9))
+                           + " updates/sec).", Log2.INFO);
+                           
+            SwingUtilities.invokeLater(() -> {
+                lg.remove(miniGame);
+                lg.repaint();
+                if (controller != null) controller.resume(REPLAY);
+            });
+        });
+    }
+    
+    /* 
+     * Creates the MiniGame of the given recording.
+     * 
+     * @param lg the LearningGame to show the MiniGame in.
+     * @param recording the recording to create the MiniGame for.
+     * @return the created MiniGame, or null if the MiniGame could not be created.
+     */
+    private static MiniGame createMiniGame(LearningGame lg, InputRecording recording) {
+        try {
+            Class<?> c = Class.forName(recording.getMiniGameClass());
+            if (!MiniGame.class.isAssignableFrom(c)) {
+                Log2.write("\"" + c.getName() + "\" is not a MiniGame!", Log2.ERROR);
+                return null;
+            }
+            
+            return (MiniGame) c
+                .getConstructor(new Class<?>[] {LearningGame.class, Runnable.class, long.class})
+                .newInstance(lg, null, recording.getTimeOut());
+                
+        } catch (Exception e) {
+            Log2.write(e);
+            return null;
+        }
+    }
+    
+}
@@ -4,11 +4,13 @@ package learningGame;
 
 // Own packages
 import learningGame.font.FontLoader;
+import learningGame.font.TextCache;
 
 import learningGame.log.Log2;
 
 import learningGame.tools.Button2;
 import learningGame.tools.MultiTool;
+import learningGame.tools.RichTextLabel;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -23,7 +25,6 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
-import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.SwingConstants;
@@ -63,10 +64,10 @@ public class ScoreScreen extends JPanel {
     // GUI
     // The labels and panels that display the score.
     private JScrollPane wrongWordsScrollPane;
-    private JLabel wrongWordsLabel;
+    private RichTextLabel wrongWordsLabel;
     
-    private JLabel correctWordRatio;
-    private JLabel gameRatio;
+    private RichTextLabel correctWordRatio;
+    private RichTextLabel gameRatio;
     
     // The continue button.
     private Button2 continueBtn;
@@ -107,22 +108,20 @@ public class ScoreScreen extends JPanel {
      */
     public void createGUI() {
         float fontSize = 20F;
-        Font fontUsed = FontLoader.getLocalFont("cousine\\Cousine-Bold.ttf").deriveFont(fontSize);
+        Font fontUsed = TextCache.getFont(FontLoader.getLocalFont("cousine\\Cousine-Bold.ttf"), fontSize);
         
         if (full) {
-            String wrongWordsText = "<html><br>   Incorrect words:"
-                + "<br><br>   " + MultiTool.fillSpaceRight(langQ, 30) + "   " + langA;
+            String wrongWordsText = "\n   Incorrect words:"
+                + "\n\n   " + MultiTool.fillSpaceRight(langQ, 30) + "   " + langA;
             ArrayList<Word> list = score.listWrongWords();
             for (int i = 0; i < list.size(); i++) {
                 String question = list.get(i).getWord(langQ);
                 String answer = list.get(i).getWord(langA);
-                wrongWordsText += "   <br>   " + MultiTool.fillSpaceRight(question, 30) + " = " + answer;
+                wrongWordsText += "\n   " + MultiTool.fillSpaceRight(question, 30) + " = " + answer;
             }
-            wrongWordsText += "</html>";
             
-            wrongWordsLabel = new JLabel(MultiTool.toHTMLSpace(wrongWordsText));
-            wrongWordsLabel.setVerticalAlignment(JLabel.TOP);
-            wrongWordsLabel.setVerticalTextPosition(JLabel.TOP);
+            wrongWordsLabel = new RichTextLabel(wrongWordsText);
+            wrongWordsLabel.setVerticalAlignment(SwingConstants.TOP);
             
             wrongWordsScrollPane = new JScrollPane(wrongWordsLabel);
             wrongWordsScrollPane.setAlignmentY(TOP_ALIGNMENT);
@@ -131,20 +130,22 @@ public class ScoreScreen extends JPanel {
             add(wrongWordsScrollPane);
             
             String ratio = MultiTool.doubleToStringDecimals(100*score.calcCorrectRatio(), 2) + "%";
-            correctWordRatio = new JLabel("<html>Words correct: " + ratio + "</html>");
+            correctWordRatio = new RichTextLabel("Words correct: " + ratio);
             
         } else {
-            correctWordRatio = new JLabel("<html>Mistakes made: " + score.calcMistakes() + "</html>");
+            correctWordRatio = new RichTextLabel("Mistakes made: " + score.calcMistakes());
         }
         
         correctWordRatio.setFont(fontUsed);
         correctWordRatio.setHorizontalAlignment(SwingConstants.CENTER);
+        correctWordRatio.setVerticalAlignment(SwingConstants.CENTER);
         add(correctWordRatio);
         
         String gameScore = MultiTool.doubleToStringDecimals(100*score.calcAvgGameScore(), 2) + "%";
-        gameRatio = new JLabel("<html>Game score: " + gameScore + "</html>");
+        gameRatio = new RichTextLabel("Game score: " + gameScore);
         gameRatio.setFont(fontUsed);
         gameRatio.setHorizontalAlignment(SwingConstants.CENTER);
+        gameRatio.setVerticalAlignment(SwingConstants.CENTER);
         add(gameRatio);
         
         try {
@@ -9,6 +9,7 @@ import learningGame.log.Log2;
 import learningGame.tools.Button2;
 import learningGame.tools.ImageTools;
 import learningGame.tools.LoadImages2;
+import learningGame.tools.TaskGraph;
 
 
 // Java packages
@@ -28,6 +29,7 @@ import javax.swing.ButtonGroup;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JRadioButtonMenuItem;
+import javax.swing.SwingUtilities;
 
 
 public class StartScreen extends JPanel {
@@ -38,7 +40,15 @@ public class StartScreen extends JPanel {
     private BufferedImage background;
     final private static String backgroundLoc = LearningGame.WORKING_DIR + "img\\blue_dot.png";
     
-    final private static String[] supportedLangs = Word.getSupportedLangs();
+    // The supported languages. Null until the word list has been read.
+    private String[] supportedLangs;
+    
+    // The tasks which load the resources. The game can be started when they have finished.
+    final private TaskGraph preloader;
+    
+    // Updates the shown progress when the progress of the preloader changes.
+    final private TaskGraph.ProgressListener progressListener
+        = (graph) -> SwingUtilities.invokeLater(() -> updateProgress());
     
     // GUI
     // The button to start the application
@@ -52,13 +62,25 @@ public class StartScreen extends JPanel {
     private ButtonGroup bgLangA;
     private JRadioButtonMenuItem[] rbmiLangA;
     
+    // The label showing the progress of the preloader.
+    private JLabel progressLabel;
+    
+    // Whether the font of the start button has been set.
+    private boolean fontSet = false;
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
      * ----------------------------------------------------------------------------------------------------------------
      */
-    public StartScreen(Runnable r) {
+    /* 
+     * @param preloader the tasks which load the resources. The game can only be started
+     *     after they have finished. If null, the game can be started immediately.
+     * @param r the action that is executed when the game is started.
+     */
+    public StartScreen(TaskGraph preloader, Runnable r) {
         super(null);
+        this.preloader = preloader;
         this.r = r;
         
         try {
@@ -68,7 +90,8 @@ public class StartScreen extends JPanel {
         }
         
         createGUI();
-        setBounds(getX(), getY(), getWidth(), getHeight());
+        if (preloader != null) preloader.addListener(progressListener);
+        updateProgress();
     }
     
     
@@ -84,12 +107,13 @@ public class StartScreen extends JPanel {
         try {
             startButton = new Button2(100, 25, 10, "Start");
             add(startButton);
-            startButton.setFont(FontLoader.getLocalFont("cousine\\Cousine-Regular.ttf"));
-            startButton.setTextSize(30);
+            startButton.setEnabled(false);
             
             startButton.addActionListener(new ActionListener() {
                 @Override
                 public void actionPerformed(ActionEvent e) {
+                    if (!startButton.isEnabled()) return;
+                    if (preloader != null) preloader.removeListener(progressListener);
                     if (r != null) r.run();
                     startButton.removeActionListener(this);
                 }
@@ -105,7 +129,19 @@ public class StartScreen extends JPanel {
         add(labelQ);
         add(labelA);
         
-        // Radio buttons
+        progressLabel = new JLabel();
+        progressLabel.setHorizontalAlignment(JLabel.CENTER);
+        add(progressLabel);
+    }
+    
+    /* 
+     * Creates the radio buttons for selecting the languages.
+     * Can only be invoked after the word list has been read.
+     */
+    private void createLangButtons() {
+        supportedLangs = Word.getSupportedLangs();
+        if (supportedLangs == null) supportedLangs = new String[0];
+        
         bgLangQ = new ButtonGroup();
         bgLangA = new ButtonGroup();
         
@@ -132,7 +168,40 @@ public class StartScreen extends JPanel {
             rbmiLangA[1].setSelected(true);
             rbmiLangQ[0].setSelected(true);
         }
+    }
+    
+    /* 
+     * Shows the progress of the preloader, and enables the parts of the screen
+     * whose resources have been loaded.
+     * Must be invoked on the event dispatch thread.
+     */
+    private void updateProgress() {
+        boolean fontsLoaded = (preloader == null || preloader.isFinished(Preloader.FONTS));
+        boolean wordsLoaded = (preloader == null || preloader.isFinished(Preloader.WORDS));
+        boolean finished = (preloader == null || preloader.isFinished());
+        
+        if (fontsLoaded && !fontSet && startButton != null) {
+            startButton.setFont(FontLoader.getLocalFont("cousine\\Cousine-Regular.ttf"));
+            startButton.setTextSize(30);
+            fontSet = true;
+        }
+        
+        if (wordsLoaded && supportedLangs == null) {
+            createLangButtons();
+        }
+        
+        if (finished) {
+            progressLabel.setText("");
+            if (startButton != null) startButton.setEnabled(true);
+            if (preloader != null) preloader.removeListener(progressListener);
             
+        } else {
+            progressLabel.setText("Loading " + String.join(", ", preloader.getRunning()) + "... ("
+                                      + preloader.getNumFinished() + "/" + preloader.getNumTasks() + ")");
+        }
+        
+        setBounds(getX(), getY(), getWidth(), getHeight());
+        repaint();
     }
     
     /* 
@@ -167,13 +236,17 @@ public class StartScreen extends JPanel {
         yLoc += radioHeight;
         
         // Set the location and size of the radio buttons.
-        for (int i = 0; i < supportedLangs.length; i++) {
+        for (int i = 0; supportedLangs != null && i < supportedLangs.length; i++) {
             rbmiLangQ[i].setSize(radioWidth, radioHeight);
             rbmiLangQ[i].setLocation(xLocQ, yLoc);
             rbmiLangA[i].setSize(radioWidth, radioHeight);
             rbmiLangA[i].setLocation(xLocA, yLoc);
             yLoc += radioHeight;
         }
+        
+        // Set the location and size of the progress label above the start button.
+        progressLabel.setSize(getWidth() / 3, radioHeight);
+        progressLabel.setLocation(getWidth() / 3, startButton.getY() - radioHeight - 10);
     }
     
     
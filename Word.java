@@ -122,9 +122,10 @@ public class Word {
                 
                 // If no data for the MiniGame class is available, then don't even bother to retrieve them.
                 if (!cells.get(0).equals("")) {
-                    // Obtain the corresponding MiniGame.
+                    // Obtain the corresponding MiniGame. The class is initialized later by the preloader,
+                    // so reading the word list doesn't have to wait for the resources of the MiniGames.
                     try {
-                        miniGame = (Class<MiniGame>) Class.forName(className);
+                        miniGame = (Class<MiniGame>) Class.forName(className, false, Word.class.getClassLoader());
                         Log2.write("Succesfully loaded class: \"" + miniGame.getName() + "\".", Log2.INFO);
                         
                         // The Exception catch here is only to catch of the shit-load of possible exceptions.
@@ -280,6 +281,17 @@ public class Word {
         return wordTable;
     }
     
+    /* 
+     * Loads the images that are associated with this word if this didn't happen yet.
+     * 
+     * @return the images associated with this word, or null if there are none.
+     * @throws IOException iff the images could not be read.
+     */
+    public BufferedImage[][] loadImages() throws IOException {
+        if (wordImageLoc == null || wordImageLoc.equals("")) return null;
+        return LoadImages2.ensureLoadedAndGetImage(wordImageLoc, 250, 250);
+    }
+    
     /* 
      * @return a random image that is associated with this word.
      */
@@ -287,7 +299,7 @@ public class Word {
         if (wordImageLoc == null || wordImageLoc.equals("")) return null;
         
         try {
-            BufferedImage[][] imgs = LoadImages2.ensureLoadedAndGetImage(wordImageLoc, 250, 250);
+            BufferedImage[][] imgs = loadImages();
             int x = rand.nextInt(imgs.length);
             int y = rand.nextInt(imgs[x].length);
             return imgs[x][y];
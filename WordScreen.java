@@ -5,9 +5,11 @@ package learningGame;
 // Own packages
 import learningGame.LearningGame;
 import learningGame.font.FontLoader;
+import learningGame.font.TextCache;
 import learningGame.log.Log2;
 import learningGame.tools.Button2;
 import learningGame.tools.LoadImages2;
+import learningGame.tools.Scheduler;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -15,6 +17,7 @@ import learningGame.tools.TerminalErrorMessage;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 
 import java.io.IOException;
 
@@ -92,12 +95,7 @@ public class WordScreen extends JPanel {
                                                "Button [" + x + "][" + y + "] was already initiated!");
                 
             Button2 corBtn = wordOptionButtons[x][y]
-                = new Button2(10, LoadImages2.ensureLoadedAndGetImage
-                                  (GOOD_BTN_IMG_LOC,
-                                   0, 0,   // Start x/y
-                                   48, 80, // End x/y
-                                   16, 16) // Width/height
-                             );
+                = new Button2(10, getButtonImages(GOOD_BTN_IMG_LOC));
             corBtn.setImage(word.getRandomImage(), true);
             corBtn.addActionListener((e) -> {
                 if (e.getActionCommand().contains("released")) {
@@ -151,12 +149,7 @@ public class WordScreen extends JPanel {
                 try {
                     // Create new buttons
                     wordOptionButtons[i][j]
-                        = new Button2(10, LoadImages2.ensureLoadedAndGetImage
-                                          (WRONG_BTN_IMG_LOC,
-                                           0, 0,   // Start x/y
-                                           48, 80, // End x/y
-                                           16, 16) // Width/height
-                                     );
+                        = new Button2(10, getButtonImages(WRONG_BTN_IMG_LOC));
                     Button2 newBtn = wordOptionButtons[i][j];
                     newBtn.setImage(nextWord.getRandomImage(), true);
                     
@@ -193,6 +186,29 @@ public class WordScreen extends JPanel {
         return label;
     }
     
+    /* 
+     * @param loc the location of the button sheet file.
+     * @return the images of the button with the given sheet.
+     * @throws IOException iff the sheet could not be read.
+     */
+    private static BufferedImage[][] getButtonImages(String loc) throws IOException {
+        return LoadImages2.ensureLoadedAndGetImage(loc,
+                                                   0, 0,   // Start x/y
+                                                   48, 80, // End x/y
+                                                   16, 16); // Width/height
+    }
+    
+    /* 
+     * Loads the images of the good and the wrong buttons, so the first word screen
+     * doesn't have to read them.
+     * 
+     * @throws IOException iff the images could not be read.
+     */
+    public static void loadImages() throws IOException {
+        getButtonImages(GOOD_BTN_IMG_LOC);
+        getButtonImages(WRONG_BTN_IMG_LOC);
+    }
+    
     /* 
      * This function is invoked when the correct button has been pressed.
      */
@@ -204,12 +220,9 @@ public class WordScreen extends JPanel {
         }
         
         repaint();
-        new Thread("correct word") {
-            @Override
-            public void run() {
-                if (r != null) r.run();
-            }
-        }.start();
+        Scheduler.execute("correct word", Scheduler.Pool.BLOCKING, () -> {
+            if (r != null) r.run();
+        });
     }
     
     /* 
@@ -249,7 +262,7 @@ public class WordScreen extends JPanel {
      */
     private void resized(int width, int height) {
         Font defaultFont = FontLoader.getLocalFont("source-sans-pro\\SourceSansPro-Bold.ttf");
-        Font buttonFont = defaultFont.deriveFont(width / 50F);
+        Font buttonFont = TextCache.getFont(defaultFont, width / 50F);
         
         double spareFactor = 0.5;
         double wordHeightFactor = 0.15;
@@ -257,7 +270,7 @@ public class WordScreen extends JPanel {
         
         wordQ.setSize(width,(int) (height * wordHeightFactor));
         wordQ.setLocation(0, 0);
-        wordQ.setFont(defaultFont.deriveFont(width / 25F));
+        wordQ.setFont(TextCache.getFont(defaultFont, width / 25F));
         
         double reservedWidth = ((double) width) / wordOptionButtons.length;
         
@@ -34,6 +34,9 @@ public class FontLoader {
     final private static String staticPath = LearningGame.WORKING_DIR + "font\\";
     final public static Hashtable<String, Font> fonts = new Hashtable<String, Font>();
     
+    // Whether all fonts in the fonts folder have been loaded and registered.
+    private static boolean loaded = false;
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -90,6 +93,7 @@ public class FontLoader {
     }
     
     public static Font getFont(String fontName) {
+        loadAll();
         return fonts.get(fontName);
     }
     
@@ -111,8 +115,13 @@ public class FontLoader {
     /* 
      * Registers all fonts in the fonts folder.
      * See registerFont(Font) for more info about registering a font.
+     * Is executed by the preloader at startup, and otherwise when a font is requested the first time.
+     * Does nothing if the fonts were already loaded.
      */
-    static {
+    public static synchronized void loadAll() {
+        if (loaded) return;
+        loaded = true;
+        
         Font[] allFonts = null;
         
         Log2.write(" === Start loading fonts === ", Log2.INFO);
@@ -0,0 +1,416 @@
+package learningGame.font;
+
+
+// Own packages
+import learningGame.tools.ImageTools;
+
+
+// Java packages
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/* 
+ * Caches the objects needed to draw text.
+ * Deriving a font, measuring a string and laying out it's glyphs are expensive
+ * operations, but the HUD draws the same few strings at the same few sizes every frame.
+ * 
+ * This class caches:
+ * - The fonts derived from a base font per size.
+ * - The glyph vectors per string, font and font render context.
+ * - A pre-rendered strip of the digits per font and color (see {@code DigitAtlas}),
+ *   so counters can be drawn by copying images instead of rasterizing glyphs.
+ * 
+ * All caches are bounded and drop their least recently used entries.
+ */
+public class TextCache {
+    // The maximum number of entries of the caches.
+    final private static int MAX_FONTS = 64;
+    final private static int MAX_GLYPHS = 256;
+    final private static int MAX_ATLASES = 16;
+    
+    // The derived fonts.
+    final private static Map<FontKey, Font> fonts = new LinkedHashMap<FontKey, Font>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FontKey, Font> eldest) {
+            return size() > MAX_FONTS;
+        }
+    };
+    
+    // The laid out strings.
+    final private static Map<GlyphKey, GlyphVector> glyphs
+        = new LinkedHashMap<GlyphKey, GlyphVector>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<GlyphKey, GlyphVector> eldest) {
+            return size() > MAX_GLYPHS;
+        }
+    };
+    
+    // The digit atlases.
+    final private static Map<AtlasKey, DigitAtlas> atlases
+        = new LinkedHashMap<AtlasKey, DigitAtlas>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<AtlasKey, DigitAtlas> eldest) {
+            return size() > MAX_ATLASES;
+        }
+    };
+    
+    // The font render context used for measuring outside of painting.
+    final private static FontRenderContext DEFAULT_FRC = new FontRenderContext(null, true, true);
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Key classes
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Key of a derived font.
+     */
+    private static class FontKey {
+        final private Font base;
+        final private float size;
+        
+        private FontKey(Font base, float size) {
+            this.base = base;
+            this.size = size;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FontKey)) return false;
+            FontKey key = (FontKey) obj;
+            return key.base.equals(base) && key.size == size;
+        }
+        
+        @Override
+        public int hashCode() {
+            return base.hashCode() * 31 + Float.floatToIntBits(size);
+        }
+    }
+    
+    /* 
+     * Key of a laid out string.
+     */
+    private static class GlyphKey {
+        final private String text;
+        final private Font font;
+        final private FontRenderContext frc;
+        
+        private GlyphKey(String text, Font font, FontRenderContext frc) {
+            this.text = text;
+            this.font = font;
+            this.frc = frc;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof GlyphKey)) return false;
+            GlyphKey key = (GlyphKey) obj;
+            return key.text.equals(text) && key.font.equals(font) && key.frc.equals(frc);
+        }
+        
+        @Override
+        public int hashCode() {
+            return (text.hashCode() * 31 + font.hashCode()) * 31 + frc.hashCode();
+        }
+    }
+    
+    /* 
+     * Key of a digit atlas.
+     */
+    private static class AtlasKey {
+        final private Font font;
+        final private int rgb;
+        
+        private AtlasKey(Font font, Color color) {
+            this.font = font;
+            this.rgb = color.getRGB();
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof AtlasKey)) return false;
+            AtlasKey key = (AtlasKey) obj;
+            return key.font.equals(font) && key.rgb == rgb;
+        }
+        
+        @Override
+        public int hashCode() {
+            return font.hashCode() * 31 + rgb;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * DigitAtlas class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Image containing the pre-rendered digits 0-9 of a single font and color.
+     * The digits are placed next to each other, each in a cell that tightly fits
+     * the pixels of the glyph.
+     */
+    public static class DigitAtlas {
+        final private Font font;
+        final private Color color;
+        
+        // The image with all cells next to each other.
+        final private BufferedImage image;
+        
+        // The x coordinates of the cells in the image.
+        final private int[] cellX = new int[10];
+        
+        // The bounds of the cells relative to the origin of the glyphs.
+        final private Rectangle[] cells = new Rectangle[10];
+        
+        // The y coordinate of the baseline in the image.
+        final private int baseline;
+        
+        // The advances of the digits.
+        final private float[] advances = new float[10];
+        
+        private DigitAtlas(Font font, Color color) {
+            this.font = font;
+            this.color = color;
+            
+            int width = 0;
+            int height = 0;
+            int minY = 0;
+            for (int i = 0; i < 10; i++) {
+                GlyphVector gv = font.createGlyphVector(DEFAULT_FRC, Integer.toString(i));
+                advances[i] = gv.getGlyphMetrics(0).getAdvance();
+                
+                // Leave one pixel for the anti-aliasing.
+                cells[i] = gv.getPixelBounds(DEFAULT_FRC, 0, 0);
+                cells[i].grow(1, 1);
+                
+                cellX[i] = width;
+                width += cells[i].width;
+                minY = Math.min(minY, cells[i].y);
+                height = Math.max(height, cells[i].y + cells[i].height);
+            }
+            
+            baseline = -minY;
+            image = ImageTools.createCompatibleImage(Math.max(1, width), Math.max(1, height + baseline));
+            Graphics2D g2d = image.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                                 RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                                 RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            g2d.setFont(font);
+            g2d.setColor(color);
+            for (int i = 0; i < 10; i++) {
+                g2d.drawString(Integer.toString(i), cellX[i] - cells[i].x, baseline);
+            }
+            g2d.dispose();
+        }
+        
+        /* 
+         * @param text the text to check.
+         * @return whether the given text only consists of digits.
+         */
+        public boolean canDraw(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') return false;
+            }
+            
+            return true;
+        }
+        
+        /* 
+         * @param text the text to measure.
+         * @return the width of the given text when drawn with the font of this atlas.
+         */
+        public int getWidth(String text) {
+            if (!canDraw(text)) return (int) Math.ceil(getBounds(text, font, DEFAULT_FRC).getWidth());
+            
+            float width = 0;
+            for (int i = 0; i < text.length(); i++) {
+                width += advances[text.charAt(i) - '0'];
+            }
+            
+            return (int) Math.ceil(width);
+        }
+        
+        /* 
+         * Draws the given text at the given location.
+         * Falls back to drawing the glyphs if the text contains other characters
+         * than digits, or if the graphics object is scaled or rotated.
+         * 
+         * @param g2d the graphics object to draw on.
+         * @param text the text to draw.
+         * @param x the x coordinate of the start of the baseline.
+         * @param y the y coordinate of the baseline.
+         */
+        public void draw(Graphics2D g2d, String text, int x, int y) {
+            int type = g2d.getTransform().getType();
+            if ((type & ~AffineTransform.TYPE_TRANSLATION) != 0 || !canDraw(text)) {
+                g2d.setColor(color);
+                drawString(g2d, text, font, x, y);
+                return;
+            }
+            
+            float pen = x;
+            for (int i = 0; i < text.length(); i++) {
+                int digit = text.charAt(i) - '0';
+                Rectangle cell = cells[digit];
+                int dx = Math.round(pen) + cell.x;
+                int dy = y + cell.y;
+                int sy = baseline + cell.y;
+                g2d.drawImage(image,
+                              dx, dy, dx + cell.width, dy + cell.height,
+                              cellX[digit], sy, cellX[digit] + cell.width, sy + cell.height,
+                              null);
+                pen += advances[digit];
+            }
+        }
+        
+        /* 
+         * @return the image containing the digits.
+         */
+        public BufferedImage getImage() {
+            return image;
+        }
+        
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * This is a singleton class. No instances should be made.
+     */
+    @Deprecated
+    private TextCache() { }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Returns the given font derived to the given size.
+     * 
+     * @param base the font to derive from.
+     * @param size the size of the new font.
+     * @return the derived font.
+     */
+    public static Font getFont(Font base, float size) {
+        if (base.getSize2D() == size) return base;
+        
+        FontKey key = new FontKey(base, size);
+        synchronized(fonts) {
+            Font font = fonts.get(key);
+            if (font == null) {
+                font = base.deriveFont(size);
+                fonts.put(key, font);
+            }
+            
+            return font;
+        }
+    }
+    
+    /* 
+     * Returns the laid out glyphs of the given text.
+     * The returned glyph vector must not be modified.
+     * 
+     * @param text the text to lay out.
+     * @param font the font to use.
+     * @param frc the font render context to use.
+     * @return the glyphs of the text.
+     */
+    public static GlyphVector getGlyphs(String text, Font font, FontRenderContext frc) {
+        GlyphKey key = new GlyphKey(text, font, frc);
+        synchronized(glyphs) {
+            GlyphVector gv = glyphs.get(key);
+            if (gv == null) {
+                gv = font.createGlyphVector(frc, text);
+                glyphs.put(key, gv);
+            }
+            
+            return gv;
+        }
+    }
+    
+    /* 
+     * @param text the text to measure.
+     * @param font the font to use.
+     * @param frc the font render context to use.
+     * @return the logical bounds of the text, relative to the start of the baseline.
+     */
+    public static Rectangle2D getBounds(String text, Font font, FontRenderContext frc) {
+        return getGlyphs(text, font, frc).getLogicalBounds();
+    }
+    
+    /* 
+     * @param text the text to measure.
+     * @param font the font to use.
+     * @return the logical bounds of the text, relative to the start of the baseline.
+     */
+    public static Rectangle2D getBounds(String text, Font font) {
+        return getBounds(text, font, DEFAULT_FRC);
+    }
+    
+    /* 
+     * Draws the given text using the cached glyphs, with the current paint of the graphics object.
+     * 
+     * @param g2d the graphics object to draw on.
+     * @param text the text to draw.
+     * @param font the font to use.
+     * @param x the x coordinate of the start of the baseline.
+     * @param y the y coordinate of the baseline.
+     */
+    public static void drawString(Graphics2D g2d, String text, Font font, float x, float y) {
+        g2d.drawGlyphVector(getGlyphs(text, font, g2d.getFontRenderContext()), x, y);
+    }
+    
+    /* 
+     * @param font the font of the digits.
+     * @param color the color of the digits.
+     * @return the digit atlas for the given font and color.
+     */
+    public static DigitAtlas getDigitAtlas(Font font, Color color) {
+        AtlasKey key = new AtlasKey(font, color);
+        synchronized(atlases) {
+            DigitAtlas atlas = atlases.get(key);
+            if (atlas == null) {
+                atlas = new DigitAtlas(font, color);
+                atlases.put(key, atlas);
+            }
+            
+            return atlas;
+        }
+    }
+    
+    /* 
+     * Removes all cached objects.
+     */
+    public static void clear() {
+        synchronized(fonts) {
+            fonts.clear();
+        }
+        
+        synchronized(glyphs) {
+            glyphs.clear();
+        }
+        
+        synchronized(atlases) {
+            atlases.clear();
+        }
+    }
+    
+}
@@ -10,6 +10,9 @@ import learningGame.Word;
 
 import learningGame.log.Log2;
 
+import learningGame.miniGame.model.InputEvent;
+import learningGame.miniGame.model.ShaveModel;
+
 import learningGame.music.PlayMusic;
 
 import learningGame.tools.Key;
@@ -19,29 +22,30 @@ import learningGame.tools.MultiTool;
 import learningGame.tools.TerminalErrorMessage;
 import learningGame.tools.matrix.Vec;
 
+import learningGame.tools.scene.Node;
+import learningGame.tools.scene.SpriteNode;
+
 
 // Java packages
-import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
-import java.awt.Graphics;
 import java.awt.Image;
-import java.awt.MouseInfo;
+import java.awt.Point;
 import java.awt.event.MouseEvent;
-import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 
 import java.util.Random;
 
 import javax.sound.sampled.Clip;
 
-import javax.swing.JPanel;
-
 
 abstract public class BaseShave extends MiniGame {
     protected Hair[] hair;
     protected Trimmer trimmer;
     
+    // The simulation of this MiniGame.
+    protected ShaveModel model;
+    
     // Whether mouse button 1 is pressed or not.
     protected boolean mouseButton1Pressed = false;
     
@@ -67,120 +71,74 @@ abstract public class BaseShave extends MiniGame {
      * Hair class
      * ----------------------------------------------------------------------------------------------------------------
      */
-    protected class Hair extends JPanel {
-        final private Vec GRAVITY = (Vec) getGravity();
-        
-        // Whether the patch has been shaved or not.
-        private boolean isShaved = false;
-        
-        // The current speed of the patch.
-        private Vec speed = getInitSpeed();
-        
-        // The relative location and size of the patch.
-        // The patch is fully visible all variables are between 0.0 and 1.0.
-        private double xRel;
-        private double yRel;
-        private double widthRel;
-        private double heightRel;
-        
-        // The previous time stamp of the update method
-        long prevTimeStamp;
+    protected class Hair extends SpriteNode {
+        // The model of this hair patch.
+        final private ShaveModel.Patch patch;
         
         /* ------------------------------------------------------------------------------------------------------------
          * Hair constructor
          * ------------------------------------------------------------------------------------------------------------
          */
-        public Hair(double x, double y, double width,  double height) {
-            super(null);
+        public Hair(ShaveModel.Patch patch) {
+            this.patch = patch;
+            update();
             
-            setBoundsRel(x, y, width, height);
-            setBackground(new Color(0, 0, 0, 0));
-            setOpaque(false);
+            setMouseHandler(new MouseHandler() {
+                @Override
+                public void mousePressed(Node node, MouseEvent e) {
+                    if (e.getButton() == MouseEvent.BUTTON1) shave();
+                }
+                
+                @Override
+                public void mouseEntered(Node node, MouseEvent e) {
+                    if (mouseButton1Pressed) shave();
+                }
+            });
         }
         
         /* 
-         * Updates the current object.
+         * Updates the bounds of this view to the state of the model.
          */
-        public void update(long timeStamp) {
-            if (isShaved && speed != null) {
-                long delta = timeStamp - prevTimeStamp;
-                speed.addVec(Vec.multiplyVec(delta / 1000.0, GRAVITY), true);
-                setLocationRel(xRel + speed.x(), yRel + speed.y());
-                
-            } else {
-                setLocationRel(xRel, yRel);
-            }
+        public void update() {
+            BaseShave base = BaseShave.this;
             
-            prevTimeStamp = timeStamp;
+            super.setBounds((int) (patch.getX() * base.getWidth()),
+                            (int) (patch.getY() * base.getHeight()),
+                            (int) (patch.getWidth() * base.getWidth()),
+                            (int) (patch.getHeight() * base.getHeight()));
         }
         
         /* 
-         * Shaves the hair and let's it jump off with the given angle and speed.
-         * 
-         * @param angle the angle in radians under which the hair is shoot off.
+         * Queues a shave of the hair. In the next update the hair is shaved and jumps off.
          */
-        public void shave(long timeStamp) {
-            if (!isShaved) {
-                isShaved = true;
-            }
+        public void shave() {
+            queueInput(new InputEvent("shave", patch.getIndex()));
         }
         
         /* 
-         * Sets the relative location of the object.
-         * For the object to be completely visible, all values must be between 0.0 and 1.0.
-         * Uses the function setBoundsRel(double, double, double, double) for futher handeling.
+         * @return the model of this hair patch.
          */
-        public void setLocationRel(double x, double y) {
-            setBoundsRel(x, y, widthRel, heightRel);
+        public ShaveModel.Patch getPatch() {
+            return patch;
         }
         
         /* 
-         * Sets the relative bounds of the object.
-         * For the object to be completely visible, all values must be between 0.0 and 1.0.
+         * @return whether the hair has been shaved.
          */
-        public void setBoundsRel(double x, double y, double width, double height) {
-            boolean resized = (getWidth() != width || getHeight() != height);
-            boolean relocated = (getX() != x || getY() != y);
-            
-            
-            if (resized || relocated) {
-                xRel = x;
-                yRel = y;
-                widthRel = width;
-                heightRel = height;
-                
-                BaseShave base = BaseShave.this;
-                
-                super.setBounds((int) ((x - width) * base.getWidth()),
-                                (int) ((y - height) * base.getHeight()),
-                                (int) (width * base.getWidth()),
-                                (int) (height * base.getHeight()));
-                
-                if (getX() - getWidth( ) < 0 || getX() > base.getWidth() ||
-                    getY() - getHeight() < 0 || getY() > base.getHeight()) {
-                    BaseShave.this.detatchHair(this);
-                }
-            }
+        public boolean isShaved() {
+            return patch.isShaved();
         }
         
         @Override
         @Deprecated
-        public void setBounds(int x, int y, int width, int height) {
+        public void setBounds(double x, double y, double width, double height) {
             throw new UnsupportedOperationException
-                ("This function is not used. Use setBoundsRel(double, double, double, double) instead.");
+                ("This function is not used. The bounds are determined by the model.");
         }
         
         @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Graphics2D g2d = (Graphics2D) g;
-            
-            BufferedImage hair = getHairImage();
-            if (hair != null) {
-                g2d.scale(((double) getWidth()) / hair.getWidth(),
-                          ((double) getHeight()) / hair.getHeight());
-                g2d.drawImage(hair, 0, 0, null);
-            }
+        public BufferedImage getImage() {
+            return getHairImage();
         }
     }
     
@@ -189,88 +147,64 @@ abstract public class BaseShave extends MiniGame {
      * Trimmer class
      * ----------------------------------------------------------------------------------------------------------------
      */
-    protected class Trimmer extends JPanel {
+    protected class Trimmer extends Node {
         final private static int NOTHING = 0;
         final private static int TRIMMING = 1;
         
-        // The current state
-        private int state = NOTHING;
-        
-        // The image to show
-        private int curTrimmerImageNum = 0;
-        
-        // The time stamp (in ms) of when the trimmer started to swing.
-        private long trimStartedTime = 0L;
-        // The time (in ms) it takes to cycle through all trimmer images.
-        private int moveTime = 100;
+        // The image number that was drawn last. -1 if the trimmer was not trimming.
+        private int drawnImageNum = -1;
         
         /* ------------------------------------------------------------------------------------------------------------
          * Trimmer constructor
          * ------------------------------------------------------------------------------------------------------------
          */
         public Trimmer() {
-            super(null);
-            setBackground(new Color(0, 0, 0, 0));
-            setOpaque(false);
+            // Draw the trimmer on top, and let the clicks go through to the hair.
+            setZ(1);
+            setPickable(false);
         }
         
         /* 
          * Sets the state of the trimmer.
          */
         public void setTrim(long timeStamp, int state) {
-            if (this.state != state) {
-                trimStartedTime = timeStamp;
-                this.state = state;
-            }
+            model.setTrimming(state == TRIMMING, timeStamp);
         }
         
         /* 
-         * This method updates the trimmer.
+         * @return the current image number of the trimmer, or -1 if it isn't trimming.
          */
-        public void update(long timeStamp) {
-            long delta = timeStamp - trimStartedTime;
-            
-            if (state == TRIMMING) {
-                BufferedImage[] trimmerSheet = getTrimmerSheet();
-                if (trimmerSheet != null && 
-                    delta > moveTime * ((double) curTrimmerImageNum + 1.0) / trimmerSheet.length) {
-                    // Increase the image counter. If the end of the trimmerSheet has been reached,
-                    // set the counter to 0 and reset the timer.
-                    if (++curTrimmerImageNum > trimmerSheet.length - 1) {
-                        curTrimmerImageNum = 0;
-                        trimStartedTime = timeStamp;
-                    }
-                }
-            }
+        private int getImageNum() {
+            return (model.isTrimming() ? model.getTrimmerImageNum() : -1);
+        }
+        
+        /* 
+         * Repaints the trimmer if it's animation frame changed since it was drawn.
+         */
+        public void checkFrame() {
+            if (getImageNum() != drawnImageNum) repaint();
         }
         
         @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            
+        protected void paintNode(Graphics2D g2d) {
+            drawnImageNum = getImageNum();
             BufferedImage[] trimmerSheet = getTrimmerSheet();
             
             // If there is nothing to draw, return immediately.
             if (trimmerSheet == null || trimmerSheet.length <= 0) return;
             
+            int curTrimmerImageNum = model.getTrimmerImageNum();
+            
             int draw = -1;
-            if (state == NOTHING) {
+            if (!model.isTrimming()) {
                 if (trimmerSheet[0] != null) draw = 0;
                 
-            } else if (state == TRIMMING) {
+            } else if (curTrimmerImageNum < trimmerSheet.length) {
                 if (trimmerSheet[curTrimmerImageNum] != null) draw = curTrimmerImageNum;
             }
             
-            if (draw >= 0) {
-                Graphics2D g2d = (Graphics2D) g;
-                
-                // Scale the graphics
-                g2d.scale(((double) getWidth())  / trimmerSheet[draw].getWidth(),
-                          ((double) getHeight()) / trimmerSheet[draw].getHeight());
-                
-                // Draw the image
-                g2d.drawImage(trimmerSheet[draw], 0, 0, null);
-            }
+            // Draw the pre-scaled image
+            if (draw >= 0) drawImage(g2d, trimmerSheet[draw]);
         }
         
     }
@@ -280,35 +214,46 @@ abstract public class BaseShave extends MiniGame {
      * Mouse functions
      * ----------------------------------------------------------------------------------------------------------------
      */
-    @Override
-    public void mouseEntered(MouseEvent e) {
-        if (e.getSource() instanceof Hair && mouseButton1Pressed) {
-            Hair hair = (Hair) e.getSource();
-            if (hair != null) hair.shave(e.getWhen());
-        }
-    }
-    
+    /* 
+     * Note that the hair receives it's mouse events via the scene graph.
+     */
     @Override
     public void mousePressed(MouseEvent e) {
         if (e.getButton() == MouseEvent.BUTTON1) {
             mouseButton1Pressed = true;
-            if (trimmer != null) trimmer.setTrim(e.getWhen(), Trimmer.TRIMMING);
-            PlayMusic.play(getTrimmerSoundClip());
-            
-            if (e.getSource() instanceof Hair) {
-                Hair hair = (Hair) e.getSource();
-                if (hair != null) hair.shave(e.getWhen());
-            }
+            queueInput(new InputEvent("trim", Trimmer.TRIMMING));
         }
-        
     }
     
     @Override
     public void mouseReleased(MouseEvent e) {
         if (e.getButton() == MouseEvent.BUTTON1) {
             mouseButton1Pressed = false;
-            if (trimmer != null) trimmer.setTrim(e.getWhen(), Trimmer.NOTHING);
-            PlayMusic.stop(getTrimmerSoundClip());
+            queueInput(new InputEvent("trim", Trimmer.NOTHING));
+        }
+    }
+    
+    /* 
+     * Applies the queued trims and shaves.
+     */
+    @Override
+    protected void applyInput(InputEvent event, long timeStamp) {
+        if (model == null) return;
+        
+        if (event.getType().equals("trim")) {
+            int state = event.getIntArg(0);
+            if (trimmer != null) trimmer.setTrim(timeStamp, state);
+            
+            if (state == Trimmer.TRIMMING) {
+                PlayMusic.play(getTrimmerSoundClip());
+                
+            } else {
+                PlayMusic.stop(getTrimmerSoundClip());
+            }
+            
+        } else if (event.getType().equals("shave")) {
+            int index = event.getIntArg(0);
+            if (index >= 0 && index < model.getNumPatches()) model.shave(model.getPatch(index));
         }
     }
     
@@ -326,7 +271,7 @@ abstract public class BaseShave extends MiniGame {
     public Score getScore(Word word, int mistakes) {
         shaved = 0;
         for (int i = 0; i < hair.length; i++) {
-            if (hair[i] == null || hair[i].isShaved) {
+            if (hair[i] == null || hair[i].isShaved()) {
                 shaved++;
             }
         }
@@ -340,8 +285,7 @@ abstract public class BaseShave extends MiniGame {
      */
     protected void detatchHair(Hair h) {
         if (h == null) return;
-        h.removeMouseListener(this);
-        remove(h);
+        scene.remove(h);
         
         boolean allRemoved = true;
         for (int i = 0; i < hair.length; i++) {
@@ -361,9 +305,29 @@ abstract public class BaseShave extends MiniGame {
      */
     @Override
     final public void createGUI() {
+        BufferedImage[] trimmerSheet = getTrimmerSheet();
+        model = new ShaveModel(trimmerSheet == null ? 0 : trimmerSheet.length);
+        model.setListener(new ShaveModel.Listener() {
+            @Override
+            public void shaved(ShaveModel.Patch patch) { }
+            
+            @Override
+            public void detached(ShaveModel.Patch patch) {
+                for (int i = 0; hair != null && i < hair.length; i++) {
+                    if (hair[i] != null && hair[i].getPatch() == patch) {
+                        detatchHair(hair[i]);
+                        return;
+                    }
+                }
+            }
+        });
+        
+        // The random generator determines the initial speed of the hair.
+        random.setSeed(createSeed("hair"));
+        
         trimmer = new Trimmer();
         trimmer.setSize(calcTrimmerDim(getWidth(), getHeight()));
-        this.add(trimmer);
+        scene.add(trimmer);
         
         double[] size = getHairSize();
         if (size == null)
@@ -387,8 +351,8 @@ abstract public class BaseShave extends MiniGame {
                                + loc.length, Log2.WARNING);
             }
             
-            hair[i] = new Hair(loc[0], loc[1], size[0], size[1]);
-            this.add(hair[i], i);
+            hair[i] = new Hair(model.addPatch(loc[0], loc[1], size[0], size[1], getGravity(), getInitSpeed()));
+            scene.add(hair[i]);
         }
     }
     
@@ -403,56 +367,47 @@ abstract public class BaseShave extends MiniGame {
     
     /* 
      * This method is invoked when the listeners of the sub components should be added.
+     * The hair receives it's mouse events via the scene graph.
      */
     @Override
-    protected void addSubListeners() {
-        for (int i = 0; hair != null && i < hair.length; i++) {
-            if (hair[i] != null) hair[i].addMouseListener(this);
-        }
-    }
+    protected void addSubListeners() { }
     
     /* 
      * This method is invoked when the listeners of the sub components should be removed.
      */
     @Override
-    protected void removeSubListeners() {
-        for (int i = 0; hair != null && i < hair.length; i++) {
-            if (hair[i] != null) hair[i].removeMouseListener(this);
-        }
-    }
+    protected void removeSubListeners() { }
     
     /* 
      * Updates the frame for the minigame.
+     * 
+     * @param keys the keys that were pressed since the previous update.
+     * @param timeStamp the start of the update cycle.
+     * @param dt the time (in sec) since the previous update.
      */
     @Override
-    public void update(Key[] keys, long timeStamp) {
+    public void update(Key[] keys, long timeStamp, double dt) {
+        // Update the hair and the trimmer animation.
+        if (model != null) model.step(timeStamp, dt);
+        
         if (hair != null) {
             for (int i = 0; i < hair.length; i++) {
-                if (hair[i] != null) hair[i].update(timeStamp);
+                if (hair[i] != null) hair[i].update();
             }
         }
         
         // Update the trimmer
-        if (trimmer != null) {
-            try {
-                int mouseOnScreenX = MouseInfo.getPointerInfo().getLocation().x;
-                int mouseOnScreenY = MouseInfo.getPointerInfo().getLocation().y;
-                int thisX = this.getLocationOnScreen().x;
-                int thisY = this.getLocationOnScreen().y;
-                Dimension trimmerDim = calcTrimmerDim(getWidth(), getHeight());
-                int dx = (int) (getTrimmerWidthAdjustmentFactor()  * trimmerDim.getWidth());
-                int dy = (int) (getTrimmerHeightAdjustmentFactor() * trimmerDim.getHeight());
-                
-                trimmer.setLocation(mouseOnScreenX - thisX + dx, mouseOnScreenY - thisY + dy);
-                trimmer.setSize(trimmerDim);
-                
-            } catch (IllegalStateException e) {
-                // This might occur when the window is going to or from full screen.
-                // No action should be taken.
-            }
+        Point mouse = getMouseLocation();
+        if (trimmer != null && mouse != null) {
+            Dimension trimmerDim = calcTrimmerDim(getWidth(), getHeight());
+            int dx = (int) (getTrimmerWidthAdjustmentFactor()  * trimmerDim.getWidth());
+            int dy = (int) (getTrimmerHeightAdjustmentFactor() * trimmerDim.getHeight());
             
-            trimmer.update(timeStamp);
+            trimmer.setLocation(mouse.x + dx, mouse.y + dy);
+            trimmer.setSize(trimmerDim);
         }
+        
+        if (trimmer != null) trimmer.checkFrame();
     }
     
     /* 
@@ -491,7 +446,7 @@ abstract public class BaseShave extends MiniGame {
     /* 
      * @return the gravity vector used for the hair.
      * This method is invoked exactly once for each Hair object.
-     * Measured in screen size per second.
+     * Measured in screen size per second.^2
      */
     abstract protected Vec getGravity();
     
@@ -8,30 +8,36 @@ import learningGame.MiniGame;
 import learningGame.Score;
 import learningGame.Word;
 
+import learningGame.miniGame.model.ScrollerModel;
+import learningGame.miniGame.model.ScrollerModel.Spawn;
+
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.BackgroundLayer;
 import learningGame.tools.ImageTools;
 import learningGame.tools.Key;
 import learningGame.tools.ModCursors;
 import learningGame.tools.MultiTool;
+import learningGame.tools.SpriteVariantCache;
+import learningGame.tools.SpriteVariantCache.Variant;
+
+import learningGame.tools.scene.Node;
+import learningGame.tools.scene.SpriteNode;
 
 
 // Java packages
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.sound.sampled.Clip;
 
-import javax.swing.JPanel;
-
 
 abstract public class BaseTopDownScroller extends MiniGame {
     // The obstacles
@@ -40,15 +46,23 @@ abstract public class BaseTopDownScroller extends MiniGame {
     // The collectables
     protected ArrayList<Collectable> collectables = new ArrayList<Collectable>();
     
+    // The views of the spawns of the model.
+    final private Map<Spawn, Spawnable> spawnViews = new HashMap<Spawn, Spawnable>();
+    
     // The player
     protected Player player;
     
+    // The rotated and tinted frames of the player.
+    final private SpriteVariantCache variantCache = new SpriteVariantCache();
+    
+    // The simulation of this MiniGame.
+    protected ScrollerModel model;
+    
     // Scroll speed of the background (1.0 = 1 full screen further in 1 sec).
     protected double scrollSpeed = 1;
     
-    // The current position of the background.
-    // It always holds that 0.0 <= curPos < 1.0.
-    protected double curPos = 0.0;
+    // The scroll position of the frame that is being painted.
+    private volatile double frameScrollPos = 0.0;
     
     // The spawn chance of an obstacle in [obstacles per second].
     // A value lower then 0 will cause no obstacles to be spawned.
@@ -78,49 +92,22 @@ abstract public class BaseTopDownScroller extends MiniGame {
      * Spawnable class
      * ----------------------------------------------------------------------------------------------------------------
      */
-    abstract protected class Spawnable extends JPanel {
+    abstract protected class Spawnable extends SpriteNode {
+        // The model of this spawnable.
+        final protected Spawn spawn;
+        
         // The type of obstacle.
         final protected int type;
         
-        // The ratio X location of the spawnable.
-        protected double widthLoc;
-        
-        // The ratio Y location of the spawnable.
-        protected double heightLoc = 0.0;
-        
-        // The animation speed.
-        final protected int animSpeed;
-        
-        // The previous animation change time stamp.
-        protected long animTimeStamp = 0L;
-        
-        // The image number that is currently shown.
-        protected int animNum = 0;
-        
-        // Whether there was a contact between the spawnable and the player.
-        private boolean hasHitPlayer = false;
-        
         /* ----------------------------------------------------------------------------------------------------------------
          * Spawnable constructor
          * ----------------------------------------------------------------------------------------------------------------
          */
-        public Spawnable(int type, double loc, int animSpeed, Dimension dim) {
-            super(null);
-            setBackground(new Color(0, 0, 0, 0));
-            setOpaque(false);
+        public Spawnable(Spawn spawn) {
+            this.spawn = spawn;
+            this.type = spawn.getType();
             
-            if (loc < 0 || loc > 1) {
-                throw new IllegalArgumentException
-                    ("Invallid location arugument. Expected: 0 <= loc <= 1. Found: loc = " + loc);
-            }
-            
-            this.type = type;
-            this.animSpeed = animSpeed;
-            this.widthLoc = loc;
-            
-            setSize(dim);
-            setLocation((int) (widthLoc * (BaseTopDownScroller.this.getWidth() - dim.getWidth())), (int) -dim.getHeight());
-            animTimeStamp = System.currentTimeMillis();
+            update();
         }
         
         /* 
@@ -131,59 +118,32 @@ abstract public class BaseTopDownScroller extends MiniGame {
         }
         
         /* 
-         * Update function.
-         * All timed stuff goes in here.
+         * @return the model of this spawnable.
          */
-        final public void update(long timeStamp, double speed) {
-            heightLoc += speed;
-            if (heightLoc > 1.0) {
-                destroySpawnable(this);
-                return;
-            }
-            
+        final public Spawn getSpawn() {
+            return spawn;
+        }
+        
+        /* 
+         * Updates the bounds and animation frame of this view to the state of the model.
+         */
+        final public void update() {
             int panelWidth = BaseTopDownScroller.this.getWidth();
             int panelHeight = BaseTopDownScroller.this.getHeight();
             
-            // Update the animation image
-            if (timeStamp > animTimeStamp + animSpeed) {
-                animTimeStamp = animTimeStamp + animSpeed;
-                animNum = (animNum + 1) % getAnimMax();
-            }
-            
-            // Update the location
-            setLocation((int) (widthLoc * (panelWidth - getWidth())),
-                        (int) (heightLoc * (panelHeight + getHeight())) - getHeight());
-            
-            // Check if the spawnable collides with the player
-            int pX = player.getX();
-            int pY = player.getY();
-            int pW = player.getWidth();
-            int pH = player.getHeight();
-            
-            if (!hasHitPlayer && 
-                pX < getX() + getWidth()  && pX + pW > getX() &&
-                pY < getY() + getHeight() && pY + pW > getY())
-            {
-                hasHitPlayer = true;
-                intersect(this);
-            }
+            setBounds((int) (spawn.getX() * panelWidth),
+                      (int) (spawn.getY() * panelHeight),
+                      (int) (spawn.getWidth() * panelWidth),
+                      (int) (spawn.getHeight() * panelHeight));
+            checkImage();
         }
         
+        /* 
+         * @return the current frame of this spawnable.
+         */
         @Override
-        final protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Graphics2D g2d = (Graphics2D) g;
-            
-            // Draw the image
-            BufferedImage image = getDrawImage();
-            
-            int imgWidth = image.getWidth();
-            int imgHeight = image.getHeight();
-            double widthRatio = ((double) getWidth()) / imgWidth;
-            double heightRatio = ((double) getHeight()) / imgHeight;
-            
-            g2d.scale(widthRatio, heightRatio);
-            if (image != null) g.drawImage(image, 0, 0, null);
+        final public BufferedImage getImage() {
+            return getDrawImage();
         }
         
         /* 
@@ -191,11 +151,15 @@ abstract public class BaseTopDownScroller extends MiniGame {
          */
         abstract protected BufferedImage getDrawImage();
         
-        /* 
-         * This function returns the maximal value that animNum is allowed to have minus 1
-         * (so the exact length of the array of images used for animation).
-         */
-        abstract protected int getAnimMax();
+    }
+    
+    /* 
+     * Samples the scroll position once per frame, so all tiles of the frame
+     * draw the background at the same position.
+     */
+    @Override
+    protected void prepareFrame() {
+        frameScrollPos = (model == null ? 0.0 : model.getScrollPos());
     }
     
     /* 
@@ -205,20 +169,23 @@ abstract public class BaseTopDownScroller extends MiniGame {
     @Override
     protected void drawBackground(Graphics2D g2d, BufferedImage background) {
         if (moveBackground()) {
-            if (background != null) {
-                double widthRatio = ((double) getWidth()) / background.getWidth();
-                double heightRatio = ((double) getHeight()) / background.getHeight();
-                
-                g2d.scale(widthRatio, heightRatio);
-                g2d.drawImage(background, 0, (int) ((curPos - 1.0) * background.getHeight()), null);
-                g2d.drawImage(background, 0, (int) (curPos * background.getHeight()), null);
-            }
+            // Copy the visible part of the pre-rendered, vertically tiled strip.
+            int y = (int) (frameScrollPos * getHeight());
+            getBackgroundLayer().paint(g2d, background, backgroundColor, getWidth(), getHeight(), y);
             
         } else {
             super.drawBackground(g2d, background);
         }
     }
     
+    /* 
+     * Uses a scrolling background layer if the background moves.
+     */
+    @Override
+    protected BackgroundLayer createBackgroundLayer() {
+        return new BackgroundLayer(moveBackground());
+    }
+    
     /* ----------------------------------------------------------------------------------------------------------------
      * Obstacle class
      * ----------------------------------------------------------------------------------------------------------------
@@ -229,9 +196,8 @@ abstract public class BaseTopDownScroller extends MiniGame {
          * Obstacle constructor
          * ------------------------------------------------------------------------------------------------------------
          */
-        public Obstacle(int type, double loc, int animSpeed) {
-            super(type, loc, animSpeed, calcObstacleDims(BaseTopDownScroller.this.getWidth(),
-                                                         BaseTopDownScroller.this.getHeight())[type]);
+        public Obstacle(Spawn spawn) {
+            super(spawn);
         }
         
         /* 
@@ -239,16 +205,7 @@ abstract public class BaseTopDownScroller extends MiniGame {
          */
         @Override
         protected BufferedImage getDrawImage() {
-            return getObstacleSheets()[type][animNum];
-        }
-        
-        /* 
-         * This function returns the maximal value that animNum is allowed to have minus 1
-         * (so the exact length of the array of images used for animation).
-         */
-        @Override
-        protected int getAnimMax() {
-            return getObstacleSheets()[type].length;
+            return getAnimFrame(getObstacleSheets()[type], spawn.getAnimNum());
         }
     }
     
@@ -262,9 +219,8 @@ abstract public class BaseTopDownScroller extends MiniGame {
          * Collectable constructor
          * ----------------------------------------------------------------------------------------------------------------
          */
-        public Collectable(int type, double loc, int animSpeed) {
-            super(type, loc, animSpeed, calcCollectableDims(BaseTopDownScroller.this.getWidth(),
-                                                            BaseTopDownScroller.this.getHeight())[type]);
+        public Collectable(Spawn spawn) {
+            super(spawn);
         }
         
         /* 
@@ -272,16 +228,7 @@ abstract public class BaseTopDownScroller extends MiniGame {
          */
         @Override
         protected BufferedImage getDrawImage() {
-            return getCollectableSheets()[type][animNum];
-        }
-        
-        /* 
-         * This function returns the maximal value that animNum is allowed to have minus 1
-         * (so the exact length of the array of images used for animation).
-         */
-        @Override
-        protected int getAnimMax() {
-            return getCollectableSheets()[type].length;
+            return getAnimFrame(getCollectableSheets()[type], spawn.getAnimNum());
         }
     }
     
@@ -290,25 +237,23 @@ abstract public class BaseTopDownScroller extends MiniGame {
      * Player class
      * ----------------------------------------------------------------------------------------------------------------
      */
-    protected class Player extends JPanel {
-        final private static int FORWARD = 0;
-        final private static int LEFT = 1;
-        final private static int RIGHT = 2;
-        final private static int DAMAGED = 3;
+    protected class Player extends Node {
+        final private static int FORWARD = ScrollerModel.FORWARD;
+        final private static int LEFT = ScrollerModel.LEFT;
+        final private static int RIGHT = ScrollerModel.RIGHT;
+        final private static int DAMAGED = ScrollerModel.DAMAGED;
         
-        // The current state of the player.
-        private int state = FORWARD;
-        // The ratio X location of the spawnable.
-        protected double widthLoc = 0.5;
+        // The tint of the damaged player.
+        final private static Color DAMAGE_TINT = new Color(255, 40, 40, 120);
         
-        // The ratio Y location of the spawnable.
-        protected double heightLoc = 1.0;
+        // The variants of the frames for each state.
+        final private Variant[] stateVariants = new Variant[4];
         
-        // The animation speed in framechanges per ms.
-        final protected int animSpeed;
+        // The model of the player.
+        final private ScrollerModel.PlayerModel playerModel;
         
-        // The previous animation change time stamp.
-        protected long animTimeStamp = 0L;
+        // The current state of the player.
+        private int state = FORWARD;
         
         // The image number that is currently shown.
         protected int animNum = 0;
@@ -317,106 +262,81 @@ abstract public class BaseTopDownScroller extends MiniGame {
          * Player constructor
          * ----------------------------------------------------------------------------------------------------------------
          */
-        public Player(int animSpeed) {
-            super(null);
-            setBackground(new Color(0, 0, 0, 0));
-            setOpaque(false);
+        public Player(ScrollerModel.PlayerModel playerModel) {
+            // Draw the player on top of the spawnables.
+            setZ(1);
             
-            this.animSpeed = animSpeed;
+            this.playerModel = playerModel;
             
-            int width = BaseTopDownScroller.this.getWidth();
-            int height = BaseTopDownScroller.this.getHeight();
+            double angle = getPlayerAngle();
+            stateVariants[FORWARD] = Variant.NONE;
+            stateVariants[LEFT] = Variant.rotated(-angle);
+            stateVariants[RIGHT] = Variant.rotated(angle);
+            stateVariants[DAMAGED] = Variant.tinted(DAMAGE_TINT);
             
-            setLocation((int) (widthLoc * (width - getWidth())), (int) (heightLoc * (height - getHeight())));
-            animTimeStamp = System.currentTimeMillis();
+            // Render the variants in the background before they are needed.
+            variantCache.prefetch(getTaskGroup(), getPlayerSheet(), stateVariants);
+            
+            update();
         }
         
         /* 
-         * Update function.
-         * All timed stuff goes in here.
+         * Updates the bounds and animation of this view to the state of the model.
          */
-        public void update(int newState, long timeStamp, double speed) {
+        public void update() {
             int panelWidth = BaseTopDownScroller.this.getWidth();
             int panelHeight = BaseTopDownScroller.this.getHeight();
             
-            // Find the new width location.
-            double newWidthLoc = widthLoc;
+            int oldState = state;
+            int oldAnimNum = animNum;
+            state = playerModel.getState();
             
-            if (newState == LEFT) {
-                state = LEFT;
-                newWidthLoc -= speed;
-                
-            } else if (newState == RIGHT) {
-                state = RIGHT;
-                newWidthLoc += speed;
-                
-            } else if (newState == FORWARD) {
-                state = FORWARD;
+            BufferedImage[] playerSheet = getPlayerSheet();
+            if (playerSheet != null && playerSheet.length > 0) {
+                animNum = playerModel.getAnimNum() % playerSheet.length;
             }
             
-            // Check bounds on the width value.
-            if (newWidthLoc < 0) {
-                newWidthLoc = 0;
-                
-            } else if (newWidthLoc > 1) {
-                newWidthLoc = 1;
-            }
+            if (state != oldState || animNum != oldAnimNum) repaint();
             
-            // Update the animation image
-            if (timeStamp > animTimeStamp + animSpeed) {
-                animTimeStamp = animTimeStamp + animSpeed;
-                BufferedImage[] playerSheet = getPlayerSheet();
-                
-                if (playerSheet != null) {
-                    animNum = (animNum + 1) % playerSheet.length;
-                }
-            }
+            double width = playerModel.getWidth() * panelWidth;
+            double height = playerModel.getHeight() * panelHeight;
+            setBounds((int) (playerModel.getX() * panelWidth),
+                      (int) (playerModel.getY() * panelHeight),
+                      (int) width, (int) height);
             
-            // Update the location
-            widthLoc = newWidthLoc;
-            setLocation((int) (widthLoc * (panelWidth - getWidth())), (int) heightLoc * (panelHeight - getHeight()));
+            // The turned image is painted partially outside the bounds.
+            double diagonalLength = Math.sqrt(width*width + height*height);
+            setPaintMargin(1.5 * (diagonalLength - Math.min(width, height)));
         }
         
         @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            
+        protected void paintNode(Graphics2D g2d) {
             BufferedImage[] playerSheet = getPlayerSheet();
             if (playerSheet != null && playerSheet[animNum] != null) {
-                Graphics2D g2d = (Graphics2D) g;
+                BufferedImage frame = playerSheet[animNum];
                 
-                // Scale the graphics
-                double imgW = playerSheet[animNum].getWidth();
-                double imgH = playerSheet[animNum].getHeight();
+                // Calculate the scale factors
+                double imgW = frame.getWidth();
+                double imgH = frame.getHeight();
                 double diagonalLength = Math.sqrt(getWidth()*getWidth() + getHeight()*getHeight());
-                
-                // Calculate scale factors and scale
                 double widthScaleFactor  = (getWidth()  / imgW) * (getWidth()  / diagonalLength);
                 double heightScaleFactor = (getHeight() / imgH) * (getHeight() / diagonalLength);
-                g2d.scale(widthScaleFactor, heightScaleFactor);
                 
+                // Calculate the translation (in image pixels)
                 double angle = getPlayerAngle();
-                
-                // Calculate translation and translage
                 double xTrans = Math.cos(angle) * (diagonalLength - getWidth() ) / (getWidth()  / imgW);
                 double yTrans = Math.sin(angle) * (diagonalLength - getHeight()) / (getHeight() / imgW);
-                g2d.translate(xTrans, yTrans);
                 
-                // Turn the image if nessecary
-                // The anchor points are set at:
-                // <original size> / <scale factor> / 2 <center of image>, 
-                // which is equivalent to:
-                // transX: getWidth()  / (getWidth()  / imgW) / 2 = imgW / 2
-                // transY: getHeight() / (getHeight() / imgH) / 2 = imgH / 2
-                if (state == LEFT) {
-                    g2d.rotate(Math.toRadians(-angle), imgW / 2, imgH / 2);
-                    
-                } else if (state == RIGHT) {
-                    g2d.rotate(Math.toRadians(angle), imgW / 2, imgH / 2);
-                }
+                // Retrieve the pre-rendered (turned or tinted) frame of the current state.
+                // The variant has the same center as the frame, but might be larger.
+                BufferedImage img = variantCache.get(frame, stateVariants[state]);
+                double x = (xTrans + (imgW - img.getWidth())  / 2) * widthScaleFactor;
+                double y = (yTrans + (imgH - img.getHeight()) / 2) * heightScaleFactor;
                 
                 // Draw the image
-                g2d.drawImage(playerSheet[animNum], 0, 0, null);
+                drawImage(g2d, img, (int) Math.round(x), (int) Math.round(y),
+                          (int) Math.round(img.getWidth()  * widthScaleFactor),
+                          (int) Math.round(img.getHeight() * heightScaleFactor));
             }
         }
     }
@@ -431,9 +351,49 @@ abstract public class BaseTopDownScroller extends MiniGame {
      */
     @Override
     final protected void createGUI() {
-        player = new Player(getPlayerFrameSpeed());
-        this.add(player, 0);
-        player.setBackground(Color.RED);
+        int width = getWidth();
+        int height = getHeight();
+        
+        int[] obstacleFrameSpeeds = new int[getMaxObstacleType() + 1];
+        for (int i = 0; i < obstacleFrameSpeeds.length; i++) {
+            obstacleFrameSpeeds[i] = getObstacleFrameSpeed(i);
+        }
+        
+        int[] collectableFrameSpeeds = new int[getMaxCollectableType() + 1];
+        for (int i = 0; i < collectableFrameSpeeds.length; i++) {
+            collectableFrameSpeeds[i] = getCollectableFrameSpeed(i);
+        }
+        
+        // Create the model.
+        model = new ScrollerModel(createSeed("spawn"),
+                                  obstacleFrameSpeeds, collectableFrameSpeeds, getPlayerFrameSpeed(),
+                                  toRelSizes(calcObstacleDims(width, height), width, height),
+                                  toRelSizes(calcCollectableDims(width, height), width, height),
+                                  toRelSize(calcPlayerDim(width, height), width, height));
+        model.setScrollSpeed(scrollSpeed);
+        model.setSpawnChances(obstacleSpawnChance, collectableSpawnChance);
+        model.setListener(new ScrollerModel.Listener() {
+            @Override
+            public void spawned(Spawn spawn) {
+                addSpawnable(spawn.isObstacle() ? new Obstacle(spawn) : new Collectable(spawn));
+            }
+            
+            @Override
+            public void destroyed(Spawn spawn) {
+                Spawnable view = spawnViews.get(spawn);
+                if (view != null) destroySpawnable(view);
+            }
+            
+            @Override
+            public void intersected(Spawn spawn) {
+                Spawnable view = spawnViews.get(spawn);
+                if (view != null) intersect(view);
+            }
+        });
+        
+        // Create the player.
+        player = new Player(model.getPlayer());
+        scene.add(player);
         
         Clip backgroundClip = getBackgroundClip();
         backgroundClip.loop(Clip.LOOP_CONTINUOUSLY);
@@ -474,6 +434,7 @@ abstract public class BaseTopDownScroller extends MiniGame {
     
     /* 
      * Removes the spawnable from the screen and update list.
+     * The spawnable is also removed from the model if that was not yet done.
      */
     protected void destroySpawnable(Spawnable spawn) {
         if (spawn instanceof Obstacle) {
@@ -485,7 +446,9 @@ abstract public class BaseTopDownScroller extends MiniGame {
             collectables.remove(col);
         }
         
-        this.remove(spawn);
+        spawnViews.remove(spawn.getSpawn());
+        scene.remove(spawn);
+        model.destroy(spawn.getSpawn());
     }
     
     /* 
@@ -544,100 +507,36 @@ abstract public class BaseTopDownScroller extends MiniGame {
     }
     
     /* 
-     * The update method. Put all time based stuff in here.
+     * The update method. Steps the model and updates the views.
      * 
      * @param keys the keys that were pressed since the previous update.
      * @param timeStamp the start of the update cycle.
+     * @param dt the time (in sec) since the previous update.
      */
     @Override
-    final protected void update(Key[] key, long timeStamp) {
-        // Add spawnables
-        spawnUpdate();
-        
-        // Calculate the top down speed and player speed (left/right).
-        double speed = scrollSpeed / LearningGame.FPS;
-        double playerSpeed = 1.3 / LearningGame.FPS;
-        
-        // Update the background position.
-        curPos = (curPos + scrollSpeed / LearningGame.FPS) % 1.0;
-        
+    final protected void update(Key[] key, long timeStamp, double dt) {
         if (MultiTool.isInArray(key, Key.LEFT)) {
-            player.update(Player.LEFT, timeStamp, playerSpeed);
+            model.step(ScrollerModel.LEFT, timeStamp, dt);
             
         } else if (MultiTool.isInArray(key, Key.RIGHT)) {
-            player.update(Player.RIGHT, timeStamp, playerSpeed);
+            model.step(ScrollerModel.RIGHT, timeStamp, dt);
             
         } else {
-            player.update(Player.FORWARD, timeStamp, playerSpeed);
+            model.step(ScrollerModel.FORWARD, timeStamp, dt);
         }
         
+        player.update();
+        
         for (int i = 0; i < obstacles.size(); i++) {
-            obstacles.get(i).update(timeStamp, speed);
+            obstacles.get(i).update();
         }
         
         for (int i = 0; i < collectables.size(); i++) {
-            collectables.get(i).update(timeStamp, speed);
-        }
-        
-        repaint();
-    }
-    
-    /* 
-     * This method creates all obstacles and collectables.
-     */
-    protected void spawnUpdate() {
-        Random random = new Random();
-        int fps = LearningGame.FPS;
-        
-        // ---------------
-        // Spawn obstacles
-        // 
-        int spawnObstacles = 0;
-        
-        // If the spawnChance is higher then the current fps, always spawn
-        // the obstacles that should have been spawned.
-        if (obstacleSpawnChance > fps) {
-            spawnObstacles += obstacleSpawnChance / fps;
-        }
-        
-        // For the remaining chance, approximate whether to spawn the obstacle or not.
-        if (((double) obstacleSpawnChance % fps) / fps > random.nextDouble()) {
-            spawnObstacles++;
-        }
-        
-        while (spawnObstacles > 0) {
-            // Generate a random type and location
-            int type = random.nextInt(getMaxObstacleType() + 1);
-            double loc = random.nextDouble();
-            
-            addSpawnable(new Obstacle(type, loc, getObstacleFrameSpeed(type)));
-            spawnObstacles--;
+            collectables.get(i).update();
         }
         
-        // ------------------
-        // Spawn collectables
-        // 
-        int spawnCollectables = 0;
-        
-        // If the spawnChance is higher then the current fps, always spawn
-        // the collectables that should have been spawned.
-        if (collectableSpawnChance > fps) {
-            spawnCollectables += collectableSpawnChance / fps;
-        }
-        
-        // For the remaining chance, approximate whether to spawn the obstacle or not.
-        if (((double) collectableSpawnChance % fps) / fps > random.nextDouble()) {
-            spawnCollectables++;
-        }
-        
-        while (spawnCollectables > 0) {
-            // Generate a random type and location
-            int type = random.nextInt(getMaxCollectableType() + 1); // Value between 0 and maxType (inclusive).
-            double loc = random.nextDouble(); // Value between 0 and 1.
-            
-            addSpawnable(new Collectable(type, loc, getCollectableFrameSpeed(type)));
-            spawnCollectables--;
-        }
+        // A scrolling background changes the whole screen.
+        if (moveBackground()) repaintAll();
     }
     
     /* 
@@ -654,7 +553,8 @@ abstract public class BaseTopDownScroller extends MiniGame {
             throw new IllegalArgumentException("Tried to add invallid spawnable type");
         }
         
-        add(spawn);
+        spawnViews.put(spawn.getSpawn(), spawn);
+        scene.add(spawn);
     }
     
     /* 
@@ -665,21 +565,61 @@ abstract public class BaseTopDownScroller extends MiniGame {
      */
     @Override
     final protected void resized(int width, int height) {
-        Dimension[] obstacleDims = calcObstacleDims(width, height);
-        Dimension[] collectableDims = calcCollectableDims(width, height);
-        Dimension playerDim = calcPlayerDim(width, height);
+        if (model == null || width <= 0 || height <= 0) return;
+        
+        model.setSizes(toRelSizes(calcObstacleDims(width, height), width, height),
+                       toRelSizes(calcCollectableDims(width, height), width, height),
+                       toRelSize(calcPlayerDim(width, height), width, height));
         
-        player.setSize(playerDim);
+        player.update();
         
         for (Obstacle ob : obstacles) {
-            ob.setSize(obstacleDims[ob.getType()]);
+            ob.update();
         }
         
         for (Collectable col : collectables) {
-            col.setSize(collectableDims[col.getType()]);
+            col.update();
         }
     }
     
+    /* 
+     * @param dim the dimension to convert.
+     * @param width the width of the panel.
+     * @param height the height of the panel.
+     * @return the {width, height} of the given dimension relative to the panel size.
+     */
+    private static double[] toRelSize(Dimension dim, int width, int height) {
+        return new double[] {
+            dim.getWidth()  / Math.max(width, 1),
+            dim.getHeight() / Math.max(height, 1)
+        };
+    }
+    
+    /* 
+     * @param dims the dimensions to convert.
+     * @param width the width of the panel.
+     * @param height the height of the panel.
+     * @return the {width, height} of all given dimensions relative to the panel size.
+     */
+    private static double[][] toRelSizes(Dimension[] dims, int width, int height) {
+        double[][] sizes = new double[dims.length][];
+        for (int i = 0; i < dims.length; i++) {
+            sizes[i] = toRelSize(dims[i], width, height);
+        }
+        
+        return sizes;
+    }
+    
+    /* 
+     * @param sheet the animation sheet.
+     * @param animNum the animation frame counter.
+     * @return the frame of the sheet to draw, or null if there is no frame.
+     */
+    private static BufferedImage getAnimFrame(BufferedImage[] sheet, int animNum) {
+        if (sheet == null || sheet.length == 0) return null;
+        return sheet[animNum % sheet.length];
+    }
+    
     /* 
      * @return the dimensions of a Obstacle.
      */
@@ -10,6 +10,9 @@ import learningGame.Word;
 
 import learningGame.log.Log2;
 
+import learningGame.miniGame.model.InputEvent;
+import learningGame.miniGame.model.WhackModel;
+
 import learningGame.music.PlayMusic;
 
 import learningGame.tools.ImageTools;
@@ -18,24 +21,19 @@ import learningGame.tools.LoadImages2;
 import learningGame.tools.ModCursors;
 import learningGame.tools.MultiTool;
 
+import learningGame.tools.scene.Node;
+
 
 // Java packages
-import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
-import java.awt.Graphics;
 import java.awt.Image;
-import java.awt.MouseInfo;
+import java.awt.Point;
 import java.awt.event.MouseEvent;
-import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 
-import java.util.Random;
-
 import java.io.IOException;
 
-import javax.swing.JPanel;
-
 
 abstract public class BaseWhack extends MiniGame {
     // The whacks
@@ -44,6 +42,9 @@ abstract public class BaseWhack extends MiniGame {
     // The hammer
     protected Hammer hammer;
     
+    // The simulation of this MiniGame.
+    protected WhackModel model;
+    
     // The chance that a whackable spawns in spawns / sec
     protected double spawnChance = 3.0;
     
@@ -66,87 +67,47 @@ abstract public class BaseWhack extends MiniGame {
      * Hammer class
      * ----------------------------------------------------------------------------------------------------------------
      */
-    protected class Hammer extends JPanel {
-        final private static int NOTHING = 0;
-        final private static int WHACKING = 1;
-        final private static int WAITING = 2;
-        
-        // The current state
-        private int state = NOTHING;
+    protected class Hammer extends Node {
+        final private static int NOTHING = WhackModel.HAMMER_NOTHING;
+        final private static int WHACKING = WhackModel.HAMMER_WHACKING;
+        final private static int WAITING = WhackModel.HAMMER_WAITING;
         
-        // The image to show
-        private int curHammerImageNum = 0;
+        // The model of the hammer.
+        final private WhackModel.HammerModel hammerModel;
         
-        // The time stamp (in ms) of when the hammer started to swing.
-        private long swingStartedTime = 0L;
-        // The time (in ms) it takes for a hammer to fully swing.
-        private int moveTime = 0;
-        // The time (in ms) it takes before the hammer is back to it's initial position.
-        private int waitTime = 0;
+        // The state and image number that were drawn last.
+        private int drawnState = -1;
+        private int drawnImageNum = -1;
         
         /* ------------------------------------------------------------------------------------------------------------
          * Hammer constructor
          * ------------------------------------------------------------------------------------------------------------
          */
-        public Hammer() {
-            super(null);
-            setBackground(new Color(0, 0, 0, 0));
-            setOpaque(false);
-        }
-        
-        /* 
-         * This method swings the hammer.
-         */
-        public boolean whack(int moveTime, int waitTime, Long timeStamp) {
-            if (state == NOTHING) {
-                swingStartedTime = timeStamp;
-                this.moveTime = moveTime;
-                this.waitTime = waitTime;
-                state = WHACKING;
-                
-                return true;
-                
-            } else {
-                return false;
-            }
+        public Hammer(WhackModel.HammerModel hammerModel) {
+            // Draw the hammer on top, and let the clicks go through to the whacks.
+            setZ(1);
+            setPickable(false);
+            
+            this.hammerModel = hammerModel;
         }
         
         public boolean canWhack() {
-            return state == NOTHING;
+            return hammerModel.canWhack();
         }
         
         /* 
-         * This method updates the hammer.
+         * Repaints the hammer if it's animation frame changed since it was drawn.
          */
-        public void update(long timeStamp) {
-            long delta = timeStamp - swingStartedTime;
-            
-            if (state == WHACKING) {
-                BufferedImage[] hammerSheet = getHammerSheet();
-                
-                if (hammerSheet != null) {
-                    if (delta > moveTime * ((double) curHammerImageNum + 1.0) / hammerSheet.length) {
-                        // Increase the image counter.
-                        // If the end of the hammerSheet has been reached, set the state to {@code WAITING}.
-                        if (++curHammerImageNum > hammerSheet.length - 1) {
-                            curHammerImageNum = hammerSheet.length - 1;
-                            state = WAITING;
-                        }
-                    }
-                }
-                
-            } else if (state == WAITING) {
-                // If the wait time has elapsed, set the state to {@code NOTHING}
-                if (delta > moveTime + waitTime) {
-                    state = NOTHING;
-                    curHammerImageNum = 0;
-                }
+        public void checkFrame() {
+            if (hammerModel.getState() != drawnState || hammerModel.getImageNum() != drawnImageNum) {
+                repaint();
             }
         }
         
         @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
+        protected void paintNode(Graphics2D g2d) {
+            int state = drawnState = hammerModel.getState();
+            int curHammerImageNum = drawnImageNum = hammerModel.getImageNum();
             
             BufferedImage[] hammerSheet = getHammerSheet();
             
@@ -158,22 +119,15 @@ abstract public class BaseWhack extends MiniGame {
                 if (hammerSheet[0] != null) draw = 0;
                 
             } else if (state == WHACKING) {
-                if (hammerSheet[curHammerImageNum] != null) draw = curHammerImageNum;
+                if (curHammerImageNum < hammerSheet.length && hammerSheet[curHammerImageNum] != null)
+                    draw = curHammerImageNum;
                 
             } else if (state == WAITING) {
                 if (hammerSheet[hammerSheet.length - 1] != null) draw = hammerSheet.length - 1;
             }
             
-            if (draw >= 0) {
-                Graphics2D g2d = (Graphics2D) g;
-                
-                // Scale the graphics
-                g2d.scale(getWidth()  / hammerSheet[draw].getWidth(),
-                          getHeight() / hammerSheet[draw].getHeight());
-                
-                // Draw the image
-                g2d.drawImage(hammerSheet[draw], 0, 0, null);
-            }
+            // Draw the pre-scaled image
+            if (draw >= 0) drawImage(g2d, hammerSheet[draw]);
         }
         
     }
@@ -182,142 +136,74 @@ abstract public class BaseWhack extends MiniGame {
      * Whack class
      * ----------------------------------------------------------------------------------------------------------------
      */
-    protected class Whack extends JPanel {
-        final private static int NOTHING = 0;    // No changes, not whackable.
-        final private static int GOING_UP = 1;   // Whackable going up, whackable.
-        final private static int OUT = 2;        // Whackable is out, whackable.
-        final private static int GOING_DOWN = 3; // Whackable is going down, whackable.
-        final private static int WHACKED = 4;    // Whackable has been wacked, not whackable.
+    protected class Whack extends Node {
+        final private static int NOTHING = WhackModel.NOTHING;
+        final private static int WHACKED = WhackModel.WHACKED;
         
-        // The current state
-        private int state = NOTHING;
+        // The location of this whack in the field.
+        final private int fieldX;
+        final private int fieldY;
         
-        // The image to show
-        private int curWhackImageNum = 0;
+        // The model of the hole of this whack.
+        final private WhackModel.Hole hole;
         
-        // The time stamp (in ms) of when the whackable showed up
-        private long whackableShownTime = 0L;
-        // The time (in ms) it takes for a whackable to fully appear.
-        private int moveTime = 0;
-        // The time (in ms) it takes before a surfaced whackable to start diappearing again.
-        private int waitTime= 0;
+        // The state and image number that were drawn last.
+        private int drawnState = -1;
+        private int drawnImageNum = -1;
         
         /* ------------------------------------------------------------------------------------------------------------
          * Whack constructor
          * ------------------------------------------------------------------------------------------------------------
          */
-        public Whack() {
-            super(null);
-            setBackground(new Color(0, 0, 0, 0));
-            setOpaque(false);
+        public Whack(int fieldX, int fieldY) {
+            this.fieldX = fieldX;
+            this.fieldY = fieldY;
+            this.hole = model.getHole(fieldX, fieldY);
+            
+            // The model notifies the listener when the whack succeeded.
+            setMouseHandler(new MouseHandler() {
+                @Override
+                public void mousePressed(Node node, MouseEvent e) {
+                    whack();
+                }
+            });
         }
         
         /* 
-         * Shows the whackable.
-         * First let the whackable appear in {@code moveTime} ms, then stay there for {@code stayTime} ms,
-         * and finally disappear in {@code moveTime} ms.
+         * Queues a whack on this whackable. The whack is applied in the next update,
+         * and only succeeds iff the whackable is shown and the hammer is ready.
          */
-        public void showWhackable(int moveTime, int stayTime, long timeStamp) {
-            if (state == NOTHING) {
-                whackableShownTime = timeStamp;
-                this.moveTime = moveTime;
-                this.waitTime = stayTime;
-                state = GOING_UP;
-            }
+        public void whack() {
+            queueInput(new InputEvent("whack", fieldX, fieldY));
         }
         
         /* 
-         * Whacks the whackable iff the whackable is shown.
-         * @return true iff the whackable can be whacked. False otherwise.
+         * Repaints the whack if it's animation frame changed since it was drawn.
          */
-        public boolean whack(long timeStamp) {
-            if (state == GOING_UP || state == OUT || state == GOING_DOWN) {
-                whackableShownTime = timeStamp;
-                state = WHACKED;
-                return true;
-            }
-            
-            return false;
-        }
-        
-        /* 
-         * Update function.
-         * All timed stuff goes in here.
-         */
-        public void update(long timeStamp) {
-            long delta = timeStamp - whackableShownTime;
-            BufferedImage[] whackSheet = getWhackSheet();
-            
-            // If there is nothing to draw, return immediately.
-            if (whackSheet == null) return;
-            
-            // Update the shown image
-            if (state == GOING_UP) {
-                if (delta > moveTime * (curWhackImageNum + 1.0) / whackSheet.length) {
-                    // Increase the image counter.
-                    // If the end of the whackSheet has been reached, set the state to {@code OUT}.
-                    if (++curWhackImageNum >= whackSheet.length - 1) {
-                        curWhackImageNum = whackSheet.length - 1;
-                        state = OUT;
-                    }
-                }
-                
-            } else if (state == OUT) {
-                if (delta - moveTime > waitTime) {
-                    // If the surface time has elapsed, set the state to {@code GOING_DOWN}
-                    state = GOING_DOWN;
-                }
-                
-            } else if (state == GOING_DOWN) {
-                if (delta - moveTime - waitTime > moveTime / whackSheet.length *
-                    Math.abs((curWhackImageNum) - whackSheet.length)) {
-                    
-                    // Decrease the image counter.
-                    // If the begin of the whackSheet has been reached, set the state to {@code NOTHING}.
-                    if (--curWhackImageNum <= 0) {
-                        curWhackImageNum = 0;
-                        state = NOTHING;
-                    }
-                }
-                
-            } else if (state == WHACKED) {
-                if (delta > 750) {
-                    state = NOTHING;
-                }
-            }
+        public void checkFrame() {
+            if (hole.getState() != drawnState || hole.getImageNum() != drawnImageNum) repaint();
         }
         
         @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            
+        protected void paintNode(Graphics2D g2d) {
             BufferedImage whacked = getWhackedImage();
             BufferedImage[] whackSheet = getWhackSheet();
             
-            Graphics2D g2d = (Graphics2D) g;
+            int state = drawnState = hole.getState();
+            int curWhackImageNum = drawnImageNum = hole.getImageNum();
             
             if (state == WHACKED) {
-                if (whacked != null) {
-                    // Scale the graphics for the image
-                    g2d.scale(getWidth()  / whacked.getWidth(),
-                              getHeight() / whacked.getHeight());
-                    
-                    // Draw image
-                    g2d.drawImage(whacked, 0, 0, null);
-                }
+                // Draw the pre-scaled image
+                drawImage(g2d, whacked);
                 
              } else if (whackSheet != null && whackSheet.length > 0) {
                  if (state == NOTHING) {
                      //if (whackSheet[0] != null) g.drawImage(whackSheet[0], 0, 0, null); // tmp
                      //if (whacked != null) g.drawImage(whacked, 0, 0, null);// tmp
                      
-                 } else if (curWhackImageNum < whackSheet.length && whackSheet[curWhackImageNum] != null) {
-                     // Scale the graphics for the image
-                     g2d.scale(getWidth()  / whackSheet[curWhackImageNum].getWidth(),
-                               getHeight() / whackSheet[curWhackImageNum].getHeight());
-                     
-                     // Draw image
-                     g2d.drawImage(whackSheet[curWhackImageNum], 0, 0, null);
+                 } else if (curWhackImageNum < whackSheet.length) {
+                     // Draw the pre-scaled image
+                     drawImage(g2d, whackSheet[curWhackImageNum]);
                  }
              }
         }
@@ -326,7 +212,7 @@ abstract public class BaseWhack extends MiniGame {
          * @return the current state of the whack.
          */
         public int getState() {
-            return state;
+            return hole.getState();
         }
         
     }
@@ -336,20 +222,13 @@ abstract public class BaseWhack extends MiniGame {
      * Mouse functions
      * ----------------------------------------------------------------------------------------------------------------
      */
+    /* 
+     * Applies the queued whacks.
+     */
     @Override
-    public void mousePressed(MouseEvent e) {
-        if (e.getSource() instanceof Whack) {
-            Whack whack = (Whack) e.getSource();
-            
-            if (hammer.canWhack() && 
-                whack.whack(e.getWhen()) && 
-                hammer.whack(175, 25, e.getWhen()))
-            {
-                PlayMusic.play(getWhackMusicFile());
-                whackEvent(e.getWhen());
-                whacked();
-            }
-            
+    protected void applyInput(InputEvent event, long timeStamp) {
+        if (event.getType().equals("whack") && model != null) {
+            model.whack(event.getIntArg(0), event.getIntArg(1), timeStamp);
         }
     }
     
@@ -386,18 +265,32 @@ abstract public class BaseWhack extends MiniGame {
         int width = getWidth();
         int height = getHeight();
         
+        // Create the model
+        int[] size = getFieldSize();
+        BufferedImage[] whackSheet = getWhackSheet();
+        BufferedImage[] hammerSheet = getHammerSheet();
+        
+        model = new WhackModel(createSeed("whack"), size[0], size[1],
+                               (whackSheet == null ? 0 : whackSheet.length),
+                               (hammerSheet == null ? 0 : hammerSheet.length));
+        model.setSpawnChance(spawnChance);
+        model.setListener((x, y, timeStamp) -> {
+            PlayMusic.play(getWhackMusicFile());
+            whackEvent(timeStamp);
+            whacked();
+        });
+        
         // Create the hammer
-        hammer = new Hammer();
-        this.add(hammer, 0);
+        hammer = new Hammer(model.getHammer());
+        scene.add(hammer);
         
         // Create the whacks
-        int[] size = getFieldSize();
         whacks = new Whack[size[0]][size[1]];
         
         for (int i = 0; i < whacks.length; i++) {
             for (int j = 0; j < whacks[i].length; j++) {
-                whacks[i][j] = new Whack();
-                this.add(whacks[i][j], i + j*whacks[i].length + 1);
+                whacks[i][j] = new Whack(i, j);
+                scene.add(whacks[i][j]);
             }
         }
         
@@ -406,27 +299,16 @@ abstract public class BaseWhack extends MiniGame {
     
     /* 
      * This method is invoked when the listeners of the sub components should be added.
+     * The whacks receive their mouse events via the scene graph.
      */
     @Override
-    protected void addSubListeners() {
-        for (int i = 0; whacks != null && i < whacks.length; i++) {
-            for (int j = 0; whacks[i] != null && j < whacks[i].length; j++) {
-                if (whacks[i][j] != null) whacks[i][j].addMouseListener(this);
-            }
-        }
-    }
+    protected void addSubListeners() { }
     
     /* 
      * This method is invoked when the listeners of the sub components should be removed.
      */
     @Override
-    protected void removeSubListeners() {
-        for (int i = 0; whacks != null && i < whacks.length; i++) {
-            for (int j = 0; whacks[i] != null && j < whacks[i].length; j++) {
-                if (whacks[i][j] != null) whacks[i][j].removeMouseListener(this);
-            }
-        }
-    }
+    protected void removeSubListeners() { }
     
     /* 
      * This method is invoked when the minigame is started.
@@ -442,61 +324,29 @@ abstract public class BaseWhack extends MiniGame {
      * 
      * @param keys the keys that were pressed since the previous update.
      * @param timeStamp the start of the update cycle.
+     * @param dt the time (in sec) since the previous update.
      */
     @Override
-    final public void update(Key[] keys, long timeStamp) {
-        // Show new whackables
-        showWhackables(timeStamp);
+    final public void update(Key[] keys, long timeStamp, double dt) {
+        // Update the whackables and the hammer.
+        if (model != null) model.step(timeStamp, dt);
         
-        // Update the whacks
-        if (whacks != null) {
-            for (int i = 0; i < whacks.length; i++) {
-                if (whacks[i] == null) continue;
-                
-                for (int j = 0; j < whacks[i].length; j++) {
-                    if (whacks[i][j] == null) continue;
-                    
-                    whacks[i][j].update(timeStamp);
-                }
+        for (int i = 0; whacks != null && i < whacks.length; i++) {
+            for (int j = 0; j < whacks[i].length; j++) {
+                whacks[i][j].checkFrame();
             }
         }
         
-        // Update the hammer
-        if (hammer != null) {
-            try {
-                int mouseOnScreenX = MouseInfo.getPointerInfo().getLocation().x;
-                int mouseOnScreenY = MouseInfo.getPointerInfo().getLocation().y;
-                int thisX = this.getLocationOnScreen().x;
-                int thisY = this.getLocationOnScreen().y;
-                Dimension hammerDim = calcHammerDim(getWidth(), getHeight());
-                int dx = (int) (getHammerWidthAdjustmentFactor()  * hammerDim.getWidth());
-                int dy = (int) (getHammerHeightAdjustmentFactor() * hammerDim.getHeight());
-                
-                hammer.setLocation(mouseOnScreenX - thisX + dx, mouseOnScreenY - thisY + dy);
-                
-            } catch (IllegalStateException e) {
-                // This might occur when the window is going to or from full screen.
-                // No action should be taken.
-            }
-            
-            hammer.update(timeStamp);
-        }
-    }
-    
-    /* 
-     * In this update method should be used for letting the whackables show.
-     */
-    protected void showWhackables(long timeStamp) {
-        Random random = new Random();
+        if (hammer != null) hammer.checkFrame();
         
-        for (int i = 0; whacks != null && i < whacks.length; i++) {
-            for (int j = 0; whacks[i] != null && j < whacks[i].length; j++) {
-                if (whacks[i][j] != null) {
-                    if (random.nextDouble() < spawnChance / (LearningGame.FPS * whacks.length * whacks[i].length)) {
-                        whacks[i][j].showWhackable(500, 200, timeStamp);
-                    }
-                }
-            }
+        // Move the hammer to the mouse
+        Point mouse = getMouseLocation();
+        if (hammer != null && mouse != null) {
+            Dimension hammerDim = calcHammerDim(getWidth(), getHeight());
+            int dx = (int) (getHammerWidthAdjustmentFactor()  * hammerDim.getWidth());
+            int dy = (int) (getHammerHeightAdjustmentFactor() * hammerDim.getHeight());
+            
+            hammer.setLocation(mouse.x + dx, mouse.y + dy);
         }
     }
     
@@ -9,7 +9,8 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
-import learningGame.tools.LoadImages2;
+import learningGame.tools.AssetManifest;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 import learningGame.tools.matrix.Vec;
 
@@ -24,6 +25,11 @@ import javax.sound.sampled.Clip;
 
 
 public class Harvest extends BaseShave {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Harvest.hair", "Harvest.trimmer", "Harvest.leg")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\slive_sfx.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -49,13 +55,13 @@ public class Harvest extends BaseShave {
     /* 
      * @return the gravity vector used for the hair.
      * This method is invoked exactly once for each Hair object.
-     * Measured in screen size per second.
+     * Measured in screen size per second.^2
      * Note that a positive x coord creates gravity to the right,
      * while a positive y coord creates gravity downwards
      */
     @Override
     protected Vec getGravity() {
-        return new Vec(0, 0.09);
+        return new Vec(0, 2.7);
     }
     
     /* 
@@ -66,7 +72,7 @@ public class Harvest extends BaseShave {
     @Override
     protected Vec getInitSpeed() {
         double angle = Math.toRadians(random.nextDouble() * 120 + 30);
-        double initSpeed = 0.03;
+        double initSpeed = 0.9;
         
         return new Vec(Math.cos(angle) * initSpeed, -Math.sin(angle) * initSpeed);
     }
@@ -77,11 +83,7 @@ public class Harvest extends BaseShave {
     @Override
     protected BufferedImage getHairImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Harvest.png",
-                                                       WORKING_DIR + "img\\sprites\\Harvest.png_hair",
-                                                       0, 0,  // startX, startY
-                                                       16, 23,  // endX, endY
-                                                       16, 23)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Harvest.hair")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -96,11 +98,7 @@ public class Harvest extends BaseShave {
     @Override
     protected BufferedImage[] getTrimmerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Harvest.png",
-                                                       WORKING_DIR + "img\\sprites\\Harvest.png_trimmer",
-                                                       16, 0,      // startX, startY
-                                                       42, 18,     // endX, endY
-                                                       26, 18)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Harvest.trimmer")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -115,11 +113,7 @@ public class Harvest extends BaseShave {
     @Override
     protected BufferedImage getBackgroundImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Harvest.png",
-                                                       WORKING_DIR + "img\\sprites\\Harvest.png_leg",
-                                                       42, 0,       // startX, startY
-                                                       58, 50,     // endX, endY
-                                                       16, 50)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Harvest.leg")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -224,8 +218,8 @@ public class Harvest extends BaseShave {
      */
     @Override
     protected String getInstruction() {
-        return "Harvest time! <br> Move your mouse over the grain while pressing the left mouse-button"
-            + "<br> in order to harvest the grain";
+        return "Harvest time!\nMove your mouse over the grain while pressing the left mouse-button"
+            + "\nin order to harvest the grain";
     }
     
 }
\ No newline at end of file
@@ -10,8 +10,9 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.AssetManifest;
 import learningGame.tools.Key;
-import learningGame.tools.LoadImages2;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -24,6 +25,13 @@ import javax.sound.sampled.Clip;
 
 
 public class Ice extends BaseTopDownScroller {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Ice.background", "Ice.obstacle", "Ice.collectable", "Ice.player")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\oil_slip_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\sfx\\coin_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\background\\water_background.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -45,11 +53,7 @@ public class Ice extends BaseTopDownScroller {
     @Override
     protected BufferedImage getBackgroundImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Ice.png",
-                                                       WORKING_DIR + "img\\sprites\\Ice.png_background",
-                                                       53, 0,         // startX, startY
-                                                       103, 50,        // endX, endY
-                                                       50, 50)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Ice.background")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -65,11 +69,7 @@ public class Ice extends BaseTopDownScroller {
     protected BufferedImage[][] getObstacleSheets() {
         try {
             return new BufferedImage[][] {
-                LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Ice.png",
-                                                    WORKING_DIR + "img\\sprites\\Ice.png_obstacle",
-                                                    21, 0,       // startX, startY
-                                                    53, 22,     // endX, endY
-                                                    32, 22)[0]  // sizeX, sizeY
+                SpriteAtlas.getFrames("Ice.obstacle")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -86,11 +86,7 @@ public class Ice extends BaseTopDownScroller {
     protected BufferedImage[][] getCollectableSheets() {
         try {
             return new BufferedImage[][] {
-                    LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Ice.png",
-                                                        WORKING_DIR + "img\\sprites\\Ice.png_collectable",
-                                                        0, 0,    // startX, startY
-                                                        9, 72,   // endX, endY
-                                                        9, 9)[0] // sizeX, sizeY
+                    SpriteAtlas.getFrames("Ice.collectable")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -106,11 +102,7 @@ public class Ice extends BaseTopDownScroller {
     @Override
     protected BufferedImage[] getPlayerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Ice.png",
-                                                       WORKING_DIR + "img\\sprites\\Ice.png_player",
-                                                       9, 0,      // startX, startY
-                                                       21, 13,     // endX, endY
-                                                       12, 13)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Ice.player")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -198,8 +190,8 @@ public class Ice extends BaseTopDownScroller {
      */
     @Override
     protected String getInstruction() {
-        return "Skate over the ice <br> Use the left and right arrow keys"
-            + " to avoid the holes <br> and collect the coins!";
+        return "Skate over the ice\nUse the left and right arrow keys"
+            + " to avoid the holes\nand collect the coins!";
     }
     
     /* 
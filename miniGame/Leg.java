@@ -9,7 +9,8 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
-import learningGame.tools.LoadImages2;
+import learningGame.tools.AssetManifest;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 import learningGame.tools.matrix.Vec;
 
@@ -23,6 +24,11 @@ import javax.sound.sampled.Clip;
 
 
 public class Leg extends BaseShave {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Leg.hair", "Leg.trimmer", "Leg.leg")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\trimmer_sfx.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -48,13 +54,13 @@ public class Leg extends BaseShave {
     /* 
      * @return the gravity vector used for the hair.
      * This method is invoked exactly once for each Hair object.
-     * Measured in screen size per second.
+     * Measured in screen size per second.^2
      * Note that a positive x coord creates gravity to the right,
      * while a positive y coord creates gravity downwards
      */
     @Override
     protected Vec getGravity() {
-        return new Vec(0, 0.09);
+        return new Vec(0, 2.7);
     }
     
     /* 
@@ -66,7 +72,7 @@ public class Leg extends BaseShave {
     protected Vec getInitSpeed() {
         //
         double angle = Math.toRadians(random.nextDouble() * 120 + 30);
-        double initSpeed = 0.03;
+        double initSpeed = 0.9;
         
         return new Vec(Math.cos(angle) * initSpeed, -Math.sin(angle) * initSpeed);
     }
@@ -77,11 +83,7 @@ public class Leg extends BaseShave {
     @Override
     protected BufferedImage getHairImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Leg.png",
-                                                       WORKING_DIR + "img\\sprites\\Leg.png_hair",
-                                                       50, 0,  // startX, startY
-                                                       65, 3,  // endX, endY
-                                                       15, 3)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Leg.hair")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -96,11 +98,7 @@ public class Leg extends BaseShave {
     @Override
     protected BufferedImage[] getTrimmerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Leg.png",
-                                                       WORKING_DIR + "img\\sprites\\Leg.png_trimmer",
-                                                       0, 0,      // startX, startY
-                                                       8, 28,     // endX, endY
-                                                       8, 14)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Leg.trimmer")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -115,11 +113,7 @@ public class Leg extends BaseShave {
     @Override
     protected BufferedImage getBackgroundImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Leg.png",
-                                                       WORKING_DIR + "img\\sprites\\Leg.png_leg",
-                                                       8, 0,       // startX, startY
-                                                       50, 43,     // endX, endY
-                                                       42, 43)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Leg.leg")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -225,7 +219,7 @@ public class Leg extends BaseShave {
      */
     @Override
     protected String getInstruction() {
-        return "Shave the leg! <br> Move your mouse over the hair on the leg while pressing <br> the left mouse-button"
+        return "Shave the leg!\nMove your mouse over the hair on the leg while pressing\nthe left mouse-button"
             + " in order to shave the leg";
     }
     
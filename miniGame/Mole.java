@@ -10,8 +10,10 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.AssetManifest;
 import learningGame.tools.Key;
 import learningGame.tools.LoadImages2;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -23,6 +25,12 @@ import java.io.IOException;
 
 
 public class Mole extends BaseWhack {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Mole.whack", "Mole.whacked", "Mole.hammer")
+        .images(LearningGame.WORKING_DIR + "img\\green_dot.png")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\whack_sfx.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -96,11 +104,7 @@ public class Mole extends BaseWhack {
     @Override
     protected BufferedImage[] getWhackSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Mole.png",
-                                                       WORKING_DIR + "img\\sprites\\Mole.png_whack",
-                                                       26, 0,      // startX, startY
-                                                       57, 56,     // endX, endY
-                                                       31, 14)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Mole.whack")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -115,11 +119,7 @@ public class Mole extends BaseWhack {
     @Override
     protected BufferedImage getWhackedImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Mole.png",
-                                                       WORKING_DIR + "img\\sprites\\Mole.png_whacked",
-                                                       57, 0,         // startX, startY
-                                                       96, 13,        // endX, endY
-                                                       39, 13)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Mole.whacked")[0][0];
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
             e.printStackTrace();
@@ -133,11 +133,7 @@ public class Mole extends BaseWhack {
     @Override
     protected BufferedImage[] getHammerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Mole.png",
-                                                       WORKING_DIR + "img\\sprites\\Mole.png_hammer",
-                                                       0, 0,       // startX, startY
-                                                       26, 156,    // endX, endY
-                                                       26, 39)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Mole.hammer")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -170,7 +166,7 @@ public class Mole extends BaseWhack {
      */
     @Override
     protected String getInstruction() {
-        return "Wack a mole! <br> Click on the mole with the plus shaped cursor and wack them with <br> the hammer";
+        return "Wack a mole!\nClick on the mole with the plus shaped cursor and wack them with\nthe hammer";
     }
     
 }
\ No newline at end of file
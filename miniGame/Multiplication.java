@@ -9,6 +9,7 @@ import learningGame.Score;
 import learningGame.Word;
 
 import learningGame.font.FontLoader;
+import learningGame.font.TextCache;
 
 import learningGame.log.Log2;
 
@@ -83,7 +84,7 @@ public class Multiplication extends MiniGame {
             try {
                 resultButtons[i] = new Button2(0, 0, 20, Integer.toString(result[i]));
                 add(resultButtons[i]);
-                resultButtons[i].setFont(font.deriveFont(20F));
+                resultButtons[i].setFont(TextCache.getFont(font, 20F));
                 
                 if (i == correctResult) {
                     resultButtons[i].addActionListener((e) -> {
@@ -132,9 +133,10 @@ public class Multiplication extends MiniGame {
      * 
      * @param keys the keys that were pressed since the previous update.
      * @param timeStamp the start of the update cycle.
+     * @param dt the time (in sec) since the previous update.
      */
     @Override
-    protected void update(Key[] keys, long timeStamp) {
+    protected void update(Key[] keys, long timeStamp, double dt) {
         
     }
     
@@ -175,7 +177,7 @@ public class Multiplication extends MiniGame {
             resultButtons[i].setTextSize(width / 20F);
         }
         
-        labelQ.setFont(font.deriveFont(width / 20F));
+        labelQ.setFont(TextCache.getFont(font, width / 20F));
         labelQ.setSize(width, height / 2);
         labelQ.setLocation(0, 0);
     }
@@ -193,7 +195,7 @@ public class Multiplication extends MiniGame {
      */
     @Override
     protected String getInstruction() {
-        return "Quick mafs!<br>Calculate the multiplication of the two given numbers.";
+        return "Quick mafs!\nCalculate the multiplication of the two given numbers.";
     }
     
 }
@@ -10,8 +10,10 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.AssetManifest;
 import learningGame.tools.Key;
 import learningGame.tools.LoadImages2;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -23,6 +25,12 @@ import java.io.IOException;
 
 
 public class Pie extends BaseWhack {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Pie.whack", "Pie.whacked", "Pie.hammer")
+        .images(LearningGame.WORKING_DIR + "img\\green_dot.png")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\whack_sfx.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -96,11 +104,7 @@ public class Pie extends BaseWhack {
     @Override
     protected BufferedImage[] getWhackSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Pie.png",
-                                                       WORKING_DIR + "img\\sprites\\Pie.png_whack",
-                                                       26, 0,       // startX, startY
-                                                       51, 4,     // endX, endY
-                                                       25, 4)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Pie.whack")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -115,11 +119,7 @@ public class Pie extends BaseWhack {
     @Override
     protected BufferedImage getWhackedImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Pie.png",
-                                                       WORKING_DIR + "img\\sprites\\Pie.png_whacked",
-                                                       50, 0,         // startX, startY
-                                                       77, 8,        // endX, endY
-                                                       27, 8)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Pie.whacked")[0][0];
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
             e.printStackTrace();
@@ -133,11 +133,7 @@ public class Pie extends BaseWhack {
     @Override
     protected BufferedImage[] getHammerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Pie.png",
-                                                       WORKING_DIR + "img\\sprites\\Pie.png_hammer",
-                                                       0, 0,       // startX, startY
-                                                       26, 156,    // endX, endY
-                                                       26, 39)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Pie.hammer")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -170,7 +166,7 @@ public class Pie extends BaseWhack {
      */
     @Override
     protected String getInstruction() {
-        return "Smash a pie! <br> Click on the pie and smash it with <br> the foot";
+        return "Smash a pie!\nClick on the pie and smash it with\nthe foot";
     }
     
 }
@@ -10,8 +10,10 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.AssetManifest;
 import learningGame.tools.Key;
 import learningGame.tools.LoadImages2;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -23,6 +25,12 @@ import java.io.IOException;
 
 
 public class Pole extends BaseWhack {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Pole.whack", "Pole.whacked", "Mole.hammer")
+        .images(LearningGame.WORKING_DIR + "img\\green_dot.png")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\whack_sfx.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -96,11 +104,7 @@ public class Pole extends BaseWhack {
     @Override
     protected BufferedImage[] getWhackSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Pole.png",
-                                                       WORKING_DIR + "img\\sprites\\Pole.png_whack",
-                                                       0, 0,      // startX, startY
-                                                       7, 10,     // endX, endY
-                                                       7, 10)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Pole.whack")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -115,11 +119,7 @@ public class Pole extends BaseWhack {
     @Override
     protected BufferedImage getWhackedImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Pole.png",
-                                                       WORKING_DIR + "img\\sprites\\Pole.png_whacked",
-                                                       8, 0,         // startX, startY
-                                                       15, 13,        // endX, endY
-                                                       7, 13)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Pole.whacked")[0][0];
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
             e.printStackTrace();
@@ -133,11 +133,7 @@ public class Pole extends BaseWhack {
     @Override
     protected BufferedImage[] getHammerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Mole.png",
-                                                       WORKING_DIR + "img\\sprites\\Mole.png_hammer",
-                                                       0, 0,       // startX, startY
-                                                       26, 156,    // endX, endY
-                                                       26, 39)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Mole.hammer")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -171,7 +167,7 @@ public class Pole extends BaseWhack {
      */
     @Override
     protected String getInstruction() {
-        return "Wack a pole! <br> Click on the pole with the plus shaped cursor and wack it with <br> the hammer";
+        return "Wack a pole!\nClick on the pole with the plus shaped cursor and wack it with\nthe hammer";
     }
     
 }
\ No newline at end of file
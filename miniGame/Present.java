@@ -10,8 +10,9 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.AssetManifest;
 import learningGame.tools.Key;
-import learningGame.tools.LoadImages2;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -24,6 +25,13 @@ import javax.sound.sampled.Clip;
 
 
 public class Present extends BaseTopDownScroller {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Present.background", "Present.obstacle", "Present.collectable", "Present.player")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\breaking_wood_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\sfx\\coin_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\background\\water_background.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -45,11 +53,7 @@ public class Present extends BaseTopDownScroller {
     @Override
     protected BufferedImage getBackgroundImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Present.png",
-                                                       WORKING_DIR + "img\\sprites\\Present.png_background",
-                                                       42, 0,         // startX, startY
-                                                       88, 50,        // endX, endY
-                                                       46, 50)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Present.background")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -65,11 +69,7 @@ public class Present extends BaseTopDownScroller {
     protected BufferedImage[][] getObstacleSheets() {
         try {
             return new BufferedImage[][] {
-                LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Present.png",
-                                                    WORKING_DIR + "img\\sprites\\Present.png_obstacle",
-                                                    0, 0,       // startX, startY
-                                                    13, 10,     // endX, endY
-                                                    13, 10)[0]  // sizeX, sizeY
+                SpriteAtlas.getFrames("Present.obstacle")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -86,11 +86,7 @@ public class Present extends BaseTopDownScroller {
     protected BufferedImage[][] getCollectableSheets() {
         try {
             return new BufferedImage[][] {
-                    LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Present.png",
-                                                        WORKING_DIR + "img\\sprites\\Present.png_collectable",
-                                                        30, 0,    // startX, startY
-                                                        37, 10,   // endX, endY
-                                                        7, 10)[0] // sizeX, sizeY
+                    SpriteAtlas.getFrames("Present.collectable")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -106,11 +102,7 @@ public class Present extends BaseTopDownScroller {
     @Override
     protected BufferedImage[] getPlayerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Present.png",
-                                                       WORKING_DIR + "img\\sprites\\Present.png_player",
-                                                       14, 0,      // startX, startY
-                                                       28, 40,     // endX, endY
-                                                       14, 20)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Present.player")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -198,8 +190,8 @@ public class Present extends BaseTopDownScroller {
      */
     @Override
     protected String getInstruction() {
-        return "Catch the presents! <br> Use the left and right arrow keys"
-            + " to avoid the falling sheep <br> and collect the presents drops";
+        return "Catch the presents!\nUse the left and right arrow keys"
+            + " to avoid the falling sheep\nand collect the presents drops";
     }
     
     /* 
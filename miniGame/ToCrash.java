@@ -10,8 +10,9 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.AssetManifest;
 import learningGame.tools.Key;
-import learningGame.tools.LoadImages2;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -24,6 +25,13 @@ import javax.sound.sampled.Clip;
 
 
 public class ToCrash extends BaseTopDownScroller {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Crash.background", "Crash.obstacle", "Crash.collectable", "Crash.player")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\oil_slip_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\sfx\\coin_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\background\\traffic_background.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -44,11 +52,7 @@ public class ToCrash extends BaseTopDownScroller {
     @Override
     protected BufferedImage getBackgroundImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Crash.png",
-                                                       WORKING_DIR + "img\\sprites\\Crash.png_background",
-                                                       38, 0,         // startX, startY
-                                                       88, 50,        // endX, endY
-                                                       50, 50)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Crash.background")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -64,11 +68,7 @@ public class ToCrash extends BaseTopDownScroller {
     protected BufferedImage[][] getObstacleSheets() {
         try {
             return new BufferedImage[][] {
-                LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Crash.png",
-                                                    WORKING_DIR + "img\\sprites\\Crash.png_obstacle",
-                                                    0, 1,       // startX, startY
-                                                    13, 11,     // endX, endY
-                                                    13, 10)[0]  // sizeX, sizeY
+                SpriteAtlas.getFrames("Crash.obstacle")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -85,11 +85,7 @@ public class ToCrash extends BaseTopDownScroller {
     protected BufferedImage[][] getCollectableSheets() {
         try {
             return new BufferedImage[][] {
-                    LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Crash.png",
-                                                        WORKING_DIR + "img\\sprites\\Crash.png_collectable",
-                                                        13, 0,    // startX, startY
-                                                        20, 44,   // endX, endY
-                                                        7, 11)[0] // sizeX, sizeY
+                    SpriteAtlas.getFrames("Crash.collectable")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -105,11 +101,7 @@ public class ToCrash extends BaseTopDownScroller {
     @Override
     protected BufferedImage[] getPlayerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Crash.png",
-                                                       WORKING_DIR + "img\\sprites\\Crash.png_player",
-                                                       20, 0,      // startX, startY
-                                                       38, 36,     // endX, endY
-                                                       18, 18)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Crash.player")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -197,8 +189,8 @@ public class ToCrash extends BaseTopDownScroller {
      */
     @Override
     protected String getInstruction() {
-        return "Drive the car <br> Use the left and right arrow keys"
-            + " to avoid the oil on the road <br> and crash into the pedestrians!";
+        return "Drive the car\nUse the left and right arrow keys"
+            + " to avoid the oil on the road\nand crash into the pedestrians!";
     }
     
     /* 
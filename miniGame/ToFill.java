@@ -10,8 +10,9 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.AssetManifest;
 import learningGame.tools.Key;
-import learningGame.tools.LoadImages2;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -24,6 +25,13 @@ import javax.sound.sampled.Clip;
 
 
 public class ToFill extends BaseTopDownScroller {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Fill.background", "Fill.obstacle", "Fill.collectable", "Fill.player")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\breaking_wood_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\sfx\\coin_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\background\\water_background.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -44,11 +52,7 @@ public class ToFill extends BaseTopDownScroller {
     @Override
     protected BufferedImage getBackgroundImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Fill.png",
-                                                       WORKING_DIR + "img\\sprites\\Fill.png_background",
-                                                       38, 0,         // startX, startY
-                                                       88, 50,        // endX, endY
-                                                       50, 50)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Fill.background")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -64,11 +68,7 @@ public class ToFill extends BaseTopDownScroller {
     protected BufferedImage[][] getObstacleSheets() {
         try {
             return new BufferedImage[][] {
-                LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Fill.png",
-                                                    WORKING_DIR + "img\\sprites\\Fill.png_obstacle",
-                                                    0, 0,       // startX, startY
-                                                    13, 10,     // endX, endY
-                                                    13, 10)[0]  // sizeX, sizeY
+                SpriteAtlas.getFrames("Fill.obstacle")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -85,11 +85,7 @@ public class ToFill extends BaseTopDownScroller {
     protected BufferedImage[][] getCollectableSheets() {
         try {
             return new BufferedImage[][] {
-                    LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Fill.png",
-                                                        WORKING_DIR + "img\\sprites\\Fill.png_collectable",
-                                                        30, 0,    // startX, startY
-                                                        37, 10,   // endX, endY
-                                                        7, 10)[0] // sizeX, sizeY
+                    SpriteAtlas.getFrames("Fill.collectable")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -105,11 +101,7 @@ public class ToFill extends BaseTopDownScroller {
     @Override
     protected BufferedImage[] getPlayerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Fill.png",
-                                                       WORKING_DIR + "img\\sprites\\Fill.png_player",
-                                                       14, 0,      // startX, startY
-                                                       30, 26,     // endX, endY
-                                                       16, 13)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Fill.player")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -197,8 +189,8 @@ public class ToFill extends BaseTopDownScroller {
      */
     @Override
     protected String getInstruction() {
-        return "Fill it! <br> Use the left and right arrow keys"
-            + " to avoid the falling sheep <br> and collect the water drops";
+        return "Fill it!\nUse the left and right arrow keys"
+            + " to avoid the falling sheep\nand collect the water drops";
     }
     
     /* 
@@ -10,8 +10,9 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.AssetManifest;
 import learningGame.tools.Key;
-import learningGame.tools.LoadImages2;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -25,6 +26,13 @@ import javax.sound.sampled.Clip;
 
 
 public class ToRow extends BaseTopDownScroller {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Row.background", "Row.obstacle", "Row.collectable", "Row.player")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\breaking_wood_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\sfx\\coin_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\background\\water_background.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -45,11 +53,7 @@ public class ToRow extends BaseTopDownScroller {
     @Override
     protected BufferedImage getBackgroundImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Row.png",
-                                                       WORKING_DIR + "img\\sprites\\Row.png_background",
-                                                       41, 0,         // startX, startY
-                                                       91, 50,        // endX, endY
-                                                       50, 50)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Row.background")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -65,11 +69,7 @@ public class ToRow extends BaseTopDownScroller {
     protected BufferedImage[][] getObstacleSheets() {
         try {
             return new BufferedImage[][] {
-                LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Row.png",
-                                                    WORKING_DIR + "img\\sprites\\Row.png_obstacle",
-                                                    9, 0,       // startX, startY
-                                                    22, 57,     // endX, endY
-                                                    13, 19)[0]  // sizeX, sizeY
+                SpriteAtlas.getFrames("Row.obstacle")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -86,11 +86,7 @@ public class ToRow extends BaseTopDownScroller {
     protected BufferedImage[][] getCollectableSheets() {
         try {
             return new BufferedImage[][] {
-                    LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Row.png",
-                                                        WORKING_DIR + "img\\sprites\\Row.png_collectable",
-                                                        0, 0,    // startX, startY
-                                                        9, 72,   // endX, endY
-                                                        9, 9)[0] // sizeX, sizeY
+                    SpriteAtlas.getFrames("Row.collectable")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -106,11 +102,7 @@ public class ToRow extends BaseTopDownScroller {
     @Override
     protected BufferedImage[] getPlayerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Row.png",
-                                                       WORKING_DIR + "img\\sprites\\Row.png_player",
-                                                       22, 0,      // startX, startY
-                                                       41, 26,     // endX, endY
-                                                       19, 13)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Row.player")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -198,8 +190,8 @@ public class ToRow extends BaseTopDownScroller {
      */
     @Override
     protected String getInstruction() {
-        return "Row Row Row your boat! <br> Use the left and right arrow keys"
-            + " to avoid the obstacles <br> and collect the coins";
+        return "Row Row Row your boat!\nUse the left and right arrow keys"
+            + " to avoid the obstacles\nand collect the coins";
     }
     
     /* 
@@ -10,8 +10,9 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.AssetManifest;
 import learningGame.tools.Key;
-import learningGame.tools.LoadImages2;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -25,6 +26,13 @@ import javax.sound.sampled.Clip;
 
 
 public class TrafficLight extends BaseTopDownScroller {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("TrafficLight.background", "TrafficLight.obstacle", "TrafficLight.collectable", "TrafficLight.player")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\car_crash_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\sfx\\coin_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\background\\traffic_background.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -45,11 +53,7 @@ public class TrafficLight extends BaseTopDownScroller {
     @Override
     protected BufferedImage getBackgroundImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\TrafficLight.png",
-                                                       WORKING_DIR + "img\\sprites\\TrafficLight.png_background",
-                                                       37, 0,         // startX, startY
-                                                       85, 50,        // endX, endY
-                                                       48, 50)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("TrafficLight.background")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -65,11 +69,7 @@ public class TrafficLight extends BaseTopDownScroller {
     protected BufferedImage[][] getObstacleSheets() {
         try {
             return new BufferedImage[][] {
-                LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\TrafficLight.png",
-                                                    WORKING_DIR + "img\\sprites\\TrafficLight.png_obstacle",
-                                                    26, 0,       // startX, startY
-                                                    37, 50,     // endX, endY
-                                                    11, 25)[0]  // sizeX, sizeY
+                SpriteAtlas.getFrames("TrafficLight.obstacle")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -86,11 +86,7 @@ public class TrafficLight extends BaseTopDownScroller {
     protected BufferedImage[][] getCollectableSheets() {
         try {
             return new BufferedImage[][] {
-                    LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\TrafficLight.png",
-                                                        WORKING_DIR + "img\\sprites\\TrafficLight.png_collectable",
-                                                        0, 0,    // startX, startY
-                                                        9, 72,   // endX, endY
-                                                        9, 9)[0] // sizeX, sizeY
+                    SpriteAtlas.getFrames("TrafficLight.collectable")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -106,11 +102,7 @@ public class TrafficLight extends BaseTopDownScroller {
     @Override
     protected BufferedImage[] getPlayerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\TrafficLight.png",
-                                                       WORKING_DIR + "img\\sprites\\TrafficLight.png_player",
-                                                       9, 0,      // startX, startY
-                                                       26, 40,     // endX, endY
-                                                       17, 20)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("TrafficLight.player")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -198,8 +190,8 @@ public class TrafficLight extends BaseTopDownScroller {
      */
     @Override
     protected String getInstruction() {
-        return "Avoid the traffic lights! <br> Use the left and right arrow keys"
-            + " to avoid the traffic lights <br> and collect the coins";
+        return "Avoid the traffic lights!\nUse the left and right arrow keys"
+            + " to avoid the traffic lights\nand collect the coins";
     }
     
     /* 
@@ -10,8 +10,9 @@ import learningGame.log.Log2;
 
 import learningGame.music.PlayMusic;
 
+import learningGame.tools.AssetManifest;
 import learningGame.tools.Key;
-import learningGame.tools.LoadImages2;
+import learningGame.tools.SpriteAtlas;
 import learningGame.tools.TerminalErrorMessage;
 
 
@@ -24,6 +25,13 @@ import javax.sound.sampled.Clip;
 
 
 public class Wine extends BaseTopDownScroller {
+    // The assets used by this MiniGame, see {@code AssetManifest}.
+    final public static AssetManifest MANIFEST = new AssetManifest()
+        .sprites("Wine.background", "Wine.obstacle", "Wine.collectable", "Wine.player")
+        .clips(LearningGame.WORKING_DIR + "music\\sfx\\breaking_wood_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\sfx\\coin_sfx.wav",
+               LearningGame.WORKING_DIR + "music\\background\\water_background.wav");
+    
     
     /* ----------------------------------------------------------------------------------------------------------------
      * Constructor
@@ -44,11 +52,7 @@ public class Wine extends BaseTopDownScroller {
     @Override
     protected BufferedImage getBackgroundImage() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Wine.png",
-                                                       WORKING_DIR + "img\\sprites\\Wine.png_background",
-                                                       32, 0,         // startX, startY
-                                                       82, 50,        // endX, endY
-                                                       50, 50)[0][0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Wine.background")[0][0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -64,11 +68,7 @@ public class Wine extends BaseTopDownScroller {
     protected BufferedImage[][] getObstacleSheets() {
         try {
             return new BufferedImage[][] {
-                LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Wine.png",
-                                                    WORKING_DIR + "img\\sprites\\Wine.png_obstacle",
-                                                    0, 0,       // startX, startY
-                                                    14, 13,     // endX, endY
-                                                    14, 13)[0]  // sizeX, sizeY
+                SpriteAtlas.getFrames("Wine.obstacle")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -85,11 +85,7 @@ public class Wine extends BaseTopDownScroller {
     protected BufferedImage[][] getCollectableSheets() {
         try {
             return new BufferedImage[][] {
-                    LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Wine.png",
-                                                        WORKING_DIR + "img\\sprites\\Wine.png_collectable",
-                                                        24, 0,    // startX, startY
-                                                        32, 10,   // endX, endY
-                                                        8, 10)[0] // sizeX, sizeY
+                    SpriteAtlas.getFrames("Wine.collectable")[0]
             };
             
         } catch (IOException | IllegalArgumentException e) {
@@ -105,11 +101,7 @@ public class Wine extends BaseTopDownScroller {
     @Override
     protected BufferedImage[] getPlayerSheet() {
         try {
-            return LoadImages2.ensureLoadedAndGetImage(WORKING_DIR + "img\\sprites\\Wine.png",
-                                                       WORKING_DIR + "img\\sprites\\Wine.png_player",
-                                                       14, 0,      // startX, startY
-                                                       24, 16,     // endX, endY
-                                                       10, 16)[0]; // sizeX, sizeY
+            return SpriteAtlas.getFrames("Wine.player")[0];
             
         } catch (IOException | IllegalArgumentException e) {
             Log2.write(e);
@@ -197,8 +189,8 @@ public class Wine extends BaseTopDownScroller {
      */
     @Override
     protected String getInstruction() {
-        return "Fill your wine glass! <br> Use the left and right arrow keys"
-            + " to avoid the sheep <br> and collect the wine drops!";
+        return "Fill your wine glass!\nUse the left and right arrow keys"
+            + " to avoid the sheep\nand collect the wine drops!";
     }
     
     /* 
@@ -0,0 +1,172 @@
+package learningGame.miniGame.model;
+
+
+// Own packages
+import learningGame.tools.matrix.Vec;
+
+
+// Java packages
+import java.util.Random;
+
+
+/* 
+ * Steps the MiniGame models without a display as fast as possible.
+ * Used to benchmark the game logic separately from the rendering.
+ */
+public class HeadlessRunner {
+    // The number of updates per second that are simulated.
+    private static int updatesPerSecond = 30;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * This is a singleton class. No instances should be made.
+     */
+    @Deprecated
+    private HeadlessRunner() { }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param tick the update number.
+     * @return the simulated time stamp of the given update.
+     */
+    private static long timeStampOf(long tick) {
+        return (long) (tick * 1000.0 / updatesPerSecond);
+    }
+    
+    /* 
+     * @return the simulated time (in sec) between two updates.
+     */
+    private static double deltaTime() {
+        return 1.0 / updatesPerSecond;
+    }
+    
+    /* 
+     * Runs a scroller model with a player that randomly changes direction.
+     * 
+     * @param ticks the number of updates to execute.
+     * @param seed the seed of the simulation.
+     * @return the number of updates per second that were executed.
+     */
+    public static double runScroller(long ticks, long seed) {
+        Random input = new Random(seed);
+        ScrollerModel model = new ScrollerModel(seed,
+                                                new int[] {100, 150}, new int[] {100},
+                                                100,
+                                                new double[][] {{0.125, 0.125}, {0.125, 0.125}},
+                                                new double[][] {{0.125, 0.125}},
+                                                new double[] {0.2, 0.2});
+        model.setListener(new ScrollerModel.Listener() {
+            @Override
+            public void spawned(ScrollerModel.Spawn spawn) { }
+            
+            @Override
+            public void destroyed(ScrollerModel.Spawn spawn) { }
+            
+            @Override
+            public void intersected(ScrollerModel.Spawn spawn) {
+                model.destroy(spawn);
+            }
+        });
+        
+        int direction = ScrollerModel.FORWARD;
+        double dt = deltaTime();
+        long start = System.nanoTime();
+        for (long tick = 0; tick < ticks; tick++) {
+            if (input.nextInt(10) == 0) direction = input.nextInt(3);
+            model.step(direction, timeStampOf(tick), dt);
+        }
+        
+        return ticks / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+    
+    /* 
+     * Runs a whack model where random holes are whacked.
+     * 
+     * @param ticks the number of updates to execute.
+     * @param seed the seed of the simulation.
+     * @return the number of updates per second that were executed.
+     */
+    public static double runWhack(long ticks, long seed) {
+        Random input = new Random(seed);
+        WhackModel model = new WhackModel(seed, 3, 3, 6, 4);
+        double dt = deltaTime();
+        
+        long start = System.nanoTime();
+        for (long tick = 0; tick < ticks; tick++) {
+            long timeStamp = timeStampOf(tick);
+            model.step(timeStamp, dt);
+            if (input.nextInt(5) == 0) {
+                model.whack(input.nextInt(3), input.nextInt(3), timeStamp);
+            }
+        }
+        
+        return ticks / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+    
+    /* 
+     * Runs a shave model where random patches are shaved.
+     * The patches are added again when all of them have left the screen.
+     * 
+     * @param ticks the number of updates to execute.
+     * @param seed the seed of the simulation.
+     * @return the number of updates per second that were executed.
+     */
+    public static double runShave(long ticks, long seed) {
+        Random input = new Random(seed);
+        ShaveModel model = createShaveModel(input);
+        double dt = deltaTime();
+        
+        long start = System.nanoTime();
+        for (long tick = 0; tick < ticks; tick++) {
+            long timeStamp = timeStampOf(tick);
+            model.setTrimming(input.nextBoolean(), timeStamp);
+            model.step(timeStamp, dt);
+            model.shave(model.getPatch(input.nextInt(model.getNumPatches())));
+            
+            if (model.getNumAttached() == 0) model = createShaveModel(input);
+        }
+        
+        return ticks / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+    
+    /* 
+     * @param random the random generator used for the initial speeds.
+     * @return a new shave model with a grid of patches.
+     */
+    private static ShaveModel createShaveModel(Random random) {
+        ShaveModel model = new ShaveModel(4);
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 5; j++) {
+                double angle = Math.toRadians(random.nextDouble() * 120 + 30);
+                model.addPatch(0.25 + i * 0.08, 0.2 + j * 0.15, 0.2, 0.04, new Vec(0, 2.7),
+                               new Vec(Math.cos(angle) * 0.9, -Math.sin(angle) * 0.9));
+            }
+        }
+        
+        return model;
+    }
+    
+    public static void main(String[] args) {
+        long ticks = (args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L);
+        long seed = (args.length > 1 ? Long.parseLong(args[1]) : 0L);
+        if (args.length > 2) updatesPerSecond = Integer.parseInt(args[2]);
+        
+        // Warm up the JIT.
+        runScroller(ticks / 10, seed);
+        runWhack(ticks / 10, seed);
+        runShave(ticks / 10, seed);
+        
+        System.out.println("Scroller: " + (long) runScroller(ticks, seed) + " ticks/sec");
+        System.out.println("Whack:    " + (long) runWhack(ticks, seed) + " ticks/sec");
+        System.out.println("Shave:    " + (long) runShave(ticks, seed) + " ticks/sec");
+    }
+    
+}
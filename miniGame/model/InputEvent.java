@@ -0,0 +1,131 @@
+package learningGame.miniGame.model;
+
+
+// Java packages
+import java.util.Arrays;
+
+
+/* 
+ * An input event for a MiniGame, such as a whack or a shave.
+ * Input events are applied at the start of an update, so they can be recorded and
+ * replayed deterministically.
+ */
+public class InputEvent {
+    // The type of event of a mouse position sample.
+    final public static String MOUSE = "mouse";
+    
+    // The type of the event.
+    final private String type;
+    
+    // The arguments of the event.
+    final private double[] args;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param type the type of the event. May not contain whitespace.
+     * @param args the arguments of the event.
+     */
+    public InputEvent(String type, double... args) {
+        if (type == null) throw new NullPointerException("No event type was given!");
+        if (type.isEmpty() || type.matches(".*\\s.*"))
+            throw new IllegalArgumentException("Invalid event type: \"" + type + "\"");
+            
+        this.type = type;
+        this.args = args;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param text the text to parse, as returned by {@code toString()}.
+     * @return the event described by the text.
+     * @throws IllegalArgumentException iff the text could not be parsed.
+     */
+    public static InputEvent parse(String text) {
+        String[] split = text.trim().split("\\s+");
+        double[] args = new double[split.length - 1];
+        
+        try {
+            for (int i = 0; i < args.length; i++) {
+                args[i] = Double.parseDouble(split[i + 1]);
+            }
+            
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Could not parse event: \"" + text + "\"", e);
+        }
+        
+        return new InputEvent(split[0], args);
+    }
+    
+    /* 
+     * @return whether this event is a mouse position sample.
+     */
+    public boolean isMouseSample() {
+        return MOUSE.equals(type);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(type);
+        for (double arg : args) {
+            sb.append(' ');
+            if (arg == (long) arg) {
+                sb.append((long) arg);
+                
+            } else {
+                sb.append(arg);
+            }
+        }
+        
+        return sb.toString();
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof InputEvent)) return false;
+        InputEvent e = (InputEvent) obj;
+        return type.equals(e.type) && Arrays.equals(args, e.args);
+    }
+    
+    @Override
+    public int hashCode() {
+        return type.hashCode() ^ Arrays.hashCode(args);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public String getType() {
+        return type;
+    }
+    
+    /* 
+     * @param i the index of the argument.
+     * @return the argument at the given index.
+     */
+    public double getArg(int i) {
+        return args[i];
+    }
+    
+    /* 
+     * @param i the index of the argument.
+     * @return the argument at the given index as integer.
+     */
+    public int getIntArg(int i) {
+        return (int) args[i];
+    }
+    
+    public int getNumArgs() {
+        return args.length;
+    }
+    
+}
@@ -0,0 +1,316 @@
+package learningGame.miniGame.model;
+
+
+// Java packages
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/* 
+ * The recorded input of a single MiniGame session.
+ * For every update the time stamp, the pressed keys and the applied input events are stored,
+ * together with the seeds of the random generators used by the MiniGame.
+ * Replaying these with the same MiniGame results in exactly the same session.
+ * 
+ * The recording is stored as a text file with one entry per line:
+ *     class <class name>
+ *     timeout <time out in ms>
+ *     init <time stamp of the update before the start>
+ *     start <time stamp of the start>
+ *     seed <name> <seed>
+ *     tick <tick number> <time stamp> <delta time in sec> [<key code>,<key code>,...]
+ *     event <tick number> <type> [<arg> ...]
+ */
+public class InputRecording {
+    // The header of a recording file.
+    final private static String HEADER = "# learningGame input recording";
+    
+    // The class name of the recorded MiniGame.
+    final private String miniGameClass;
+    
+    // The time out of the recorded MiniGame.
+    final private long timeOut;
+    
+    // The time stamps of the update before the start and of the start.
+    private long initTimeStamp;
+    private long startTimeStamp;
+    
+    // The seeds of the random generators.
+    final private Map<String, Long> seeds = new HashMap<String, Long>();
+    
+    // The ticks.
+    final private List<Tick> ticks = new ArrayList<Tick>();
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Tick class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * The input of a single update.
+     */
+    private static class Tick {
+        final private long timeStamp;
+        final private double deltaTime;
+        final private String[] keys;
+        final private List<InputEvent> events = new ArrayList<InputEvent>(0);
+        
+        private Tick(long timeStamp, double deltaTime, String[] keys) {
+            this.timeStamp = timeStamp;
+            this.deltaTime = deltaTime;
+            this.keys = keys;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param miniGameClass the class name of the recorded MiniGame.
+     * @param timeOut the time out of the recorded MiniGame.
+     */
+    public InputRecording(String miniGameClass, long timeOut) {
+        if (miniGameClass == null) throw new NullPointerException("No MiniGame class was given!");
+        this.miniGameClass = miniGameClass;
+        this.timeOut = timeOut;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Adds a new tick to the recording.
+     * 
+     * @param timeStamp the time stamp of the update.
+     * @param deltaTime the time (in sec) since the previous update.
+     * @param keys the key codes of the keys that were pressed.
+     * @return the number of the added tick.
+     */
+    public int addTick(long timeStamp, double deltaTime, String[] keys) {
+        ticks.add(new Tick(timeStamp, deltaTime, keys));
+        return ticks.size() - 1;
+    }
+    
+    /* 
+     * Adds an event to the last tick.
+     * 
+     * @param event the event to add.
+     * @throws IllegalStateException iff no tick has been added yet.
+     */
+    public void addEvent(InputEvent event) {
+        if (ticks.isEmpty()) throw new IllegalStateException("No tick was added yet!");
+        ticks.get(ticks.size() - 1).events.add(event);
+    }
+    
+    /* 
+     * Saves the recording to the given file.
+     * The parent directories are created if needed.
+     * 
+     * @param fileName the file to save the recording to.
+     * @throws IOException iff the file could not be written.
+     */
+    public void save(String fileName) throws IOException {
+        File parent = new File(fileName).getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(fileName))) {
+            bw.write(HEADER);
+            bw.newLine();
+            bw.write("class " + miniGameClass);
+            bw.newLine();
+            bw.write("timeout " + timeOut);
+            bw.newLine();
+            bw.write("init " + initTimeStamp);
+            bw.newLine();
+            bw.write("start " + startTimeStamp);
+            bw.newLine();
+            
+            for (Map.Entry<String, Long> entry : seeds.entrySet()) {
+                bw.write("seed " + entry.getKey() + " " + entry.getValue());
+                bw.newLine();
+            }
+            
+            for (int i = 0; i < ticks.size(); i++) {
+                Tick tick = ticks.get(i);
+                bw.write("tick " + i + " " + tick.timeStamp + " " + tick.deltaTime
+                             + (tick.keys.length == 0 ? "" : " " + String.join(",", tick.keys)));
+                bw.newLine();
+                
+                for (InputEvent event : tick.events) {
+                    bw.write("event " + i + " " + event.toString());
+                    bw.newLine();
+                }
+            }
+        }
+    }
+    
+    /* 
+     * Loads a recording from the given file.
+     * 
+     * @param fileName the file to load the recording from.
+     * @return the loaded recording.
+     * @throws IOException iff the file could not be read or has an invalid format.
+     */
+    public static InputRecording load(String fileName) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+            String line = br.readLine();
+            if (!HEADER.equals(line)) throw new IOException("\"" + fileName + "\" is no input recording!");
+            
+            InputRecording recording = null;
+            String miniGameClass = null;
+            int lineNum = 1;
+            
+            while ((line = br.readLine()) != null) {
+                lineNum++;
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] split = line.split(" ", 3);
+                
+                try {
+                    if (split[0].equals("class")) {
+                        miniGameClass = split[1];
+                        
+                    } else if (split[0].equals("timeout")) {
+                        recording = new InputRecording(miniGameClass, Long.parseLong(split[1]));
+                        
+                    } else if (recording == null) {
+                        throw new IOException("Expected the class and time out first.");
+                        
+                    } else if (split[0].equals("init")) {
+                        recording.initTimeStamp = Long.parseLong(split[1]);
+                        
+                    } else if (split[0].equals("start")) {
+                        recording.startTimeStamp = Long.parseLong(split[1]);
+                        
+                    } else if (split[0].equals("seed")) {
+                        recording.putSeed(split[1], Long.parseLong(split[2]));
+                        
+                    } else if (split[0].equals("tick")) {
+                        String[] rest = split[2].split(" ");
+                        if (Integer.parseInt(split[1]) != recording.ticks.size())
+                            throw new IOException("Ticks are not consecutive.");
+                            
+                        recording.addTick(Long.parseLong(rest[0]), Double.parseDouble(rest[1]),
+                                          (rest.length > 2 ? rest[2].split(",") : new String[0]));
+                                          
+                    } else if (split[0].equals("event")) {
+                        if (Integer.parseInt(split[1]) != recording.ticks.size() - 1)
+                            throw new IOException("Event does not belong to the last tick.");
+                            
+                        recording.addEvent(InputEvent.parse(split[2]));
+                        
+                    } else {
+                        throw new IOException("Unknown entry \"" + split[0] + "\".");
+                    }
+                    
+                } catch (IOException | RuntimeException e) {
+                    throw new IOException("Invalid recording \"" + fileName + "\" at line " + lineNum
+                                              + ": " + e.getMessage(), e);
+                }
+            }
+            
+            if (recording == null) throw new IOException("\"" + fileName + "\" contains no MiniGame!");
+            return recording;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param name the name of the random generator.
+     * @param seed the seed of the random generator.
+     */
+    public void putSeed(String name, long seed) {
+        seeds.put(name, seed);
+    }
+    
+    public void setInitTimeStamp(long initTimeStamp) {
+        this.initTimeStamp = initTimeStamp;
+    }
+    
+    public void setStartTimeStamp(long startTimeStamp) {
+        this.startTimeStamp = startTimeStamp;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public String getMiniGameClass() {
+        return miniGameClass;
+    }
+    
+    public long getTimeOut() {
+        return timeOut;
+    }
+    
+    public long getInitTimeStamp() {
+        return initTimeStamp;
+    }
+    
+    public long getStartTimeStamp() {
+        return startTimeStamp;
+    }
+    
+    /* 
+     * @param name the name of the random generator.
+     * @return the seed of the random generator, or null if no seed was recorded.
+     */
+    public Long getSeed(String name) {
+        return seeds.get(name);
+    }
+    
+    public int getNumTicks() {
+        return ticks.size();
+    }
+    
+    /* 
+     * @param tick the tick number.
+     * @return the time stamp of the given tick.
+     */
+    public long getTimeStamp(int tick) {
+        return ticks.get(tick).timeStamp;
+    }
+    
+    /* 
+     * @param tick the tick number.
+     * @return the time (in sec) between the given tick and the previous tick.
+     */
+    public double getDeltaTime(int tick) {
+        return ticks.get(tick).deltaTime;
+    }
+    
+    /* 
+     * @param tick the tick number.
+     * @return the key codes of the keys that were pressed during the given tick.
+     */
+    public String[] getKeys(int tick) {
+        return ticks.get(tick).keys;
+    }
+    
+    /* 
+     * @param tick the tick number.
+     * @return the events that were applied during the given tick.
+     */
+    public List<InputEvent> getEvents(int tick) {
+        return Collections.unmodifiableList(ticks.get(tick).events);
+    }
+    
+}
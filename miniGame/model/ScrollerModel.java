@@ -0,0 +1,526 @@
+package learningGame.miniGame.model;
+
+
+// Java packages
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/* 
+ * The simulation of a top down scroller.
+ * All locations and sizes are relative to the size of the screen, so (0.0, 0.0) is the
+ * upper left corner and (1.0, 1.0) is the lower right corner of the screen.
+ * All speeds are per second, and each step is given the elapsed time, so the gameplay
+ * does not depend on the update rate.
+ * This class has no dependencies on Swing, so it can be stepped without a display.
+ */
+public class ScrollerModel {
+    // The player states.
+    final public static int FORWARD = 0;
+    final public static int LEFT = 1;
+    final public static int RIGHT = 2;
+    final public static int DAMAGED = 3;
+    
+    // The random generator used for spawning and it's seed.
+    final private Random random;
+    final private long seed;
+    
+    // The frame speeds and relative sizes of the different obstacle and collectable types.
+    final private int[] obstacleFrameSpeeds;
+    final private int[] collectableFrameSpeeds;
+    final private double[][] obstacleSizes;
+    final private double[][] collectableSizes;
+    
+    // The listener that is notified about the events of this model.
+    private Listener listener;
+    
+    // The spawned obstacles and collectables.
+    final private List<Spawn> obstacles = new ArrayList<Spawn>();
+    final private List<Spawn> collectables = new ArrayList<Spawn>();
+    
+    // The player.
+    final private PlayerModel player;
+    
+    // Scroll speed of the background (1.0 = 1 full screen further in 1 sec).
+    private double scrollSpeed = 1.0;
+    
+    // The speed of the player (1.0 = 1 full screen further in 1 sec).
+    private double playerSpeed = 1.3;
+    
+    // The spawn chances in [spawns per second].
+    private double obstacleSpawnChance = 1.0;
+    private double collectableSpawnChance = 2.75;
+    
+    // The current position of the background.
+    // It always holds that 0.0 <= curPos < 1.0.
+    private double curPos = 0.0;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Listener interface
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Interface for receiving the events of the model.
+     */
+    public interface Listener {
+        /* 
+         * Invoked when a spawn was added to the model.
+         */
+        public void spawned(Spawn spawn);
+        
+        /* 
+         * Invoked when a spawn was removed from the model.
+         */
+        public void destroyed(Spawn spawn);
+        
+        /* 
+         * Invoked when a spawn intersects with the player for the first time.
+         */
+        public void intersected(Spawn spawn);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Spawn class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * An obstacle or collectable that moves from the top to the bottom of the screen.
+     */
+    public static class Spawn {
+        // Whether this spawn is an obstacle or a collectable.
+        final private boolean obstacle;
+        
+        // The type of the spawn.
+        final private int type;
+        
+        // The relative horizontal location, where 0.0 is the left border and 1.0 the right border.
+        final private double widthLoc;
+        
+        // The relative vertical progress, where 0.0 is just above the screen
+        // and 1.0 is just below the screen.
+        private double heightLoc = 0.0;
+        
+        // The relative size.
+        private double width;
+        private double height;
+        
+        // The animation speed (in ms per frame), the last animation time stamp and the frame counter.
+        final private int animSpeed;
+        private long animTimeStamp;
+        private int animNum = 0;
+        
+        // Whether the spawn has already hit the player.
+        private boolean hasHitPlayer = false;
+        
+        // Whether the spawn is still in the model.
+        private boolean alive = true;
+        
+        private Spawn(boolean obstacle, int type, double loc, int animSpeed,
+                      double width, double height, long timeStamp) {
+            if (loc < 0 || loc > 1) {
+                throw new IllegalArgumentException
+                    ("Invallid location arugument. Expected: 0 <= loc <= 1. Found: loc = " + loc);
+            }
+            
+            this.obstacle = obstacle;
+            this.type = type;
+            this.widthLoc = loc;
+            this.animSpeed = animSpeed;
+            this.width = width;
+            this.height = height;
+            this.animTimeStamp = timeStamp;
+        }
+        
+        /* 
+         * @return the relative x location of the upper left corner.
+         */
+        public double getX() {
+            return widthLoc * (1.0 - width);
+        }
+        
+        /* 
+         * @return the relative y location of the upper left corner.
+         */
+        public double getY() {
+            return heightLoc * (1.0 + height) - height;
+        }
+        
+        public double getWidth() {
+            return width;
+        }
+        
+        public double getHeight() {
+            return height;
+        }
+        
+        public boolean isObstacle() {
+            return obstacle;
+        }
+        
+        public int getType() {
+            return type;
+        }
+        
+        /* 
+         * @return the animation frame counter. Should be taken modulo the number of frames.
+         */
+        public int getAnimNum() {
+            return animNum;
+        }
+        
+        public boolean isAlive() {
+            return alive;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * PlayerModel class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * The player, which moves horizontally at the bottom of the screen.
+     */
+    public static class PlayerModel {
+        // The current state of the player.
+        private int state = FORWARD;
+        
+        // The relative horizontal location, where 0.0 is the left border and 1.0 the right border.
+        private double widthLoc = 0.5;
+        
+        // The relative size.
+        private double width;
+        private double height;
+        
+        // The animation speed (in ms per frame), the last animation time stamp and the frame counter.
+        final private int animSpeed;
+        private long animTimeStamp;
+        private int animNum = 0;
+        
+        private PlayerModel(int animSpeed, double width, double height) {
+            this.animSpeed = animSpeed;
+            this.width = width;
+            this.height = height;
+        }
+        
+        /* 
+         * @return the relative x location of the upper left corner.
+         */
+        public double getX() {
+            return widthLoc * (1.0 - width);
+        }
+        
+        /* 
+         * @return the relative y location of the upper left corner.
+         */
+        public double getY() {
+            return 1.0 - height;
+        }
+        
+        public double getWidth() {
+            return width;
+        }
+        
+        public double getHeight() {
+            return height;
+        }
+        
+        public int getState() {
+            return state;
+        }
+        
+        /* 
+         * @return the animation frame counter. Should be taken modulo the number of frames.
+         */
+        public int getAnimNum() {
+            return animNum;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param seed the seed of the random generator used for spawning.
+     * @param obstacleFrameSpeeds the animation speed of each obstacle type.
+     * @param collectableFrameSpeeds the animation speed of each collectable type.
+     * @param playerFrameSpeed the animation speed of the player.
+     * @param obstacleSizes the relative {width, height} of each obstacle type.
+     * @param collectableSizes the relative {width, height} of each collectable type.
+     * @param playerSize the relative {width, height} of the player.
+     */
+    public ScrollerModel(long seed,
+                         int[] obstacleFrameSpeeds, int[] collectableFrameSpeeds, int playerFrameSpeed,
+                         double[][] obstacleSizes, double[][] collectableSizes, double[] playerSize) {
+        if (obstacleFrameSpeeds.length != obstacleSizes.length)
+            throw new IllegalArgumentException("Obstacle frame speeds and sizes have different lengths!");
+        if (collectableFrameSpeeds.length != collectableSizes.length)
+            throw new IllegalArgumentException("Collectable frame speeds and sizes have different lengths!");
+            
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.obstacleFrameSpeeds = obstacleFrameSpeeds;
+        this.collectableFrameSpeeds = collectableFrameSpeeds;
+        this.obstacleSizes = obstacleSizes;
+        this.collectableSizes = collectableSizes;
+        this.player = new PlayerModel(playerFrameSpeed, playerSize[0], playerSize[1]);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Executes a single update of the model.
+     * 
+     * @param playerState the requested player state (FORWARD, LEFT or RIGHT).
+     * @param timeStamp the time stamp of the update in ms.
+     * @param dt the time (in sec) since the previous update.
+     */
+    public void step(int playerState, long timeStamp, double dt) {
+        // Add spawnables
+        spawnUpdate(timeStamp, dt);
+        
+        double speed = scrollSpeed * dt;
+        
+        // Update the background position.
+        curPos = (curPos + speed) % 1.0;
+        
+        updatePlayer(playerState, timeStamp, playerSpeed * dt);
+        
+        // Spawns might be destroyed during the update, so iterate over a copy.
+        for (Spawn spawn : obstacles.toArray(new Spawn[obstacles.size()])) {
+            updateSpawn(spawn, timeStamp, speed);
+        }
+        
+        for (Spawn spawn : collectables.toArray(new Spawn[collectables.size()])) {
+            updateSpawn(spawn, timeStamp, speed);
+        }
+    }
+    
+    /* 
+     * Updates the location and animation of the player.
+     */
+    private void updatePlayer(int newState, long timeStamp, double speed) {
+        if (newState == LEFT) {
+            player.widthLoc -= speed;
+            
+        } else if (newState == RIGHT) {
+            player.widthLoc += speed;
+        }
+        
+        if (newState == LEFT || newState == RIGHT || newState == FORWARD) {
+            player.state = newState;
+        }
+        
+        // Check bounds on the width value.
+        if (player.widthLoc < 0) {
+            player.widthLoc = 0;
+            
+        } else if (player.widthLoc > 1) {
+            player.widthLoc = 1;
+        }
+        
+        // Update the animation frame.
+        if (player.animTimeStamp == 0L) {
+            player.animTimeStamp = timeStamp;
+            
+        } else if (timeStamp > player.animTimeStamp + player.animSpeed) {
+            player.animTimeStamp += player.animSpeed;
+            player.animNum++;
+        }
+    }
+    
+    /* 
+     * Updates the location and animation of a spawn and checks whether it hits the player.
+     */
+    private void updateSpawn(Spawn spawn, long timeStamp, double speed) {
+        if (!spawn.alive) return;
+        
+        spawn.heightLoc += speed;
+        if (spawn.heightLoc > 1.0) {
+            destroy(spawn);
+            return;
+        }
+        
+        // Update the animation frame.
+        if (timeStamp > spawn.animTimeStamp + spawn.animSpeed) {
+            spawn.animTimeStamp += spawn.animSpeed;
+            spawn.animNum++;
+        }
+        
+        // Check if the spawn collides with the player.
+        double sX = spawn.getX();
+        double sY = spawn.getY();
+        double pX = player.getX();
+        double pY = player.getY();
+        
+        if (!spawn.hasHitPlayer &&
+            pX < sX + spawn.width  && pX + player.width  > sX &&
+            pY < sY + spawn.height && pY + player.height > sY)
+        {
+            spawn.hasHitPlayer = true;
+            if (listener != null) listener.intersected(spawn);
+        }
+    }
+    
+    /* 
+     * Spawns the obstacles and collectables for this update.
+     */
+    private void spawnUpdate(long timeStamp, double dt) {
+        int spawnObstacles = calcNumSpawns(obstacleSpawnChance, dt);
+        for (int i = 0; i < spawnObstacles; i++) {
+            // Generate a random type and location
+            int type = random.nextInt(obstacleFrameSpeeds.length);
+            double loc = random.nextDouble();
+            
+            add(new Spawn(true, type, loc, obstacleFrameSpeeds[type],
+                          obstacleSizes[type][0], obstacleSizes[type][1], timeStamp));
+        }
+        
+        int spawnCollectables = calcNumSpawns(collectableSpawnChance, dt);
+        for (int i = 0; i < spawnCollectables; i++) {
+            // Generate a random type and location
+            int type = random.nextInt(collectableFrameSpeeds.length);
+            double loc = random.nextDouble();
+            
+            add(new Spawn(false, type, loc, collectableFrameSpeeds[type],
+                          collectableSizes[type][0], collectableSizes[type][1], timeStamp));
+        }
+    }
+    
+    /* 
+     * @param spawnChance the number of spawns per second.
+     * @param dt the time (in sec) since the previous update.
+     * @return the number of spawns for a single update.
+     */
+    private int calcNumSpawns(double spawnChance, double dt) {
+        if (spawnChance <= 0) return 0;
+        
+        // Always spawn the spawnables that should have been spawned in the elapsed time.
+        double expected = spawnChance * dt;
+        int spawns = (int) expected;
+        
+        // For the remaining chance, approximate whether to spawn or not.
+        if (expected - spawns > random.nextDouble()) {
+            spawns++;
+        }
+        
+        return spawns;
+    }
+    
+    /* 
+     * Adds a spawn to the model.
+     */
+    private void add(Spawn spawn) {
+        if (spawn.obstacle) {
+            obstacles.add(spawn);
+            
+        } else {
+            collectables.add(spawn);
+        }
+        
+        if (listener != null) listener.spawned(spawn);
+    }
+    
+    /* 
+     * Removes a spawn from the model.
+     * No action is taken when the spawn was already removed.
+     */
+    public void destroy(Spawn spawn) {
+        if (!spawn.alive) return;
+        spawn.alive = false;
+        
+        if (spawn.obstacle) {
+            obstacles.remove(spawn);
+            
+        } else {
+            collectables.remove(spawn);
+        }
+        
+        if (listener != null) listener.destroyed(spawn);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+    
+    public void setScrollSpeed(double scrollSpeed) {
+        this.scrollSpeed = scrollSpeed;
+    }
+    
+    public void setPlayerSpeed(double playerSpeed) {
+        this.playerSpeed = playerSpeed;
+    }
+    
+    /* 
+     * @param obstacleSpawnChance the number of obstacles spawned per second.
+     *     A value lower then 0 will cause no obstacles to be spawned.
+     * @param collectableSpawnChance the number of collectables spawned per second.
+     *     A value lower then 0 will cause no collectables to be spawned.
+     */
+    public void setSpawnChances(double obstacleSpawnChance, double collectableSpawnChance) {
+        this.obstacleSpawnChance = obstacleSpawnChance;
+        this.collectableSpawnChance = collectableSpawnChance;
+    }
+    
+    /* 
+     * Updates the relative sizes of all spawns and the player.
+     */
+    public void setSizes(double[][] obstacleSizes, double[][] collectableSizes, double[] playerSize) {
+        System.arraycopy(obstacleSizes, 0, this.obstacleSizes, 0, this.obstacleSizes.length);
+        System.arraycopy(collectableSizes, 0, this.collectableSizes, 0, this.collectableSizes.length);
+        player.width = playerSize[0];
+        player.height = playerSize[1];
+        
+        for (Spawn spawn : obstacles) {
+            spawn.width = obstacleSizes[spawn.type][0];
+            spawn.height = obstacleSizes[spawn.type][1];
+        }
+        
+        for (Spawn spawn : collectables) {
+            spawn.width = collectableSizes[spawn.type][0];
+            spawn.height = collectableSizes[spawn.type][1];
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public PlayerModel getPlayer() {
+        return player;
+    }
+    
+    /* 
+     * @return the current position of the background. Always between 0.0 (inclusive) and 1.0 (exclusive).
+     */
+    public double getScrollPos() {
+        return curPos;
+    }
+    
+    public int getNumObstacles() {
+        return obstacles.size();
+    }
+    
+    public int getNumCollectables() {
+        return collectables.size();
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+}
@@ -0,0 +1,301 @@
+package learningGame.miniGame.model;
+
+
+// Own packages
+import learningGame.tools.matrix.Vec;
+
+
+// Java packages
+import java.util.ArrayList;
+import java.util.List;
+
+
+/* 
+ * The simulation of a shaving game.
+ * The field consists of hair patches which jump off and fall off the screen when they are
+ * shaved, and a trimmer which is animated while trimming.
+ * All locations and sizes are relative to the size of the screen, so (0.0, 0.0) is the
+ * upper left corner and (1.0, 1.0) is the lower right corner of the screen.
+ * Speeds are measured in screen size per second, and each step is given the elapsed time,
+ * so the gameplay does not depend on the update rate.
+ * This class has no dependencies on Swing, so it can be stepped without a display.
+ */
+public class ShaveModel {
+    // The time (in ms) it takes to cycle through all trimmer images.
+    final private static int TRIMMER_MOVE_TIME = 100;
+    
+    // The hair patches.
+    final private List<Patch> patches = new ArrayList<Patch>();
+    
+    // The number of patches that are still attached.
+    private int attached = 0;
+    
+    // The number of frames of the trimmer animation.
+    final private int trimmerFrames;
+    
+    // Whether the trimmer is trimming.
+    private boolean trimming = false;
+    
+    // The animation frame of the trimmer.
+    private int trimmerImageNum = 0;
+    
+    // The time stamp (in ms) of when the trimmer started the current animation cycle.
+    private long trimStartedTime = 0L;
+    
+    // The listener that is notified about the events of this model.
+    private Listener listener;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Listener interface
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Interface for receiving the events of the model.
+     */
+    public interface Listener {
+        /* 
+         * Invoked when a patch has been shaved.
+         */
+        public void shaved(Patch patch);
+        
+        /* 
+         * Invoked when a patch has left the screen.
+         */
+        public void detached(Patch patch);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Patch class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * A single hair patch.
+     * The location of a patch denotes it's lower right corner.
+     */
+    public static class Patch {
+        // The index of the patch in the model.
+        final private int index;
+        
+        // The gravity (in screen size per second^2) and current speed (in screen size per second)
+        // of the patch.
+        final private Vec gravity;
+        final private Vec speed;
+        
+        // The relative location and size of the patch.
+        private double x;
+        private double y;
+        final private double width;
+        final private double height;
+        
+        // Whether the patch has been shaved.
+        private boolean shaved = false;
+        
+        // Whether the patch has left the screen.
+        private boolean detached = false;
+        
+        private Patch(int index, double x, double y, double width, double height, Vec gravity, Vec speed) {
+            this.index = index;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.gravity = gravity;
+            this.speed = speed;
+        }
+        
+        /* 
+         * @return the relative x location of the upper left corner.
+         */
+        public double getX() {
+            return x - width;
+        }
+        
+        /* 
+         * @return the relative y location of the upper left corner.
+         */
+        public double getY() {
+            return y - height;
+        }
+        
+        public double getWidth() {
+            return width;
+        }
+        
+        public double getHeight() {
+            return height;
+        }
+        
+        public int getIndex() {
+            return index;
+        }
+        
+        public boolean isShaved() {
+            return shaved;
+        }
+        
+        public boolean isDetached() {
+            return detached;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param trimmerFrames the number of animation frames of the trimmer.
+     */
+    public ShaveModel(int trimmerFrames) {
+        this.trimmerFrames = trimmerFrames;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Adds a hair patch to the model.
+     * 
+     * @param x the relative x location of the lower right corner.
+     * @param y the relative y location of the lower right corner.
+     * @param width the relative width.
+     * @param height the relative height.
+     * @param gravity the gravity in screen size per second^2.
+     * @param initSpeed the initial speed in screen size per second after the patch has been shaved.
+     * @return the created patch.
+     */
+    public Patch addPatch(double x, double y, double width, double height, Vec gravity, Vec initSpeed) {
+        Patch patch = new Patch(patches.size(), x, y, width, height, gravity, initSpeed);
+        patches.add(patch);
+        attached++;
+        return patch;
+    }
+    
+    /* 
+     * Executes a single update of the model.
+     * 
+     * @param timeStamp the time stamp of the update in ms.
+     * @param dt the time (in sec) since the previous update.
+     */
+    public void step(long timeStamp, double dt) {
+        for (int i = 0; i < patches.size(); i++) {
+            Patch patch = patches.get(i);
+            if (patch.detached) continue;
+            
+            if (patch.shaved && patch.speed != null) {
+                patch.speed.addVec(Vec.multiplyVec(dt, patch.gravity), true);
+                patch.x += patch.speed.x() * dt;
+                patch.y += patch.speed.y() * dt;
+                
+                // Detach the patch when it has completely left the screen.
+                if (patch.x < 0 || patch.x - patch.width > 1 ||
+                    patch.y < 0 || patch.y - patch.height > 1) {
+                    detach(patch);
+                }
+            }
+        }
+        
+        updateTrimmer(timeStamp);
+    }
+    
+    /* 
+     * Updates the animation of the trimmer.
+     */
+    private void updateTrimmer(long timeStamp) {
+        if (!trimming || trimmerFrames <= 0) return;
+        
+        long delta = timeStamp - trimStartedTime;
+        if (delta > TRIMMER_MOVE_TIME * ((double) trimmerImageNum + 1.0) / trimmerFrames) {
+            // If the end of the animation has been reached, restart it.
+            if (++trimmerImageNum > trimmerFrames - 1) {
+                trimmerImageNum = 0;
+                trimStartedTime = timeStamp;
+            }
+        }
+    }
+    
+    /* 
+     * Shaves the given patch, which makes it jump off.
+     * No action is taken when the patch was already shaved.
+     */
+    public void shave(Patch patch) {
+        if (patch.shaved || patch.detached) return;
+        
+        patch.shaved = true;
+        if (listener != null) listener.shaved(patch);
+    }
+    
+    /* 
+     * Removes the patch from the screen.
+     */
+    private void detach(Patch patch) {
+        patch.detached = true;
+        attached--;
+        if (listener != null) listener.detached(patch);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+    
+    /* 
+     * @param trimming whether the trimmer is trimming.
+     * @param timeStamp the time stamp of the change in ms.
+     */
+    public void setTrimming(boolean trimming, long timeStamp) {
+        if (this.trimming != trimming) {
+            trimStartedTime = timeStamp;
+            this.trimming = trimming;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public Patch getPatch(int index) {
+        return patches.get(index);
+    }
+    
+    public int getNumPatches() {
+        return patches.size();
+    }
+    
+    /* 
+     * @return the number of patches that are still on the screen.
+     */
+    public int getNumAttached() {
+        return attached;
+    }
+    
+    /* 
+     * @return the number of patches that have been shaved.
+     */
+    public int getNumShaved() {
+        int shaved = 0;
+        for (Patch patch : patches) {
+            if (patch.shaved) shaved++;
+        }
+        
+        return shaved;
+    }
+    
+    public boolean isTrimming() {
+        return trimming;
+    }
+    
+    public int getTrimmerImageNum() {
+        return trimmerImageNum;
+    }
+    
+}
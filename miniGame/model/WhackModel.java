@@ -0,0 +1,389 @@
+package learningGame.miniGame.model;
+
+
+// Java packages
+import java.util.Random;
+
+
+/* 
+ * The simulation of a whack-a-mole game.
+ * The field consists of a grid of holes from which whackables appear, and a single hammer
+ * which is used to whack them.
+ * Each step is given the elapsed time, so the gameplay does not depend on the update rate.
+ * This class has no dependencies on Swing, so it can be stepped without a display.
+ */
+public class WhackModel {
+    // The whackable states.
+    final public static int NOTHING = 0;    // No changes, not whackable.
+    final public static int GOING_UP = 1;   // Whackable going up, whackable.
+    final public static int OUT = 2;        // Whackable is out, whackable.
+    final public static int GOING_DOWN = 3; // Whackable is going down, whackable.
+    final public static int WHACKED = 4;    // Whackable has been wacked, not whackable.
+    
+    // The hammer states.
+    final public static int HAMMER_NOTHING = 0;
+    final public static int HAMMER_WHACKING = 1;
+    final public static int HAMMER_WAITING = 2;
+    
+    // The time (in ms) a whacked whackable stays visible.
+    final private static int WHACKED_TIME = 750;
+    
+    // The time (in ms) it takes for a whackable to fully appear and to stay out.
+    final private static int WHACKABLE_MOVE_TIME = 500;
+    final private static int WHACKABLE_STAY_TIME = 200;
+    
+    // The time (in ms) it takes for the hammer to swing and to get back.
+    final private static int HAMMER_MOVE_TIME = 175;
+    final private static int HAMMER_WAIT_TIME = 25;
+    
+    // The random generator used for showing the whackables and it's seed.
+    final private Random random;
+    final private long seed;
+    
+    // The holes of the field.
+    final private Hole[][] holes;
+    
+    // The hammer.
+    final private HammerModel hammer;
+    
+    // The chance that a whackable spawns in spawns / sec.
+    private double spawnChance = 3.0;
+    
+    // The listener that is notified about the events of this model.
+    private Listener listener;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Listener interface
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Interface for receiving the events of the model.
+     */
+    public interface Listener {
+        /* 
+         * Invoked when the whackable at the given hole has been whacked.
+         */
+        public void whacked(int x, int y, long timeStamp);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Hole class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * A single hole from which a whackable can appear.
+     */
+    public static class Hole {
+        // The number of animation frames.
+        final private int frames;
+        
+        // The current state.
+        private int state = NOTHING;
+        
+        // The animation frame to show.
+        private int imageNum = 0;
+        
+        // The time stamp (in ms) of when the whackable showed up.
+        private long shownTime = 0L;
+        
+        // The time (in ms) it takes for a whackable to fully appear.
+        private int moveTime = 0;
+        
+        // The time (in ms) it takes before a surfaced whackable starts disappearing again.
+        private int waitTime = 0;
+        
+        private Hole(int frames) {
+            this.frames = frames;
+        }
+        
+        /* 
+         * Shows the whackable.
+         * First let the whackable appear in {@code moveTime} ms, then stay there for {@code stayTime} ms,
+         * and finally disappear in {@code moveTime} ms.
+         */
+        private void show(int moveTime, int stayTime, long timeStamp) {
+            if (state == NOTHING) {
+                shownTime = timeStamp;
+                this.moveTime = moveTime;
+                this.waitTime = stayTime;
+                state = GOING_UP;
+            }
+        }
+        
+        /* 
+         * Whacks the whackable iff the whackable is shown.
+         * 
+         * @return true iff the whackable could be whacked. False otherwise.
+         */
+        private boolean whack(long timeStamp) {
+            if (state == GOING_UP || state == OUT || state == GOING_DOWN) {
+                shownTime = timeStamp;
+                state = WHACKED;
+                return true;
+            }
+            
+            return false;
+        }
+        
+        /* 
+         * Updates the state and animation frame.
+         */
+        private void update(long timeStamp) {
+            if (frames <= 0) return;
+            long delta = timeStamp - shownTime;
+            
+            if (state == GOING_UP) {
+                if (delta > moveTime * (imageNum + 1.0) / frames) {
+                    // If the last frame has been reached, the whackable is out.
+                    if (++imageNum >= frames - 1) {
+                        imageNum = frames - 1;
+                        state = OUT;
+                    }
+                }
+                
+            } else if (state == OUT) {
+                // If the surface time has elapsed, start going down.
+                if (delta - moveTime > waitTime) {
+                    state = GOING_DOWN;
+                }
+                
+            } else if (state == GOING_DOWN) {
+                if (delta - moveTime - waitTime > moveTime / frames * Math.abs(imageNum - frames)) {
+                    // If the first frame has been reached, the whackable is gone.
+                    if (--imageNum <= 0) {
+                        imageNum = 0;
+                        state = NOTHING;
+                    }
+                }
+                
+            } else if (state == WHACKED) {
+                if (delta > WHACKED_TIME) {
+                    state = NOTHING;
+                }
+            }
+        }
+        
+        public int getState() {
+            return state;
+        }
+        
+        public int getImageNum() {
+            return imageNum;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * HammerModel class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * The hammer used to whack the whackables.
+     */
+    public static class HammerModel {
+        // The number of animation frames.
+        final private int frames;
+        
+        // The current state.
+        private int state = HAMMER_NOTHING;
+        
+        // The animation frame to show.
+        private int imageNum = 0;
+        
+        // The time stamp (in ms) of when the hammer started to swing.
+        private long swingStartedTime = 0L;
+        
+        // The time (in ms) it takes for a hammer to fully swing.
+        private int moveTime = 0;
+        
+        // The time (in ms) it takes before the hammer is back to it's initial position.
+        private int waitTime = 0;
+        
+        private HammerModel(int frames) {
+            this.frames = frames;
+        }
+        
+        /* 
+         * Swings the hammer.
+         * 
+         * @return true iff the hammer could swing.
+         */
+        private boolean whack(int moveTime, int waitTime, long timeStamp) {
+            if (state != HAMMER_NOTHING) return false;
+            
+            swingStartedTime = timeStamp;
+            this.moveTime = moveTime;
+            this.waitTime = waitTime;
+            state = HAMMER_WHACKING;
+            return true;
+        }
+        
+        /* 
+         * Updates the state and animation frame.
+         */
+        private void update(long timeStamp) {
+            long delta = timeStamp - swingStartedTime;
+            
+            if (state == HAMMER_WHACKING) {
+                if (frames > 0 && delta > moveTime * ((double) imageNum + 1.0) / frames) {
+                    // If the last frame has been reached, wait for the hammer to go back.
+                    if (++imageNum > frames - 1) {
+                        imageNum = frames - 1;
+                        state = HAMMER_WAITING;
+                    }
+                }
+                
+            } else if (state == HAMMER_WAITING) {
+                // If the wait time has elapsed, the hammer can be used again.
+                if (delta > moveTime + waitTime) {
+                    state = HAMMER_NOTHING;
+                    imageNum = 0;
+                }
+            }
+        }
+        
+        public boolean canWhack() {
+            return state == HAMMER_NOTHING;
+        }
+        
+        public int getState() {
+            return state;
+        }
+        
+        public int getImageNum() {
+            return imageNum;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param seed the seed of the random generator used for showing the whackables.
+     * @param fieldWidth the number of holes in horizontal direction.
+     * @param fieldHeight the number of holes in vertical direction.
+     * @param whackFrames the number of animation frames of a whackable.
+     * @param hammerFrames the number of animation frames of the hammer.
+     */
+    public WhackModel(long seed, int fieldWidth, int fieldHeight, int whackFrames, int hammerFrames) {
+        if (fieldWidth <= 0 || fieldHeight <= 0)
+            throw new IllegalArgumentException("Expected a non-empty field. Found: "
+                                                   + fieldWidth + "x" + fieldHeight);
+                                                   
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.hammer = new HammerModel(hammerFrames);
+        
+        holes = new Hole[fieldWidth][fieldHeight];
+        for (int i = 0; i < fieldWidth; i++) {
+            for (int j = 0; j < fieldHeight; j++) {
+                holes[i][j] = new Hole(whackFrames);
+            }
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Executes a single update of the model.
+     * 
+     * @param timeStamp the time stamp of the update in ms.
+     * @param dt the time (in sec) since the previous update.
+     */
+    public void step(long timeStamp, double dt) {
+        showWhackables(timeStamp, dt);
+        
+        for (int i = 0; i < holes.length; i++) {
+            for (int j = 0; j < holes[i].length; j++) {
+                holes[i][j].update(timeStamp);
+            }
+        }
+        
+        hammer.update(timeStamp);
+    }
+    
+    /* 
+     * Randomly lets the whackables show.
+     */
+    private void showWhackables(long timeStamp, double dt) {
+        double chance = spawnChance * dt / (holes.length * holes[0].length);
+        
+        for (int i = 0; i < holes.length; i++) {
+            for (int j = 0; j < holes[i].length; j++) {
+                if (random.nextDouble() < chance) {
+                    holes[i][j].show(WHACKABLE_MOVE_TIME, WHACKABLE_STAY_TIME, timeStamp);
+                }
+            }
+        }
+    }
+    
+    /* 
+     * Tries to whack the whackable in the given hole.
+     * The whack only succeeds if the hammer is ready and the whackable is shown.
+     * 
+     * @param x the x index of the hole.
+     * @param y the y index of the hole.
+     * @param timeStamp the time stamp of the whack in ms.
+     * @return true iff the whackable was whacked.
+     */
+    public boolean whack(int x, int y, long timeStamp) {
+        if (hammer.canWhack() &&
+            holes[x][y].whack(timeStamp) &&
+            hammer.whack(HAMMER_MOVE_TIME, HAMMER_WAIT_TIME, timeStamp))
+        {
+            if (listener != null) listener.whacked(x, y, timeStamp);
+            return true;
+        }
+        
+        return false;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+    
+    /* 
+     * @param spawnChance the number of whackables that show up per second.
+     */
+    public void setSpawnChance(double spawnChance) {
+        this.spawnChance = spawnChance;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public Hole getHole(int x, int y) {
+        return holes[x][y];
+    }
+    
+    public int getFieldWidth() {
+        return holes.length;
+    }
+    
+    public int getFieldHeight() {
+        return holes[0].length;
+    }
+    
+    public HammerModel getHammer() {
+        return hammer;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+}
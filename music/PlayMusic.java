@@ -84,6 +84,30 @@ public class PlayMusic {
         return clip;
     }
     
+    /* 
+     * Stops and closes the clip of the given file, and removes it.
+     * A new clip is created when the file is requested the next time.
+     * No action is taken if there is no clip of the file.
+     * 
+     * @param fileName the location of the music file.
+     */
+    public static void removeClip(String fileName) {
+        Clip clip = clipTable.remove(fileName);
+        if (clip == null) return;
+        
+        listenerTable.remove(clip);
+        clip.stop();
+        clip.close();
+    }
+    
+    /* 
+     * @param fileName the location of the music file.
+     * @return whether there currently is a clip of the given file.
+     */
+    public static boolean hasClip(String fileName) {
+        return clipTable.containsKey(fileName);
+    }
+    
     /* 
      * Plays a music file.
      * If there was no clip of the file, create a clip.
@@ -0,0 +1,176 @@
+package learningGame.tools;
+
+
+// Java packages
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.image.VolatileImage;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+
+/* 
+ * Active renderer for a single Swing component.
+ * The damaged region of the component (including it's children) is painted into a
+ * {@code VolatileImage} back buffer, after which that region is copied to the screen
+ * in a single blit.
+ * 
+ * Since Swing components may only be painted on the event dispatch thread, the frames must
+ * be rendered on that thread. The render thread should hand each frame over to the event
+ * dispatch thread (e.g. with {@code SwingUtilities.invokeLater}). Repaint requests of the
+ * component are still handled by Swing as usual.
+ * When active rendering is not possible (e.g. the component is not showing), the renderer
+ * returns false and the component should fall back to passive painting via {@code repaint()}.
+ */
+public class ActiveRenderer {
+    // The component to render.
+    final private JComponent comp;
+    
+    // The back buffer.
+    private VolatileImage backBuffer;
+    
+    // Whether the previous frame was rendered actively.
+    private boolean active = false;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param comp the component to render.
+     */
+    public ActiveRenderer(JComponent comp) {
+        if (comp == null) throw new NullPointerException("No component was given!");
+        this.comp = comp;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Renders the whole component into the back buffer and copies it to the screen.
+     * Must be invoked on the event dispatch thread.
+     * 
+     * @return true iff the frame was shown on the screen. False if the frame could not be rendered
+     *     actively, in which case the caller should fall back to passive painting.
+     */
+    public boolean render() {
+        return render(new Rectangle(0, 0, comp.getWidth(), comp.getHeight()));
+    }
+    
+    /* 
+     * Renders the damaged region of the component into the back buffer and copies that
+     * region to the screen. The whole component is rendered when the previous frame was
+     * not rendered actively, or when the contents of the back buffer are not valid.
+     * Must be invoked on the event dispatch thread.
+     * 
+     * @param damage the damaged region in the coordinates of the component. Null if nothing has changed.
+     * @return true iff the frame was shown on the screen. False if the frame could not be rendered
+     *     actively, in which case the caller should fall back to passive painting.
+     * @throws IllegalStateException iff not invoked on the event dispatch thread.
+     */
+    public boolean render(Rectangle damage) throws IllegalStateException {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("Active rendering must be done on the event dispatch thread!");
+        }
+        
+        int width = comp.getWidth();
+        int height = comp.getHeight();
+        GraphicsConfiguration gc = comp.getGraphicsConfiguration();
+        
+        if (!comp.isShowing() || width <= 0 || height <= 0 || gc == null) {
+            setActive(false);
+            return false;
+        }
+        
+        // Determine the region to render.
+        Rectangle full = new Rectangle(0, 0, width, height);
+        Rectangle region = (damage == null ? null : new Rectangle(damage));
+        
+        // Everything must be painted if the previous frame was not rendered actively.
+        if (!active) region = full;
+        
+        if (region == null || (region = region.intersection(full)).isEmpty()) return true;
+        
+        do {
+            // (Re)-create the back buffer if needed.
+            int valid = (backBuffer == null ? VolatileImage.IMAGE_INCOMPATIBLE : backBuffer.validate(gc));
+            if (backBuffer == null || backBuffer.getWidth() != width || backBuffer.getHeight() != height ||
+                valid == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (backBuffer != null) backBuffer.flush();
+                backBuffer = gc.createCompatibleVolatileImage(width, height);
+                region = full;
+                
+            } else if (valid == VolatileImage.IMAGE_RESTORED) {
+                region = full;
+            }
+            
+            // Paint the damaged region of the frame.
+            Graphics2D g2d = backBuffer.createGraphics();
+            try {
+                g2d.clip(region);
+                comp.paint(g2d);
+                
+            } finally {
+                g2d.dispose();
+            }
+            
+            // Copy the frame to the screen.
+            Graphics screen = comp.getGraphics();
+            if (screen == null) {
+                setActive(false);
+                return false;
+            }
+            
+            try {
+                int x2 = region.x + region.width;
+                int y2 = region.y + region.height;
+                screen.drawImage(backBuffer, region.x, region.y, x2, y2, region.x, region.y, x2, y2, null);
+                
+            } finally {
+                screen.dispose();
+            }
+            
+        } while (backBuffer.contentsLost());
+        
+        Toolkit.getDefaultToolkit().sync();
+        setActive(true);
+        return true;
+    }
+    
+    /* 
+     * @param active whether the last frame was rendered actively.
+     */
+    private void setActive(boolean active) {
+        this.active = active;
+    }
+    
+    /* 
+     * Stops the active rendering of the component and releases the back buffer.
+     * The component is painted passively again afterwards.
+     * Must be invoked on the event dispatch thread.
+     */
+    public void dispose() {
+        setActive(false);
+        
+        if (backBuffer != null) {
+            backBuffer.flush();
+            backBuffer = null;
+        }
+    }
+    
+    /* 
+     * @return whether the last frame was rendered actively.
+     */
+    public boolean isActive() {
+        return active;
+    }
+    
+}
@@ -0,0 +1,275 @@
+package learningGame.tools;
+
+
+// Own packages
+import learningGame.music.PlayMusic;
+
+
+// Java packages
+import java.io.IOException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+
+/* 
+ * The assets that are used by a MiniGame: sprites of the {@code SpriteAtlas}, whole images
+ * loaded via {@code LoadImages2} and sound clips created via {@code PlayMusic}.
+ * The assets are identified by the same names the MiniGame uses to request them, so loading
+ * an asset beforehand makes the request of the MiniGame a cache hit.
+ * 
+ * A MiniGame declares it's manifest as {@code final public static AssetManifest MANIFEST},
+ * which can be obtained from the class with {@code of(Class)} without creating an instance.
+ */
+public class AssetManifest {
+    // The name of the field containing the manifest of a class.
+    final public static String FIELD_NAME = "MANIFEST";
+    
+    // The manifest without any assets.
+    final public static AssetManifest EMPTY = new AssetManifest();
+    
+    // The assets of this manifest.
+    final private Set<Asset> assets = new LinkedHashSet<Asset>();
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Type enum
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * The kinds of assets.
+     */
+    public enum Type {
+        SPRITE, IMAGE, CLIP
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Asset class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * A single asset. Two assets are equal iff they have the same type and name,
+     * so assets that are shared by several MiniGames can be collected in a set.
+     */
+    public static class Asset {
+        final private Type type;
+        final private String name;
+        
+        /* 
+         * @param type the kind of the asset.
+         * @param name the name of the sprite, or the file name of the image or clip.
+         */
+        public Asset(Type type, String name) {
+            if (type == null) throw new NullPointerException("No type was given!");
+            if (name == null) throw new NullPointerException("No name was given!");
+            this.type = type;
+            this.name = name;
+        }
+        
+        /* 
+         * Loads this asset if it was not yet loaded.
+         * 
+         * @throws IOException iff the asset could not be read.
+         * @throws IllegalArgumentException iff the sprite is not defined.
+         */
+        public void load() throws IOException, IllegalArgumentException {
+            if (type == Type.SPRITE) {
+                SpriteAtlas.getFrames(name);
+                
+            } else if (type == Type.IMAGE) {
+                LoadImages2.ensureLoadedAndGetImage(name);
+                
+            } else {
+                PlayMusic.createClip(name);
+            }
+        }
+        
+        /* 
+         * Releases this asset. It is loaded again when it is requested the next time.
+         * No action is taken if the asset is not loaded.
+         */
+        public void release() {
+            if (type == Type.SPRITE) {
+                SpriteAtlas.release(name);
+                
+            } else if (type == Type.IMAGE) {
+                LoadImages2.removeImage(name);
+                
+            } else {
+                PlayMusic.removeClip(name);
+            }
+        }
+        
+        /* 
+         * Pins this asset, so it is not evicted from the image cache.
+         * No action is taken for clips, since they are not cached by size.
+         * 
+         * @throws IOException iff the sprite definitions could not be read.
+         */
+        public void pin() throws IOException {
+            if (type == Type.SPRITE) SpriteAtlas.pin(name);
+            else if (type == Type.IMAGE) LoadImages2.pin(name);
+        }
+        
+        /* 
+         * Removes a pin of this asset.
+         * 
+         * @throws IOException iff the sprite definitions could not be read.
+         */
+        public void unpin() throws IOException {
+            if (type == Type.SPRITE) SpriteAtlas.unpin(name);
+            else if (type == Type.IMAGE) LoadImages2.unpin(name);
+        }
+        
+        /* 
+         * @return whether this asset is currently loaded.
+         */
+        public boolean isLoaded() {
+            if (type == Type.SPRITE) return SpriteAtlas.isLoaded(name);
+            else if (type == Type.IMAGE) return LoadImages2.isLoaded(name);
+            else return PlayMusic.hasClip(name);
+        }
+        
+        public Type getType() {
+            return type;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Asset)) return false;
+            Asset asset = (Asset) obj;
+            return type == asset.type && name.equals(asset.name);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + name.hashCode();
+        }
+        
+        @Override
+        public String toString() {
+            return type + ":" + name;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Adds the sprites with the given names.
+     * 
+     * @param names the names of the sprites in the {@code SpriteAtlas}.
+     * @return this manifest.
+     */
+    public AssetManifest sprites(String... names) {
+        return add(Type.SPRITE, names);
+    }
+    
+    /* 
+     * Adds the images with the given file names. The images are loaded as a single frame
+     * under their file name, like {@code LoadImages2.ensureLoadedAndGetImage(String)}.
+     * 
+     * @param fileNames the file names of the images.
+     * @return this manifest.
+     */
+    public AssetManifest images(String... fileNames) {
+        return add(Type.IMAGE, fileNames);
+    }
+    
+    /* 
+     * Adds the clips with the given file names.
+     * 
+     * @param fileNames the file names of the clips, as given to {@code PlayMusic.createClip}.
+     * @return this manifest.
+     */
+    public AssetManifest clips(String... fileNames) {
+        return add(Type.CLIP, fileNames);
+    }
+    
+    /* 
+     * Adds the assets of the given type with the given names.
+     * 
+     * @param type the kind of the assets.
+     * @param names the names of the assets.
+     * @return this manifest.
+     */
+    private AssetManifest add(Type type, String[] names) {
+        if (this == EMPTY) throw new UnsupportedOperationException("The empty manifest cannot be changed!");
+        
+        for (String name : names) {
+            assets.add(new Asset(type, name));
+        }
+        
+        return this;
+    }
+    
+    /* 
+     * Pins all assets of this manifest, so they are not evicted from the image cache
+     * while the MiniGame is played. Each call must be followed by {@code unpin()}.
+     * 
+     * @throws IOException iff the sprite definitions could not be read.
+     */
+    public void pin() throws IOException {
+        for (Asset asset : assets) {
+            asset.pin();
+        }
+    }
+    
+    /* 
+     * Removes the pins of all assets of this manifest.
+     * 
+     * @throws IOException iff the sprite definitions could not be read.
+     */
+    public void unpin() throws IOException {
+        for (Asset asset : assets) {
+            asset.unpin();
+        }
+    }
+    
+    /* 
+     * Returns the manifest that is declared by the given class.
+     * 
+     * @param c the class declaring the manifest.
+     * @return the manifest of the given class, or {@code EMPTY} if the class has no manifest.
+     */
+    public static AssetManifest of(Class<?> c) {
+        if (c == null) return EMPTY;
+        
+        try {
+            Field field = c.getField(FIELD_NAME);
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == AssetManifest.class) {
+                AssetManifest manifest = (AssetManifest) field.get(null);
+                if (manifest != null) return manifest;
+            }
+            
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            // The class has no (accessible) manifest.
+        }
+        
+        return EMPTY;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the assets of this manifest.
+     */
+    public Set<Asset> getAssets() {
+        return Collections.unmodifiableSet(assets);
+    }
+    
+}
@@ -0,0 +1,259 @@
+package learningGame.tools;
+
+
+// Own packages
+import learningGame.tools.SpriteAtlas.Definition;
+import learningGame.tools.SpriteAtlas.Region;
+
+
+// Java packages
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+
+/* 
+ * Packs the frames of all sprites in the definition file into atlas pages,
+ * and writes the index of the atlas. See {@code SpriteAtlas}.
+ * 
+ * The frames of a sprite are kept together as a block with the same grid layout as on
+ * the sheet. The blocks are packed into rows ("shelves") from the highest to the lowest,
+ * which wastes little space for the small sprites used here. A new page is started
+ * when a page would become larger than {@code MAX_PAGE_SIZE}.
+ * 
+ * Usage: java learningGame.tools.AtlasPacker [working directory]
+ */
+public class AtlasPacker {
+    // The maximal width and height of a page.
+    final public static int MAX_PAGE_SIZE = 2048;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * This is a singleton class. No instances should be made.
+     */
+    @Deprecated
+    private AtlasPacker() { }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Packs the atlas of the given working directory.
+     * 
+     * @param dir the working directory containing the definition file and the sheets.
+     * @return the packed regions.
+     * 
+     * @throws IOException iff a file could not be read or written.
+     * @throws IllegalArgumentException iff a definition is invalid or doesn't fit on a page.
+     */
+    public static List<Region> pack(File dir) throws IOException, IllegalArgumentException {
+        List<Definition> defs = SpriteAtlas.readDefinitions(new File(dir, SpriteAtlas.DEFINITION_FILE).getPath());
+        
+        // Pack the highest blocks first, so each shelf is filled with blocks of similar height.
+        List<Definition> sorted = new ArrayList<Definition>(defs);
+        Collections.sort(sorted, (d1, d2) -> {
+            int cmp = Integer.compare(getBlockHeight(d2), getBlockHeight(d1));
+            return (cmp != 0 ? cmp : Integer.compare(getBlockWidth(d2), getBlockWidth(d1)));
+        });
+        
+        int pageWidth = getPageWidth(sorted);
+        Map<String, Long> checksums = new HashMap<String, Long>();
+        List<Region> regions = new ArrayList<Region>();
+        List<Integer> regionPages = new ArrayList<Integer>();
+        List<Integer> pageHeights = new ArrayList<Integer>();
+        int page = 0;
+        int x = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        for (Definition def : sorted) {
+            int width = getBlockWidth(def);
+            int height = getBlockHeight(def);
+            if (width > MAX_PAGE_SIZE || height > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Sprite \"" + def.getName() + "\" is too large for a page.");
+            }
+            
+            // Start a new shelf if the block doesn't fit on the current one,
+            // and a new page if the new shelf doesn't fit on the current page.
+            if (x + width > pageWidth) {
+                shelfY += shelfHeight;
+                x = 0;
+                shelfHeight = 0;
+            }
+            
+            if (shelfY + height > MAX_PAGE_SIZE) {
+                pageHeights.add(shelfY);
+                page++;
+                shelfY = 0;
+            }
+            
+            regions.add(new Region(def.getName(), getPageFile(page), x, shelfY,
+                                   def.getColumns(), def.getRows(), def.getWidth(), def.getHeight(),
+                                   def.getSheet(), def.getFrameX(0), def.getFrameY(0),
+                                   getChecksum(checksums, dir, def.getSheet())));
+            regionPages.add(page);
+            x += width;
+            shelfHeight = Math.max(shelfHeight, height);
+        }
+        
+        pageHeights.add(shelfY + shelfHeight);
+        
+        // Draw the frames on the pages. Each sheet is read only once.
+        BufferedImage[] pages = new BufferedImage[pageHeights.size()];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new BufferedImage(pageWidth, Math.max(1, pageHeights.get(i)), BufferedImage.TYPE_INT_ARGB);
+        }
+        
+        Map<String, BufferedImage> sheets = new HashMap<String, BufferedImage>();
+        for (int i = 0; i < sorted.size(); i++) {
+            Definition def = sorted.get(i);
+            Region region = regions.get(i);
+            
+            BufferedImage sheet = sheets.get(def.getSheet());
+            if (sheet == null) {
+                sheet = ImageIO.read(new File(dir, def.getSheet()));
+                if (sheet == null) throw new IOException("Unreadable sheet: " + def.getSheet());
+                sheets.put(def.getSheet(), sheet);
+            }
+            
+            if (def.getEndX() > sheet.getWidth() || def.getEndY() > sheet.getHeight()) {
+                throw new IllegalArgumentException("Frames of sprite \"" + def.getName()
+                                                       + "\" exceed the sheet " + def.getSheet());
+            }
+            
+            Graphics2D g2d = pages[regionPages.get(i)].createGraphics();
+            g2d.setComposite(AlphaComposite.Src);
+            for (int c = 0; c < def.getColumns(); c++) {
+                for (int r = 0; r < def.getRows(); r++) {
+                    int sx = def.getFrameX(c);
+                    int sy = def.getFrameY(r);
+                    int dx = region.getFrameX(c);
+                    int dy = region.getFrameY(r);
+                    g2d.drawImage(sheet,
+                                  dx, dy, dx + def.getWidth(), dy + def.getHeight(),
+                                  sx, sy, sx + def.getWidth(), sy + def.getHeight(),
+                                  null);
+                }
+            }
+            
+            g2d.dispose();
+        }
+        
+        // Write the pages and the index. The index keeps the order of the definitions.
+        File pageDir = new File(dir, SpriteAtlas.PAGE_DIR);
+        if (!pageDir.isDirectory() && !pageDir.mkdirs()) {
+            throw new IOException("Could not create directory: " + pageDir);
+        }
+        
+        for (int i = 0; i < pages.length; i++) {
+            ImageIO.write(pages[i], "png", new File(dir, getPageFile(i)));
+        }
+        
+        Map<String, Region> byName = new HashMap<String, Region>();
+        for (Region region : regions) {
+            byName.put(region.getName(), region);
+        }
+        
+        try (PrintWriter pw = new PrintWriter(new File(dir, SpriteAtlas.INDEX_FILE), "UTF-8")) {
+            pw.print("Name;Page;X;Y;Columns;Rows;Width;Height;Sheet;SheetX;SheetY;SheetCRC\n");
+            for (Definition def : defs) {
+                pw.print(byName.get(def.getName()) + "\n");
+            }
+        }
+        
+        return regions;
+    }
+    
+    /* 
+     * @param checksums the checksums of the sheets that were already read.
+     * @param dir the working directory.
+     * @param sheet the path of the sheet, relative to the working directory.
+     * @return the checksum of the sheet.
+     * @throws IOException iff the sheet could not be read.
+     */
+    private static long getChecksum(Map<String, Long> checksums, File dir, String sheet) throws IOException {
+        Long checksum = checksums.get(sheet);
+        if (checksum == null) {
+            checksum = SpriteAtlas.checksum(new File(dir, sheet));
+            checksums.put(sheet, checksum);
+        }
+        
+        return checksum;
+    }
+    
+    /* 
+     * @return the path of the page with the given number, relative to the working directory.
+     */
+    private static String getPageFile(int page) {
+        return SpriteAtlas.PAGE_DIR + "sprites_" + page + ".png";
+    }
+    
+    /* 
+     * @return the width of the frames of the given sprite on a page, including padding.
+     */
+    private static int getBlockWidth(Definition def) {
+        return def.getColumns() * (def.getWidth() + SpriteAtlas.PADDING);
+    }
+    
+    /* 
+     * @return the height of the frames of the given sprite on a page, including padding.
+     */
+    private static int getBlockHeight(Definition def) {
+        return def.getRows() * (def.getHeight() + SpriteAtlas.PADDING);
+    }
+    
+    /* 
+     * Chooses a page width that makes the pages roughly square.
+     * 
+     * @param defs the definitions to pack.
+     * @return the width of the pages.
+     */
+    private static int getPageWidth(List<Definition> defs) {
+        long area = 0;
+        int width = 1;
+        for (Definition def : defs) {
+            area += (long) getBlockWidth(def) * getBlockHeight(def);
+            width = Math.max(width, getBlockWidth(def));
+        }
+        
+        // The shelves leave some space unused, so aim a bit wider than the square root.
+        int square = (int) Math.ceil(Math.sqrt(area * 1.25));
+        return Math.min(MAX_PAGE_SIZE, Math.max(width, square));
+    }
+    
+    public static void main(String[] args) {
+        File dir = new File(args.length > 0 ? args[0] : ".");
+        try {
+            List<Region> regions = pack(dir);
+            int frames = 0;
+            for (Region region : regions) {
+                frames += region.getNumFrames();
+            }
+            
+            System.out.println("Packed " + regions.size() + " sprites (" + frames + " frames) into "
+                                   + new File(dir, SpriteAtlas.PAGE_DIR));
+                                   
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+}
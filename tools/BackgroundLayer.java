@@ -0,0 +1,252 @@
+package learningGame.tools;
+
+
+// Java packages
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+
+/* 
+ * Background which is pre-rendered at the size it is drawn at.
+ * Scaling a full screen background every frame is the largest blit of a frame,
+ * so the background is scaled once per size and afterwards only copied 1:1.
+ * 
+ * A static layer holds the scaled background with the size of the panel.
+ * A scrolling layer holds a strip of twice the height of the panel with the scaled
+ * background tiled vertically. Any scroll offset is then a single 1:1 copy of a
+ * part of the strip.
+ * 
+ * If a fill color is given, the background is drawn on top of it and the layer
+ * is opaque, which makes copying it considerably cheaper.
+ * The layer is optionally kept in a {@code VolatileImage} (see {@code USE_VOLATILE}),
+ * which can reside in video memory. It's contents are restored automatically when lost.
+ */
+public class BackgroundLayer {
+    // Whether the layers are kept in volatile images by default.
+    final public static boolean USE_VOLATILE = Boolean.getBoolean("learningGame.volatileBackground");
+    
+    // Whether the background is tiled vertically for scrolling.
+    final private boolean scrolling;
+    
+    // Whether a volatile image is used.
+    final private boolean useVolatile;
+    
+    // The rendered layer. Only one of both is used.
+    private BufferedImage buffer;
+    private VolatileImage volatileBuffer;
+    
+    // The state for which the layer was rendered.
+    private Image source;
+    private Color fill;
+    private int width = -1;
+    private int height = -1;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructors
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param scrolling whether the background is tiled vertically for scrolling.
+     */
+    public BackgroundLayer(boolean scrolling) {
+        this(scrolling, USE_VOLATILE);
+    }
+    
+    /* 
+     * @param scrolling whether the background is tiled vertically for scrolling.
+     * @param useVolatile whether the layer should be kept in a volatile image.
+     *     Ignored in a headless environment.
+     */
+    public BackgroundLayer(boolean scrolling, boolean useVolatile) {
+        this.scrolling = scrolling;
+        this.useVolatile = useVolatile && !GraphicsEnvironment.isHeadless();
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Draws the background at (0, 0) with the given size.
+     * 
+     * @param g2d the graphics object to draw on.
+     * @param image the background image. Nothing is drawn if null.
+     * @param fill the color drawn below the background. Is allowed to be null.
+     * @param width the width of the background.
+     * @param height the height of the background.
+     * @param offset the vertical scroll offset, from 0 (inclusive) up to {@code height}
+     *     (exclusive). Ignored for static layers.
+     */
+    public void paint(Graphics2D g2d, Image image, Color fill,
+                      int width, int height, int offset) {
+        if (image == null || width <= 0 || height <= 0) return;
+        
+        BufferedImage layer;
+        int sy = 0;
+        synchronized(this) {
+            if (image != source || !equals(fill, this.fill) || width != this.width || height != this.height) {
+                invalidate();
+                source = image;
+                this.fill = fill;
+                this.width = width;
+                this.height = height;
+            }
+            
+            // The part of the strip to copy: the lower tile scrolled in from the top.
+            if (scrolling) {
+                offset = Math.floorMod(offset, height);
+                sy = height - offset;
+            }
+            
+            if (useVolatile) {
+                paintVolatile(g2d, sy);
+                return;
+            }
+            
+            if (buffer == null) {
+                buffer = createBuffer();
+                render(buffer.createGraphics());
+            }
+            
+            layer = buffer;
+        }
+        
+        // The rendered layer is not changed anymore, so it can be copied by several threads at once.
+        g2d.drawImage(layer, 0, 0, width, height, 0, sy, width, sy + height, null);
+    }
+    
+    /* 
+     * Draws the layer from the volatile image, and (re)renders it if needed.
+     * 
+     * @param g2d the graphics object to draw on.
+     * @param sy the y coordinate of the part of the layer to copy.
+     */
+    private void paintVolatile(Graphics2D g2d, int sy) {
+        GraphicsConfiguration gc = g2d.getDeviceConfiguration();
+        do {
+            if (volatileBuffer == null) {
+                volatileBuffer = gc.createCompatibleVolatileImage(width, getLayerHeight(),
+                                                                  getTransparency());
+                render(volatileBuffer.createGraphics());
+            }
+            
+            int status = volatileBuffer.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                volatileBuffer.flush();
+                volatileBuffer = null;
+                continue;
+                
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                render(volatileBuffer.createGraphics());
+            }
+            
+            g2d.drawImage(volatileBuffer, 0, 0, width, height, 0, sy, width, sy + height, null);
+            
+        } while (volatileBuffer == null || volatileBuffer.contentsLost());
+    }
+    
+    /* 
+     * Renders the scaled background on the given graphics object, and disposes it.
+     * 
+     * @param g2d the graphics object of the layer.
+     */
+    private void render(Graphics2D g2d) {
+        if (getTransparency() != Transparency.OPAQUE) {
+            // A restored volatile image has undefined contents.
+            g2d.setComposite(AlphaComposite.Clear);
+            g2d.fillRect(0, 0, width, getLayerHeight());
+            g2d.setComposite(AlphaComposite.SrcOver);
+        }
+        
+        if (fill != null) {
+            g2d.setColor(fill);
+            g2d.fillRect(0, 0, width, getLayerHeight());
+        }
+        
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                             RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2d.drawImage(source, 0, 0, width, height, null);
+        if (scrolling) g2d.drawImage(source, 0, height, width, height, null);
+        g2d.dispose();
+    }
+    
+    /* 
+     * @return a new buffered image for the layer.
+     */
+    private BufferedImage createBuffer() {
+        if (getTransparency() == Transparency.OPAQUE) {
+            if (GraphicsEnvironment.isHeadless()) {
+                return new BufferedImage(width, getLayerHeight(), BufferedImage.TYPE_INT_RGB);
+            }
+            
+            return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, getLayerHeight(), Transparency.OPAQUE);
+        }
+        
+        return ImageTools.createCompatibleImage(width, getLayerHeight());
+    }
+    
+    /* 
+     * Removes the rendered layer. It is rendered again when it is painted the next time.
+     */
+    public synchronized void invalidate() {
+        buffer = null;
+        if (volatileBuffer != null) {
+            volatileBuffer.flush();
+            volatileBuffer = null;
+        }
+        
+        source = null;
+    }
+    
+    /* 
+     * @return whether both colors are equal or both null.
+     */
+    private static boolean equals(Color c1, Color c2) {
+        return (c1 == null ? c2 == null : c1.equals(c2));
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the height of the rendered layer.
+     */
+    private int getLayerHeight() {
+        return (scrolling ? 2*height : height);
+    }
+    
+    /* 
+     * @return the transparency of the rendered layer.
+     */
+    private int getTransparency() {
+        return (fill != null && fill.getAlpha() == 255 ? Transparency.OPAQUE : Transparency.TRANSLUCENT);
+    }
+    
+    /* 
+     * @return whether the background is tiled vertically for scrolling.
+     */
+    public boolean isScrolling() {
+        return scrolling;
+    }
+    
+    /* 
+     * @return whether the layer is kept in a volatile image.
+     */
+    public boolean isVolatile() {
+        return useVolatile;
+    }
+    
+}
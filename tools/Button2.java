@@ -11,6 +11,9 @@ package learningGame.tools;
 
 // Own packages
 import learningGame.LearningGame;
+
+import learningGame.font.TextCache;
+
 import learningGame.tools.ImageTools;
 import learningGame.tools.LoadImages2;
 
@@ -30,6 +33,10 @@ import java.awt.image.BufferedImage;
 
 import java.io.IOException;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import javax.swing.AbstractButton;
 import javax.swing.JLabel;
 import javax.swing.SwingUtilities;
@@ -50,6 +57,15 @@ public class Button2 extends AbstractButton {
     protected Image[][] originalImages;
     final private int imageType;
     
+    // The rendered backgrounds of all buttons, per image sheet.
+    final private static Map<Image[][], RenderCache> RENDER_CACHES = new WeakHashMap<Image[][], RenderCache>();
+    
+    // The render cache of the image sheet of this button.
+    final private RenderCache renderCache;
+    
+    // The size of the background that is currently used by this button. Null if none is used.
+    private RenderKey renderKey;
+    
     public enum State {
         NORMAL_OPERATION, NO_CHANGE, HOOVER_EXCEPT_PRESSED, NO_HOOVER, 
             ALWAYS_PRESSED, ALWAYS_HOOVER, ALWAYS_DISABLED, ALWAYS_NORMAL;
@@ -89,8 +105,7 @@ public class Button2 extends AbstractButton {
     
     public Button2(int sizeX, int sizeY, int barSize) throws IOException {
         this(sizeX, sizeY, barSize,
-             LoadImages2.ensureLoadedAndGetImage
-                 (IMG_LOC + "button2_img_TYPE_001.png", 16, 16),
+             loadDefaultImages(),
              Button2.TYPE_TURNED);
     }
     
@@ -100,8 +115,7 @@ public class Button2 extends AbstractButton {
     
     public Button2(int sizeX, int sizeY, int barSize, String text) throws IOException {
         this(sizeX, sizeY, barSize,
-             LoadImages2.ensureLoadedAndGetImage
-                 (IMG_LOC + "button2_img_TYPE_001.png", 16, 16),
+             loadDefaultImages(),
              Button2.TYPE_TURNED, text);
     }
     
@@ -184,9 +198,123 @@ public class Button2 extends AbstractButton {
             }
         }
         
+        synchronized(RENDER_CACHES) {
+            RenderCache cache = RENDER_CACHES.get(img);
+            if (cache == null) {
+                cache = new RenderCache();
+                RENDER_CACHES.put(img, cache);
+            }
+            
+            renderCache = cache;
+        }
+        
         this.addMouseListener(listener);
     }
     
+    /* 
+     * Loads the images of the default button type if this didn't happen yet.
+     * 
+     * @return the images of the default button type.
+     * @throws IOException iff the images could not be read.
+     */
+    public static BufferedImage[][] loadDefaultImages() throws IOException {
+        return LoadImages2.ensureLoadedAndGetImage(IMG_LOC + "button2_img_TYPE_001.png", 16, 16);
+    }
+    
+    
+    /* ---------------------------------------------------------------------------------
+     * Render cache
+     * ---------------------------------------------------------------------------------
+     */
+    /* 
+     * The size of a rendered background.
+     */
+    private static class RenderKey {
+        final private int width;
+        final private int height;
+        final private int barSize;
+        
+        private RenderKey(int width, int height, int barSize) {
+            this.width = width;
+            this.height = height;
+            this.barSize = barSize;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof RenderKey)) return false;
+            RenderKey key = (RenderKey) obj;
+            return key.width == width && key.height == height && key.barSize == barSize;
+        }
+        
+        @Override
+        public int hashCode() {
+            return (width * 31 + height) * 31 + barSize;
+        }
+    }
+    
+    /* 
+     * Cache of the rendered backgrounds of all buttons which use the same image sheet.
+     * For each size, the backgrounds of the states are rendered once, when they are first drawn.
+     * The backgrounds of a size are removed when no button uses that size anymore.
+     */
+    private static class RenderCache {
+        // The backgrounds per size, indexed by state + 1.
+        final private Map<RenderKey, BufferedImage[]> backgrounds = new HashMap<RenderKey, BufferedImage[]>();
+        
+        // The number of buttons using each size.
+        final private Map<RenderKey, Integer> users = new HashMap<RenderKey, Integer>();
+        
+        /* 
+         * Registers a button which uses the given size.
+         */
+        private synchronized void acquire(RenderKey key) {
+            Integer num = users.get(key);
+            users.put(key, (num == null ? 1 : num + 1));
+        }
+        
+        /* 
+         * Unregisters a button which used the given size.
+         * The backgrounds of the size are removed when it has no users left.
+         */
+        private synchronized void release(RenderKey key) {
+            Integer num = users.get(key);
+            if (num == null) return;
+            
+            if (num <= 1) {
+                users.remove(key);
+                backgrounds.remove(key);
+                
+            } else {
+                users.put(key, num - 1);
+            }
+        }
+        
+        /* 
+         * @return the background of the given size and state, or null if it was not yet rendered.
+         */
+        private synchronized BufferedImage get(RenderKey key, int type) {
+            BufferedImage[] states = backgrounds.get(key);
+            return (states == null ? null : states[type + 1]);
+        }
+        
+        /* 
+         * Stores the background of the given size and state.
+         * No action is taken if the size has no users.
+         */
+        private synchronized void put(RenderKey key, int type, BufferedImage background) {
+            if (!users.containsKey(key)) return;
+            
+            BufferedImage[] states = backgrounds.get(key);
+            if (states == null) {
+                states = new BufferedImage[5];
+                backgrounds.put(key, states);
+            }
+            
+            states[type + 1] = background;
+        }
+    }
+    
     
     /* ---------------------------------------------------------------------------------
      * Mouse listener
@@ -309,7 +437,7 @@ public class Button2 extends AbstractButton {
      */
     public void setTextSize(float size) {
         if (label == null) return;
-        font = font.deriveFont(size);
+        font = TextCache.getFont(font, size);
         label.setFont(font);
     }
     
@@ -439,6 +567,8 @@ public class Button2 extends AbstractButton {
                 super.setBounds(x, y, width, height);
                 barSize = bz;
                 
+                // The background of the old size is no longer used.
+                releaseRenderKey();
                 updateLabel();
                 
             } else if (x != getX() || y != getY()) {
@@ -747,19 +877,88 @@ public class Button2 extends AbstractButton {
         }
     }
     
+    /* 
+     * Stops using the background of the current size.
+     */
+    private void releaseRenderKey() {
+        if (renderKey != null) {
+            renderCache.release(renderKey);
+            renderKey = null;
+        }
+    }
+    
+    /* 
+     * Releases the background of the button when it is removed.
+     */
+    @Override
+    public void removeNotify() {
+        super.removeNotify();
+        releaseRenderKey();
+    }
+    
     /* 
      * Painting the button.
+     * The background of the current size and state is rendered once, and copied afterwards.
      */
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) return;
+        
         // Retrieve button type
         int type = calculateType();
         
         // Convert to Graphics2D object
         Graphics2D g2d = (Graphics2D) g;
         
+        // Retrieve the background of the current size and state.
+        RenderKey key = new RenderKey(width, height, barSize);
+        if (!key.equals(renderKey)) {
+            releaseRenderKey();
+            renderCache.acquire(key);
+            renderKey = key;
+        }
+        
+        BufferedImage background = renderCache.get(key, type);
+        if (background == null) {
+            background = ImageTools.createCompatibleImage(width, height);
+            Graphics2D bg2d = background.createGraphics();
+            paintBackground(bg2d, type);
+            bg2d.dispose();
+            
+            renderCache.put(key, type, background);
+        }
+        
+        g2d.drawImage(background, 0, 0, null);
+        
+        double[] size = new double[] {getWidth(), getHeight()};
+        
+        if (image != null) {
+            int x;
+            int y;
+            if (resizeImage) {
+                repeatPaint(g2d, image,
+                            new double[] {getWidth() - 2*imageBarWidth, getHeight() - 2*imageBarHeight, 0, 0}, // image size
+                            size, // panel size
+                            new double[] {barSize, barSize}, // location on panel
+                            1); // number of iterations
+                
+            } else {
+                g2d.drawImage(image, imageBarWidth, imageBarHeight, null);
+            }
+        }
+    }
+    
+    /* 
+     * Paints the background of the button for the given state.
+     * 
+     * @param g2d the graphics object to paint on.
+     * @param type the state of the button.
+     */
+    private void paintBackground(Graphics2D g2d, int type) {
         // Determine the images
         Image corner = originalImages[0][0];
         Image cornerBackground = originalImages[0][type+1];
@@ -812,21 +1011,6 @@ public class Button2 extends AbstractButton {
                     size, // panel size
                     new double[] {barSize, barSize}, // location on panel
                     1); // number of iterations
-        
-        if (image != null) {
-            int x;
-            int y;
-            if (resizeImage) {
-                repeatPaint(g2d, image,
-                            new double[] {getWidth() - 2*imageBarWidth, getHeight() - 2*imageBarHeight, 0, 0}, // image size
-                            size, // panel size
-                            new double[] {barSize, barSize}, // location on panel
-                            1); // number of iterations
-                
-            } else {
-                g2d.drawImage(image, imageBarWidth, imageBarHeight, null);
-            }
-        }
     }
     
     /* 
@@ -0,0 +1,312 @@
+package learningGame.tools;
+
+
+// Own packages
+import learningGame.LearningGame;
+
+import learningGame.log.Log2;
+
+
+// Java packages
+import java.awt.image.BufferedImage;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+
+
+/* 
+ * On-disk cache of decoded images.
+ * The first time an image file is read, it is decoded with ImageIO and it's pixels are written
+ * as raw ARGB values to a cache file. The next time (e.g. after a restart), the cache file is
+ * memory mapped and the image is built by copying the pixels from the mapped buffer,
+ * so no PNG decoding is needed.
+ * 
+ * A cache file is only used if the size and the modification time of the image file are
+ * the same as when the cache file was written. Otherwise the image is decoded again, and
+ * the cache file is replaced.
+ * 
+ * The format of a cache file (big endian):
+ *     int    MAGIC
+ *     int    VERSION
+ *     long   the size of the image file (in bytes).
+ *     long   the modification time of the image file.
+ *     int    the width of the image.
+ *     int    the height of the image.
+ *     int[]  the pixels of the image (ARGB, not premultiplied), row by row.
+ * 
+ * The directory of the cache files can be changed with -DlearningGame.decodedCacheDir=<dir>,
+ * and the cache can be disabled with -DlearningGame.decodedCache=false.
+ */
+public class DecodedImageCache {
+    // The first value of each cache file.
+    final private static int MAGIC = 0x4C474943; // "LGIC"
+    
+    // The version of the format of the cache files.
+    final private static int VERSION = 1;
+    
+    // The size of the header of a cache file (in bytes).
+    final private static int HEADER_SIZE = 32;
+    
+    // The extension of the cache files.
+    final private static String EXTENSION = ".argb";
+    
+    // Whether the cache is used.
+    final private static boolean ENABLED
+        = Boolean.parseBoolean(System.getProperty("learningGame.decodedCache", "true"));
+        
+    // The directory of the cache files. Is determined when the cache is first used.
+    private static File dir;
+    
+    // The number of images that were read from the cache, and that were decoded.
+    final private static LongAdder hits = new LongAdder();
+    final private static LongAdder misses = new LongAdder();
+    
+    
+    /* ----------------------------------------------------------------------------------------------------------------
+     * Constructor
+     * ----------------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * This is a static singleton class. No instances should be made.
+     */
+    @Deprecated
+    private DecodedImageCache() { }
+    
+    
+    /* ----------------------------------------------------------------------------------------------------------------
+     * Functions
+     * ----------------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Reads the given image file. If a valid cache file exists, the image is built from the
+     * cache file. Otherwise the image file is decoded, and the cache file is (re)written.
+     * A cache file that cannot be read or written is logged and otherwise ignored.
+     * 
+     * @param file the image file.
+     * @return the image. Is of type {@code TYPE_INT_ARGB}, unless the cache is disabled.
+     * @throws IOException iff the image file could not be read.
+     */
+    public static BufferedImage read(File file) throws IOException {
+        if (!ENABLED) return decode(file);
+        
+        // Determined before decoding, so a change during decoding invalidates the cache file.
+        long size = file.length();
+        long modified = file.lastModified();
+        File cacheFile = getCacheFile(file);
+        
+        try {
+            BufferedImage image = readCacheFile(cacheFile, size, modified);
+            if (image != null) {
+                hits.increment();
+                return image;
+            }
+            
+        } catch (IOException | RuntimeException e) {
+            Log2.write(new Object[] {"Could not read cache file \"" + cacheFile + "\":", e}, Log2.WARNING);
+        }
+        
+        misses.increment();
+        BufferedImage decoded = decode(file);
+        int width = decoded.getWidth();
+        int height = decoded.getHeight();
+        int[] pixels = decoded.getRGB(0, 0, width, height, null, 0, width);
+        
+        // Images whose cache file would not fit in a buffer are not cached.
+        if (getCacheFileSize(width, height) <= Integer.MAX_VALUE) {
+            try {
+                writeCacheFile(cacheFile, size, modified, width, height, pixels);
+                
+            } catch (IOException | RuntimeException e) {
+                // A failed cache write doesn't fail reading the image.
+                Log2.write(new Object[] {"Could not write cache file \"" + cacheFile + "\":", e}, Log2.WARNING);
+            }
+        }
+        
+        // Returned with the same type as when read from the cache file,
+        // so the image draws the same whether the cache was warm or not.
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.getRaster().setDataElements(0, 0, width, height, pixels);
+        return image;
+    }
+    
+    /* 
+     * Decodes the given image file with ImageIO.
+     * 
+     * @param file the image file.
+     * @return the decoded image.
+     * @throws IOException iff the file could not be read.
+     */
+    private static BufferedImage decode(File file) throws IOException {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(file);
+            
+        } catch (IIOException e) {
+            image = null;
+        }
+        
+        if (image == null) {
+            throw new IOException("File \"" + file.getPath() + "\" does not exist or is not accessable.");
+        }
+        
+        return image;
+    }
+    
+    /* 
+     * Builds the image from the given cache file.
+     * The header is read first, so a stale cache file is never mapped and can be replaced.
+     * 
+     * @param cacheFile the cache file.
+     * @param size the current size of the image file.
+     * @param modified the current modification time of the image file.
+     * @return the image, or null if the cache file doesn't exist or is not valid anymore.
+     * @throws IOException iff the cache file could not be read.
+     */
+    private static BufferedImage readCacheFile(File cacheFile, long size, long modified)
+        throws IOException {
+        if (!cacheFile.isFile()) return null;
+        
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) return null;
+            }
+            
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) return null;
+            if (header.getLong() != size || header.getLong() != modified) return null;
+            
+            int width = header.getInt();
+            int height = header.getInt();
+            if (width <= 0 || height <= 0) return null;
+            
+            long length = getCacheFileSize(width, height);
+            if (channel.size() != length || length > Integer.MAX_VALUE) return null;
+            
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length - HEADER_SIZE);
+            
+            int[] pixels = new int[width * height];
+            buffer.asIntBuffer().get(pixels);
+            
+            // The pixels are set via the raster instead of it's backing array, since
+            // taking the backing array prevents the image from being accelerated.
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            image.getRaster().setDataElements(0, 0, width, height, pixels);
+            return image;
+        }
+    }
+    
+    /* 
+     * Writes the given image to the given cache file.
+     * The data is first written to a temporary file, which then replaces the cache file,
+     * so a partially written cache file is never read.
+     * 
+     * @param cacheFile the cache file.
+     * @param size the size of the image file.
+     * @param modified the modification time of the image file.
+     * @param width the width of the image.
+     * @param height the height of the image.
+     * @param pixels the pixels of the image (ARGB, not premultiplied), row by row.
+     * @throws IOException iff the cache file could not be written.
+     */
+    private static void writeCacheFile(File cacheFile, long size, long modified,
+                                       int width, int height, int[] pixels)
+        throws IOException {
+        File cacheDir = cacheFile.getParentFile();
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            throw new IOException("Could not create the directory \"" + cacheDir + "\"");
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate((int) getCacheFileSize(width, height));
+        buffer.putInt(MAGIC).putInt(VERSION)
+            .putLong(size).putLong(modified)
+            .putInt(width).putInt(height);
+        buffer.asIntBuffer().put(pixels);
+        buffer.rewind();
+        
+        Path tmp = Files.createTempFile(cacheDir.toPath(), cacheFile.getName(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            
+            Files.move(tmp, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+    
+    /* 
+     * @param width the width of the image.
+     * @param height the height of the image.
+     * @return the size of the cache file of an image with the given size (in bytes).
+     */
+    private static long getCacheFileSize(int width, int height) {
+        return HEADER_SIZE + 4L * width * height;
+    }
+    
+    /* 
+     * @param file the image file.
+     * @return the cache file of the given image file. The name contains the hash of the
+     *     absolute path, so image files with the same name in different directories don't collide.
+     */
+    private static File getCacheFile(File file) {
+        String path = file.getAbsolutePath();
+        return new File(getDir(), file.getName() + "_" + Integer.toHexString(path.hashCode()) + EXTENSION);
+    }
+    
+    
+    /* ----------------------------------------------------------------------------------------------------------------
+     * Get functions
+     * ----------------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the directory of the cache files.
+     */
+    public static synchronized File getDir() {
+        if (dir == null) {
+            String prop = System.getProperty("learningGame.decodedCacheDir");
+            dir = new File(prop != null ? prop : LearningGame.WORKING_DIR + "data\\image_cache\\");
+        }
+        
+        return dir;
+    }
+    
+    /* 
+     * @return the number of images that were read from the cache.
+     */
+    public static long getHits() {
+        return hits.sum();
+    }
+    
+    /* 
+     * @return the number of images that had to be decoded.
+     */
+    public static long getMisses() {
+        return misses.sum();
+    }
+    
+    /* 
+     * @return a line describing the statistics of the cache.
+     */
+    public static String getStatLine() {
+        return (ENABLED ? "hits=" + hits.sum() + " misses=" + misses.sum() : "disabled");
+    }
+    
+}
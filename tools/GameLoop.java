@@ -0,0 +1,393 @@
+package learningGame.tools;
+
+
+// Own packages
+import learningGame.log.Log2;
+
+
+/*
+ * Fixed time step game loop.
+ * The update action is executed with a fixed interval measured with {@code System.nanoTime()}.
+ * After the updates of an iteration have been executed, the render action is executed once
+ * with the interpolation factor between the last and the next update.
+ *
+ * When the loop falls behind (e.g. after a GC pause), at most {@code maxUpdates} updates are
+ * executed before a frame is rendered. The remaining lag is dropped instead of bunching up.
+ *
+ * The simulation can be suspended, in which case no updates are executed and the last update
+ * is rendered once per step. The suspended time is not caught up afterwards.
+ */
+public class GameLoop {
+    // The default maximal number of updates that are executed before a frame is rendered.
+    final public static int DEFAULT_MAX_UPDATES = 5;
+    
+    // The update and render actions.
+    final private Runnable update;
+    final private Renderer renderer;
+    
+    // The time (in ns) between two updates.
+    private volatile long stepNanos;
+    
+    // The maximal number of updates that are executed before a frame is rendered.
+    private volatile int maxUpdates;
+    
+    // The thread executing the loop.
+    private Thread thread;
+    
+    // The lock used for pausing and resuming the loop.
+    final private Object lock = new Object();
+    
+    // Whether the updates are executed. If not, only frames are rendered.
+    private volatile boolean simulating = true;
+    
+    // Whether the timing should be reset before the next iteration.
+    private volatile boolean resetTiming = true;
+    
+    // The number of updates executed since the loop was started.
+    private volatile long tick = 0L;
+    
+    // The number of updates that were dropped because the loop fell behind.
+    private volatile long droppedUpdates = 0L;
+    
+    // The current state of the loop
+    private volatile LoopState loopState = LoopState.STOPPED;
+    public enum LoopState {
+        RUNNING, PAUSED, STOPPED
+    }
+    
+    /*
+     * Interface for the render action.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        /*
+         * @param alpha the interpolation factor between the previous update (0.0)
+         *     and the next update (1.0).
+         */
+        public void render(double alpha);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /*
+     * Creates a loop which executes at most {@code DEFAULT_MAX_UPDATES} updates before
+     * a frame is rendered.
+     *
+     * @param updatesPerSecond the number of updates per second.
+     * @param update the action executed for every update.
+     * @param renderer the action executed for every frame. Is allowed to be null.
+     * @throws IllegalArgumentException iff {@code updatesPerSecond <= 0}.
+     */
+    public GameLoop(int updatesPerSecond, Runnable update, Renderer renderer) {
+        this(updatesPerSecond, DEFAULT_MAX_UPDATES, update, renderer);
+    }
+    
+    /*
+     * @param updatesPerSecond the number of updates per second.
+     * @param maxUpdates the maximal number of updates before a frame is rendered.
+     * @param update the action executed for every update.
+     * @param renderer the action executed for every frame. Is allowed to be null.
+     * @throws IllegalArgumentException iff {@code updatesPerSecond <= 0} or {@code maxUpdates <= 0}.
+     */
+    public GameLoop(int updatesPerSecond, int maxUpdates, Runnable update, Renderer renderer) {
+        if (update == null) throw new NullPointerException("No update action was given!");
+        if (maxUpdates <= 0)
+            throw new IllegalArgumentException("Expected maxUpdates > 0. Found: " + maxUpdates);
+        
+        this.update = update;
+        this.renderer = renderer;
+        this.maxUpdates = maxUpdates;
+        setUpdateRate(updatesPerSecond);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /*
+     * (Re)-starts the loop.
+     * If the loop is already running, the old loop is stopped first.
+     */
+    public void start() {
+        stop();
+        
+        synchronized(lock) {
+            tick = 0L;
+            droppedUpdates = 0L;
+            resetTiming = true;
+            loopState = LoopState.RUNNING;
+            
+            thread = new Thread(() -> runLoop(), "Game-Loop");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
+    /*
+     * Pauses the loop.
+     * If the loop is paused or stopped, no action is taken.
+     */
+    public void pause() {
+        synchronized(lock) {
+            if (loopState == LoopState.RUNNING) {
+                loopState = LoopState.PAUSED;
+            }
+        }
+    }
+    
+    /*
+     * Resumes a paused loop.
+     * The time spend while paused is not caught up.
+     * If the loop is running or stopped, no action is taken.
+     */
+    public void resume() {
+        synchronized(lock) {
+            if (loopState == LoopState.PAUSED) {
+                resetTiming = true;
+                loopState = LoopState.RUNNING;
+                lock.notifyAll();
+            }
+        }
+    }
+    
+    /*
+     * Stops the loop.
+     * If the loop is already stopped, no action is taken.
+     */
+    public void stop() {
+        Thread oldThread;
+        
+        synchronized(lock) {
+            if (loopState == LoopState.STOPPED) return;
+            
+            loopState = LoopState.STOPPED;
+            oldThread = thread;
+            thread = null;
+            lock.notifyAll();
+        }
+        
+        if (oldThread != null && oldThread != Thread.currentThread()) {
+            oldThread.interrupt();
+        }
+    }
+    
+    /*
+     * The loop itself. Runs until the loop is stopped.
+     */
+    private void runLoop() {
+        Thread curThread = Thread.currentThread();
+        long prevTime = System.nanoTime();
+        long lag = 0L;
+        
+        while (true) {
+            // Wait while paused and terminate when stopped.
+            synchronized(lock) {
+                while (loopState == LoopState.PAUSED && thread == curThread) {
+                    try {
+                        lock.wait();
+                    
+                    } catch (InterruptedException e) {
+                        // Check the state again.
+                    }
+                }
+                
+                if (loopState == LoopState.STOPPED || thread != curThread) return;
+            }
+            
+            long step = stepNanos;
+            long curTime = System.nanoTime();
+            
+            if (resetTiming) {
+                resetTiming = false;
+                prevTime = curTime;
+                lag = step; // Directly execute one update.
+            }
+            
+            lag += curTime - prevTime;
+            prevTime = curTime;
+            
+            // Only render the last update while the simulation is suspended.
+            if (!simulating) {
+                lag = 0L;
+                if (renderer != null) runSafe(() -> renderer.render(0.0));
+                sleepUntil(prevTime + step);
+                continue;
+            }
+            
+            // Execute the updates.
+            int updates = 0;
+            while (lag >= step && updates < maxUpdates) {
+                runSafe(update);
+                tick++;
+                lag -= step;
+                updates++;
+            }
+            
+            // Drop the updates that could not be caught up.
+            if (lag >= step) {
+                droppedUpdates += lag / step;
+                lag %= step;
+            }
+            
+            // Render the frame.
+            if (renderer != null && updates > 0) {
+                final double alpha = ((double) lag) / step;
+                runSafe(() -> renderer.render(alpha));
+            }
+            
+            // Record the time spend on this frame.
+            if (updates > 0) {
+                PerfMonitor.end(PerfMonitor.Phase.FRAME, curTime);
+            }
+            
+            // Sleep until the next update.
+            sleepUntil(prevTime + step - lag);
+        }
+    }
+    
+    /*
+     * Runs the given action and logs the exceptions that were thrown.
+     * Errors are not caught.
+     *
+     * @param r the action to run.
+     */
+    private void runSafe(Runnable r) {
+        try {
+            r.run();
+        
+        } catch (RuntimeException e) {
+            Log2.write(e);
+        }
+    }
+    
+    /*
+     * Sleeps the current thread until the given {@code System.nanoTime()} time stamp.
+     * The last part is yielded instead of slept for accuracy.
+     *
+     * @param wakeTime the time stamp to wake up.
+     */
+    private void sleepUntil(long wakeTime) {
+        long sleepTime;
+        
+        while ((sleepTime = wakeTime - System.nanoTime()) > 0) {
+            if (loopState != LoopState.RUNNING) return;
+            
+            if (sleepTime > 2_000_000L) {
+                try {
+                    Thread.sleep((sleepTime - 1_000_000L) / 1_000_000L);
+                
+                } catch (InterruptedException e) {
+                    return;
+                }
+            
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /*
+     * Sets the number of updates per second.
+     * The lag of the old update rate is not caught up.
+     *
+     * @param updatesPerSecond the new number of updates per second.
+     * @throws IllegalArgumentException iff {@code updatesPerSecond <= 0}.
+     */
+    public void setUpdateRate(int updatesPerSecond) {
+        if (updatesPerSecond <= 0)
+            throw new IllegalArgumentException("Expected updatesPerSecond > 0. Found: " + updatesPerSecond);
+        
+        stepNanos = 1_000_000_000L / updatesPerSecond;
+        resetTiming = true;
+    }
+    
+    /*
+     * Suspends or continues the simulation. While suspended, no updates are executed
+     * and only frames are rendered. The suspended time is not caught up.
+     *
+     * @param simulating whether the updates should be executed.
+     */
+    public void setSimulating(boolean simulating) {
+        if (this.simulating != simulating) {
+            this.simulating = simulating;
+            resetTiming = true;
+        }
+    }
+    
+    /*
+     * Sets the maximal number of updates that are executed before a frame is rendered.
+     *
+     * @param maxUpdates the new maximal number of updates.
+     * @throws IllegalArgumentException iff {@code maxUpdates <= 0}.
+     */
+    public void setMaxUpdates(int maxUpdates) {
+        if (maxUpdates <= 0)
+            throw new IllegalArgumentException("Expected maxUpdates > 0. Found: " + maxUpdates);
+        
+        this.maxUpdates = maxUpdates;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /*
+     * @return the number of updates per second.
+     */
+    public int getUpdateRate() {
+        return (int) (1_000_000_000L / stepNanos);
+    }
+    
+    /*
+     * @return the time in ns between two updates.
+     */
+    public long getStepNanos() {
+        return stepNanos;
+    }
+    
+    /*
+     * @return the maximal number of updates that are executed before a frame is rendered.
+     */
+    public int getMaxUpdates() {
+        return maxUpdates;
+    }
+    
+    /*
+     * @return whether the updates are executed.
+     */
+    public boolean isSimulating() {
+        return simulating;
+    }
+    
+    /*
+     * @return the number of updates executed since the loop was started.
+     */
+    public long getTick() {
+        return tick;
+    }
+    
+    /*
+     * @return the number of updates that were dropped because the loop fell behind.
+     */
+    public long getDroppedUpdates() {
+        return droppedUpdates;
+    }
+    
+    /*
+     * @return the current state of the loop.
+     */
+    public LoopState getState() {
+        return loopState;
+    }
+
+}
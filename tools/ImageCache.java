@@ -0,0 +1,368 @@
+package learningGame.tools;
+
+
+// Java packages
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/* 
+ * Cache of named image arrays, bounded by a memory budget.
+ * The size of an entry is computed from the rasters of it's frames: the number of data
+ * elements times the size of an element. Frames that share a raster (e.g. sub images of
+ * the same sheet) are only counted once per entry.
+ * 
+ * When the budget is exceeded, the least recently used entries are evicted. Pinned entries
+ * (e.g. the images of the active MiniGame) are never evicted. Names can be pinned before the
+ * entry exists, and pins are counted, so an entry stays pinned until it is unpinned as often
+ * as it was pinned.
+ * 
+ * Evicting an entry only removes it from the cache. Images that are still referenced
+ * elsewhere stay valid, and an evicted entry is loaded again when it is requested.
+ * 
+ * The entries are stored in a concurrent map, so lookups never block. Each entry stores the
+ * time it was last used instead of keeping the entries in order. Only evicting is serialized,
+ * and it only occurs when an entry is added or unpinned while the budget is exceeded.
+ */
+public class ImageCache {
+    // The default memory budget (in bytes).
+    final public static long DEFAULT_BUDGET
+        = Long.getLong("learningGame.imageCacheMB", 256L) * 1024L * 1024L;
+        
+    // The cached entries.
+    final private Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>(64);
+    
+    // The number of times each name is pinned.
+    final private Map<String, Integer> pins = new ConcurrentHashMap<String, Integer>();
+    
+    // Lock which ensures that only one thread evicts entries at a time.
+    final private Object evictLock = new Object();
+    
+    // Counter used to mark the moment an entry was last used.
+    final private AtomicLong clock = new AtomicLong();
+    
+    // The memory budget (in bytes).
+    private volatile long budget;
+    
+    // The number of bytes currently used.
+    final private AtomicLong bytes = new AtomicLong();
+    
+    // The number of hits, misses and evicted entries.
+    final private LongAdder hits = new LongAdder();
+    final private LongAdder misses = new LongAdder();
+    final private LongAdder evictions = new LongAdder();
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Entry class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * The frames of a cached entry together with their size.
+     */
+    private static class Entry {
+        final private BufferedImage[][] frames;
+        final private long bytes;
+        
+        // The value of the clock when this entry was last used.
+        private volatile long lastUsed;
+        
+        private Entry(BufferedImage[][] frames, long lastUsed) {
+            this.frames = frames;
+            this.bytes = sizeOf(frames);
+            this.lastUsed = lastUsed;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructors
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public ImageCache() {
+        this(DEFAULT_BUDGET);
+    }
+    
+    /* 
+     * @param budget the memory budget of the cache (in bytes).
+     */
+    public ImageCache(long budget) {
+        this.budget = budget;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Returns the entry with the given name, and marks it as most recently used.
+     * 
+     * @param name the name of the entry.
+     * @return the frames of the entry, or null if there is no such entry.
+     */
+    public BufferedImage[][] get(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        
+        hits.increment();
+        entry.lastUsed = clock.incrementAndGet();
+        return entry.frames;
+    }
+    
+    /* 
+     * Returns the entry with the given name. Doesn't count as a use of the entry.
+     * 
+     * @param name the name of the entry.
+     * @return the frames of the entry, or null if there is no such entry.
+     */
+    public BufferedImage[][] peek(String name) {
+        Entry entry = entries.get(name);
+        return (entry == null ? null : entry.frames);
+    }
+    
+    /* 
+     * @param name the name of the entry.
+     * @return whether there is an entry with the given name. Doesn't count as a use of the entry.
+     */
+    public boolean containsKey(String name) {
+        return entries.containsKey(name);
+    }
+    
+    /* 
+     * Adds or replaces the entry with the given name, and evicts the least recently used
+     * entries that are not pinned until the budget is met again.
+     * The new entry itself is never evicted by this method.
+     * 
+     * @param name the name of the entry.
+     * @param frames the frames of the entry.
+     */
+    public void put(String name, BufferedImage[][] frames) {
+        if (frames == null) throw new NullPointerException("No frames were given!");
+        
+        Entry entry = new Entry(frames, clock.incrementAndGet());
+        Entry old = entries.put(name, entry);
+        bytes.addAndGet(entry.bytes - (old == null ? 0L : old.bytes));
+        
+        evict(name);
+    }
+    
+    /* 
+     * Replaces the frames of the entry with the given name, but only if the entry
+     * still contains the expected frames.
+     * 
+     * @param name the name of the entry.
+     * @param expected the frames the entry should contain.
+     * @param frames the new frames of the entry.
+     * @return whether the frames were replaced.
+     */
+    public boolean replace(String name, BufferedImage[][] expected, BufferedImage[][] frames) {
+        if (frames == null) throw new NullPointerException("No frames were given!");
+        
+        Entry old = entries.get(name);
+        if (old == null || old.frames != expected) return false;
+        
+        Entry entry = new Entry(frames, clock.incrementAndGet());
+        if (!entries.replace(name, old, entry)) return false;
+        bytes.addAndGet(entry.bytes - old.bytes);
+        
+        evict(name);
+        return true;
+    }
+    
+    /* 
+     * Removes the entry with the given name. The pins of the name are kept.
+     * 
+     * @param name the name of the entry.
+     * @return the frames of the removed entry, or null if there was no such entry.
+     */
+    public BufferedImage[][] remove(String name) {
+        Entry entry = entries.remove(name);
+        if (entry == null) return null;
+        
+        bytes.addAndGet(-entry.bytes);
+        return entry.frames;
+    }
+    
+    /* 
+     * Removes all entries. The pins are kept.
+     */
+    public void clear() {
+        for (String name : entries.keySet()) {
+            remove(name);
+        }
+    }
+    
+    /* 
+     * Evicts the least recently used entries that are not pinned until the budget is met.
+     * 
+     * @param keep the name of the entry that should not be evicted, or null.
+     */
+    private void evict(String keep) {
+        if (bytes.get() <= budget) return;
+        
+        synchronized(evictLock) {
+            if (bytes.get() <= budget) return;
+            
+            List<Map.Entry<String, Entry>> candidates = new ArrayList<Map.Entry<String, Entry>>();
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (!entry.getKey().equals(keep) && !pins.containsKey(entry.getKey())) {
+                    candidates.add(entry);
+                }
+            }
+            
+            candidates.sort((e1, e2) -> Long.compare(e1.getValue().lastUsed, e2.getValue().lastUsed));
+            for (Map.Entry<String, Entry> eldest : candidates) {
+                if (bytes.get() <= budget) break;
+                
+                // The entry might have been replaced or used since it was selected.
+                if (pins.containsKey(eldest.getKey())) continue;
+                if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                    bytes.addAndGet(-eldest.getValue().bytes);
+                    evictions.increment();
+                }
+            }
+        }
+    }
+    
+    /* 
+     * Pins the given name, so the entry with this name is not evicted.
+     * 
+     * @param name the name to pin.
+     */
+    public void pin(String name) {
+        pins.merge(name, 1, Integer::sum);
+    }
+    
+    /* 
+     * Removes a pin of the given name. When all pins are removed, the entry can be evicted again.
+     * No action is taken if the name is not pinned.
+     * 
+     * @param name the name to unpin.
+     */
+    public void unpin(String name) {
+        pins.computeIfPresent(name, (key, count) -> (count <= 1 ? null : count - 1));
+        evict(null);
+    }
+    
+    /* 
+     * Computes the number of bytes used by the rasters of the given frames.
+     * Rasters that are shared by several frames are counted once.
+     * 
+     * @param frames the frames.
+     * @return the size of the frames (in bytes).
+     */
+    public static long sizeOf(BufferedImage[][] frames) {
+        if (frames == null) return 0L;
+        
+        long size = 0L;
+        Map<DataBuffer, Boolean> counted = new IdentityHashMap<DataBuffer, Boolean>();
+        for (BufferedImage[] column : frames) {
+            if (column == null) continue;
+            
+            for (BufferedImage frame : column) {
+                if (frame == null) continue;
+                
+                DataBuffer buffer = frame.getRaster().getDataBuffer();
+                if (counted.put(buffer, Boolean.TRUE) != null) continue;
+                
+                size += (long) buffer.getSize() * buffer.getNumBanks()
+                    * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+            }
+        }
+        
+        return size;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Sets the memory budget, and evicts entries if the new budget is exceeded.
+     * 
+     * @param budget the new memory budget (in bytes).
+     */
+    public void setBudget(long budget) {
+        this.budget = budget;
+        evict(null);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the number of bytes used by the cached entries.
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+    
+    /* 
+     * @return the memory budget (in bytes).
+     */
+    public long getBudget() {
+        return budget;
+    }
+    
+    /* 
+     * @return the number of cached entries.
+     */
+    public int getNumEntries() {
+        return entries.size();
+    }
+    
+    /* 
+     * @param name the name of an entry.
+     * @return whether the given name is pinned.
+     */
+    public boolean isPinned(String name) {
+        return pins.containsKey(name);
+    }
+    
+    /* 
+     * @return the number of times a requested entry was cached.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    /* 
+     * @return the number of times a requested entry was not cached.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    /* 
+     * @return the number of entries that were evicted to meet the budget.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    /* 
+     * @return a line describing the usage and the statistics of this cache.
+     */
+    public String getStatLine() {
+        return "entries=" + entries.size() + " pinned=" + pins.size()
+            + " used=" + MultiTool.doubleToStringDecimals(bytes.get() / (1024.0 * 1024.0), 2)
+            + "/" + MultiTool.doubleToStringDecimals(budget / (1024.0 * 1024.0), 2) + " MB"
+            + " hits=" + hits.sum() + " misses=" + misses.sum() + " evictions=" + evictions.sum();
+    }
+    
+}
@@ -0,0 +1,520 @@
+package learningGame.tools;
+
+
+// Java packages
+import java.awt.Color;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/* 
+ * High throughput image operations on the integer pixels of images.
+ * The pixels are copied in bulk from and to the rasters of the images, so no colour
+ * model conversion takes place for the INT_ARGB, INT_ARGB_PRE and INT_RGB image types.
+ * The data buffers are never accessed directly, since that would prevent the images
+ * from being accelerated afterwards.
+ * 
+ * All operations write to a destination image. If no destination is given, a new image
+ * with the type of the source is created (or INT_ARGB if the source has another type).
+ * A given destination must have one of the three integer types above and the size of
+ * the result. The source and destination are allowed to be the same image.
+ * 
+ * Operations on large images are split in bands of rows, which are processed in
+ * parallel on the common ForkJoin pool. Operations which transpose the image walk
+ * the memory in tiles, so both the source and destination stay in the cache.
+ */
+public class ImageOps {
+    // The minimal number of pixels before an operation is split across the pool.
+    final private static int PARALLEL_THRESHOLD = 128 * 128;
+    
+    // The minimal number of rows of a single task.
+    final private static int MIN_ROWS = 16;
+    
+    // The size of the tiles of transposing operations.
+    final private static int TILE = 32;
+    
+    // The pool the operations are executed on.
+    final private static ForkJoinPool POOL = ForkJoinPool.commonPool();
+    
+    // The supported pixel formats.
+    private enum Format {
+        ARGB, ARGB_PRE, RGB;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * RowTask class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Processes a range of rows of the destination.
+     */
+    @FunctionalInterface
+    private interface RowKernel {
+        public void run(int y0, int y1);
+    }
+    
+    /* 
+     * Splits a range of rows in halves until it is small enough.
+     */
+    private static class RowTask extends RecursiveAction {
+        final private static long serialVersionUID = 1L;
+        
+        final private RowKernel kernel;
+        final private int y0;
+        final private int y1;
+        final private int grain;
+        
+        private RowTask(RowKernel kernel, int y0, int y1, int grain) {
+            this.kernel = kernel;
+            this.y0 = y0;
+            this.y1 = y1;
+            this.grain = grain;
+        }
+        
+        @Override
+        protected void compute() {
+            if (y1 - y0 <= grain) {
+                kernel.run(y0, y1);
+                
+            } else {
+                int mid = (y0 + y1) >>> 1;
+                invokeAll(new RowTask(kernel, y0, mid, grain),
+                          new RowTask(kernel, mid, y1, grain));
+            }
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * This is a static singleton class. No instances should be made.
+     */
+    @Deprecated
+    private ImageOps() { }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Operations
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Rotates the given image over a multiple of 90 degrees, or mirrors it.
+     * 
+     * @param src the source image.
+     * @param action the action to apply.
+     * @param dst the destination image. Is allowed to be null.
+     * @return the destination image, or a new image if {@code dst == null}.
+     * @throws IllegalArgumentException iff the destination has an unsupported type or the wrong size.
+     */
+    public static BufferedImage transform(BufferedImage src, ImageTools.SimpleAction action,
+                                          BufferedImage dst) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        
+        // The source index is: base + dx * strideX + dy * strideY.
+        boolean transpose;
+        int base;
+        int strideX;
+        int strideY;
+        switch (action) {
+            case ROTATE_90_RIGHT:
+                transpose = true;  base = (h - 1) * w;           strideX = -w; strideY = 1;  break;
+            case ROTATE_90_LEFT:
+                transpose = true;  base = w - 1;                 strideX = w;  strideY = -1; break;
+            case ROTATE_180:
+                transpose = false; base = (w - 1) + (h - 1) * w; strideX = -1; strideY = -w; break;
+            case MIRROR_VERTICAL:
+                transpose = false; base = w - 1;                 strideX = -1; strideY = w;  break;
+            case MIRROR_HORIZONTAL:
+                transpose = false; base = (h - 1) * w;           strideX = 1;  strideY = -w; break;
+            case MIRROR_DIAGONAL_1:
+                transpose = true;  base = 0;                     strideX = w;  strideY = 1;  break;
+            case MIRROR_DIAGONAL_2:
+                transpose = true;  base = (w - 1) + (h - 1) * w; strideX = -w; strideY = -1; break;
+            default:
+                throw new IllegalArgumentException("Unknown action: " + action);
+        }
+        
+        int dw = (transpose ? h : w);
+        int dh = (transpose ? w : h);
+        dst = prepare(src, dw, dh, dst);
+        int[] in = read(src, format(dst));
+        int[] out = new int[dw * dh];
+        
+        forRows(dw, dh, (y0, y1) -> {
+            for (int ty = y0; ty < y1; ty += TILE) {
+                int tyEnd = Math.min(ty + TILE, y1);
+                for (int tx = 0; tx < dw; tx += TILE) {
+                    int txEnd = Math.min(tx + TILE, dw);
+                    for (int y = ty; y < tyEnd; y++) {
+                        int o = y * dw + tx;
+                        int i = base + tx * strideX + y * strideY;
+                        for (int x = tx; x < txEnd; x++) {
+                            out[o++] = in[i];
+                            i += strideX;
+                        }
+                    }
+                }
+            }
+        });
+        
+        write(dst, out);
+        return dst;
+    }
+    
+    /* 
+     * Scales the given image using nearest-neighbour interpolation.
+     * 
+     * @param src the source image.
+     * @param width the width of the result.
+     * @param height the height of the result.
+     * @param dst the destination image. Is allowed to be null.
+     * @return the destination image, or a new image if {@code dst == null}.
+     * @throws IllegalArgumentException iff the destination has an unsupported type or the wrong size.
+     */
+    public static BufferedImage scale(BufferedImage src, int width, int height, BufferedImage dst) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        dst = prepare(src, width, height, dst);
+        int[] in = read(src, format(dst));
+        int[] out = new int[width * height];
+        
+        // Sample the source at the centers of the destination pixels.
+        int[] columns = new int[width];
+        for (int x = 0; x < width; x++) {
+            columns[x] = (int) (((2L * x + 1) * w) / (2L * width));
+        }
+        
+        forRows(width, height, (y0, y1) -> {
+            for (int y = y0; y < y1; y++) {
+                int row = (int) (((2L * y + 1) * h) / (2L * height)) * w;
+                int o = y * width;
+                for (int x = 0; x < width; x++) {
+                    out[o++] = in[row + columns[x]];
+                }
+            }
+        });
+        
+        write(dst, out);
+        return dst;
+    }
+    
+    /* 
+     * Rotates the given image around it's center without corner loss.
+     * The result is large enough to contain the whole rotated image.
+     * 
+     * @param src the source image.
+     * @param angle the angle in radians.
+     * @param type the interpolation. Either {@code AffineTransformOp.TYPE_NEAREST_NEIGHBOR},
+     *     or {@code AffineTransformOp.TYPE_BILINEAR}. Bicubic interpolation is done bilinear.
+     * @param dst the destination image. Is allowed to be null.
+     * @return the destination image, or a new image if {@code dst == null}.
+     * @throws IllegalArgumentException iff the destination has an unsupported type or the wrong size.
+     */
+    public static BufferedImage rotate(BufferedImage src, double angle, int type, BufferedImage dst) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        int dw = (int) (w * Math.abs(cos) + h * Math.abs(sin) + 0.5);
+        int dh = (int) (w * Math.abs(sin) + h * Math.abs(cos) + 0.5);
+        
+        dst = prepare(src, dw, dh, dst);
+        int[] in = read(src, format(dst));
+        int[] out = new int[dw * dh];
+        boolean nearest = (type == AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
+        
+        forRows(dw, dh, (y0, y1) -> {
+            for (int y = y0; y < y1; y++) {
+                // Map the center of the first pixel of the row back onto the source.
+                double cx = 0.5 - dw / 2.0;
+                double cy = y + 0.5 - dh / 2.0;
+                double fx = cx * cos + cy * sin + w / 2.0;
+                double fy = -cx * sin + cy * cos + h / 2.0;
+                
+                int o = y * dw;
+                for (int x = 0; x < dw; x++) {
+                    out[o++] = (nearest
+                                    ? sampleNearest(in, w, h, fx, fy)
+                                    : sampleBilinear(in, w, h, fx - 0.5, fy - 0.5));
+                    fx += cos;
+                    fy -= sin;
+                }
+            }
+        });
+        
+        write(dst, out);
+        return dst;
+    }
+    
+    /* 
+     * Tints the given image. The alpha values of the pixels are kept.
+     * 
+     * @param src the source image.
+     * @param tint the color to tint with. The alpha value is the strength of the tint.
+     * @param dst the destination image. Is allowed to be null.
+     * @return the destination image, or a new image if {@code dst == null}.
+     * @throws IllegalArgumentException iff the destination has an unsupported type or the wrong size.
+     */
+    public static BufferedImage tint(BufferedImage src, Color tint, BufferedImage dst) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        dst = prepare(src, w, h, dst);
+        Format format = format(dst);
+        int[] px = read(src, format);
+        
+        boolean pre = (format == Format.ARGB_PRE);
+        int strength = tint.getAlpha();
+        int tr = tint.getRed();
+        int tg = tint.getGreen();
+        int tb = tint.getBlue();
+        
+        forRows(w, h, (y0, y1) -> {
+            for (int i = y0 * w; i < y1 * w; i++) {
+                int p = px[i];
+                int a = p >>> 24;
+                int r = (p >> 16) & 0xFF;
+                int g = (p >> 8) & 0xFF;
+                int b = p & 0xFF;
+                
+                // Premultiplied colors are tinted towards the premultiplied tint.
+                int ttr = (pre ? tr * a / 255 : tr);
+                int ttg = (pre ? tg * a / 255 : tg);
+                int ttb = (pre ? tb * a / 255 : tb);
+                
+                r += (ttr - r) * strength / 255;
+                g += (ttg - g) * strength / 255;
+                b += (ttb - b) * strength / 255;
+                px[i] = (p & 0xFF000000) | (r << 16) | (g << 8) | b;
+            }
+        });
+        
+        write(dst, px);
+        return dst;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Sampling functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the pixel of the source containing the given point, or 0 if outside the source.
+     */
+    private static int sampleNearest(int[] in, int w, int h, double fx, double fy) {
+        if (fx < 0 || fy < 0) return 0;
+        
+        int x = (int) fx;
+        int y = (int) fy;
+        if (x >= w || y >= h) return 0;
+        return in[y * w + x];
+    }
+    
+    /* 
+     * @return the bilinear interpolation of the four pixels around the given point.
+     *     Pixels outside the source are transparent.
+     */
+    private static int sampleBilinear(int[] in, int w, int h, double fx, double fy) {
+        if (fx < -1 || fy < -1) return 0;
+        
+        // Truncating is flooring, since the coordinates are larger than -1 here.
+        int x0 = (int) (fx + 1) - 1;
+        int y0 = (int) (fy + 1) - 1;
+        if (x0 < -1 || y0 < -1 || x0 >= w || y0 >= h) return 0;
+        
+        int wx = (int) ((fx - x0) * 256);
+        int wy = (int) ((fy - y0) * 256);
+        
+        int p00, p10, p01, p11;
+        if (x0 >= 0 && y0 >= 0 && x0 + 1 < w && y0 + 1 < h) {
+            // Fast path for the inner pixels.
+            int i = y0 * w + x0;
+            p00 = in[i];
+            p10 = in[i + 1];
+            p01 = in[i + w];
+            p11 = in[i + w + 1];
+            
+        } else {
+            p00 = pixel(in, w, h, x0, y0);
+            p10 = pixel(in, w, h, x0 + 1, y0);
+            p01 = pixel(in, w, h, x0, y0 + 1);
+            p11 = pixel(in, w, h, x0 + 1, y0 + 1);
+        }
+        
+        // Equal pixels (e.g. in flat areas) need no interpolation.
+        if (p00 == p10 && p00 == p01 && p00 == p11) return p00;
+        
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int c00 = (p00 >>> shift) & 0xFF;
+            int c10 = (p10 >>> shift) & 0xFF;
+            int c01 = (p01 >>> shift) & 0xFF;
+            int c11 = (p11 >>> shift) & 0xFF;
+            int top = c00 * (256 - wx) + c10 * wx;
+            int bottom = c01 * (256 - wx) + c11 * wx;
+            int c = (top * (256 - wy) + bottom * wy + (1 << 15)) >> 16;
+            result |= c << shift;
+        }
+        
+        return result;
+    }
+    
+    /* 
+     * @return the pixel at the given location, or 0 if outside the source.
+     */
+    private static int pixel(int[] in, int w, int h, int x, int y) {
+        if (x < 0 || y < 0 || x >= w || y >= h) return 0;
+        return in[y * w + x];
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Helper functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param img the image to check.
+     * @return whether the given image can be used as destination.
+     */
+    public static boolean isSupported(BufferedImage img) {
+        return format(img) != null;
+    }
+    
+    /* 
+     * @return the pixel format of the given image, or null if it is not supported.
+     */
+    private static Format format(BufferedImage img) {
+        switch (img.getType()) {
+            case BufferedImage.TYPE_INT_ARGB:
+                return Format.ARGB;
+            case BufferedImage.TYPE_INT_ARGB_PRE:
+                return Format.ARGB_PRE;
+            case BufferedImage.TYPE_INT_RGB:
+                return Format.RGB;
+            default:
+                return null;
+        }
+    }
+    
+    /* 
+     * Checks the given destination, or creates one if it is null.
+     */
+    private static BufferedImage prepare(BufferedImage src, int width, int height, BufferedImage dst) {
+        if (dst == null) {
+            return new BufferedImage(width, height,
+                                     (format(src) == null ? BufferedImage.TYPE_INT_ARGB : src.getType()));
+        }
+        
+        if (format(dst) == null) {
+            throw new IllegalArgumentException("Unsupported destination type: " + dst.getType());
+        }
+        
+        if (dst.getWidth() != width || dst.getHeight() != height) {
+            throw new IllegalArgumentException("Expected a destination of " + width + "x" + height
+                                                   + ", but found " + dst.getWidth() + "x" + dst.getHeight());
+        }
+        
+        return dst;
+    }
+    
+    /* 
+     * Copies the pixels of the given image in the given format.
+     * 
+     * @param img the image to read.
+     * @param to the format of the returned pixels.
+     * @return a new array containing the pixels row by row.
+     */
+    private static int[] read(BufferedImage img, Format to) {
+        int w = img.getWidth();
+        int h = img.getHeight();
+        Format from = format(img);
+        
+        int[] px;
+        if (from == null) {
+            // Other types need a colour model conversion.
+            px = img.getRGB(0, 0, w, h, null, 0, w);
+            from = Format.ARGB;
+            
+        } else {
+            px = (int[]) img.getRaster().getDataElements(0, 0, w, h, null);
+        }
+        
+        convert(px, w, h, from, to);
+        return px;
+    }
+    
+    /* 
+     * Copies the given pixels to the given image.
+     */
+    private static void write(BufferedImage img, int[] px) {
+        WritableRaster raster = img.getRaster();
+        raster.setDataElements(0, 0, img.getWidth(), img.getHeight(), px);
+    }
+    
+    /* 
+     * Converts the given pixels in place from one format to another.
+     */
+    private static void convert(int[] px, int w, int h, Format from, Format to) {
+        if (from == to) return;
+        
+        forRows(w, h, (y0, y1) -> {
+            for (int i = y0 * w; i < y1 * w; i++) {
+                int p = px[i];
+                if (from == Format.ARGB_PRE) p = unpremultiply(p);
+                if (from == Format.RGB) p |= 0xFF000000;
+                
+                if (to == Format.ARGB_PRE) p = premultiply(p);
+                else if (to == Format.RGB) p |= 0xFF000000;
+                px[i] = p;
+            }
+        });
+    }
+    
+    private static int premultiply(int p) {
+        int a = p >>> 24;
+        if (a == 0xFF) return p;
+        if (a == 0) return 0;
+        
+        int r = ((p >> 16) & 0xFF) * a / 255;
+        int g = ((p >> 8) & 0xFF) * a / 255;
+        int b = (p & 0xFF) * a / 255;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+    
+    private static int unpremultiply(int p) {
+        int a = p >>> 24;
+        if (a == 0xFF || a == 0) return p;
+        
+        int r = Math.min(255, ((p >> 16) & 0xFF) * 255 / a);
+        int g = Math.min(255, ((p >> 8) & 0xFF) * 255 / a);
+        int b = Math.min(255, (p & 0xFF) * 255 / a);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+    
+    /* 
+     * Runs the given kernel over all rows, in parallel for large images.
+     * 
+     * @param width the width of the processed image.
+     * @param height the number of rows.
+     * @param kernel the kernel to run.
+     */
+    private static void forRows(int width, int height, RowKernel kernel) {
+        int parallelism = POOL.getParallelism();
+        if ((long) width * height < PARALLEL_THRESHOLD || parallelism <= 1) {
+            kernel.run(0, height);
+            
+        } else {
+            int grain = Math.max(MIN_ROWS, height / (4 * parallelism));
+            POOL.invoke(new RowTask(kernel, 0, height, grain));
+        }
+    }
+    
+}
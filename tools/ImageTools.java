@@ -11,7 +11,10 @@ package learningGame.tools;
 
 // Java packages
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
 import java.awt.Image;
+import java.awt.Transparency;
 import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
@@ -19,8 +22,6 @@ import java.awt.image.BufferedImage;
 
 public class ImageTools {
     public static enum SimpleAction {
-        // These three shoulc not be used since they are way much slower then the java version.
-        // Internal note: try with Raster class.
         ROTATE_90_RIGHT, ROTATE_90_LEFT, ROTATE_180,
             MIRROR_VERTICAL, MIRROR_HORIZONTAL, MIRROR_DIAGONAL_1, MIRROR_DIAGONAL_2;
     }
@@ -36,110 +37,13 @@ public class ImageTools {
      *    to the lower-right corner
      *  - mirror on the diagonal (type 2) from the lower-left corner
      *    to the upper-right corner
+     * The image is processed by {@code ImageOps.transform}.
      */
     public static BufferedImage simpleAction(BufferedImage biIn, SimpleAction rotationType) {
         if (biIn == null) return null;
         if (rotationType == null) return biIn;
         
-        BufferedImage biOut = null;
-        //Graphics2D g2d = biOut.createGraphics();
-        int width = biIn.getWidth();
-        int height = biIn.getHeight();
-        int type = (biIn.getType() == 13 ? BufferedImage.TYPE_4BYTE_ABGR : biIn.getType());
-        int[] rgb = new int[width * height];
-        int[] newRgb = new int[width * height];
-        
-        // tmp
-        long time1 = System.currentTimeMillis();
-        // Get the abgr raster and manipulate it.
-        biIn.getRGB(0, 0, width, height, rgb, 0, width);
-        long time2 = System.currentTimeMillis();
-        long time3 = 0;
-        long time4 = 0;
-        
-        if (rotationType == SimpleAction.ROTATE_90_RIGHT) {
-            biOut = new BufferedImage(height, width, type);
-            
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    newRgb[x * height + (height - 1 - y)] = rgb[x + y * width];
-                }
-            }
-            // tmp
-            time3 = System.currentTimeMillis();
-            biOut.setRGB(0, 0, height, width, newRgb, 0, height);
-            time4 = System.currentTimeMillis();
-            
-        } else if (rotationType == SimpleAction.ROTATE_90_LEFT) {
-            biOut = new BufferedImage(height, width, type);
-            
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    newRgb[y + (width - 1 - x) * height] = rgb[x + y * width];
-                }
-            }
-            
-            biOut.setRGB(0, 0, height, width, newRgb, 0, height);
-            
-        } else if (rotationType == SimpleAction.ROTATE_180) {
-            biOut = new BufferedImage(width, height, type);
-            
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    newRgb[(height - 1 - y) * width + (width - 1 - x)] = rgb[x + y * width];
-                }
-            }
-            
-            biOut.setRGB(0, 0, width, height, newRgb, 0, width);
-            
-        } else if (rotationType == SimpleAction.MIRROR_VERTICAL) {
-            biOut = new BufferedImage(width, height, type);
-            
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    newRgb[y * width + (width - 1 - x)] = rgb[x + y * width];
-                }
-            }
-            
-            biOut.setRGB(0, 0, width, height, newRgb, 0, width);
-            
-        } else if (rotationType == SimpleAction.MIRROR_HORIZONTAL) {
-            biOut = new BufferedImage(width, height, type);
-            
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    newRgb[(height - 1 - y) * width + x] = rgb[x + y * width];
-                }
-            }
-            
-            biOut.setRGB(0, 0, width, height, newRgb, 0, width);
-            
-        } else if (rotationType == SimpleAction.MIRROR_DIAGONAL_1) {
-            biOut = new BufferedImage(height, width, type);
-            
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    newRgb[y + x * height] = rgb[x + y * width];
-                }
-            }
-            
-            biOut.setRGB(0, 0, height, width, newRgb, 0, height);
-            
-        } else if (rotationType == SimpleAction.MIRROR_DIAGONAL_2) {
-            biOut = new BufferedImage(height, width, type);
-            
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    newRgb[(height - 1 - y) + (width - 1 - x) * height] = rgb[x + y * width];
-                }
-            }
-            
-            // Set the manipulated agbr raster to the output
-            biOut.setRGB(0, 0, height, width, newRgb, 0, height);
-        }
-        //System.out.println((time2 - time1) + ", " + (time3 - time2) + ", " + (time4 - time3));
-        
-        return biOut;
+        return ImageOps.transform(biIn, rotationType, null);
     }
     
     /* 
@@ -151,50 +55,13 @@ public class ImageTools {
      * @param type denotes the algorithm used. Must be one of:
      *  - AffineTransformOp.TYPE_NEAREST_NEIGHBOR
      *  - AffineTransformOp.TYPE_BILINEAR
-     *  - AffineTransformOp.TYPE_BICUBIC
+     *  - AffineTransformOp.TYPE_BICUBIC (interpolated bilinear)
      * 
      * @return a new BufferedImage containing the rotated image of biIn without corner-loss.
      *     The size of the image depends both on the size of the biIn and the angle.
      */
     public static BufferedImage rotateImage(BufferedImage biIn, double angle, int type) {
-        int width  = biIn.getWidth();
-        int height = biIn.getHeight();
-        int newWidth  = (int) (width * Math.abs(Math.cos(angle)) + height * Math.abs(Math.sin(angle)) + 0.5);
-        int newHeight = (int) (width * Math.abs(Math.sin(angle)) + height * Math.abs(Math.cos(angle)) + 0.5);
-        int usedWidth  = (width  >= newWidth  ? width  : newWidth );
-        int usedHeight = (height >= newHeight ? height : newHeight);
-        
-        BufferedImage biNew = new BufferedImage(usedWidth, usedHeight, BufferedImage.TYPE_4BYTE_ABGR);
-        
-        Graphics2D g2d = biNew.createGraphics();
-        g2d.drawImage(biIn, (usedWidth - width) / 2, (usedHeight - height) / 2, null);
-        g2d.dispose();
-        
-        BufferedImage turnedImage = new AffineTransformOp
-            (AffineTransform.getRotateInstance
-                 (angle, usedWidth/2, usedHeight/2), type
-            ).filter(biNew, null);
-        
-        if (newWidth == usedWidth && newHeight == usedHeight) {
-            return turnedImage;
-            
-        } else {
-            BufferedImage biOut = new BufferedImage(newWidth , newHeight , BufferedImage.TYPE_4BYTE_ABGR);
-            Graphics2D g2dFinal = biOut.createGraphics();
-            g2dFinal.drawImage(turnedImage, -(usedWidth - newWidth) / 2, -(usedHeight - newHeight) / 2, null);
-            /*
-            g2dFinal.setStroke(new BasicStroke(5));
-            g2dFinal.drawLine(0       , 0        , newWidth, 0        );
-            g2dFinal.drawLine(0       , 0        , 0       , newHeight);
-            g2dFinal.drawLine(newWidth, 0        , newWidth, newHeight);
-            g2dFinal.drawLine(0       , newHeight, newWidth, newHeight);
-            */
-            
-            //g2dFinal.drawImage(turnedImage, 0, 0, null);
-            g2dFinal.dispose();
-            
-            return biOut;
-        }
+        return ImageOps.rotate(biIn, angle, type, null);
     }
     /*
     public static BufferedImage rotateImage(BufferedImage biIn, double angle, int type) {
@@ -320,6 +187,46 @@ public class ImageTools {
         return clone;
     }
     
+    /* 
+     * Creates a new translucent image with the layout of the default screen device.
+     * Such images can be drawn without conversion, and can be cached by Java2D as
+     * managed (accelerated) images.
+     * In a headless environment a premultiplied INT_ARGB image is created instead.
+     * 
+     * @param width the width of the new image.
+     * @param height the height of the new image.
+     * @return a new empty image compatible with the screen.
+     */
+    public static BufferedImage createCompatibleImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+    
+    /* 
+     * Makes a standalone copy of the given image which is compatible with the screen.
+     * See {@code createCompatibleImage(int, int)}.
+     * Note that the copy never shares it's raster with the source, so sub images
+     * of a larger sheet are converted to separate images.
+     * 
+     * @param source the image to convert.
+     * @return a new image with the contents of the source, or null if {@code source == null}.
+     */
+    public static BufferedImage toCompatibleImage(Image source) {
+        if (source == null) return null;
+        
+        BufferedImage copy = createCompatibleImage(source.getWidth(null), source.getHeight(null));
+        Graphics2D g2d = copy.createGraphics();
+        g2d.drawImage(source, 0, 0, null);
+        g2d.dispose();
+        
+        return copy;
+    }
+    
     
     
     
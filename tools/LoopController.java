@@ -0,0 +1,147 @@
+package learningGame.tools;
+
+
+// Own packages
+import learningGame.log.Log2;
+
+
+// Java packages
+import java.util.HashSet;
+import java.util.Set;
+
+
+/* 
+ * Power aware controller of a game loop.
+ * The loop is paused as long as there is at least one reason to pause it (e.g. the window
+ * is iconified or hidden). When the window is not focused, the simulation is suspended and
+ * frames are only rendered at a low rate.
+ * 
+ * Since the simulated time of the MiniGames only advances with the updates, the countdown
+ * of a MiniGame is frozen while the loop is paused or not focused, and continues seamlessly
+ * afterwards. Simulating at the low rate instead would advance the MiniGames in large steps.
+ */
+public class LoopController {
+    // Reasons for pausing the loop.
+    final public static String ICONIFIED = "iconified";
+    final public static String HIDDEN = "hidden";
+    
+    // The controlled loop.
+    final private GameLoop loop;
+    
+    // The update rate when focused, and the frame rate when not focused.
+    final private int activeRate;
+    final private int idleRate;
+    
+    // The reasons why the loop is currently paused.
+    final private Set<String> pauseReasons = new HashSet<String>();
+    
+    // Whether the window is focused.
+    private boolean focused = true;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param loop the loop to control.
+     * @param activeRate the number of updates per second when focused.
+     * @param idleRate the number of frames per second when not focused.
+     * @throws IllegalArgumentException iff {@code activeRate <= 0} or {@code idleRate <= 0}.
+     */
+    public LoopController(GameLoop loop, int activeRate, int idleRate) {
+        if (loop == null) throw new NullPointerException("No loop was given!");
+        if (activeRate <= 0 || idleRate <= 0)
+            throw new IllegalArgumentException("Expected positive update rates. Found: "
+                                                   + activeRate + ", " + idleRate);
+                                                   
+        this.loop = loop;
+        this.activeRate = activeRate;
+        this.idleRate = idleRate;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Pauses the loop for the given reason.
+     * No action is taken if the loop was already paused for this reason.
+     * 
+     * @param reason the reason to pause the loop.
+     */
+    public synchronized void pause(String reason) {
+        if (pauseReasons.add(reason)) {
+            Log2.write("Game loop paused (" + reason + ").", Log2.INFO);
+            apply();
+        }
+    }
+    
+    /* 
+     * Removes the given reason for pausing the loop.
+     * The loop is resumed when no reasons are left.
+     * 
+     * @param reason the reason that no longer holds.
+     */
+    public synchronized void resume(String reason) {
+        if (pauseReasons.remove(reason)) {
+            Log2.write("Game loop pause ended (" + reason + ").", Log2.INFO);
+            apply();
+        }
+    }
+    
+    /* 
+     * Applies the current state to the loop.
+     */
+    private void apply() {
+        if (!pauseReasons.isEmpty()) {
+            loop.pause();
+            
+        } else {
+            int rate = (focused ? activeRate : idleRate);
+            if (loop.getUpdateRate() != rate) loop.setUpdateRate(rate);
+            loop.setSimulating(focused);
+            loop.resume();
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param focused whether the window is focused.
+     */
+    public synchronized void setFocused(boolean focused) {
+        if (this.focused != focused) {
+            this.focused = focused;
+            apply();
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public GameLoop getLoop() {
+        return loop;
+    }
+    
+    /* 
+     * @return whether the loop is paused for at least one reason.
+     */
+    public synchronized boolean isPaused() {
+        return !pauseReasons.isEmpty();
+    }
+    
+    /* 
+     * @return whether the simulation is suspended and the loop runs at the idle frame rate.
+     */
+    public synchronized boolean isThrottled() {
+        return pauseReasons.isEmpty() && !focused;
+    }
+    
+}
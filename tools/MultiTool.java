@@ -401,7 +401,7 @@ public class MultiTool {
     
     /* 
      * Fires an ActionEvent for all ActionListeners currently listening.
-     * Uses another thread for execution.
+     * The listeners are notified on the blocking pool of the Scheduler.
      * 
      * @param source the source of the event.
      * @param command the command used for the event.
@@ -413,19 +413,17 @@ public class MultiTool {
                                         final long when, final int modifiers, final ActionListener[] als) {
         if (als == null) return;
         
-        new Thread(source.getClass().getName() + " ActionEvent") {
-            public void run() {
-                ActionEvent e = new ActionEvent(source,
-                                                ActionEvent.ACTION_PERFORMED,
-                                                command, when, modifiers);
+        Scheduler.execute(source.getClass().getName() + " ActionEvent", Scheduler.Pool.BLOCKING, () -> {
+            ActionEvent e = new ActionEvent(source,
+                                            ActionEvent.ACTION_PERFORMED,
+                                            command, when, modifiers);
+            
+            for (int i = 0; i < als.length; i++) {
+                if (als[i] == null) continue;
                 
-                for (int i = 0; i < als.length; i++) {
-                    if (als[i] == null) continue;
-                    
-                    als[i].actionPerformed(e);
-                }
+                als[i].actionPerformed(e);
             }
-        }.start();
+        });
     }
     
     /* 
@@ -0,0 +1,360 @@
+package learningGame.tools;
+
+
+// Own packages
+import learningGame.log.Log2;
+
+
+// Java packages
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import java.text.SimpleDateFormat;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/* 
+ * Collects the timings of the different phases of a frame.
+ * Each phase has it's own lock-free histogram, so the timings can be recorded
+ * from any thread without blocking.
+ */
+public class PerfMonitor {
+    // The font used for the overlay.
+    final private static Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    
+    // The different phases of a frame.
+    public enum Phase {
+        FRAME, UPDATE, PAINT, PAINT_COMPONENT, BACKGROUND, STATE_TRANSITION;
+    }
+    
+    // The histograms of all phases.
+    final private static Histogram[] histograms = new Histogram[Phase.values().length];
+    static {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+    
+    // The time budget (in ns) of a single frame.
+    private static volatile long frameBudget = 1_000_000_000L / 30;
+    
+    // Whether the overlay is visible.
+    private static volatile boolean overlayVisible = false;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Histogram class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Lock-free histogram with logarithmic buckets.
+     * Values below 16 us each have their own bucket. Above that, every power of two
+     * is split in 8 buckets, so the relative error is at most 12.5%.
+     */
+    public static class Histogram {
+        final private static int LINEAR_BUCKETS = 16;
+        final private static int SUB_BUCKETS = 8;
+        final private static int NUM_BUCKETS = LINEAR_BUCKETS + (64 - 4) * SUB_BUCKETS;
+        
+        // The bucket counts.
+        final private AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+        
+        // The number of values, their total and their maximum (all in ns).
+        final private AtomicLong count = new AtomicLong();
+        final private AtomicLong total = new AtomicLong();
+        final private AtomicLong max = new AtomicLong();
+        
+        // The number of values that exceeded the frame budget.
+        final private AtomicLong budgetMisses = new AtomicLong();
+        
+        /* 
+         * Records a single value.
+         * 
+         * @param nanos the value to record in ns.
+         * @param budget the budget of the value in ns. Use a value <= 0 for no budget.
+         */
+        public void record(long nanos, long budget) {
+            if (nanos < 0) nanos = 0;
+            
+            buckets.incrementAndGet(bucketOf(nanos / 1000L));
+            count.incrementAndGet();
+            total.addAndGet(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+            if (budget > 0 && nanos > budget) budgetMisses.incrementAndGet();
+        }
+        
+        /* 
+         * @param micros the value in us.
+         * @return the bucket index of the given value.
+         */
+        private static int bucketOf(long micros) {
+            if (micros < LINEAR_BUCKETS) return (int) micros;
+            
+            int msb = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) (micros >>> (msb - 3)) & (SUB_BUCKETS - 1);
+            return LINEAR_BUCKETS + (msb - 4) * SUB_BUCKETS + sub;
+        }
+        
+        /* 
+         * @param bucket the bucket index.
+         * @return the highest value in us that is stored in the given bucket.
+         */
+        private static long upperBoundOf(int bucket) {
+            if (bucket < LINEAR_BUCKETS) return bucket;
+            
+            int msb = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+            int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << (msb - 3)) - 1;
+        }
+        
+        /* 
+         * @param fraction the percentile as a fraction between 0.0 and 1.0.
+         * @return the given percentile in ns. This is an upper bound with a relative
+         *     error of at most 12.5%.
+         */
+        public long getPercentile(double fraction) {
+            long n = count.get();
+            if (n == 0) return 0L;
+            
+            long rank = (long) Math.ceil(fraction * n);
+            long seen = 0;
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i) * 1000L + 999L, max.get());
+                }
+            }
+            
+            return max.get();
+        }
+        
+        /* 
+         * Clears all recorded values.
+         * Values that are recorded concurrently might be partially cleared.
+         */
+        public void reset() {
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                buckets.set(i, 0L);
+            }
+            
+            count.set(0L);
+            total.set(0L);
+            max.set(0L);
+            budgetMisses.set(0L);
+        }
+        
+        /* 
+         * @return the number of recorded values.
+         */
+        public long getCount() {
+            return count.get();
+        }
+        
+        /* 
+         * @return the average value in ns.
+         */
+        public long getAverage() {
+            long n = count.get();
+            return (n == 0 ? 0L : total.get() / n);
+        }
+        
+        /* 
+         * @return the maximal value in ns.
+         */
+        public long getMax() {
+            return max.get();
+        }
+        
+        /* 
+         * @return the number of values that exceeded their budget.
+         */
+        public long getBudgetMisses() {
+            return budgetMisses.get();
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * This is a singleton class. No instances should be made.
+     */
+    @Deprecated
+    private PerfMonitor() { }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the start time stamp of a measurement. Use {@code end(Phase, long)} to end it.
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+    
+    /* 
+     * Ends a measurement and records it.
+     * 
+     * @param phase the phase that was measured.
+     * @param startTime the time stamp returned by {@code start()}.
+     */
+    public static void end(Phase phase, long startTime) {
+        record(phase, System.nanoTime() - startTime);
+    }
+    
+    /* 
+     * Records the duration of a phase.
+     * Only the {@code FRAME} phase is checked against the frame budget.
+     * 
+     * @param phase the phase that was measured.
+     * @param nanos the duration in ns.
+     */
+    public static void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos, (phase == Phase.FRAME ? frameBudget : 0L));
+    }
+    
+    /* 
+     * Clears all recorded timings.
+     */
+    public static void reset() {
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+    
+    /* 
+     * @param nanos the time in ns.
+     * @return the time in ms as String with two decimals.
+     */
+    private static String toMs(long nanos) {
+        return MultiTool.doubleToStringDecimals(nanos / 1_000_000.0, 2);
+    }
+    
+    /* 
+     * @return a line for each phase containing the statistics of that phase.
+     */
+    public static String[] getStatLines() {
+        Phase[] phases = Phase.values();
+        String[] lines = new String[phases.length];
+        
+        for (int i = 0; i < phases.length; i++) {
+            Histogram h = histograms[i];
+            lines[i] = MultiTool.fillSpaceRight(phases[i].toString(), 17)
+                + " n=" + MultiTool.fillSpaceLeft(Long.toString(h.getCount()), 7)
+                + " p50=" + MultiTool.fillSpaceLeft(toMs(h.getPercentile(0.50)), 7)
+                + " p99=" + MultiTool.fillSpaceLeft(toMs(h.getPercentile(0.99)), 7)
+                + " max=" + MultiTool.fillSpaceLeft(toMs(h.getMax()), 7) + " ms"
+                + (phases[i] == Phase.FRAME ? "  budget misses=" + h.getBudgetMisses() : "");
+        }
+        
+        return lines;
+    }
+    
+    /* 
+     * Draws the overlay with the statistics of all phases.
+     * 
+     * @param g2d the graphics object to draw on.
+     * @param x the x location of the upper left corner of the overlay.
+     * @param y the y location of the upper left corner of the overlay.
+     * @return the area of the overlay.
+     */
+    public static Rectangle drawOverlay(Graphics2D g2d, int x, int y) {
+        String[] lines = getStatLines();
+        
+        g2d.setFont(OVERLAY_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+        int lineHeight = fm.getHeight();
+        
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, fm.stringWidth(line));
+        }
+        
+        g2d.setPaint(new Color(0, 0, 0, 170));
+        g2d.fillRect(x, y, width + 10, lineHeight * lines.length + 10);
+        
+        g2d.setPaint(Color.WHITE);
+        for (int i = 0; i < lines.length; i++) {
+            g2d.drawString(lines[i], x + 5, y + 5 + fm.getAscent() + i * lineHeight);
+        }
+        
+        return new Rectangle(x, y, width + 10, lineHeight * lines.length + 10);
+    }
+    
+    /* 
+     * Appends the statistics of all phases to the given file.
+     * 
+     * @param fileName the file to append the statistics to.
+     */
+    public static void dump(String fileName) {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(fileName, true))) {
+            bw.write("---------------------------------------- "
+                         + new SimpleDateFormat("dd-MM-yyyy HH:mm:ss").format(new Date()));
+            bw.newLine();
+            bw.write("Frame budget: " + toMs(frameBudget) + " ms");
+            bw.newLine();
+            
+            for (String line : getStatLines()) {
+                bw.write(line);
+                bw.newLine();
+            }
+            
+        } catch (IOException e) {
+            Log2.write(e);
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param budget the new time budget of a single frame in ns.
+     */
+    public static void setFrameBudget(long budget) {
+        frameBudget = budget;
+    }
+    
+    /* 
+     * @param visible whether the overlay should be visible.
+     */
+    public static void setOverlayVisible(boolean visible) {
+        overlayVisible = visible;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return whether the overlay is visible.
+     */
+    public static boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+    
+    /* 
+     * @param phase the phase of the histogram.
+     * @return the histogram of the given phase.
+     */
+    public static Histogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+    
+}
@@ -0,0 +1,379 @@
+package learningGame.tools;
+
+
+// Java packages
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+import java.util.Random;
+
+
+/* 
+ * Nearest-neighbour blitter for upscaling small pixel-art frames directly into the
+ * pixels of a framebuffer.
+ * Drawing a sprite through Java2D either scales it while drawing (general affine
+ * interpolation) or needs a pre-scaled copy of each frame in memory. This blitter
+ * writes the scaled frame straight into the destination:
+ * - Each source row is expanded horizontally only once, and the expanded row is
+ *   replicated for every destination row that samples the same source row.
+ * - The expanded row is split into runs of transparent, opaque and translucent pixels.
+ *   Transparent runs are skipped, opaque runs are copied in bulk and only the
+ *   translucent pixels are blended.
+ * The frames are sampled at the centers of the destination pixels, so the result is
+ * identical to drawing a frame pre-scaled by {@code ImageOps.scale}, for integer as well as
+ * non-integer scale factors.
+ * 
+ * The framebuffer is passed to the graphics objects that draw on it with the
+ * {@code KEY_TARGET} rendering hint (see {@code TileRenderer}). {@code draw} returns false
+ * if a blit is not possible, in which case the caller should draw the frame through Java2D.
+ * 
+ * The blitter is only used when tile rendering is enabled (-DlearningGame.tileRendering=true).
+ * By default a frame is painted on the accelerated back buffer of Swing, whose pixels cannot
+ * be written directly. Blitting there would need a framebuffer in system memory which has to be
+ * uploaded each frame, while the pre-scaled sprites of {@code ScaledSpriteCache} are copied
+ * by the graphics pipeline without any scaling.
+ */
+public class PixelBlitter {
+    // The rendering hint which holds the framebuffer a graphics object draws on.
+    final public static RenderingHints.Key KEY_TARGET = new RenderingHints.Key(0) {
+        @Override
+        public boolean isCompatibleValue(Object val) {
+            return val == null || val instanceof Target;
+        }
+    };
+    
+    // The kinds of runs of pixels.
+    final private static int TRANSPARENT = 0;
+    final private static int OPAQUE = 1;
+    final private static int TRANSLUCENT = 2;
+    
+    // The products {@code a * b / 255} at index {@code (a << 8) | b}, rounded the same way
+    // as the blending loops of Java2D.
+    final private static byte[] MUL8 = new byte[256 * 256];
+    static {
+        for (int a = 0; a < 256; a++) {
+            for (int b = 0; b < 256; b++) {
+                MUL8[(a << 8) | b] = (byte) ((a * b * 0x10101L + 0x800000L) >>> 24);
+            }
+        }
+    }
+    
+    // The buffers of the expanded row, the source row, the columns and the runs, per thread.
+    final private static ThreadLocal<int[][]> buffers = ThreadLocal.withInitial(() -> new int[4][64]);
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Target class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Opaque framebuffer backed by the {@code int[]} of an INT_RGB image.
+     * Accessing the pixels directly prevents the image from being accelerated, which
+     * doesn't matter for a framebuffer that changes every frame anyway.
+     */
+    public static class Target {
+        final private BufferedImage image;
+        final private int[] pixels;
+        final private int offset;
+        final private int scan;
+        
+        /* 
+         * @param image the image of the framebuffer.
+         * @throws IllegalArgumentException iff the image is not of type INT_RGB.
+         */
+        public Target(BufferedImage image) {
+            if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+                throw new IllegalArgumentException("Only INT_RGB framebuffers are supported, but found type: "
+                                                       + image.getType());
+            }
+            
+            this.image = image;
+            DataBufferInt buffer = (DataBufferInt) image.getRaster().getDataBuffer();
+            pixels = buffer.getData();
+            offset = buffer.getOffset();
+            scan = ((SinglePixelPackedSampleModel) image.getSampleModel()).getScanlineStride();
+        }
+        
+        /* 
+         * @return the image of the framebuffer.
+         */
+        public BufferedImage getImage() {
+            return image;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * This is a singleton class. No instances should be made.
+     */
+    @Deprecated
+    private PixelBlitter() { }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Draws the given frame scaled to the given bounds into the framebuffer of the given
+     * graphics object, if possible.
+     * This is only possible if the graphics object has a framebuffer (see {@code KEY_TARGET}),
+     * is only translated, uses the default composite and has a rectangular clip.
+     * 
+     * @param g2d the graphics object to draw on.
+     * @param src the frame to draw.
+     * @param x the x coordinate to draw at.
+     * @param y the y coordinate to draw at.
+     * @param width the width to draw the frame with.
+     * @param height the height to draw the frame with.
+     * @return true iff the frame was drawn. If false, nothing was drawn.
+     */
+    public static boolean draw(Graphics2D g2d, BufferedImage src, int x, int y, int width, int height) {
+        Object hint = g2d.getRenderingHint(KEY_TARGET);
+        if (!(hint instanceof Target) || !isSupported(src)) return false;
+        
+        AffineTransform at = g2d.getTransform();
+        if ((at.getType() & ~AffineTransform.TYPE_TRANSLATION) != 0) return false;
+        
+        // Only whole pixel translations map the frame onto the pixel grid.
+        double tx = at.getTranslateX();
+        double ty = at.getTranslateY();
+        if (tx != Math.rint(tx) || ty != Math.rint(ty)) return false;
+        
+        Composite comp = g2d.getComposite();
+        if (!(comp instanceof AlphaComposite) || ((AlphaComposite) comp).getRule() != AlphaComposite.SRC_OVER ||
+                ((AlphaComposite) comp).getAlpha() != 1.0f) {
+            return false;
+        }
+        
+        Target target = (Target) hint;
+        Rectangle area = new Rectangle(0, 0, target.image.getWidth(), target.image.getHeight());
+        Shape clip = g2d.getClip();
+        if (clip != null) {
+            // Only clips on whole pixels are supported. The clip is in user space,
+            // which only differs by the translation.
+            Rectangle c = clip.getBounds();
+            if (!(clip instanceof Rectangle2D) || !clip.getBounds2D().equals(c)) return false;
+            
+            c.translate((int) tx, (int) ty);
+            area = area.intersection(c);
+        }
+        
+        blit(src, target, x + (int) tx, y + (int) ty, width, height, area);
+        return true;
+    }
+    
+    /* 
+     * Draws the given frame scaled to the given bounds into the given framebuffer.
+     * 
+     * @param src the frame to draw. Must be supported (see {@code isSupported}).
+     * @param target the framebuffer to draw on.
+     * @param x the x coordinate to draw at, in pixels of the framebuffer.
+     * @param y the y coordinate to draw at, in pixels of the framebuffer.
+     * @param width the width to draw the frame with.
+     * @param height the height to draw the frame with.
+     * @param clip the area of the framebuffer that may be changed.
+     */
+    public static void blit(BufferedImage src, Target target, int x, int y,
+                            int width, int height, Rectangle clip) {
+        if (width <= 0 || height <= 0) return;
+        
+        int x0 = Math.max(x, clip.x);
+        int y0 = Math.max(y, clip.y);
+        int x1 = Math.min(x + width, clip.x + clip.width);
+        int y1 = Math.min(y + height, clip.y + clip.height);
+        if (x0 >= x1 || y0 >= y1) return;
+        
+        int sw = src.getWidth();
+        int sh = src.getHeight();
+        int n = x1 - x0;
+        boolean pre = (src.getType() == BufferedImage.TYPE_INT_ARGB_PRE);
+        boolean opaqueType = (src.getType() == BufferedImage.TYPE_INT_RGB);
+        
+        int[][] buf = buffers.get();
+        int[] row = buffer(buf, 0, n);
+        int[] line = buffer(buf, 1, sw);
+        int[] columns = buffer(buf, 2, n);
+        int[] runs = buffer(buf, 3, 2 * n + 2);
+        
+        // Sample the source at the centers of the destination pixels.
+        for (int i = 0; i < n; i++) {
+            columns[i] = (int) (((2L * (x0 + i - x) + 1) * sw) / (2L * width));
+        }
+        
+        int[] dst = target.pixels;
+        int prevSy = -1;
+        int numRuns = 0;
+        for (int dy = y0; dy < y1; dy++) {
+            int sy = (int) (((2L * (dy - y) + 1) * sh) / (2L * height));
+            
+            // Expand the source row only once for all destination rows that sample it,
+            // and split it into runs of transparent, opaque and translucent pixels.
+            if (sy != prevSy) {
+                prevSy = sy;
+                src.getRaster().getDataElements(0, sy, sw, 1, line);
+                
+                numRuns = 0;
+                int prevKind = -1;
+                for (int i = 0; i < n; i++) {
+                    int p = line[columns[i]];
+                    int a = (opaqueType ? 0xFF : p >>> 24);
+                    int kind = (a == 0 ? TRANSPARENT : (a == 0xFF ? OPAQUE : TRANSLUCENT));
+                    
+                    // The alpha byte must stay empty in the INT_RGB framebuffer,
+                    // and translucent pixels are stored premultiplied.
+                    if (kind == OPAQUE) row[i] = p & 0xFFFFFF;
+                    else if (kind == TRANSLUCENT) row[i] = (pre ? p : premultiply(p, a));
+                    
+                    if (kind != prevKind) {
+                        runs[2 * numRuns] = i;
+                        runs[2 * numRuns + 1] = kind;
+                        numRuns++;
+                        prevKind = kind;
+                    }
+                }
+                
+                runs[2 * numRuns] = n;
+            }
+            
+            int o = target.offset + dy * target.scan + x0;
+            for (int r = 0; r < numRuns; r++) {
+                int start = runs[2 * r];
+                int end = runs[2 * r + 2];
+                int kind = runs[2 * r + 1];
+                
+                if (kind == OPAQUE) {
+                    System.arraycopy(row, start, dst, o + start, end - start);
+                    
+                } else if (kind == TRANSLUCENT) {
+                    for (int i = start; i < end; i++) {
+                        int p = row[i];
+                        int d = dst[o + i];
+                        int f = (0xFF - (p >>> 24)) << 8;
+                        dst[o + i] = ((((p >> 16) & 0xFF) + (MUL8[f | ((d >> 16) & 0xFF)] & 0xFF)) << 16) |
+                                     ((((p >>  8) & 0xFF) + (MUL8[f | ((d >>  8) & 0xFF)] & 0xFF)) <<  8) |
+                                      (( p        & 0xFF) + (MUL8[f | ( d        & 0xFF)] & 0xFF));
+                    }
+                }
+            }
+        }
+    }
+    
+    /* 
+     * @return the buffer with the given index of the given buffers, with at least the given length.
+     */
+    private static int[] buffer(int[][] buf, int i, int length) {
+        if (buf[i].length < length) buf[i] = new int[Math.max(length, 2 * buf[i].length)];
+        return buf[i];
+    }
+    
+    /* 
+     * @param img the image to check.
+     * @return whether the given image can be drawn by this blitter.
+     */
+    public static boolean isSupported(BufferedImage img) {
+        int type = img.getType();
+        return type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_ARGB_PRE ||
+            type == BufferedImage.TYPE_INT_RGB;
+    }
+    
+    /* 
+     * @return the given non-premultiplied pixel with the given alpha premultiplied.
+     */
+    private static int premultiply(int p, int a) {
+        a <<= 8;
+        return (p & 0xFF000000) |
+            ((MUL8[a | ((p >> 16) & 0xFF)] & 0xFF) << 16) |
+            ((MUL8[a | ((p >>  8) & 0xFF)] & 0xFF) <<  8) |
+             (MUL8[a | ( p        & 0xFF)] & 0xFF);
+    }
+    
+    /* 
+     * Benchmarks drawing scaled pixel-art frames onto a framebuffer by scaling them
+     * while drawing, by drawing pre-scaled frames and by this blitter.
+     */
+    public static void main(String[] args) {
+        int frameWidth = 1280;
+        int frameHeight = 960;
+        int sprites = 200;
+        int rounds = 50;
+        
+        // Small frames with transparent, translucent and opaque pixels, like the trimmer and hair.
+        Random r = new Random(42);
+        int[][] sizes = {{8, 14}, {15, 3}, {26, 39}, {9, 9}};
+        BufferedImage[] frames = new BufferedImage[sizes.length];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new BufferedImage(sizes[i][0], sizes[i][1], BufferedImage.TYPE_INT_ARGB);
+            for (int px = 0; px < sizes[i][0]; px++) {
+                for (int py = 0; py < sizes[i][1]; py++) {
+                    int a = (r.nextInt(3) == 0 ? 0 : (r.nextInt(8) == 0 ? 128 : 255));
+                    frames[i].setRGB(px, py, (a << 24) | (r.nextInt() & 0xFFFFFF));
+                }
+            }
+        }
+        
+        int[][] bounds = new int[sprites][];
+        for (int i = 0; i < sprites; i++) {
+            int scale = 4 + r.nextInt(12);
+            BufferedImage f = frames[i % frames.length];
+            bounds[i] = new int[] {r.nextInt(frameWidth), r.nextInt(frameHeight),
+                                   f.getWidth() * scale, f.getHeight() * scale};
+        }
+        
+        BufferedImage img = new BufferedImage(frameWidth, frameHeight, BufferedImage.TYPE_INT_RGB);
+        Target target = new Target(img);
+        ScaledSpriteCache cache = new ScaledSpriteCache();
+        
+        String[] names = {"scale while drawing", "pre-scaled (ScaledSpriteCache)", "PixelBlitter"};
+        for (int pass = 0; pass < 2; pass++) {
+            for (int mode = 0; mode < names.length; mode++) {
+                long start = System.nanoTime();
+                for (int round = 0; round < rounds; round++) {
+                    Graphics2D g2d = img.createGraphics();
+                    g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                                         RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+                    g2d.setRenderingHint(KEY_TARGET, target);
+                    g2d.setColor(Color.GRAY);
+                    g2d.fillRect(0, 0, frameWidth, frameHeight);
+                    
+                    for (int i = 0; i < sprites; i++) {
+                        BufferedImage f = frames[i % frames.length];
+                        int[] b = bounds[i];
+                        if (mode == 0) {
+                            g2d.drawImage(f, b[0], b[1], b[2], b[3], null);
+                            
+                        } else if (mode == 1) {
+                            cache.draw(g2d, f, b[0], b[1], b[2], b[3]);
+                            
+                        } else {
+                            draw(g2d, f, b[0], b[1], b[2], b[3]);
+                        }
+                    }
+                    
+                    g2d.dispose();
+                }
+                
+                // Report the second pass only, after the JIT warmed up.
+                long nanos = System.nanoTime() - start;
+                if (pass == 1) {
+                    System.out.printf("%-32s %8.3f ms/frame%n", names[mode], nanos / 1e6 / rounds);
+                }
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,303 @@
+package learningGame.tools;
+
+
+// Java packages
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineBreakMeasurer;
+import java.awt.font.LineMetrics;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+
+import java.text.AttributedString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JComponent;
+import javax.swing.SwingConstants;
+import javax.swing.UIManager;
+
+
+/* 
+ * Lightweight label for (multi-line) text.
+ * Replaces JLabels with HTML text, which are slow to create and to lay out because
+ * of the HTML view machinery of Swing.
+ * 
+ * The text supports a small markup:
+ * - A new line character starts a new line.
+ * - Text between two "**" is drawn bold.
+ * Spaces are preserved. If wrapping is enabled, lines longer than the width of the
+ * label are wrapped at word boundaries.
+ * 
+ * The text is laid out once and only again when the text, font or width changes.
+ */
+public class RichTextLabel extends JComponent {
+    final private static long serialVersionUID = 1L;
+    
+    // The text with markup.
+    private String text;
+    
+    // Whether long lines should be wrapped.
+    private boolean wrap;
+    
+    // The alignment of the text.
+    private int horizontalAlignment = SwingConstants.LEFT;
+    private int verticalAlignment = SwingConstants.TOP;
+    
+    // The laid out lines. An empty line is represented by null.
+    private List<TextLayout> lines;
+    
+    // The width for which the lines were laid out, and the size of the laid out text.
+    private float layoutWidth = -1;
+    private float textWidth;
+    private float textHeight;
+    
+    // The height of an empty line.
+    private float emptyLineHeight;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructors
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public RichTextLabel(String text) {
+        this(text, false);
+    }
+    
+    /* 
+     * @param text the text with markup.
+     * @param wrap whether long lines should be wrapped.
+     */
+    public RichTextLabel(String text, boolean wrap) {
+        this.text = (text == null ? "" : text);
+        this.wrap = wrap;
+        
+        setFont(UIManager.getFont("Label.font"));
+        setForeground(UIManager.getColor("Label.foreground"));
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Lays out the text for the given width if needed.
+     * 
+     * @param width the available width, or a negative value if it is unbounded.
+     */
+    private void layoutText(float width) {
+        if (!wrap) width = Float.MAX_VALUE;
+        else if (width <= 0) width = Float.MAX_VALUE;
+        if (lines != null && layoutWidth == width) return;
+        
+        Font font = getFont();
+        FontRenderContext frc = getFontMetrics(font).getFontRenderContext();
+        LineMetrics lm = font.getLineMetrics(" ", frc);
+        emptyLineHeight = lm.getAscent() + lm.getDescent() + lm.getLeading();
+        
+        lines = new ArrayList<TextLayout>();
+        textWidth = 0;
+        textHeight = 0;
+        
+        for (String paragraph : text.split("\n", -1)) {
+            AttributedString as = markup(paragraph, font);
+            if (as == null) {
+                lines.add(null);
+                textHeight += emptyLineHeight;
+                continue;
+            }
+            
+            LineBreakMeasurer lbm = new LineBreakMeasurer(as.getIterator(), frc);
+            int end = as.getIterator().getEndIndex();
+            while (lbm.getPosition() < end) {
+                TextLayout layout = lbm.nextLayout(width);
+                lines.add(layout);
+                textWidth = Math.max(textWidth, layout.getVisibleAdvance());
+                textHeight += layout.getAscent() + layout.getDescent() + layout.getLeading();
+            }
+        }
+        
+        layoutWidth = width;
+    }
+    
+    /* 
+     * Converts a single line of text with markup to an attributed string.
+     * 
+     * @param paragraph the line with markup.
+     * @param font the font of the text.
+     * @return the attributed string, or null if the line contains no text.
+     */
+    private static AttributedString markup(String paragraph, Font font) {
+        StringBuilder sb = new StringBuilder(paragraph.length());
+        List<int[]> boldRuns = new ArrayList<int[]>();
+        
+        int start = -1;
+        int i = 0;
+        while (i < paragraph.length()) {
+            if (paragraph.startsWith("**", i)) {
+                if (start < 0) {
+                    start = sb.length();
+                    
+                } else {
+                    if (start < sb.length()) boldRuns.add(new int[] {start, sb.length()});
+                    start = -1;
+                }
+                
+                i += 2;
+                
+            } else {
+                sb.append(paragraph.charAt(i++));
+            }
+        }
+        
+        // An unclosed bold run lasts until the end of the line.
+        if (start >= 0 && start < sb.length()) boldRuns.add(new int[] {start, sb.length()});
+        if (sb.length() == 0) return null;
+        
+        AttributedString as = new AttributedString(sb.toString());
+        as.addAttribute(TextAttribute.FONT, font);
+        if (!boldRuns.isEmpty()) {
+            Font bold = font.deriveFont(font.getStyle() | Font.BOLD);
+            for (int[] run : boldRuns) {
+                as.addAttribute(TextAttribute.FONT, bold, run[0], run[1]);
+            }
+        }
+        
+        return as;
+    }
+    
+    /* 
+     * Marks that the text has to be laid out again.
+     */
+    private void invalidateText() {
+        lines = null;
+        revalidate();
+        repaint();
+    }
+    
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) return super.getPreferredSize();
+        
+        Insets insets = getInsets();
+        layoutText(getWidth() - insets.left - insets.right);
+        return new Dimension((int) Math.ceil(textWidth) + insets.left + insets.right,
+                             (int) Math.ceil(textHeight) + insets.top + insets.bottom);
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2d = (Graphics2D) g;
+        
+        Insets insets = getInsets();
+        float width = getWidth() - insets.left - insets.right;
+        float height = getHeight() - insets.top - insets.bottom;
+        layoutText(width);
+        
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                             RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setColor(getForeground());
+        
+        float y = insets.top;
+        if (verticalAlignment == SwingConstants.CENTER) y += (height - textHeight) / 2;
+        else if (verticalAlignment == SwingConstants.BOTTOM) y += height - textHeight;
+        
+        for (TextLayout layout : lines) {
+            if (layout == null) {
+                y += emptyLineHeight;
+                continue;
+            }
+            
+            float x = insets.left;
+            if (horizontalAlignment == SwingConstants.CENTER) x += (width - layout.getVisibleAdvance()) / 2;
+            else if (horizontalAlignment == SwingConstants.RIGHT) x += width - layout.getVisibleAdvance();
+            
+            y += layout.getAscent();
+            layout.draw(g2d, x, y);
+            y += layout.getDescent() + layout.getLeading();
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param text the new text with markup.
+     */
+    public void setText(String text) {
+        if (text == null) text = "";
+        if (text.equals(this.text)) return;
+        
+        this.text = text;
+        invalidateText();
+    }
+    
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        invalidateText();
+    }
+    
+    /* 
+     * @param wrap whether long lines should be wrapped.
+     */
+    public void setWrap(boolean wrap) {
+        if (this.wrap == wrap) return;
+        
+        this.wrap = wrap;
+        invalidateText();
+    }
+    
+    /* 
+     * @param alignment one of {@code SwingConstants.LEFT}, {@code SwingConstants.CENTER}
+     *     or {@code SwingConstants.RIGHT}.
+     */
+    public void setHorizontalAlignment(int alignment) {
+        this.horizontalAlignment = alignment;
+        repaint();
+    }
+    
+    /* 
+     * @param alignment one of {@code SwingConstants.TOP}, {@code SwingConstants.CENTER}
+     *     or {@code SwingConstants.BOTTOM}.
+     */
+    public void setVerticalAlignment(int alignment) {
+        this.verticalAlignment = alignment;
+        repaint();
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the text with markup.
+     */
+    public String getText() {
+        return text;
+    }
+    
+    public boolean isWrap() {
+        return wrap;
+    }
+    
+    public int getHorizontalAlignment() {
+        return horizontalAlignment;
+    }
+    
+    public int getVerticalAlignment() {
+        return verticalAlignment;
+    }
+    
+}
@@ -0,0 +1,235 @@
+package learningGame.tools;
+
+
+// Java packages
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/* 
+ * Cache which holds sprite frames pre-scaled to the size they are drawn at.
+ * Drawing a small frame through a scaling transform every frame is expensive, so
+ * each frame is scaled once (nearest-neighbour, to keep the pixel art sharp) and
+ * afterwards only copied 1:1.
+ * 
+ * The frames are identified by the instance of the source image, so the images
+ * must not be modified after they have been drawn via this cache.
+ * The cache is bounded by a memory budget. When the budget is exceeded, the least
+ * recently used frames are removed. The cache should be invalidated when the sizes
+ * at which the frames are drawn change (e.g. when the window is resized).
+ */
+public class ScaledSpriteCache {
+    // The default memory budget (in bytes).
+    final public static long DEFAULT_BUDGET
+        = Long.getLong("learningGame.spriteCacheMB", 32L) * 1024L * 1024L;
+    
+    // The cached frames in least recently used order.
+    final private LinkedHashMap<Entry, BufferedImage> frames
+        = new LinkedHashMap<Entry, BufferedImage>(64, 0.75f, true);
+    
+    // The memory budget (in bytes).
+    final private long budget;
+    
+    // The number of bytes currently used.
+    private long bytes = 0L;
+    
+    // The number of hits and misses.
+    private long hits = 0L;
+    private long misses = 0L;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Entry class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Key of a scaled frame. Compares the source image by identity.
+     */
+    private static class Entry {
+        final private BufferedImage source;
+        final private int width;
+        final private int height;
+        
+        private Entry(BufferedImage source, int width, int height) {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Entry)) return false;
+            Entry e = (Entry) obj;
+            return e.source == source && e.width == width && e.height == height;
+        }
+        
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(source) * 31 + width) * 31 + height;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructors
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public ScaledSpriteCache() {
+        this(DEFAULT_BUDGET);
+    }
+    
+    /* 
+     * @param budget the memory budget of the cache (in bytes).
+     */
+    public ScaledSpriteCache(long budget) {
+        this.budget = budget;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Returns the given frame scaled to the given size.
+     * 
+     * @param source the source frame.
+     * @param width the width to scale to.
+     * @param height the height to scale to.
+     * @return the scaled frame, or null if it doesn't fit within the budget of the cache.
+     */
+    public synchronized BufferedImage get(BufferedImage source, int width, int height) {
+        if (source.getWidth() == width && source.getHeight() == height) return source;
+        
+        Entry entry = new Entry(source, width, height);
+        BufferedImage scaled = frames.get(entry);
+        if (scaled != null) {
+            hits++;
+            return scaled;
+        }
+        
+        misses++;
+        long size = 4L * width * height;
+        if (size > budget) return null;
+        
+        scaled = scale(source, width, height);
+        frames.put(entry, scaled);
+        bytes += size;
+        
+        // Remove the least recently used frames until the budget is met.
+        Iterator<Map.Entry<Entry, BufferedImage>> it = frames.entrySet().iterator();
+        while (bytes > budget && it.hasNext()) {
+            Map.Entry<Entry, BufferedImage> eldest = it.next();
+            if (eldest.getValue() == scaled) continue;
+            
+            bytes -= 4L * eldest.getKey().width * eldest.getKey().height;
+            it.remove();
+        }
+        
+        return scaled;
+    }
+    
+    /* 
+     * Draws the given frame with the given bounds.
+     * If possible, the pre-scaled frame is copied 1:1. Otherwise the frame is scaled
+     * while drawing.
+     * 
+     * @param g2d the graphics object to draw on.
+     * @param source the frame to draw.
+     * @param x the x coordinate to draw at.
+     * @param y the y coordinate to draw at.
+     * @param width the width to draw the frame with.
+     * @param height the height to draw the frame with.
+     */
+    public void draw(Graphics2D g2d, BufferedImage source, int x, int y, int width, int height) {
+        if (source == null || width <= 0 || height <= 0) return;
+        
+        BufferedImage scaled = get(source, width, height);
+        if (scaled != null) {
+            g2d.drawImage(scaled, x, y, null);
+            
+        } else {
+            Object hint = g2d.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                                 RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g2d.drawImage(source, x, y, width, height, null);
+            if (hint != null) g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, hint);
+        }
+    }
+    
+    /* 
+     * Removes all frames from the cache.
+     * Should be invoked when the sizes of the drawn frames change.
+     */
+    public synchronized void invalidate() {
+        frames.clear();
+        bytes = 0L;
+    }
+    
+    /* 
+     * Scales the given image using nearest-neighbour interpolation.
+     * 
+     * @param source the image to scale.
+     * @param width the new width.
+     * @param height the new height.
+     * @return a new image with the scaled contents of the source.
+     */
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage scaled = ImageTools.createCompatibleImage(width, height);
+        if (ImageOps.isSupported(scaled)) return ImageOps.scale(source, width, height, scaled);
+        
+        Graphics2D g2d = scaled.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                             RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2d.drawImage(source, 0, 0, width, height, null);
+        g2d.dispose();
+        
+        return scaled;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the number of bytes used by the cached frames.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+    
+    /* 
+     * @return the memory budget (in bytes).
+     */
+    public long getBudget() {
+        return budget;
+    }
+    
+    /* 
+     * @return the number of cached frames.
+     */
+    public synchronized int getNumFrames() {
+        return frames.size();
+    }
+    
+    /* 
+     * @return the number of times a requested frame was already cached.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    /* 
+     * @return the number of times a requested frame was not yet cached.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+}
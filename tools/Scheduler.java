@@ -0,0 +1,443 @@
+package learningGame.tools;
+
+
+// Own packages
+import learningGame.log.Log2;
+
+
+// Java packages
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/* 
+ * Application wide scheduler which replaces the ad-hoc threads and timers.
+ * Tasks are executed on one of two pools:
+ *     - BLOCKING: an unbounded pool of reused threads, for tasks that wait (e.g. on IO or on other tasks).
+ *     - CPU: a pool bounded to the number of processors, for computational tasks.
+ * Delayed and periodic tasks are timed by a single scheduler thread.
+ * 
+ * Every task belongs to a named task group. All pending and running tasks of a group can be
+ * cancelled at once, e.g. when a MiniGame is cleaned up.
+ * For each pool the queue depth, the time tasks wait before they start and their run time are measured.
+ */
+public class Scheduler {
+    // The group that is used when no group is given.
+    final public static String DEFAULT_GROUP = "default";
+    
+    // The pools on which tasks can be executed.
+    public enum Pool {
+        BLOCKING, CPU
+    }
+    
+    // The time (in sec) idle pool threads are kept alive.
+    final private static long KEEP_ALIVE = 30L;
+    
+    // The executors of the pools.
+    final private static ThreadPoolExecutor blockingPool = new ThreadPoolExecutor
+        (0, Integer.MAX_VALUE, KEEP_ALIVE, TimeUnit.SECONDS,
+         new SynchronousQueue<Runnable>(), new NamedThreadFactory("Scheduler-Blocking"));
+    final private static ThreadPoolExecutor cpuPool;
+    
+    // The executor used for timing the delayed and periodic tasks.
+    final private static ScheduledThreadPoolExecutor timer;
+    
+    // The task groups.
+    final private static ConcurrentHashMap<String, TaskGroup> groups
+        = new ConcurrentHashMap<String, TaskGroup>();
+        
+    // The metrics of the pools.
+    final private static AtomicInteger[] queued = new AtomicInteger[Pool.values().length];
+    final private static PerfMonitor.Histogram[] waitTimes = new PerfMonitor.Histogram[Pool.values().length];
+    final private static PerfMonitor.Histogram[] runTimes = new PerfMonitor.Histogram[Pool.values().length];
+    
+    static {
+        int processors = Math.max(1, Runtime.getRuntime().availableProcessors());
+        cpuPool = new ThreadPoolExecutor(processors, processors, KEEP_ALIVE, TimeUnit.SECONDS,
+                                         new LinkedBlockingQueue<Runnable>(),
+                                         new NamedThreadFactory("Scheduler-CPU"));
+        cpuPool.allowCoreThreadTimeOut(true);
+        
+        timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("Scheduler-Timer"));
+        timer.setRemoveOnCancelPolicy(true);
+        
+        for (int i = 0; i < queued.length; i++) {
+            queued[i] = new AtomicInteger();
+            waitTimes[i] = new PerfMonitor.Histogram();
+            runTimes[i] = new PerfMonitor.Histogram();
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * NamedThreadFactory class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Creates numbered daemon threads, so the scheduler never keeps the application alive.
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+        final private String name;
+        final private AtomicInteger counter = new AtomicInteger();
+        
+        private NamedThreadFactory(String name) {
+            this.name = name;
+        }
+        
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * TaskGroup class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * A named group of tasks which can be cancelled together.
+     */
+    public static class TaskGroup {
+        // The name of the group.
+        final private String name;
+        
+        // The tasks of this group that have not yet completed.
+        final private Set<Future<?>> tasks = ConcurrentHashMap.newKeySet();
+        
+        // The number of submitted and cancelled tasks.
+        final private AtomicLong submitted = new AtomicLong();
+        final private AtomicLong cancelled = new AtomicLong();
+        
+        private TaskGroup(String name) {
+            this.name = name;
+        }
+        
+        /* 
+         * Adds a task to this group. Completed tasks are removed.
+         */
+        private void add(Future<?> task) {
+            tasks.removeIf((f) -> f.isDone());
+            tasks.add(task);
+            submitted.incrementAndGet();
+        }
+        
+        /* 
+         * Cancels all pending and running tasks of this group.
+         * Running tasks are interrupted.
+         * 
+         * @return the number of tasks that were cancelled.
+         */
+        public int cancel() {
+            int num = 0;
+            for (Future<?> task : tasks) {
+                if (task.cancel(true)) num++;
+            }
+            
+            tasks.clear();
+            cancelled.addAndGet(num);
+            return num;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /* 
+         * @return the number of tasks of this group that have not yet completed.
+         */
+        public int getNumActive() {
+            tasks.removeIf((f) -> f.isDone());
+            return tasks.size();
+        }
+        
+        public long getNumSubmitted() {
+            return submitted.get();
+        }
+        
+        public long getNumCancelled() {
+            return cancelled.get();
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Task class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * A task on one of the pools. Keeps track of the metrics and removes itself from
+     * it's group when done.
+     */
+    private static class Task<V> extends FutureTask<V> {
+        final private TaskGroup group;
+        final private int pool;
+        final private long submitTime = System.nanoTime();
+        final private boolean logErrors;
+        
+        // Whether the task has left the queue.
+        final private AtomicBoolean dequeued = new AtomicBoolean(false);
+        
+        private Task(TaskGroup group, Pool pool, Callable<V> callable, boolean logErrors) {
+            super(callable);
+            this.group = group;
+            this.pool = pool.ordinal();
+            this.logErrors = logErrors;
+        }
+        
+        @Override
+        public void run() {
+            long startTime = System.nanoTime();
+            if (dequeued.compareAndSet(false, true)) {
+                queued[pool].decrementAndGet();
+                waitTimes[pool].record(startTime - submitTime, 0);
+            }
+            
+            super.run();
+            runTimes[pool].record(System.nanoTime() - startTime, 0);
+        }
+        
+        @Override
+        protected void done() {
+            // Cancelled tasks might never be run.
+            if (dequeued.compareAndSet(false, true)) {
+                queued[pool].decrementAndGet();
+            }
+            
+            group.tasks.remove(this);
+            
+            if (logErrors && !isCancelled()) {
+                try {
+                    get();
+                    
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        Log2.write((Exception) e.getCause());
+                        
+                    } else {
+                        Log2.write(e);
+                    }
+                    
+                } catch (InterruptedException | CancellationException e) {
+                    // The task was interrupted or cancelled. No action should be taken.
+                }
+            }
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * This is a static singleton class. No instances should be made.
+     */
+    @Deprecated
+    private Scheduler() { }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Executes the given task on the given pool.
+     * Exceptions thrown by the task are logged.
+     * 
+     * @param group the name of the task group of the task.
+     * @param pool the pool to execute the task on.
+     * @param task the task to execute.
+     * @return the future of the task, which can be used to cancel it.
+     */
+    public static Future<?> execute(String group, Pool pool, Runnable task) {
+        if (task == null) throw new NullPointerException("No task was given!");
+        return submit(group, pool, () -> {
+            task.run();
+            return null;
+        }, true);
+    }
+    
+    /* 
+     * Submits the given task to the given pool.
+     * Exceptions thrown by the task are not logged, but thrown by {@code Future.get()}.
+     * 
+     * @param group the name of the task group of the task.
+     * @param pool the pool to execute the task on.
+     * @param task the task to execute.
+     * @return the future of the task.
+     */
+    public static <V> Future<V> submit(String group, Pool pool, Callable<V> task) {
+        if (task == null) throw new NullPointerException("No task was given!");
+        return submit(group, pool, task, false);
+    }
+    
+    /* 
+     * Submits the given task to the given pool.
+     * 
+     * @param group the name of the task group of the task.
+     * @param pool the pool to execute the task on.
+     * @param task the task to execute.
+     * @param logErrors whether the exceptions thrown by the task should be logged.
+     * @return the future of the task.
+     */
+    private static <V> Future<V> submit(String group, Pool pool, Callable<V> task, boolean logErrors) {
+        if (pool == null) throw new NullPointerException("No pool was given!");
+        
+        TaskGroup taskGroup = getGroup(group);
+        Task<V> future = new Task<V>(taskGroup, pool, task, logErrors);
+        taskGroup.add(future);
+        queued[pool.ordinal()].incrementAndGet();
+        
+        (pool == Pool.CPU ? cpuPool : blockingPool).execute(future);
+        return future;
+    }
+    
+    /* 
+     * Executes the given task once after the given delay.
+     * The task is executed on the scheduler thread, so it should be short.
+     * Longer tasks should submit their work to one of the pools.
+     * 
+     * @param group the name of the task group of the task.
+     * @param task the task to execute.
+     * @param delay the delay in ms.
+     * @return the future of the task, which can be used to cancel it.
+     */
+    public static ScheduledFuture<?> schedule(String group, Runnable task, long delay) {
+        if (task == null) throw new NullPointerException("No task was given!");
+        
+        ScheduledFuture<?> future = timer.schedule(() -> runSafe(task), delay, TimeUnit.MILLISECONDS);
+        getGroup(group).add(future);
+        return future;
+    }
+    
+    /* 
+     * Executes the given task periodically with a fixed rate.
+     * The task is executed on the scheduler thread, so it should be short.
+     * Longer tasks should submit their work to one of the pools.
+     * 
+     * @param group the name of the task group of the task.
+     * @param task the task to execute.
+     * @param delay the delay in ms before the first execution.
+     * @param interval the time in ms between two executions.
+     * @return the future of the task, which can be used to cancel it.
+     */
+    public static ScheduledFuture<?> scheduleAtFixedRate(String group, Runnable task, long delay, long interval) {
+        if (task == null) throw new NullPointerException("No task was given!");
+        
+        ScheduledFuture<?> future = timer.scheduleAtFixedRate(() -> runSafe(task), delay, interval,
+                                                              TimeUnit.MILLISECONDS);
+        getGroup(group).add(future);
+        return future;
+    }
+    
+    /* 
+     * Runs the given action and logs the exceptions that were thrown,
+     * so a failing periodic task keeps being executed.
+     * 
+     * @param r the action to run.
+     */
+    private static void runSafe(Runnable r) {
+        try {
+            r.run();
+            
+        } catch (RuntimeException e) {
+            Log2.write(e);
+        }
+    }
+    
+    /* 
+     * Cancels all pending and running tasks of the given group and removes the group.
+     * No action is taken if the group does not exist.
+     * 
+     * @param group the name of the group to cancel.
+     * @return the number of tasks that were cancelled.
+     */
+    public static int cancelGroup(String group) {
+        TaskGroup taskGroup = groups.remove(group == null ? DEFAULT_GROUP : group);
+        return (taskGroup == null ? 0 : taskGroup.cancel());
+    }
+    
+    /* 
+     * @return a line for each pool containing it's statistics.
+     */
+    public static String[] getStatLines() {
+        Pool[] pools = Pool.values();
+        String[] lines = new String[pools.length];
+        
+        for (int i = 0; i < pools.length; i++) {
+            lines[i] = MultiTool.fillSpaceRight(pools[i].toString(), 9)
+                + " queued=" + MultiTool.fillSpaceLeft(Integer.toString(queued[i].get()), 4)
+                + " n=" + MultiTool.fillSpaceLeft(Long.toString(runTimes[i].getCount()), 7)
+                + " wait p50/p99=" + toMs(waitTimes[i].getPercentile(0.50))
+                + "/" + toMs(waitTimes[i].getPercentile(0.99)) + " ms"
+                + " run p50/p99=" + toMs(runTimes[i].getPercentile(0.50))
+                + "/" + toMs(runTimes[i].getPercentile(0.99)) + " ms";
+        }
+        
+        return lines;
+    }
+    
+    /* 
+     * @param nanos the time in ns.
+     * @return the time in ms as String with two decimals.
+     */
+    private static String toMs(long nanos) {
+        return MultiTool.doubleToStringDecimals(nanos / 1_000_000.0, 2);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param group the name of the group. If null, the default group is used.
+     * @return the task group with the given name. If it doesn't exist, it is created.
+     */
+    public static TaskGroup getGroup(String group) {
+        return groups.computeIfAbsent(group == null ? DEFAULT_GROUP : group, (name) -> new TaskGroup(name));
+    }
+    
+    /* 
+     * @param pool the pool.
+     * @return the number of tasks of the given pool which are waiting to be executed.
+     */
+    public static int getQueueDepth(Pool pool) {
+        return queued[pool.ordinal()].get();
+    }
+    
+    /* 
+     * @param pool the pool.
+     * @return the histogram of the time the tasks of the given pool waited before they were started.
+     */
+    public static PerfMonitor.Histogram getWaitTimes(Pool pool) {
+        return waitTimes[pool.ordinal()];
+    }
+    
+    /* 
+     * @param pool the pool.
+     * @return the histogram of the run time of the tasks of the given pool.
+     */
+    public static PerfMonitor.Histogram getRunTimes(Pool pool) {
+        return runTimes[pool.ordinal()];
+    }
+    
+}
@@ -0,0 +1,747 @@
+package learningGame.tools;
+
+
+// Own packages
+import learningGame.LearningGame;
+
+import learningGame.log.Log2;
+
+
+// Java packages
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+
+/* 
+ * Resolves the frames of the sprites by name.
+ * The sprites are defined in the definition file (see {@code DEFINITION_FILE}), which
+ * lists per sprite the sheet and the rectangle of the sheet containing it's frames.
+ * The {@code AtlasPacker} packs the frames of all sprites into one or a few atlas pages,
+ * and writes the location of each sprite on the pages to the index file
+ * (see {@code INDEX_FILE}).
+ * 
+ * If the index is available, only the atlas pages are decoded instead of every sheet.
+ * Sprites that are missing from the index, or whose entry doesn't match the definition
+ * anymore, are cut from their sheet instead. The index stores the sheet and the location of
+ * the frames on it, and a checksum of the sheet, so an entry also becomes outdated when the
+ * definition is moved or the sheet is edited. The atlas can therefore be rebuilt at any time.
+ * The checksum of a sheet is only computed the first time one of it's sprites is resolved,
+ * so the sheets of sprites that are not used are never read.
+ * 
+ * The frames returned by {@code getFrames} are standalone copies for fast drawing.
+ * To draw directly from the shared page instead, use {@code getRegion}.
+ */
+public class SpriteAtlas {
+    // The files, relative to the working directory.
+    final public static String DEFINITION_FILE = "data/sprites.csv";
+    final public static String INDEX_FILE = "data/atlas.csv";
+    final public static String PAGE_DIR = "img/atlas/";
+    
+    // The number of transparent pixels to the right and below each frame on a page,
+    // so frames don't bleed into each other when drawn scaled.
+    final public static int PADDING = 1;
+    
+    // The sprite definitions and the regions on the atlas pages. Null if not yet loaded.
+    private static volatile Index index;
+    
+    // Lock which ensures that the index is only loaded once.
+    final private static Object indexLock = new Object();
+    
+    // The frames that were already resolved.
+    final private static Map<String, BufferedImage[][]> frames = new ConcurrentHashMap<String, BufferedImage[][]>();
+    
+    // The sprites of which the frames are currently being resolved.
+    final private static ConcurrentHashMap<String, CompletableFuture<BufferedImage[][]>> resolving
+        = new ConcurrentHashMap<String, CompletableFuture<BufferedImage[][]>>();
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Definition class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * The location of the frames of a sprite on it's sheet.
+     * The frames are laid out as a grid from (startX, startY) up to (endX, endY).
+     */
+    public static class Definition {
+        final private String name;
+        final private String sheet;
+        final private int startX;
+        final private int startY;
+        final private int endX;
+        final private int endY;
+        final private int width;
+        final private int height;
+        
+        /* 
+         * @param name the name of the sprite.
+         * @param sheet the path of the sheet, relative to the working directory.
+         * @param startX the x coordinate of the first frame on the sheet.
+         * @param startY the y coordinate of the first frame on the sheet.
+         * @param endX the x coordinate of the end of the last frame (exclusive).
+         * @param endY the y coordinate of the end of the last frame (exclusive).
+         * @param width the width of a single frame.
+         * @param height the height of a single frame.
+         * 
+         * @throws IllegalArgumentException iff the rectangle can't be split into frames
+         *     of the given size.
+         */
+        public Definition(String name, String sheet, int startX, int startY,
+                          int endX, int endY, int width, int height) {
+            if (width <= 0 || height <= 0 || startX >= endX || startY >= endY ||
+                    (endX - startX) % width != 0 || (endY - startY) % height != 0) {
+                throw new IllegalArgumentException("Invalid frames for sprite \"" + name + "\": ("
+                    + startX + ", " + startY + ") - (" + endX + ", " + endY + ") with size "
+                    + width + "x" + height);
+            }
+            
+            this.name = name;
+            this.sheet = sheet;
+            this.startX = startX;
+            this.startY = startY;
+            this.endX = endX;
+            this.endY = endY;
+            this.width = width;
+            this.height = height;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getSheet() {
+            return sheet;
+        }
+        
+        /* 
+         * @return the x coordinate of the given column on the sheet.
+         */
+        public int getFrameX(int column) {
+            return startX + column * width;
+        }
+        
+        /* 
+         * @return the y coordinate of the given row on the sheet.
+         */
+        public int getFrameY(int row) {
+            return startY + row * height;
+        }
+        
+        public int getEndX() {
+            return endX;
+        }
+        
+        public int getEndY() {
+            return endY;
+        }
+        
+        public int getWidth() {
+            return width;
+        }
+        
+        public int getHeight() {
+            return height;
+        }
+        
+        public int getColumns() {
+            return (endX - startX) / width;
+        }
+        
+        public int getRows() {
+            return (endY - startY) / height;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Region class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * The location of the frames of a sprite on an atlas page.
+     * The frames have the same grid layout as on the sheet, but each frame
+     * is followed by {@code PADDING} transparent pixels.
+     */
+    public static class Region {
+        final private String name;
+        final private String pageFile;
+        final private int x;
+        final private int y;
+        final private int columns;
+        final private int rows;
+        final private int width;
+        final private int height;
+        
+        // The source of the frames: the sheet, the location of the first frame on it,
+        // and the checksum of the sheet file when the atlas was packed.
+        final private String sheet;
+        final private int sheetX;
+        final private int sheetY;
+        final private long sheetChecksum;
+        
+        // The decoded page. Null while the region is only used for packing.
+        private BufferedImage page;
+        
+        /* 
+         * @param name the name of the sprite.
+         * @param pageFile the path of the page, relative to the working directory.
+         * @param x the x coordinate of the first frame on the page.
+         * @param y the y coordinate of the first frame on the page.
+         * @param columns the number of columns of frames.
+         * @param rows the number of rows of frames.
+         * @param width the width of a single frame.
+         * @param height the height of a single frame.
+         * @param sheet the path of the sheet the frames were copied from, relative to the working directory.
+         * @param sheetX the x coordinate of the first frame on the sheet.
+         * @param sheetY the y coordinate of the first frame on the sheet.
+         * @param sheetChecksum the checksum of the sheet file, see {@code checksum(File)}.
+         */
+        public Region(String name, String pageFile, int x, int y,
+                      int columns, int rows, int width, int height,
+                      String sheet, int sheetX, int sheetY, long sheetChecksum) {
+            this.name = name;
+            this.pageFile = pageFile;
+            this.x = x;
+            this.y = y;
+            this.columns = columns;
+            this.rows = rows;
+            this.width = width;
+            this.height = height;
+            this.sheet = sheet;
+            this.sheetX = sheetX;
+            this.sheetY = sheetY;
+            this.sheetChecksum = sheetChecksum;
+        }
+        
+        /* 
+         * Draws a single frame from the page.
+         * 
+         * @param g2d the graphics object to draw on.
+         * @param column the column of the frame.
+         * @param row the row of the frame.
+         * @param dx the x coordinate to draw at.
+         * @param dy the y coordinate to draw at.
+         * @param dw the width to draw the frame with.
+         * @param dh the height to draw the frame with.
+         */
+        public void draw(Graphics2D g2d, int column, int row, int dx, int dy, int dw, int dh) {
+            int sx = getFrameX(column);
+            int sy = getFrameY(row);
+            g2d.drawImage(page, dx, dy, dx + dw, dy + dh, sx, sy, sx + width, sy + height, null);
+        }
+        
+        /* 
+         * The checksum of the sheet is not compared here, see {@code getSheetChecksum()}.
+         * 
+         * @param def the definition to compare with.
+         * @return whether this region holds the frames as described by the given definition.
+         */
+        public boolean matches(Definition def) {
+            return def.getSheet().equals(sheet) &&
+                def.getFrameX(0) == sheetX && def.getFrameY(0) == sheetY &&
+                def.getColumns() == columns && def.getRows() == rows &&
+                def.getWidth() == width && def.getHeight() == height;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getPageFile() {
+            return pageFile;
+        }
+        
+        /* 
+         * @return the decoded page, or null if the page was not loaded.
+         */
+        public BufferedImage getPage() {
+            return page;
+        }
+        
+        /* 
+         * @return the x coordinate of the given column on the page.
+         */
+        public int getFrameX(int column) {
+            return x + column * (width + PADDING);
+        }
+        
+        /* 
+         * @return the y coordinate of the given row on the page.
+         */
+        public int getFrameY(int row) {
+            return y + row * (height + PADDING);
+        }
+        
+        public int getColumns() {
+            return columns;
+        }
+        
+        public int getRows() {
+            return rows;
+        }
+        
+        public int getNumFrames() {
+            return columns * rows;
+        }
+        
+        public int getWidth() {
+            return width;
+        }
+        
+        public int getHeight() {
+            return height;
+        }
+        
+        public String getSheet() {
+            return sheet;
+        }
+        
+        /* 
+         * @return the checksum of the sheet file when the atlas was packed.
+         */
+        public long getSheetChecksum() {
+            return sheetChecksum;
+        }
+        
+        @Override
+        public String toString() {
+            return name + ";" + pageFile + ";" + x + ";" + y + ";"
+                + columns + ";" + rows + ";" + width + ";" + height + ";"
+                + sheet + ";" + sheetX + ";" + sheetY + ";" + Long.toHexString(sheetChecksum);
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Index class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * The loaded definitions and regions, which are replaced together.
+     */
+    private static class Index {
+        final private Map<String, Definition> definitions;
+        final private Map<String, Region> regions;
+        
+        // Whether the sheets are unchanged since the atlas was packed, by sheet.
+        final private Map<String, Boolean> unchanged = new ConcurrentHashMap<String, Boolean>();
+        
+        private Index(Map<String, Definition> definitions, Map<String, Region> regions) {
+            this.definitions = definitions;
+            this.regions = regions;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * This is a singleton class. No instances should be made.
+     */
+    @Deprecated
+    private SpriteAtlas() { }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Returns the frames of the sprite with the given name, such that frames[x][y]
+     * is the frame in column x and row y.
+     * 
+     * @param name the name of the sprite.
+     * @return the frames of the sprite.
+     * 
+     * @throws IOException iff the definitions or the sheet of the sprite could not be read.
+     * @throws IllegalArgumentException iff no sprite with the given name is defined.
+     */
+    public static BufferedImage[][] getFrames(String name)
+        throws IOException, IllegalArgumentException {
+        BufferedImage[][] result = frames.get(name);
+        if (result != null) return result;
+        
+        // Concurrent requests for the same sprite wait for a single resolve. Requests for other
+        // sprites are not blocked.
+        CompletableFuture<BufferedImage[][]> future = new CompletableFuture<BufferedImage[][]>();
+        CompletableFuture<BufferedImage[][]> running = resolving.putIfAbsent(name, future);
+        if (running != null) return LoadImages2.await(running);
+        
+        try {
+            // A resolve that finished after the lookup above stored the frames before it was unregistered.
+            result = frames.get(name);
+            if (result == null) {
+                result = resolve(name);
+                frames.put(name, result);
+            }
+            
+            future.complete(result);
+            return result;
+            
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+            
+        } finally {
+            resolving.remove(name, future);
+        }
+    }
+    
+    /* 
+     * Resolves the frames of the sprite with the given name from the atlas or from it's sheet.
+     * 
+     * @param name the name of the sprite.
+     * @return the frames of the sprite.
+     * 
+     * @throws IOException iff the definitions or the sheet of the sprite could not be read.
+     * @throws IllegalArgumentException iff no sprite with the given name is defined.
+     */
+    private static BufferedImage[][] resolve(String name)
+        throws IOException, IllegalArgumentException {
+        Index idx = getIndex();
+        Definition def = idx.definitions.get(name);
+        if (def == null) throw new IllegalArgumentException("Unknown sprite: \"" + name + "\"");
+        
+        Region region = idx.regions.get(name);
+        if (isPacked(idx, region, def)) {
+            BufferedImage[][] result = new BufferedImage[region.getColumns()][region.getRows()];
+            for (int i = 0; i < region.getColumns(); i++) {
+                for (int j = 0; j < region.getRows(); j++) {
+                    result[i][j] = ImageTools.toCompatibleImage(region.getPage().getSubimage
+                        (region.getFrameX(i), region.getFrameY(j), region.getWidth(), region.getHeight()));
+                }
+            }
+            
+            return result;
+        }
+        
+        // A changed sheet was already logged by isPacked().
+        if (region != null && !region.matches(def)) {
+            Log2.write("Atlas entry of sprite \"" + name + "\" is outdated. Repack the atlas.",
+                       Log2.WARNING);
+        }
+        
+        String sheet = LearningGame.WORKING_DIR + def.getSheet();
+        return LoadImages2.ensureLoadedAndGetImage(sheet, sheet + "_" + name,
+                                                   def.getFrameX(0), def.getFrameY(0),
+                                                   def.getEndX(), def.getEndY(),
+                                                   def.getWidth(), def.getHeight());
+    }
+    
+    /* 
+     * @param name the name of the sprite.
+     * @return the region of the sprite on it's atlas page, or null if the sprite
+     *     is not (correctly) packed.
+     * 
+     * @throws IOException iff the definitions could not be read.
+     */
+    public static Region getRegion(String name) throws IOException {
+        Index idx = getIndex();
+        Region region = idx.regions.get(name);
+        Definition def = idx.definitions.get(name);
+        return (isPacked(idx, region, def) ? region : null);
+    }
+    
+    /* 
+     * @param idx the loaded index.
+     * @param region the region of a sprite. Is allowed to be null.
+     * @param def the definition of the same sprite. Is allowed to be null.
+     * @return whether the region is still valid for the definition, and the sheet
+     *     of the sprite didn't change since the atlas was packed.
+     */
+    private static boolean isPacked(Index idx, Region region, Definition def) {
+        if (region == null || def == null || !region.matches(def)) return false;
+        
+        Boolean unchanged = idx.unchanged.get(region.getSheet());
+        if (unchanged == null) {
+            // Computing it twice concurrently is harmless, so the map is not locked while reading.
+            File sheet = new File(LearningGame.WORKING_DIR + region.getSheet());
+            try {
+                unchanged = (checksum(sheet) == region.getSheetChecksum());
+                
+            } catch (IOException e) {
+                Log2.write(new Object[] {"Could not read sheet \"" + region.getSheet() + "\":", e},
+                           Log2.WARNING);
+                unchanged = false;
+            }
+            
+            if (idx.unchanged.putIfAbsent(region.getSheet(), unchanged) == null && !unchanged) {
+                Log2.write("Atlas of sheet \"" + region.getSheet() + "\" is outdated. Repack the atlas.",
+                           Log2.WARNING);
+            }
+        }
+        
+        return unchanged;
+    }
+    
+    /* 
+     * Reads the definitions and the index, and decodes the atlas pages.
+     * Does nothing if they were already loaded.
+     * 
+     * @throws IOException iff the definitions could not be read.
+     */
+    public static void load() throws IOException {
+        getIndex();
+    }
+    
+    /* 
+     * Returns the loaded definitions and regions, and loads them first if needed.
+     * Only the first call has to wait for the pages to be decoded.
+     * 
+     * @return the loaded index.
+     * @throws IOException iff the definitions could not be read.
+     */
+    private static Index getIndex() throws IOException {
+        Index idx = index;
+        if (idx != null) return idx;
+        
+        synchronized(indexLock) {
+            if (index != null) return index;
+            
+            Map<String, Definition> defs = new LinkedHashMap<String, Definition>();
+            for (Definition def : readDefinitions(LearningGame.WORKING_DIR + DEFINITION_FILE)) {
+                defs.put(def.getName(), def);
+            }
+            
+            Map<String, Region> regs = new HashMap<String, Region>();
+            try {
+                Map<String, BufferedImage> pages = new HashMap<String, BufferedImage>();
+                for (Region region : readIndex(LearningGame.WORKING_DIR + INDEX_FILE)) {
+                    // The sheets are checked when their sprites are resolved, see isPacked().
+                    BufferedImage page = pages.get(region.getPageFile());
+                    if (page == null) {
+                        page = DecodedImageCache.read(new File(LearningGame.WORKING_DIR + region.getPageFile()));
+                        page = ImageTools.toCompatibleImage(page);
+                        pages.put(region.getPageFile(), page);
+                    }
+                    
+                    region.page = page;
+                    regs.put(region.getName(), region);
+                }
+                
+            } catch (IOException | IllegalArgumentException e) {
+                // Without the atlas every sprite is cut from it's sheet.
+                Log2.write(new Object[] {"Sprite atlas not available, using the sheets instead:", e},
+                           Log2.WARNING);
+                regs.clear();
+            }
+            
+            index = new Index(defs, regs);
+            return index;
+        }
+    }
+    
+    /* 
+     * @return the names of all defined sprites, in the order of the definition file.
+     * 
+     * @throws IOException iff the definitions could not be read.
+     */
+    public static List<String> getNames() throws IOException {
+        return new ArrayList<String>(getIndex().definitions.keySet());
+    }
+    
+    /* 
+     * @param name the name of the sprite.
+     * @return whether the frames of the sprite are currently loaded.
+     */
+    public static boolean isLoaded(String name) {
+        return frames.containsKey(name);
+    }
+    
+    /* 
+     * Releases the frames of the sprite with the given name. The atlas pages are kept,
+     * so the frames are cheaply resolved again when they are requested the next time.
+     * No action is taken if the frames are not loaded.
+     * 
+     * @param name the name of the sprite.
+     */
+    public static void release(String name) {
+        Index idx = index;
+        if (frames.remove(name) == null || idx == null) return;
+        
+        // Frames that were cut from their sheet are also stored by LoadImages2.
+        Definition def = idx.definitions.get(name);
+        if (def != null) {
+            String sheet = LearningGame.WORKING_DIR + def.getSheet();
+            LoadImages2.removeImage(sheet + "_" + name);
+        }
+    }
+    
+    /* 
+     * Pins the frames of the sprite with the given name in the image cache of {@code LoadImages2}.
+     * Only has effect for frames that are cut from their sheet, since the atlas pages are
+     * never evicted.
+     * 
+     * @param name the name of the sprite.
+     * @throws IOException iff the definitions could not be read.
+     */
+    public static void pin(String name) throws IOException {
+        String imageName = getImageName(name);
+        if (imageName != null) LoadImages2.pin(imageName);
+    }
+    
+    /* 
+     * Removes a pin of the frames of the sprite with the given name.
+     * 
+     * @param name the name of the sprite.
+     * @throws IOException iff the definitions could not be read.
+     */
+    public static void unpin(String name) throws IOException {
+        String imageName = getImageName(name);
+        if (imageName != null) LoadImages2.unpin(imageName);
+    }
+    
+    /* 
+     * @param name the name of the sprite.
+     * @return the name under which the frames are stored by {@code LoadImages2} when they are
+     *     cut from their sheet, or null if the sprite is not defined.
+     * @throws IOException iff the definitions could not be read.
+     */
+    private static String getImageName(String name) throws IOException {
+        Definition def = getIndex().definitions.get(name);
+        if (def == null) return null;
+        return LearningGame.WORKING_DIR + def.getSheet() + "_" + name;
+    }
+    
+    /* 
+     * Removes all loaded frames, pages and definitions.
+     * They are loaded again when they are requested the next time.
+     */
+    public static void clear() {
+        synchronized(indexLock) {
+            index = null;
+            frames.clear();
+        }
+    }
+    
+    /* 
+     * Reads the sprite definitions from the given file.
+     * 
+     * @param file the path of the definition file.
+     * @return the definitions in the order of the file.
+     * 
+     * @throws IOException iff the file could not be read.
+     * @throws IllegalArgumentException iff the file contains an invalid definition.
+     */
+    public static List<Definition> readDefinitions(String file)
+        throws IOException, IllegalArgumentException {
+        List<Definition> defs = new ArrayList<Definition>();
+        for (List<String> cells : readCSV(file, 8)) {
+            defs.add(new Definition(cells.get(0), cells.get(1),
+                                    parse(cells, 2), parse(cells, 3),
+                                    parse(cells, 4), parse(cells, 5),
+                                    parse(cells, 6), parse(cells, 7)));
+        }
+        
+        return defs;
+    }
+    
+    /* 
+     * Reads the regions from the given index file. The pages are not decoded.
+     * 
+     * @param file the path of the index file.
+     * @return the regions in the order of the file.
+     * 
+     * @throws IOException iff the file could not be read.
+     * @throws IllegalArgumentException iff the file contains an invalid entry.
+     */
+    public static List<Region> readIndex(String file)
+        throws IOException, IllegalArgumentException {
+        List<Region> regs = new ArrayList<Region>();
+        for (List<String> cells : readCSV(file, 12)) {
+            long checksum;
+            try {
+                checksum = Long.parseLong(cells.get(11).trim(), 16);
+                
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cell 11 is not a checksum: " + cells);
+            }
+            
+            regs.add(new Region(cells.get(0), cells.get(1),
+                                parse(cells, 2), parse(cells, 3),
+                                parse(cells, 4), parse(cells, 5),
+                                parse(cells, 6), parse(cells, 7),
+                                cells.get(8), parse(cells, 9),
+                                parse(cells, 10), checksum));
+        }
+        
+        return regs;
+    }
+    
+    /* 
+     * Reads all lines from the given csv file. The header line is skipped.
+     * 
+     * @param file the path of the csv file.
+     * @param numCells the number of cells each line should have.
+     * @return the cells of each line.
+     * 
+     * @throws IOException iff the file could not be read.
+     * @throws IllegalArgumentException iff a line has less cells.
+     */
+    private static List<List<String>> readCSV(String file, int numCells)
+        throws IOException, IllegalArgumentException {
+        List<List<String>> lines = new ArrayList<List<String>>();
+        try (BufferedReaderPlus brp = new BufferedReaderPlus(file, BufferedReaderPlus.JAVA_COMMENT, true)) {
+            // Skip the header.
+            brp.readCSVLine(true);
+            
+            ArrayList<String> cells;
+            while ((cells = brp.readCSVLine(true)) != null) {
+                if (cells.size() == 1 && cells.get(0).equals("")) continue;
+                if (cells.size() < numCells) {
+                    throw new IllegalArgumentException("Expected " + numCells + " cells in \"" + file
+                                                           + "\", but found: " + cells);
+                }
+                
+                lines.add(cells);
+            }
+        }
+        
+        return lines;
+    }
+    
+    /* 
+     * Computes the checksum of the contents of the given file, used to detect changed sheets.
+     * The modification time is not used, since it changes when the files are copied or checked out.
+     * 
+     * @param file the file.
+     * @return the CRC-32 checksum of the file.
+     * @throws IOException iff the file could not be read.
+     */
+    public static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file.toPath()));
+        return crc.getValue();
+    }
+    
+    /* 
+     * @return the integer value of the given cell.
+     * 
+     * @throws IllegalArgumentException iff the cell is not an integer.
+     */
+    private static int parse(List<String> cells, int i) {
+        try {
+            return Integer.parseInt(cells.get(i).trim());
+            
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cell " + i + " is not a number: " + cells);
+        }
+    }
+    
+}
@@ -0,0 +1,274 @@
+package learningGame.tools;
+
+
+// Own packages
+import learningGame.log.Log2;
+
+
+// Java packages
+import java.awt.Color;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+
+/* 
+ * Cache of rotated, mirrored and tinted variants of sprite frames.
+ * Rotating a frame while drawing it forces the slow general transform loops every frame,
+ * and tinting cannot be done while drawing at all. Instead, the variants are rendered
+ * once (preferably ahead of time on the CPU pool, see {@code prefetch}) and afterwards
+ * served by key.
+ * 
+ * A variant is rendered at the resolution of the source frame. A rotated variant is
+ * enlarged to fit the rotated frame without corner loss, and has the same center as the
+ * source frame. The variants are stable instances, so they can be drawn through
+ * a {@code ScaledSpriteCache}.
+ * 
+ * The frames are identified by their instance, so they must not be modified afterwards.
+ */
+public class SpriteVariantCache {
+    // The rendered (or being rendered) variants.
+    final private ConcurrentHashMap<Key, FutureTask<BufferedImage>> variants
+        = new ConcurrentHashMap<Key, FutureTask<BufferedImage>>();
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Variant class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Describes how a frame is changed. The frame is first tinted, then mirrored
+     * on the vertical axis and then rotated around it's center.
+     */
+    public static class Variant {
+        // The variant without any changes.
+        final public static Variant NONE = new Variant(0.0, false, null);
+        
+        // The rotation in degrees.
+        final private double angle;
+        
+        // Whether the frame is mirrored horizontally.
+        final private boolean mirror;
+        
+        // The color the frame is tinted with. The alpha value is the strength of the tint.
+        final private Color tint;
+        
+        /* 
+         * @param angle the rotation in degrees.
+         * @param mirror whether the frame is mirrored horizontally.
+         * @param tint the color to tint with. The alpha value is the strength of the tint.
+         *     Is allowed to be null.
+         */
+        public Variant(double angle, boolean mirror, Color tint) {
+            this.angle = angle;
+            this.mirror = mirror;
+            this.tint = (tint == null || tint.getAlpha() == 0 ? null : tint);
+        }
+        
+        /* 
+         * @param angle the rotation in degrees.
+         * @return a variant which rotates the frame over the given angle.
+         */
+        public static Variant rotated(double angle) {
+            return new Variant(angle, false, null);
+        }
+        
+        /* 
+         * @param tint the color to tint with. The alpha value is the strength of the tint.
+         * @return a variant which tints the frame with the given color.
+         */
+        public static Variant tinted(Color tint) {
+            return new Variant(0.0, false, tint);
+        }
+        
+        /* 
+         * @return whether this variant leaves the frame unchanged.
+         */
+        public boolean isNone() {
+            return angle == 0.0 && !mirror && tint == null;
+        }
+        
+        public double getAngle() {
+            return angle;
+        }
+        
+        public boolean isMirrored() {
+            return mirror;
+        }
+        
+        public Color getTint() {
+            return tint;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Variant)) return false;
+            Variant v = (Variant) obj;
+            return v.angle == angle && v.mirror == mirror &&
+                (v.tint == null ? tint == null : v.tint.equals(tint));
+        }
+        
+        @Override
+        public int hashCode() {
+            int hash = Double.hashCode(angle);
+            hash = hash * 31 + (mirror ? 1 : 0);
+            return hash * 31 + (tint == null ? 0 : tint.getRGB());
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Key class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Key of a variant of a frame. Compares the frame by identity.
+     */
+    private static class Key {
+        final private BufferedImage source;
+        final private Variant variant;
+        
+        private Key(BufferedImage source, Variant variant) {
+            this.source = source;
+            this.variant = variant;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) return false;
+            Key k = (Key) obj;
+            return k.source == source && k.variant.equals(variant);
+        }
+        
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(source) * 31 + variant.hashCode();
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Renders all given variants of all given frames in parallel on the CPU pool.
+     * Variants that are already rendered or being rendered are skipped.
+     * 
+     * @param group the task group of the render tasks.
+     * @param frames the frames to render the variants of. Null frames are skipped.
+     * @param variants the variants to render.
+     */
+    public void prefetch(String group, BufferedImage[] frames, Variant... variants) {
+        if (frames == null) return;
+        
+        for (BufferedImage frame : frames) {
+            if (frame == null) continue;
+            
+            for (Variant variant : variants) {
+                if (variant.isNone()) continue;
+                
+                FutureTask<BufferedImage> task = getTask(frame, variant);
+                if (!task.isDone()) Scheduler.execute(group, Scheduler.Pool.CPU, task);
+            }
+        }
+    }
+    
+    /* 
+     * Returns the given variant of the given frame.
+     * If the variant was not rendered yet, it is rendered on the calling thread.
+     * If it is currently being rendered on the pool, waits for it to finish.
+     * 
+     * @param frame the source frame.
+     * @param variant the variant to return.
+     * @return the variant of the frame, or null if {@code frame == null}.
+     */
+    public BufferedImage get(BufferedImage frame, Variant variant) {
+        if (frame == null) return null;
+        if (variant == null || variant.isNone()) return frame;
+        
+        FutureTask<BufferedImage> task = getTask(frame, variant);
+        
+        // Running an already started or finished task has no effect.
+        task.run();
+        try {
+            return task.get();
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return frame;
+            
+        } catch (ExecutionException e) {
+            // Don't keep the failed task, and draw the frame unchanged.
+            variants.remove(new Key(frame, variant), task);
+            Log2.write(e);
+            return frame;
+        }
+    }
+    
+    /* 
+     * @param frame the source frame.
+     * @param variant the variant to check.
+     * @return whether the given variant of the frame is available without waiting.
+     */
+    public boolean isReady(BufferedImage frame, Variant variant) {
+        if (variant.isNone()) return true;
+        
+        FutureTask<BufferedImage> task = variants.get(new Key(frame, variant));
+        return task != null && task.isDone();
+    }
+    
+    /* 
+     * Removes all variants from the cache.
+     */
+    public void clear() {
+        variants.clear();
+    }
+    
+    /* 
+     * @return the task which renders the given variant of the given frame.
+     */
+    private FutureTask<BufferedImage> getTask(BufferedImage frame, Variant variant) {
+        return variants.computeIfAbsent(new Key(frame, variant),
+                                        (key) -> new FutureTask<BufferedImage>(() -> render(frame, variant)));
+    }
+    
+    /* 
+     * Renders the given variant of the given frame.
+     * 
+     * @param frame the source frame.
+     * @param variant the variant to render.
+     * @return a new image containing the variant.
+     */
+    public static BufferedImage render(BufferedImage frame, Variant variant) {
+        BufferedImage img = frame;
+        if (variant.getTint() != null) img = ImageOps.tint(img, variant.getTint(), null);
+        
+        if (variant.isMirrored()) {
+            img = ImageOps.transform(img, ImageTools.SimpleAction.MIRROR_VERTICAL, null);
+        }
+        
+        if (variant.getAngle() != 0.0) {
+            img = ImageOps.rotate(img, Math.toRadians(variant.getAngle()),
+                                  AffineTransformOp.TYPE_NEAREST_NEIGHBOR, null);
+        }
+        
+        return ImageTools.toCompatibleImage(img);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the number of variants that are rendered or being rendered.
+     */
+    public int getNumVariants() {
+        return variants.size();
+    }
+    
+}
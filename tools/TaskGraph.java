@@ -0,0 +1,449 @@
+package learningGame.tools;
+
+
+// Own packages
+import learningGame.log.Log2;
+
+
+// Java packages
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/* 
+ * Graph of named tasks which are executed on the {@code Scheduler} as soon as all
+ * tasks they depend on have finished. Independent tasks run in parallel.
+ * 
+ * The tasks are added before the graph is started. When started, the graph is checked for
+ * unknown dependencies and cycles, and the tasks are divided in stages: a task is in stage 0
+ * if it has no dependencies, and otherwise in the stage after the latest of it's dependencies.
+ * The stages are only used for logging; a task is started as soon as it's own dependencies
+ * have finished, not when the whole previous stage has finished.
+ * 
+ * A task that throws an exception is logged and marked as failed. The tasks that depend on
+ * it are still executed, since they often can fall back to loading what they need themselves.
+ * 
+ * Progress listeners are notified from the pool threads whenever a task starts or finishes.
+ */
+public class TaskGraph {
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Task interface
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * A single task of the graph.
+     */
+    public interface Task {
+        public void run() throws Exception;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * ProgressListener interface
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Is notified when the progress of a graph changes.
+     */
+    public interface ProgressListener {
+        /* 
+         * Invoked when a task of the graph started or finished.
+         * Is invoked on the thread of the task, so it should be short.
+         * 
+         * @param graph the graph of which the progress changed.
+         */
+        public void progressChanged(TaskGraph graph);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * State enum
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * The states of a task.
+     */
+    public enum State {
+        WAITING, RUNNING, DONE, FAILED;
+        
+        /* 
+         * @return whether a task in this state has finished.
+         */
+        public boolean isFinished() {
+            return this == DONE || this == FAILED;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Node class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * A task together with it's dependencies.
+     */
+    private static class Node {
+        final private String name;
+        final private Scheduler.Pool pool;
+        final private Task task;
+        final private String[] dependencies;
+        
+        // The tasks that depend on this task.
+        final private List<Node> dependents = new ArrayList<Node>();
+        
+        // The number of dependencies that have not yet finished.
+        private int remaining;
+        
+        // The stage of this task.
+        private int stage;
+        
+        private State state = State.WAITING;
+        
+        private Node(String name, Scheduler.Pool pool, Task task, String[] dependencies) {
+            this.name = name;
+            this.pool = pool;
+            this.task = task;
+            this.dependencies = dependencies;
+        }
+    }
+    
+    
+    // The name of the task group the tasks are executed in.
+    final private String group;
+    
+    // The tasks in the order they were added.
+    final private Map<String, Node> nodes = new LinkedHashMap<String, Node>();
+    
+    // The listeners of the progress.
+    final private List<ProgressListener> listeners = new CopyOnWriteArrayList<ProgressListener>();
+    
+    // Whether the graph was started.
+    private boolean started = false;
+    
+    // The number of finished tasks.
+    private int numFinished = 0;
+    
+    // The time the graph was started (in ns).
+    private long startTime;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param group the name of the task group the tasks are executed in.
+     */
+    public TaskGraph(String group) {
+        this.group = group;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Adds a task to the graph. The dependencies don't have to be added yet.
+     * 
+     * @param name the name of the task.
+     * @param pool the pool to execute the task on.
+     * @param task the task.
+     * @param dependencies the names of the tasks that must have finished before this task is started.
+     * @return this graph.
+     * 
+     * @throws IllegalArgumentException iff a task with the same name was already added.
+     * @throws IllegalStateException iff the graph was already started.
+     */
+    public synchronized TaskGraph add(String name, Scheduler.Pool pool, Task task, String... dependencies)
+        throws IllegalArgumentException, IllegalStateException {
+        if (task == null) throw new NullPointerException("No task was given!");
+        if (started) throw new IllegalStateException("The graph was already started!");
+        if (nodes.containsKey(name)) throw new IllegalArgumentException("Task already exists: \"" + name + "\"");
+        
+        nodes.put(name, new Node(name, pool, task, dependencies));
+        return this;
+    }
+    
+    /* 
+     * Starts executing the tasks.
+     * 
+     * @throws IllegalArgumentException iff a task depends on an unknown task, or if the
+     *     dependencies contain a cycle.
+     * @throws IllegalStateException iff the graph was already started.
+     */
+    public void start() throws IllegalArgumentException, IllegalStateException {
+        List<Node> ready = new ArrayList<Node>();
+        boolean empty;
+        synchronized(this) {
+            if (started) throw new IllegalStateException("The graph was already started!");
+            
+            for (Node node : nodes.values()) {
+                for (String depName : node.dependencies) {
+                    Node dep = nodes.get(depName);
+                    if (dep == null) {
+                        throw new IllegalArgumentException("Task \"" + node.name
+                                                               + "\" depends on unknown task \"" + depName + "\"");
+                    }
+                    
+                    dep.dependents.add(node);
+                }
+                
+                node.remaining = node.dependencies.length;
+            }
+            
+            int numStages = assignStages();
+            Log2.write("Started task graph \"" + group + "\" with " + nodes.size() + " tasks in "
+                           + numStages + " stages.", Log2.INFO);
+                           
+            started = true;
+            empty = nodes.isEmpty();
+            startTime = System.nanoTime();
+            for (Node node : nodes.values()) {
+                if (node.remaining == 0) ready.add(node);
+            }
+        }
+        
+        for (Node node : ready) {
+            submit(node);
+        }
+        
+        if (empty) notifyListeners();
+    }
+    
+    /* 
+     * Assigns the stages to the tasks, by removing the tasks without remaining
+     * dependencies from the graph until it is empty.
+     * 
+     * @return the number of stages.
+     * @throws IllegalArgumentException iff the dependencies contain a cycle.
+     */
+    private int assignStages() throws IllegalArgumentException {
+        Map<Node, Integer> remaining = new LinkedHashMap<Node, Integer>();
+        List<Node> stage = new ArrayList<Node>();
+        for (Node node : nodes.values()) {
+            remaining.put(node, node.dependencies.length);
+            if (node.dependencies.length == 0) stage.add(node);
+        }
+        
+        int numStages = 0;
+        int numAssigned = 0;
+        while (!stage.isEmpty()) {
+            List<Node> next = new ArrayList<Node>();
+            for (Node node : stage) {
+                node.stage = numStages;
+                numAssigned++;
+                
+                for (Node dependent : node.dependents) {
+                    int left = remaining.get(dependent) - 1;
+                    remaining.put(dependent, left);
+                    if (left == 0) next.add(dependent);
+                }
+            }
+            
+            stage = next;
+            numStages++;
+        }
+        
+        if (numAssigned != nodes.size()) {
+            List<String> cycle = new ArrayList<String>();
+            for (Map.Entry<Node, Integer> entry : remaining.entrySet()) {
+                if (entry.getValue() > 0) cycle.add(entry.getKey().name);
+            }
+            
+            throw new IllegalArgumentException("The dependencies of the tasks " + cycle + " contain a cycle.");
+        }
+        
+        return numStages;
+    }
+    
+    /* 
+     * Submits the given task to it's pool.
+     * 
+     * @param node the task to submit.
+     */
+    private void submit(Node node) {
+        Scheduler.execute(group, node.pool, () -> run(node));
+    }
+    
+    /* 
+     * Runs the given task, and submits the tasks that depend on it and have no
+     * remaining dependencies afterwards.
+     * 
+     * @param node the task to run.
+     */
+    private void run(Node node) {
+        synchronized(this) {
+            node.state = State.RUNNING;
+        }
+        
+        notifyListeners();
+        
+        long start = System.nanoTime();
+        State result = State.DONE;
+        try {
+            node.task.run();
+            
+        } catch (Throwable e) {
+            // Errors are caught as well (e.g. a failing static initializer), since otherwise
+            // the task never finishes and it's dependents are never run.
+            Log2.write(new Object[] {"Task \"" + node.name + "\" of task graph \"" + group + "\" failed:", e},
+                       Log2.ERROR);
+            result = State.FAILED;
+        }
+        
+        Log2.write("Finished task \"" + node.name + "\" (stage " + node.stage + ") in "
+                       + (System.nanoTime() - start) / 1_000_000L + " ms.", Log2.INFO);
+                       
+        List<Node> ready = new ArrayList<Node>();
+        synchronized(this) {
+            node.state = result;
+            numFinished++;
+            for (Node dependent : node.dependents) {
+                if (--dependent.remaining == 0) ready.add(dependent);
+            }
+            
+            if (numFinished == nodes.size()) {
+                Log2.write("Finished task graph \"" + group + "\" in "
+                               + (System.nanoTime() - startTime) / 1_000_000L + " ms.", Log2.INFO);
+            }
+            
+            notifyAll();
+        }
+        
+        for (Node dependent : ready) {
+            submit(dependent);
+        }
+        
+        notifyListeners();
+    }
+    
+    /* 
+     * Notifies all listeners that the progress changed.
+     */
+    private void notifyListeners() {
+        for (ProgressListener listener : listeners) {
+            listener.progressChanged(this);
+        }
+    }
+    
+    /* 
+     * Waits until the given task has finished.
+     * Should not be invoked on the event dispatch thread.
+     * 
+     * @param name the name of the task.
+     * @throws InterruptedException iff the thread was interrupted while waiting.
+     * @throws IllegalArgumentException iff the task doesn't exist.
+     */
+    public synchronized void await(String name) throws InterruptedException, IllegalArgumentException {
+        Node node = getNode(name);
+        while (!node.state.isFinished()) {
+            wait();
+        }
+    }
+    
+    /* 
+     * Waits until all tasks have finished.
+     * Should not be invoked on the event dispatch thread.
+     * 
+     * @throws InterruptedException iff the thread was interrupted while waiting.
+     */
+    public synchronized void await() throws InterruptedException {
+        while (numFinished < nodes.size()) {
+            wait();
+        }
+    }
+    
+    /* 
+     * @param listener the listener to add.
+     */
+    public void addListener(ProgressListener listener) {
+        listeners.add(listener);
+    }
+    
+    /* 
+     * @param listener the listener to remove.
+     */
+    public void removeListener(ProgressListener listener) {
+        listeners.remove(listener);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param name the name of the task.
+     * @return the task with the given name.
+     * @throws IllegalArgumentException iff the task doesn't exist.
+     */
+    private Node getNode(String name) throws IllegalArgumentException {
+        Node node = nodes.get(name);
+        if (node == null) throw new IllegalArgumentException("Unknown task: \"" + name + "\"");
+        return node;
+    }
+    
+    /* 
+     * @param name the name of the task.
+     * @return the state of the task.
+     * @throws IllegalArgumentException iff the task doesn't exist.
+     */
+    public synchronized State getState(String name) throws IllegalArgumentException {
+        return getNode(name).state;
+    }
+    
+    /* 
+     * @param name the name of the task.
+     * @return whether the task has finished, either successfully or not.
+     * @throws IllegalArgumentException iff the task doesn't exist.
+     */
+    public synchronized boolean isFinished(String name) throws IllegalArgumentException {
+        return getNode(name).state.isFinished();
+    }
+    
+    /* 
+     * @return whether all tasks have finished.
+     */
+    public synchronized boolean isFinished() {
+        return started && numFinished == nodes.size();
+    }
+    
+    /* 
+     * @return the names of the tasks that are currently running.
+     */
+    public synchronized List<String> getRunning() {
+        List<String> running = new ArrayList<String>();
+        for (Node node : nodes.values()) {
+            if (node.state == State.RUNNING) running.add(node.name);
+        }
+        
+        return running;
+    }
+    
+    /* 
+     * @return the number of finished tasks.
+     */
+    public synchronized int getNumFinished() {
+        return numFinished;
+    }
+    
+    /* 
+     * @return the number of tasks.
+     */
+    public synchronized int getNumTasks() {
+        return nodes.size();
+    }
+    
+    /* 
+     * @return the name of the task group the tasks are executed in.
+     */
+    public String getGroup() {
+        return group;
+    }
+    
+}
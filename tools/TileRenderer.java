@@ -0,0 +1,241 @@
+package learningGame.tools;
+
+
+// Java packages
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/* 
+ * Software renderer which paints a frame in parallel.
+ * The painted region is split into square screen tiles, which are rasterized in parallel
+ * on the common ForkJoin pool into a shared framebuffer. The framebuffer is an image
+ * backed by a single {@code int[]}, and is copied to the target in a single blit.
+ * 
+ * The painter is first asked to prepare the frame for the tiles on the calling thread
+ * (e.g. to sort the entities into a bin per tile), after which each tile is painted with
+ * it's own graphics object that is clipped to the tile. The painter must therefore
+ * be able to paint different tiles concurrently.
+ * 
+ * The frame is rasterized without the transform of the target, so on scaled screens
+ * it is scaled during the blit.
+ * The framebuffer is available to the painter via the {@code PixelBlitter.KEY_TARGET}
+ * rendering hint, so sprites can be blitted directly into it's pixels.
+ */
+public class TileRenderer {
+    // Whether tile rendering is used by default.
+    final public static boolean ENABLED = Boolean.getBoolean("learningGame.tileRendering");
+    
+    // The default width and height of the tiles.
+    final public static int DEFAULT_TILE_SIZE = 128;
+    
+    // The width and height of the tiles.
+    final private int tileSize;
+    
+    // The pool the tiles are painted on.
+    final private ForkJoinPool pool;
+    
+    // The framebuffer.
+    private PixelBlitter.Target frame;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * TilePainter interface
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Paints the contents of the tiles.
+     */
+    public interface TilePainter {
+        /* 
+         * Invoked once per frame on the calling thread, before the tiles are painted.
+         * 
+         * @param tiles the areas of the tiles that are painted this frame.
+         */
+        default public void prepare(Rectangle[] tiles) { }
+        
+        /* 
+         * Paints a single tile. Can be invoked concurrently for different tiles.
+         * 
+         * @param g2d the graphics object to draw on, clipped to the tile.
+         * @param tile the index of the tile in the array given to {@code prepare}.
+         */
+        public void paintTile(Graphics2D g2d, int tile);
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * TileTask class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Paints a range of tiles, and splits itself until a single tile is left.
+     */
+    private class TileTask extends RecursiveAction {
+        final private static long serialVersionUID = 1L;
+        
+        final private PixelBlitter.Target frame;
+        final private Rectangle[] tiles;
+        final private TilePainter painter;
+        final private RenderingHints hints;
+        final private int start;
+        final private int end;
+        
+        private TileTask(PixelBlitter.Target frame, Rectangle[] tiles, TilePainter painter,
+                         RenderingHints hints, int start, int end) {
+            this.frame = frame;
+            this.tiles = tiles;
+            this.painter = painter;
+            this.hints = hints;
+            this.start = start;
+            this.end = end;
+        }
+        
+        @Override
+        protected void compute() {
+            if (end - start <= 1) {
+                paintTile(frame, tiles[start], painter, hints, start);
+                
+            } else {
+                int mid = (start + end) >>> 1;
+                invokeAll(new TileTask(frame, tiles, painter, hints, start, mid),
+                          new TileTask(frame, tiles, painter, hints, mid, end));
+            }
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructors
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public TileRenderer() {
+        this(DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+    }
+    
+    /* 
+     * @param tileSize the width and height of the tiles.
+     * @param pool the pool to paint the tiles on.
+     */
+    public TileRenderer(int tileSize, ForkJoinPool pool) {
+        if (tileSize <= 0) throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        this.tileSize = tileSize;
+        this.pool = pool;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Paints the part of the frame within the clip of the target in parallel,
+     * and copies it to the target.
+     * 
+     * @param target the graphics object to draw the frame on.
+     * @param width the width of the frame.
+     * @param height the height of the frame.
+     * @param painter the painter of the tiles.
+     */
+    public void render(Graphics2D target, int width, int height, TilePainter painter) {
+        Rectangle region = new Rectangle(0, 0, width, height);
+        Rectangle clip = target.getClipBounds();
+        if (clip != null) region = region.intersection(clip);
+        if (region.isEmpty()) return;
+        
+        PixelBlitter.Target fb = getFrame(width, height);
+        
+        // Split the region along the tile grid, so the tiles stay the same between frames.
+        List<Rectangle> list = new ArrayList<Rectangle>();
+        int x1 = region.x / tileSize * tileSize;
+        int y1 = region.y / tileSize * tileSize;
+        for (int y = y1; y < region.y + region.height; y += tileSize) {
+            for (int x = x1; x < region.x + region.width; x += tileSize) {
+                list.add(region.intersection(new Rectangle(x, y, tileSize, tileSize)));
+            }
+        }
+        
+        Rectangle[] tiles = list.toArray(new Rectangle[list.size()]);
+        painter.prepare(tiles);
+        
+        RenderingHints hints = (RenderingHints) target.getRenderingHints().clone();
+        if (tiles.length == 1 || pool.getParallelism() <= 1) {
+            for (int i = 0; i < tiles.length; i++) {
+                paintTile(fb, tiles[i], painter, hints, i);
+            }
+            
+        } else {
+            pool.invoke(new TileTask(fb, tiles, painter, hints, 0, tiles.length));
+        }
+        
+        int x2 = region.x + region.width;
+        int y2 = region.y + region.height;
+        target.drawImage(fb.getImage(), region.x, region.y, x2, y2, region.x, region.y, x2, y2, null);
+    }
+    
+    /* 
+     * Paints a single tile on the framebuffer.
+     * 
+     * @param frame the framebuffer.
+     * @param tile the area of the tile.
+     * @param painter the painter of the tiles.
+     * @param hints the rendering hints of the target.
+     * @param i the index of the tile.
+     */
+    private static void paintTile(PixelBlitter.Target frame, Rectangle tile, TilePainter painter,
+                                  RenderingHints hints, int i) {
+        Graphics2D g2d = frame.getImage().createGraphics();
+        try {
+            g2d.setRenderingHints(hints);
+            g2d.setRenderingHint(PixelBlitter.KEY_TARGET, frame);
+            g2d.clip(tile);
+            painter.paintTile(g2d, i);
+            
+        } finally {
+            g2d.dispose();
+        }
+    }
+    
+    /* 
+     * @return the framebuffer with the given size. A new framebuffer is created
+     *     if the size changed.
+     */
+    private PixelBlitter.Target getFrame(int width, int height) {
+        if (frame == null || frame.getImage().getWidth() != width || frame.getImage().getHeight() != height) {
+            frame = new PixelBlitter.Target(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+        }
+        
+        return frame;
+    }
+    
+    /* 
+     * Releases the framebuffer. It is created again when the next frame is rendered.
+     */
+    public void dispose() {
+        frame = null;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+    
+    /* 
+     * @return the pool the tiles are painted on.
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+    
+}
@@ -10,13 +10,18 @@ package learningGame.tools;
 
 
 // Java packages
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
 
 
+/* 
+ * Timer which executes tasks with a fixed interval, and can be paused and resumed.
+ * The tasks are timed by the shared Scheduler, so no thread is created per timer.
+ */
 public class TimerTool {
-    private Timer timer; // The current timer object.
+    // The task group of all timers.
+    final public static String TASK_GROUP = "TimerTool";
+    
+    private ScheduledFuture<?> timer; // The currently scheduled execution of the tasks.
     final private Runnable[] tasks; // The tasks to be executed.
     private Long delay; // The initial delay
     private long interval; // The timerinterval
@@ -49,9 +54,6 @@ public class TimerTool {
         this.delay = delay;
         this.interval = interval;
         
-        // Create new timer.
-        timer = new Timer(true);
-        
         // Checks if the delay is not equal to 'null'.
         // If so, set the initial delay to '0'
         if (delay == null) {
@@ -69,27 +71,24 @@ public class TimerTool {
      * --------------------------------------------------------------------------------------------------------
      */
     /* 
-     * Create a new timer task from the given runnable.
-     * Also updates the start time and the pause time.
+     * Schedules the tasks at the shared Scheduler.
+     * Each execution also updates the start time and the pause time.
      * 
-     * @param rs the tasks to be executed. Is allowed to be null, but this is not effective.
+     * @param startDelay the delay in ms before the first execution.
      */
-    private TimerTask createTimerTask(Runnable... rs) {
-        return new TimerTask() {
-            @Override
-            public void run() {
-                // Update the timestamps
-                startTime = System.currentTimeMillis();
-                pauseTime = System.currentTimeMillis();
-                
-                // Run the function(s)
-                if (rs != null) {
-                    for (Runnable r : rs) {
-                        r.run();
-                    }
+    private void scheduleTasks(long startDelay) {
+        timer = Scheduler.scheduleAtFixedRate(TASK_GROUP, () -> {
+            // Update the timestamps
+            startTime = System.currentTimeMillis();
+            pauseTime = System.currentTimeMillis();
+            
+            // Run the function(s)
+            if (tasks != null) {
+                for (Runnable r : tasks) {
+                    r.run();
                 }
             }
-        };
+        }, startDelay, interval);
     }
     
     /* 
@@ -98,17 +97,14 @@ public class TimerTool {
      */
     public void start() {
         if (timerState == TimerState.RUNNING) {
-            timer.cancel();
-            timer.purge();
+            timer.cancel(false);
         }
         
         // Update the timestamps
         startTime = System.currentTimeMillis();
         pauseTime = System.currentTimeMillis();
         
-        timer = new Timer(true);
-        
-        timer.scheduleAtFixedRate(createTimerTask(tasks), delay, interval);
+        scheduleTasks(delay);
         
         // Update the timeState
         timerState = TimerState.RUNNING;
@@ -121,8 +117,7 @@ public class TimerTool {
     public void pause() {
         if (timerState == TimerState.PAUSED || timerState == TimerState.CANCELED) return;
         
-        timer.cancel();
-        timer.purge();
+        timer.cancel(false);
         
         // Set the pause time stamp
         pauseTime = System.currentTimeMillis();
@@ -148,9 +143,7 @@ public class TimerTool {
         // Update the start time stamp.
         startTime = System.currentTimeMillis() - timeBeforeRun;
         
-        timer = new Timer(true);
-        
-        timer.scheduleAtFixedRate(createTimerTask(tasks), startDelay, interval);
+        scheduleTasks(startDelay);
         
         // Update the timeState
         timerState = TimerState.RUNNING;
@@ -162,8 +155,7 @@ public class TimerTool {
     public void cancel() {
         // Kill the current timer.
         if (timerState == TimerState.RUNNING) {
-            timer.cancel();
-            timer.purge();
+            timer.cancel(false);
         }
         
         // Update the timeState
@@ -187,8 +179,7 @@ public class TimerTool {
         
         // If the timer is running, kill it.
         if (timerState == TimerState.RUNNING) {
-            timer.cancel();
-            timer.purge();
+            timer.cancel(false);
             
             // Calculate the initial delay.
             long timeBeforeRun = interval - (curTime - startTime);
@@ -200,8 +191,7 @@ public class TimerTool {
             }
             
             // Start a new timer
-            timer = new Timer(true);
-            timer.scheduleAtFixedRate(createTimerTask(tasks), startDelay, interval);
+            scheduleTasks(startDelay);
         }
     }
     
@@ -0,0 +1,387 @@
+package learningGame.tools.scene;
+
+
+// Own packages
+import learningGame.tools.PixelBlitter;
+import learningGame.tools.ScaledSpriteCache;
+
+
+// Java packages
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+
+/* 
+ * A single entity of a scene graph, such as a sprite.
+ * A node has bounds in the coordinates of the component that renders the scene,
+ * a rotation around it's center and a z-layer. Nodes with a higher z-layer are drawn
+ * on top of nodes with a lower z-layer. Nodes with the same z-layer are drawn in the
+ * order in which they were added.
+ * 
+ * Nodes are lightweight: they are no components, and are all drawn and hit-tested by
+ * the {@code SceneGraph} they belong to.
+ * Changing the bounds, rotation, z-layer or visibility of a node damages both the old and
+ * the new area of the node in the graph. A node whose contents change otherwise (e.g. the
+ * animation frame) must invoke {@code repaint()}.
+ * 
+ * The nodes are changed by the game loop while they are painted by other threads, so the
+ * state of a node is kept in volatile fields. The bounds, rotation and paint margin are
+ * replaced together as a single {@code Geometry}, so a painter always sees a consistent set.
+ * Changes are synchronized on the node.
+ */
+abstract public class Node {
+    // The bounds, rotation and paint margin of the node.
+    private volatile Geometry geometry = new Geometry(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+    
+    // The z-layer of the node.
+    private volatile int z = 0;
+    
+    // Whether the node is drawn and whether it can be hit by the mouse.
+    private volatile boolean visible = true;
+    private volatile boolean pickable = true;
+    
+    // The handler of the mouse events on this node.
+    private volatile MouseHandler mouseHandler;
+    
+    // The scene graph this node belongs to and the order in which it was added.
+    volatile SceneGraph graph;
+    long order;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Geometry class
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * The bounds of a node, the rotation (in radians) around it's center, and the number of
+     * pixels the node might paint outside it's bounds. Is immutable.
+     */
+    private static class Geometry {
+        final private double x;
+        final private double y;
+        final private double width;
+        final private double height;
+        final private double rotation;
+        final private double paintMargin;
+        
+        private Geometry(double x, double y, double width, double height,
+                         double rotation, double paintMargin) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.rotation = rotation;
+            this.paintMargin = paintMargin;
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * MouseHandler interface
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Interface for receiving the mouse events of a node.
+     * The events are routed to the top most pickable node under the mouse.
+     * The coordinates of the events are those of the component that renders the scene.
+     */
+    public interface MouseHandler {
+        default public void mousePressed(Node node, MouseEvent e) { }
+        default public void mouseReleased(Node node, MouseEvent e) { }
+        default public void mouseEntered(Node node, MouseEvent e) { }
+        default public void mouseExited(Node node, MouseEvent e) { }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Paints this node. The graphics object is translated to the upper left corner
+     * of the node and rotated, after which {@code paintNode(Graphics2D)} is invoked.
+     * 
+     * @param g2d the graphics object to draw on.
+     */
+    final void paint(Graphics2D g2d) {
+        Geometry geo = geometry;
+        if (!visible || geo.width <= 0 || geo.height <= 0) return;
+        
+        AffineTransform g2dTrans = g2d.getTransform();
+        g2d.translate(geo.x, geo.y);
+        if (geo.rotation != 0.0) g2d.rotate(geo.rotation, geo.width / 2, geo.height / 2);
+        
+        paintNode(g2d);
+        
+        g2d.setTransform(g2dTrans);
+    }
+    
+    /* 
+     * @param px the x coordinate of the point.
+     * @param py the y coordinate of the point.
+     * @return whether the given point lies within this node.
+     */
+    public boolean contains(double px, double py) {
+        Geometry geo = geometry;
+        double lx = px - geo.x;
+        double ly = py - geo.y;
+        
+        if (geo.rotation != 0.0) {
+            // Rotate the point back around the center of the node.
+            double cx = lx - geo.width / 2;
+            double cy = ly - geo.height / 2;
+            double cos = Math.cos(-geo.rotation);
+            double sin = Math.sin(-geo.rotation);
+            lx = cx * cos - cy * sin + geo.width / 2;
+            ly = cx * sin + cy * cos + geo.height / 2;
+        }
+        
+        return lx >= 0 && ly >= 0 && lx < geo.width && ly < geo.height;
+    }
+    
+    /* 
+     * @return the area that might be painted by this node, in the coordinates of the
+     *     component that renders the scene.
+     */
+    public Rectangle getPaintBounds() {
+        Geometry geo = geometry;
+        double margin = geo.paintMargin + 1.0;
+        if (geo.rotation != 0.0) {
+            // Use the circle around the node for rotated nodes.
+            margin += (Math.sqrt(geo.width * geo.width + geo.height * geo.height)
+                           - Math.min(geo.width, geo.height)) / 2;
+        }
+        
+        int x1 = (int) Math.floor(geo.x - margin);
+        int y1 = (int) Math.floor(geo.y - margin);
+        int x2 = (int) Math.ceil(geo.x + geo.width + margin);
+        int y2 = (int) Math.ceil(geo.y + geo.height + margin);
+        return new Rectangle(x1, y1, x2 - x1, y2 - y1);
+    }
+    
+    /* 
+     * Marks the area of this node as damaged, so it is painted again in the next frame.
+     * Should be invoked when the contents of the node change.
+     */
+    public void repaint() {
+        SceneGraph g = graph;
+        if (g != null && visible) g.damage(getPaintBounds());
+    }
+    
+    /* 
+     * @param cx the x coordinate of the area.
+     * @param cy the y coordinate of the area.
+     * @param cw the width of the area.
+     * @param ch the height of the area.
+     * @return whether this node might be visible in the given area.
+     */
+    boolean intersects(double cx, double cy, double cw, double ch) {
+        Geometry geo = geometry;
+        double margin = geo.paintMargin;
+        if (geo.rotation != 0.0) {
+            // Use the circle around the node for rotated nodes.
+            margin = (Math.sqrt(geo.width * geo.width + geo.height * geo.height)
+                          - Math.min(geo.width, geo.height)) / 2;
+        }
+        
+        return geo.x - margin < cx + cw && geo.x + geo.width + margin > cx &&
+               geo.y - margin < cy + ch && geo.y + geo.height + margin > cy;
+    }
+    
+    /* 
+     * Draws the given image stretched over the bounds of this node.
+     * Uses the pre-scaled image if the graph of this node has a sprite cache.
+     * 
+     * @param g2d the graphics object to draw on, in the coordinates of this node.
+     * @param img the image to draw. Nothing is drawn if null.
+     */
+    protected void drawImage(Graphics2D g2d, BufferedImage img) {
+        Geometry geo = geometry;
+        drawImage(g2d, img, 0, 0, (int) Math.round(geo.width), (int) Math.round(geo.height));
+    }
+    
+    /* 
+     * Draws the given image with the given bounds.
+     * The image is blitted directly if the graphics object draws on a framebuffer
+     * (see {@code PixelBlitter}). Otherwise uses the pre-scaled image if the graph of
+     * this node has a sprite cache.
+     * 
+     * @param g2d the graphics object to draw on, in the coordinates of this node.
+     * @param img the image to draw. Nothing is drawn if null.
+     * @param x the x coordinate to draw at.
+     * @param y the y coordinate to draw at.
+     * @param w the width to draw the image with.
+     * @param h the height to draw the image with.
+     */
+    protected void drawImage(Graphics2D g2d, BufferedImage img, int x, int y, int w, int h) {
+        if (img == null || PixelBlitter.draw(g2d, img, x, y, w, h)) return;
+        
+        SceneGraph g = graph;
+        ScaledSpriteCache cache = (g == null ? null : g.getSpriteCache());
+        if (cache != null) {
+            cache.draw(g2d, img, x, y, w, h);
+            
+        } else {
+            g2d.drawImage(img, x, y, w, h, null);
+        }
+    }
+    
+    /* 
+     * Paints the contents of this node.
+     * The upper left corner of the node is at (0, 0), and the lower right corner
+     * at ({@code getWidth()}, {@code getHeight()}).
+     * 
+     * @param g2d the graphics object to draw on.
+     */
+    abstract protected void paintNode(Graphics2D g2d);
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public void setBounds(double x, double y, double width, double height) {
+        applyBounds(x, y, width, height);
+    }
+    
+    public synchronized void setLocation(double x, double y) {
+        Geometry geo = geometry;
+        applyBounds(x, y, geo.width, geo.height);
+    }
+    
+    public synchronized void setSize(double width, double height) {
+        Geometry geo = geometry;
+        applyBounds(geo.x, geo.y, width, height);
+    }
+    
+    /* 
+     * Sets the bounds of this node and damages the old and new area if they changed.
+     */
+    private synchronized void applyBounds(double x, double y, double width, double height) {
+        Geometry geo = geometry;
+        if (geo.x == x && geo.y == y && geo.width == width && geo.height == height) return;
+        
+        repaint();
+        geometry = new Geometry(x, y, width, height, geo.rotation, geo.paintMargin);
+        repaint();
+    }
+    
+    public void setSize(Dimension dim) {
+        setSize(dim.getWidth(), dim.getHeight());
+    }
+    
+    /* 
+     * @param rotation the rotation in radians around the center of the node.
+     */
+    public synchronized void setRotation(double rotation) {
+        Geometry geo = geometry;
+        if (geo.rotation == rotation) return;
+        
+        repaint();
+        geometry = new Geometry(geo.x, geo.y, geo.width, geo.height, rotation, geo.paintMargin);
+        repaint();
+    }
+    
+    /* 
+     * @param z the new z-layer of the node. Nodes with a higher z-layer are drawn on top.
+     */
+    public synchronized void setZ(int z) {
+        if (this.z == z) return;
+        this.z = z;
+        
+        SceneGraph g = graph;
+        if (g != null) g.invalidateOrder();
+        repaint();
+    }
+    
+    public synchronized void setVisible(boolean visible) {
+        if (this.visible == visible) return;
+        
+        repaint();
+        this.visible = visible;
+        repaint();
+    }
+    
+    /* 
+     * @param paintMargin the number of pixels the node might paint outside it's bounds.
+     */
+    public synchronized void setPaintMargin(double paintMargin) {
+        Geometry geo = geometry;
+        if (geo.paintMargin == paintMargin) return;
+        
+        repaint();
+        geometry = new Geometry(geo.x, geo.y, geo.width, geo.height, geo.rotation, paintMargin);
+        repaint();
+    }
+    
+    /* 
+     * @param pickable whether the node can be hit by the mouse.
+     */
+    public void setPickable(boolean pickable) {
+        this.pickable = pickable;
+    }
+    
+    /* 
+     * @param mouseHandler the handler of the mouse events on this node. Is allowed to be null.
+     */
+    public void setMouseHandler(MouseHandler mouseHandler) {
+        this.mouseHandler = mouseHandler;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public double getX() {
+        return geometry.x;
+    }
+    
+    public double getY() {
+        return geometry.y;
+    }
+    
+    public double getWidth() {
+        return geometry.width;
+    }
+    
+    public double getHeight() {
+        return geometry.height;
+    }
+    
+    public double getRotation() {
+        return geometry.rotation;
+    }
+    
+    public int getZ() {
+        return z;
+    }
+    
+    public double getPaintMargin() {
+        return geometry.paintMargin;
+    }
+    
+    public boolean isVisible() {
+        return visible;
+    }
+    
+    public boolean isPickable() {
+        return pickable;
+    }
+    
+    public MouseHandler getMouseHandler() {
+        return mouseHandler;
+    }
+    
+    /* 
+     * @return the scene graph this node belongs to, or null if it doesn't belong to any.
+     */
+    public SceneGraph getSceneGraph() {
+        return graph;
+    }
+    
+}
@@ -0,0 +1,373 @@
+package learningGame.tools.scene;
+
+
+// Own packages
+import learningGame.tools.ScaledSpriteCache;
+
+
+// Java packages
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+
+/* 
+ * Retained scene graph which is drawn and hit-tested by a single component.
+ * Replaces a component per sprite, which scales poorly because of the component tree,
+ * the z-order handling and the clipping per component of Swing.
+ * 
+ * Nodes are kept in a single list which is only sorted again after a node was added or
+ * it's z-layer changed. Removed nodes are marked and compacted in the next frame, so adding
+ * and removing nodes is cheap even for scenes with thousands of nodes.
+ * Only the nodes that intersect the clip of the graphics object are painted.
+ * 
+ * The graph keeps track of the area that changed since the previous frame (the damaged area),
+ * so the component only has to repaint that area. See {@code takeDamage()}.
+ * 
+ * The mouse events of the component can be routed through the graph via {@code getMouseRouter()}.
+ * The nodes may be changed from any thread. Painting, picking and changing the set of nodes
+ * are synchronized on the graph. The state of the nodes themselves is published through
+ * volatile fields (see {@code Node}), so the bins can also be painted without the lock.
+ */
+public class SceneGraph {
+    // Sorts the nodes on z-layer, and on the order they were added within a layer.
+    final private static Comparator<Node> ORDER = (n1, n2) -> {
+        if (n1.getZ() != n2.getZ()) return Integer.compare(n1.getZ(), n2.getZ());
+        return Long.compare(n1.order, n2.order);
+    };
+    
+    // The nodes in drawing order, possibly including removed nodes.
+    final private List<Node> nodes = new ArrayList<Node>();
+    
+    // The number of nodes that belong to this graph.
+    private int size = 0;
+    
+    // Whether the nodes have to be sorted or compacted.
+    private boolean sorted = true;
+    private boolean compacted = true;
+    
+    // The order number of the next node.
+    private long nextOrder = 0L;
+    
+    // The node that is currently under the mouse.
+    private Node hovered;
+    
+    // The area that changed since the damage was last taken. Null if nothing changed.
+    private Rectangle damage;
+    
+    // The cache used to draw the sprites. Null if the sprites are scaled while drawing.
+    private volatile ScaledSpriteCache spriteCache;
+    
+    // Routes the mouse events of the component to the nodes.
+    final private MouseAdapter mouseRouter = new MouseAdapter() {
+        @Override
+        public void mousePressed(MouseEvent e) {
+            dispatch(e);
+        }
+        
+        @Override
+        public void mouseReleased(MouseEvent e) {
+            dispatch(e);
+        }
+        
+        @Override
+        public void mouseEntered(MouseEvent e) {
+            dispatch(e);
+        }
+        
+        @Override
+        public void mouseExited(MouseEvent e) {
+            dispatch(e);
+        }
+        
+        @Override
+        public void mouseMoved(MouseEvent e) {
+            dispatch(e);
+        }
+        
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            dispatch(e);
+        }
+    };
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * Adds a node to this graph.
+     * No action is taken if the node already belongs to this graph.
+     * 
+     * @param node the node to add.
+     * @throws IllegalStateException iff the node belongs to another graph.
+     */
+    public synchronized void add(Node node) {
+        if (node.graph == this) return;
+        if (node.graph != null) throw new IllegalStateException("The node already belongs to another graph!");
+        
+        // A removed node might still be in the list.
+        if (!compacted) compact();
+        
+        node.graph = this;
+        node.order = nextOrder++;
+        nodes.add(node);
+        size++;
+        sorted = false;
+        node.repaint();
+    }
+    
+    /* 
+     * Removes a node from this graph.
+     * 
+     * @param node the node to remove.
+     * @return true iff the node belonged to this graph.
+     */
+    public synchronized boolean remove(Node node) {
+        if (node == null || node.graph != this) return false;
+        
+        node.repaint();
+        node.graph = null;
+        if (hovered == node) hovered = null;
+        size--;
+        compacted = false;
+        return true;
+    }
+    
+    /* 
+     * Removes all nodes from this graph.
+     */
+    public synchronized void clear() {
+        for (Node node : nodes) {
+            if (node.graph == this) {
+                node.repaint();
+                node.graph = null;
+            }
+        }
+        
+        nodes.clear();
+        size = 0;
+        hovered = null;
+        sorted = true;
+        compacted = true;
+    }
+    
+    /* 
+     * Marks the given area as damaged.
+     * 
+     * @param area the damaged area, in the coordinates of the component that renders the scene.
+     */
+    public synchronized void damage(Rectangle area) {
+        if (area.isEmpty()) return;
+        
+        if (damage == null) {
+            damage = new Rectangle(area);
+            
+        } else {
+            damage.add(area);
+        }
+    }
+    
+    /* 
+     * Returns the area that was damaged since the previous invocation, and resets it.
+     * 
+     * @return the union of the damaged areas, or null if nothing was damaged.
+     */
+    public synchronized Rectangle takeDamage() {
+        Rectangle area = damage;
+        damage = null;
+        return area;
+    }
+    
+    /* 
+     * Marks that the drawing order has to be determined again.
+     */
+    synchronized void invalidateOrder() {
+        sorted = false;
+    }
+    
+    /* 
+     * Removes the removed nodes from the list and sorts the nodes if needed.
+     */
+    private void validate() {
+        if (!compacted) compact();
+        
+        if (!sorted) {
+            nodes.sort(ORDER);
+            sorted = true;
+        }
+    }
+    
+    /* 
+     * Removes the removed nodes from the list.
+     */
+    private void compact() {
+        nodes.removeIf((node) -> node.graph != this);
+        compacted = true;
+    }
+    
+    /* 
+     * Paints all visible nodes that intersect the clip of the graphics object.
+     * 
+     * @param g2d the graphics object to draw on.
+     */
+    public synchronized void paint(Graphics2D g2d) {
+        validate();
+        
+        Rectangle clip = g2d.getClipBounds();
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            if (clip == null || node.intersects(clip.x, clip.y, clip.width, clip.height)) {
+                node.paint(g2d);
+            }
+        }
+    }
+    
+    /* 
+     * Sorts the visible nodes into a bin per area. A node is added to the bin of
+     * each area it might be visible in, and the bins keep the drawing order.
+     * Used to paint several areas in parallel, see {@code paint(Graphics2D, List)}.
+     * 
+     * @param areas the areas to sort the nodes into.
+     * @return the nodes per area, in the same order as the areas.
+     */
+    public synchronized List<List<Node>> bin(Rectangle[] areas) {
+        validate();
+        
+        List<List<Node>> bins = new ArrayList<List<Node>>(areas.length);
+        for (int i = 0; i < areas.length; i++) {
+            bins.add(new ArrayList<Node>());
+        }
+        
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            if (!node.isVisible()) continue;
+            
+            for (int j = 0; j < areas.length; j++) {
+                Rectangle a = areas[j];
+                if (node.intersects(a.x, a.y, a.width, a.height)) bins.get(j).add(node);
+            }
+        }
+        
+        return bins;
+    }
+    
+    /* 
+     * Paints the given nodes in the given order.
+     * Does not lock the graph, so several bins returned by {@code bin(Rectangle[])}
+     * can be painted concurrently.
+     * 
+     * @param g2d the graphics object to draw on.
+     * @param bin the nodes to paint.
+     */
+    public void paint(Graphics2D g2d, List<Node> bin) {
+        for (int i = 0; i < bin.size(); i++) {
+            bin.get(i).paint(g2d);
+        }
+    }
+    
+    /* 
+     * Determines the top most visible and pickable node at the given point.
+     * 
+     * @param x the x coordinate of the point.
+     * @param y the y coordinate of the point.
+     * @return the node at the given point, or null if there is no such node.
+     */
+    public synchronized Node pick(double x, double y) {
+        validate();
+        
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            Node node = nodes.get(i);
+            if (node.isVisible() && node.isPickable() && node.contains(x, y)) return node;
+        }
+        
+        return null;
+    }
+    
+    /* 
+     * Routes the given mouse event to the node under the mouse.
+     * Pressed and released events are forwarded to the node under the mouse.
+     * Moving the mouse from one node to another results in exited and entered events.
+     * 
+     * @param e the mouse event of the component that renders this graph.
+     */
+    public void dispatch(MouseEvent e) {
+        Node target;
+        Node exited = null;
+        Node entered = null;
+        
+        synchronized(this) {
+            target = (e.getID() == MouseEvent.MOUSE_EXITED ? null : pick(e.getX(), e.getY()));
+            
+            if (target != hovered) {
+                exited = hovered;
+                entered = target;
+                hovered = target;
+            }
+        }
+        
+        // Notify the handlers outside the lock, since they might change the graph.
+        if (exited != null && exited.getMouseHandler() != null) {
+            exited.getMouseHandler().mouseExited(exited, e);
+        }
+        
+        if (entered != null && entered.getMouseHandler() != null) {
+            entered.getMouseHandler().mouseEntered(entered, e);
+        }
+        
+        if (target != null && target.getMouseHandler() != null) {
+            if (e.getID() == MouseEvent.MOUSE_PRESSED) {
+                target.getMouseHandler().mousePressed(target, e);
+                
+            } else if (e.getID() == MouseEvent.MOUSE_RELEASED) {
+                target.getMouseHandler().mouseReleased(target, e);
+            }
+        }
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param spriteCache the cache used to draw the sprites of this graph. Is allowed to be null.
+     */
+    public void setSpriteCache(ScaledSpriteCache spriteCache) {
+        this.spriteCache = spriteCache;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the cache used to draw the sprites of this graph, or null if there is none.
+     */
+    public ScaledSpriteCache getSpriteCache() {
+        return spriteCache;
+    }
+    
+    /* 
+     * @return the number of nodes in this graph.
+     */
+    public synchronized int getNumNodes() {
+        return size;
+    }
+    
+    /* 
+     * @return a listener which routes the mouse events of the component to the nodes.
+     *     Should be added both as mouse listener and as mouse motion listener.
+     */
+    public MouseAdapter getMouseRouter() {
+        return mouseRouter;
+    }
+    
+}
@@ -0,0 +1,84 @@
+package learningGame.tools.scene;
+
+
+// Java packages
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+
+/* 
+ * Node which draws an image stretched over it's bounds.
+ * Override {@code getImage()} to select the image (e.g. an animation frame) when the
+ * node is drawn.
+ */
+public class SpriteNode extends Node {
+    // The image to draw. Is volatile since the node is painted by other threads, see {@code Node}.
+    private volatile BufferedImage image;
+    
+    // The image that was drawn last.
+    private volatile BufferedImage drawnImage;
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Constructor
+     * --------------------------------------------------------------------------------------------------------
+     */
+    public SpriteNode() {
+        this(null);
+    }
+    
+    /* 
+     * @param image the image to draw. Is allowed to be null.
+     */
+    public SpriteNode(BufferedImage image) {
+        this.image = image;
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    @Override
+    protected void paintNode(Graphics2D g2d) {
+        drawnImage = getImage();
+        drawImage(g2d, drawnImage);
+    }
+    
+    /* 
+     * Repaints this node if the image returned by {@code getImage()} differs from the
+     * image that was drawn last. Should be invoked on each update by nodes which
+     * override {@code getImage()}.
+     */
+    public void checkImage() {
+        if (getImage() != drawnImage) repaint();
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Set functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @param image the image to draw. Is allowed to be null.
+     */
+    public synchronized void setImage(BufferedImage image) {
+        if (this.image == image) return;
+        
+        this.image = image;
+        repaint();
+    }
+    
+    
+    /* --------------------------------------------------------------------------------------------------------
+     * Get functions
+     * --------------------------------------------------------------------------------------------------------
+     */
+    /* 
+     * @return the image to draw, or null if nothing should be drawn.
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+    
+}